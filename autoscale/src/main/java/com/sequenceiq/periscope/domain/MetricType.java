@@ -19,7 +19,12 @@ public enum MetricType implements Metric {
     THREADPOOL_QUEUE_SIZE("threadpool.queue.size"),
     THREADPOOL_ACTIVE_THREADS("threadpool.threads.active"),
     THREADPOOL_THREADS_TOTAL("threadpool.threads.coresize"),
-    THREADPOOL_TASKS_COMPLETED("threadpool.tasks.completed");
+    THREADPOOL_TASKS_COMPLETED("threadpool.tasks.completed"),
+
+    HTTP_CLIENT_CACHE_HIT("httpclient.cache.hit"),
+    HTTP_CLIENT_CACHE_MISS("httpclient.cache.miss"),
+    HTTP_CLIENT_CACHE_EVICTED("httpclient.cache.evicted"),
+    HTTP_CLIENT_TLS_HANDSHAKE("httpclient.tls.handshake");
 
     private final String metricName;
 
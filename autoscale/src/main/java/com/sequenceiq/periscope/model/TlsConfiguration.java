@@ -1,5 +1,7 @@
 package com.sequenceiq.periscope.model;
 
+import java.util.Objects;
+
 public class TlsConfiguration {
 
     private final String clientKey;
@@ -25,4 +27,23 @@ public class TlsConfiguration {
     public String getServerCert() {
         return serverCert;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TlsConfiguration that = (TlsConfiguration) o;
+        return Objects.equals(clientKey, that.clientKey)
+                && Objects.equals(clientCert, that.clientCert)
+                && Objects.equals(serverCert, that.serverCert);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(clientKey, clientCert, serverCert);
+    }
 }
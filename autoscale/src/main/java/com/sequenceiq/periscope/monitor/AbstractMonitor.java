@@ -1,5 +1,6 @@
 package com.sequenceiq.periscope.monitor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.RejectedExecutionException;
 
@@ -31,6 +32,8 @@ public abstract class AbstractMonitor<M extends Monitored> implements Monitor<M>
         evalContext(context);
         List<M> monitoredData = getMonitored();
         LOGGER.debug("Job started: {}, monitored: {}", context.getJobDetail().getKey(), monitoredData.size());
+        List<M> submittedData = new ArrayList<>(monitoredData.size());
+        long lastEvaluated = System.currentTimeMillis();
         for (M monitored : monitoredData) {
             try {
                 EvaluatorExecutor evaluatorExecutor = getEvaluatorExecutorBean(monitored);
@@ -39,12 +42,15 @@ public abstract class AbstractMonitor<M extends Monitored> implements Monitor<M>
                 executorServiceWithRegistry.submitIfAbsent(evaluatorExecutor, evaluatorContext.getItemId());
                 LOGGER.debug("Successfully submitted {} for cluster {}.", evaluatorExecutor.getName(), evaluatorContext.getData());
                 rejectedThreadService.remove(evaluatorContext.getData());
-                monitored.setLastEvaluated(System.currentTimeMillis());
-                save(monitored);
+                monitored.setLastEvaluated(lastEvaluated);
+                submittedData.add(monitored);
             } catch (RejectedExecutionException ignore) {
                 LOGGER.info("Error in processing monitor: {}", monitored, ignore);
             }
         }
+        if (!submittedData.isEmpty()) {
+            saveAll(submittedData, lastEvaluated);
+        }
     }
 
     void evalContext(JobExecutionContext context) {
@@ -66,6 +72,10 @@ public abstract class AbstractMonitor<M extends Monitored> implements Monitor<M>
 
     protected abstract void save(M monitored);
 
+    protected void saveAll(List<M> monitoredData, long lastEvaluated) {
+        monitoredData.forEach(this::save);
+    }
+
     protected RejectedThreadService getRejectedThreadService() {
         return rejectedThreadService;
     }
@@ -1,12 +1,13 @@
 package com.sequenceiq.periscope.monitor;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.quartz.JobExecutionContext;
 
 import com.sequenceiq.periscope.api.model.ClusterState;
 import com.sequenceiq.periscope.domain.Cluster;
-import com.sequenceiq.periscope.monitor.context.ClusterIdEvaluatorContext;
+import com.sequenceiq.periscope.monitor.context.ClusterEvaluatorContext;
 import com.sequenceiq.periscope.monitor.context.EvaluatorContext;
 import com.sequenceiq.periscope.monitor.evaluator.EvaluatorExecutor;
 import com.sequenceiq.periscope.service.ClusterService;
@@ -36,6 +37,11 @@ public abstract class ClusterMonitor extends AbstractMonitor<Cluster> {
         clusterService.setLastEvaluated(monitored.getId(), monitored.getLastEvaluated());
     }
 
+    @Override
+    protected void saveAll(List<Cluster> monitoredData, long lastEvaluated) {
+        clusterService.setLastEvaluated(monitoredData.stream().map(Cluster::getId).collect(Collectors.toList()), lastEvaluated);
+    }
+
     PeriscopeNodeConfig getPeriscopeNodeConfig() {
         return periscopeNodeConfig;
     }
@@ -50,6 +56,6 @@ public abstract class ClusterMonitor extends AbstractMonitor<Cluster> {
 
     @Override
     public EvaluatorContext getContext(Cluster cluster) {
-        return new ClusterIdEvaluatorContext(cluster.getId());
+        return new ClusterEvaluatorContext(cluster);
     }
 }
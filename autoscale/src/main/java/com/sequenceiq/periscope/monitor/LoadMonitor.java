@@ -34,6 +34,6 @@ public class LoadMonitor extends ClusterMonitor {
     protected List<Cluster> getMonitored() {
         List<Long> clusterIds = getClusterService().findLoadAlertClustersForNode(StackType.WORKLOAD,
                 ClusterState.RUNNING, true, getPeriscopeNodeConfig().getId());
-        return clusterIds.isEmpty() ? List.of() : getClusterService().findClustersByClusterIds(clusterIds);
+        return clusterIds.isEmpty() ? List.of() : getClusterService().findClustersWithAlertsByClusterIds(clusterIds);
     }
 }
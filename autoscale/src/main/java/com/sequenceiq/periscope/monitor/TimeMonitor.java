@@ -32,6 +32,6 @@ public class TimeMonitor extends ClusterMonitor {
     protected List<Cluster> getMonitored() {
         List<Long> clusterIds = getClusterService().findTimeAlertClustersForNode(StackType.WORKLOAD,
                 true, getPeriscopeNodeConfig().getId());
-        return clusterIds.isEmpty() ? List.of() : getClusterService().findClustersByClusterIds(clusterIds);
+        return clusterIds.isEmpty() ? List.of() : getClusterService().findClustersWithAlertsByClusterIds(clusterIds);
     }
 }
@@ -16,7 +16,6 @@ import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
 import com.sequenceiq.cloudbreak.api.endpoint.v4.stacks.response.StackV4Response;
-import com.sequenceiq.cloudbreak.client.RestClientUtil;
 import com.sequenceiq.periscope.aspects.RequestLogging;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.model.InstanceConfig;
@@ -25,6 +24,7 @@ import com.sequenceiq.periscope.model.yarn.YarnScalingServiceV1Request;
 import com.sequenceiq.periscope.model.yarn.YarnScalingServiceV1Request.HostGroupInstanceType;
 import com.sequenceiq.periscope.model.yarn.YarnScalingServiceV1Response;
 import com.sequenceiq.periscope.service.configuration.ClusterProxyConfigurationService;
+import com.sequenceiq.periscope.service.security.TlsHttpClientCache;
 import com.sequenceiq.periscope.service.security.TlsSecurityService;
 
 @Component
@@ -44,6 +44,9 @@ public class YarnMetricsClient {
     @Inject
     private TlsSecurityService tlsSecurityService;
 
+    @Inject
+    private TlsHttpClientCache tlsHttpClientCache;
+
     @Inject
     private ClusterProxyConfigurationService clusterProxyConfigurationService;
 
@@ -61,8 +64,7 @@ public class YarnMetricsClient {
                 .orElseThrow(() -> new RuntimeException(String.format("ClusterProxy Not Configured for Cluster {}, " +
                         " cannot query YARN Metrics.", cluster.getStackCrn())));
 
-        Client restClient = RestClientUtil.createClient(tlsConfig.getServerCert(),
-                tlsConfig.getClientCert(), tlsConfig.getClientKey(), true);
+        Client restClient = tlsHttpClientCache.getYarnClient(cluster.getId(), tlsConfig);
         String yarnApiUrl = String.format(YARN_API_URL, clusterProxyUrl, cluster.getStackCrn());
 
         InstanceConfig instanceConfig = yarnServiceConfigClient.getInstanceConfigFromCM(cluster, stackV4Response, hostGroup);
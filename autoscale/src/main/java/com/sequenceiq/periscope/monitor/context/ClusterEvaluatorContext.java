@@ -0,0 +1,17 @@
+package com.sequenceiq.periscope.monitor.context;
+
+import com.sequenceiq.periscope.domain.Cluster;
+
+public class ClusterEvaluatorContext extends ClusterIdEvaluatorContext {
+
+    private final Cluster cluster;
+
+    public ClusterEvaluatorContext(Cluster cluster) {
+        super(cluster.getId());
+        this.cluster = cluster;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+}
@@ -1,10 +1,12 @@
 package com.sequenceiq.periscope.monitor.evaluator;
 
 import java.time.ZonedDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -26,6 +28,7 @@ import com.sequenceiq.periscope.domain.TimeAlert;
 import com.sequenceiq.periscope.model.yarn.YarnScalingServiceV1Response;
 import com.sequenceiq.periscope.monitor.MonitorUpdateRate;
 import com.sequenceiq.periscope.monitor.client.YarnMetricsClient;
+import com.sequenceiq.periscope.monitor.context.ClusterEvaluatorContext;
 import com.sequenceiq.periscope.monitor.context.ClusterIdEvaluatorContext;
 import com.sequenceiq.periscope.monitor.context.EvaluatorContext;
 import com.sequenceiq.periscope.monitor.evaluator.load.YarnResponseUtils;
@@ -80,9 +83,12 @@ public class CronTimeEvaluator extends EvaluatorExecutor {
 
     private long clusterId;
 
+    private Cluster preloadedCluster;
+
     @Override
     public void setContext(EvaluatorContext context) {
         clusterId = (long) context.getData();
+        preloadedCluster = context instanceof ClusterEvaluatorContext ? ((ClusterEvaluatorContext) context).getCluster() : null;
     }
 
     @Override
@@ -111,9 +117,17 @@ public class CronTimeEvaluator extends EvaluatorExecutor {
     @Override
     public void execute() {
         long start = System.currentTimeMillis();
-        Cluster cluster = clusterService.findById(clusterId);
+        Cluster cluster;
+        List<TimeAlert> alerts;
+        if (preloadedCluster != null) {
+            cluster = preloadedCluster;
+            alerts = cluster.getTimeAlerts().stream().sorted(Comparator.comparing(TimeAlert::getId)).collect(Collectors.toList());
+        } else {
+            cluster = clusterService.findById(clusterId);
+            alerts = alertRepository.findAllByClusterIdOrderById(clusterId);
+        }
         MDCBuilder.buildMdcContext(cluster);
-        publishIfNeeded(alertRepository.findAllByClusterIdOrderById(clusterId));
+        publishIfNeeded(alerts);
         LOGGER.debug("Finished cronTimeEvaluator for cluster {} in {} ms", cluster.getStackCrn(), System.currentTimeMillis() - start);
     }
 
@@ -19,6 +19,7 @@ import com.sequenceiq.periscope.domain.LoadAlert;
 import com.sequenceiq.periscope.domain.LoadAlertConfiguration;
 import com.sequenceiq.periscope.model.yarn.YarnScalingServiceV1Response;
 import com.sequenceiq.periscope.monitor.client.YarnMetricsClient;
+import com.sequenceiq.periscope.monitor.context.ClusterEvaluatorContext;
 import com.sequenceiq.periscope.monitor.context.ClusterIdEvaluatorContext;
 import com.sequenceiq.periscope.monitor.context.EvaluatorContext;
 import com.sequenceiq.periscope.monitor.evaluator.EvaluatorExecutor;
@@ -61,6 +62,8 @@ public class YarnLoadEvaluator extends EvaluatorExecutor {
 
     private long clusterId;
 
+    private Cluster preloadedCluster;
+
     private Cluster cluster;
 
     private LoadAlert loadAlert;
@@ -78,6 +81,7 @@ public class YarnLoadEvaluator extends EvaluatorExecutor {
     @Override
     public void setContext(EvaluatorContext context) {
         clusterId = (long) context.getData();
+        preloadedCluster = context instanceof ClusterEvaluatorContext ? ((ClusterEvaluatorContext) context).getCluster() : null;
     }
 
     @Override
@@ -90,8 +94,8 @@ public class YarnLoadEvaluator extends EvaluatorExecutor {
         long start = System.currentTimeMillis();
         String stackCrn = null;
         try {
+            cluster = preloadedCluster != null ? preloadedCluster : clusterService.findById(clusterId);
             MDCBuilder.buildMdcContext(cluster);
-            cluster = clusterService.findById(clusterId);
             stackCrn = cluster.getStackCrn();
             loadAlert = cluster.getLoadAlerts().stream().findFirst().get();
             loadAlertConfiguration = loadAlert.getLoadAlertConfiguration();
@@ -135,13 +139,23 @@ public class YarnLoadEvaluator extends EvaluatorExecutor {
                 getYarnRecommendedDecommissionHostsForHostGroup(cluster.getStackCrn(), yarnResponse,
                         hostFqdnsToInstanceId, maxAllowedDownScale, mandatoryDownScaleCount);
 
-        if (yarnRecommendedScaleUpCount > 0) {
-            sendScaleUpEvent(existingHostGroupSize, yarnRecommendedScaleUpCount);
-        } else if (!yarnRecommendedDecommissionHosts.isEmpty()) {
-            sendScaleDownEvent(existingHostGroupSize, yarnRecommendedDecommissionHosts);
+        if ((yarnRecommendedScaleUpCount > 0 || !yarnRecommendedDecommissionHosts.isEmpty()) && isCoolDownTimeStillElapsed()) {
+            if (yarnRecommendedScaleUpCount > 0) {
+                sendScaleUpEvent(existingHostGroupSize, yarnRecommendedScaleUpCount);
+            } else {
+                sendScaleDownEvent(existingHostGroupSize, yarnRecommendedDecommissionHosts);
+            }
         }
     }
 
+    /**
+     * The cluster might have been scaled since it was loaded at the start of the round, so the last scaling activity is read again before
+     * scaling it.
+     */
+    private boolean isCoolDownTimeStillElapsed() {
+        return isCoolDownTimeElapsed(cluster.getStackCrn(), loadAlertConfiguration.getCoolDownMillis(), clusterService.findLastScalingActivity(clusterId));
+    }
+
     public void sendScaleUpEvent(Integer existingHostGroupSize, Integer targetScaleUpCount) {
         ScalingEvent scalingEvent = new ScalingEvent(loadAlert);
         scalingEvent.setHostGroupNodeCount(existingHostGroupSize);
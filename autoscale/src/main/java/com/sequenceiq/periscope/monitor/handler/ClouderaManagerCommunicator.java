@@ -15,13 +15,13 @@ import com.cloudera.api.swagger.client.ApiClient;
 import com.cloudera.api.swagger.model.ApiConfig;
 import com.sequenceiq.cloudbreak.client.HttpClientConfig;
 import com.sequenceiq.cloudbreak.cm.DataView;
-import com.sequenceiq.cloudbreak.cm.client.ClouderaManagerApiClientProvider;
 import com.sequenceiq.cloudbreak.cm.client.retry.ClouderaManagerApiFactory;
 import com.sequenceiq.cloudbreak.service.secret.service.SecretService;
 import com.sequenceiq.periscope.aspects.RequestLogging;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.domain.ClusterManager;
 import com.sequenceiq.periscope.service.ClusterService;
+import com.sequenceiq.periscope.service.security.TlsHttpClientCache;
 import com.sequenceiq.periscope.service.security.TlsHttpClientConfigurationService;
 
 @Service
@@ -45,7 +45,7 @@ public class ClouderaManagerCommunicator {
     private ClouderaManagerApiFactory clouderaManagerApiFactory;
 
     @Inject
-    private ClouderaManagerApiClientProvider clouderaManagerApiClientProvider;
+    private TlsHttpClientCache tlsHttpClientCache;
 
     public Map<String, ApiConfig> getRoleConfigPropertiesFromCM(Cluster cluster, String serviceName,
             String roleGroupRef, Set roleConfigPropertyNames) {
@@ -60,7 +60,8 @@ public class ClouderaManagerCommunicator {
 
         Map<String, ApiConfig> roleConfigProperties = requestLogging.logResponseTime(() -> {
             try {
-                ApiClient client = clouderaManagerApiClientProvider.getClient(Integer.valueOf(cm.getPort()), user, pass, httpClientConfig);
+                ApiClient client = tlsHttpClientCache.getClouderaManagerClient(cluster.getId(), Integer.valueOf(cm.getPort()), user, pass,
+                        httpClientConfig);
                 RoleConfigGroupsResourceApi roleConfigGroupsResourceApi = clouderaManagerApiFactory.getRoleConfigGroupsResourceApi(client);
 
                 return roleConfigGroupsResourceApi
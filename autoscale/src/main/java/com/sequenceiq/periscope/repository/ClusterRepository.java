@@ -1,10 +1,12 @@
 package com.sequenceiq.periscope.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import javax.transaction.Transactional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -38,6 +40,10 @@ public interface ClusterRepository extends CrudRepository<Cluster, Long> {
     @Query("SELECT c FROM Cluster c WHERE c.id IN :clusterIds")
     List<Cluster> findClustersByClusterIds(@Param("clusterIds") List<Long> clusterIds);
 
+    @EntityGraph(attributePaths = {"clusterPertain", "clusterManager", "loadAlerts.scalingPolicy", "timeAlerts.scalingPolicy"})
+    @Query("SELECT DISTINCT c FROM Cluster c WHERE c.id IN :clusterIds")
+    List<Cluster> findClustersWithAlertsByClusterIds(@Param("clusterIds") Collection<Long> clusterIds);
+
     @Query("SELECT c FROM Cluster c LEFT JOIN FETCH c.clusterPertain WHERE c.clusterPertain.tenant = :tenant and c.stackType = :stackType")
     List<Cluster> findByTenantAndStackType(@Param("tenant") String tenant, @Param("stackType") StackType stackType);
 
@@ -65,16 +71,29 @@ public interface ClusterRepository extends CrudRepository<Cluster, Long> {
 
     int countByStateAndAutoscalingEnabledAndPeriscopeNodeId(ClusterState state, boolean autoscalingEnabled, String nodeId);
 
-    List<Cluster> findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(List<String> nodes);
+    @EntityGraph(attributePaths = {"clusterPertain", "timeAlerts.scalingPolicy"})
+    @Query("SELECT DISTINCT c FROM Cluster c WHERE c.periscopeNodeId NOT IN :nodes OR c.periscopeNodeId IS NULL")
+    List<Cluster> findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(@Param("nodes") List<String> nodes);
 
     @Modifying
     @Query("UPDATE Cluster c SET c.periscopeNodeId = NULL WHERE c.periscopeNodeId = :periscopeNodeId")
     void deallocateClustersOfNode(@Param("periscopeNodeId") String periscopeNodeId);
 
+    @Modifying
+    @Query("UPDATE Cluster c SET c.periscopeNodeId = :periscopeNodeId WHERE c.id IN :clusterIds")
+    void allocateClustersToNode(@Param("clusterIds") Collection<Long> clusterIds, @Param("periscopeNodeId") String periscopeNodeId);
+
     @Modifying
     @Query("UPDATE Cluster c SET c.lastEvaluated = :lastEvaluated WHERE c.id = :clusterId")
     void setClusterLastEvaluated(@Param("clusterId") Long clusterId, @Param("lastEvaluated") Long lastEvaluated);
 
+    @Modifying
+    @Query("UPDATE Cluster c SET c.lastEvaluated = :lastEvaluated WHERE c.id IN :clusterIds")
+    void setClustersLastEvaluated(@Param("clusterIds") Collection<Long> clusterIds, @Param("lastEvaluated") Long lastEvaluated);
+
+    @Query("SELECT c.lastScalingActivity FROM Cluster c WHERE c.id = :clusterId")
+    Long findLastScalingActivityById(@Param("clusterId") Long clusterId);
+
     @Modifying
     @Query("UPDATE Cluster c SET c.lastScalingActivity = :lastScalingActivity WHERE c.id = :clusterId")
     void setClusterLastScalingActivity(@Param("clusterId") Long clusterId, @Param("lastScalingActivity") Long lastScalingActivity);
@@ -6,10 +6,12 @@ import static com.sequenceiq.periscope.common.MessageCode.CLUSTER_EXISTS_FOR_CRN
 import static com.sequenceiq.periscope.service.NotFoundException.notFound;
 import static org.springframework.util.StringUtils.isEmpty;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import javax.annotation.PostConstruct;
@@ -20,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Iterables;
 import com.sequenceiq.cloudbreak.api.endpoint.v4.common.ClusterManagerVariant;
 import com.sequenceiq.cloudbreak.api.endpoint.v4.common.StackType;
 import com.sequenceiq.cloudbreak.api.endpoint.v4.stacks.response.AutoscaleStackV4Response;
@@ -38,12 +41,15 @@ import com.sequenceiq.periscope.repository.ClusterRepository;
 import com.sequenceiq.periscope.repository.SecurityConfigRepository;
 import com.sequenceiq.periscope.service.ha.PeriscopeNodeConfig;
 import com.sequenceiq.periscope.service.security.SecurityConfigService;
+import com.sequenceiq.periscope.service.security.TlsSecurityService;
 
 @Service
 public class ClusterService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClusterService.class);
 
+    private static final int CLUSTER_ID_BATCH_SIZE = 1000;
+
     @Inject
     private ClusterRepository clusterRepository;
 
@@ -65,6 +71,9 @@ public class ClusterService {
     @Inject
     private SecurityConfigService securityConfigService;
 
+    @Inject
+    private TlsSecurityService tlsSecurityService;
+
     @Inject
     private CloudbreakMessagesService messagesService;
 
@@ -128,6 +137,7 @@ public class ClusterService {
                 sc = securityConfigRepository.save(sc);
                 cluster.setSecurityConfig(sc);
             }
+            tlsSecurityService.evictTls(clusterId);
         }
         cluster = save(cluster);
         calculateClusterStateMetrics();
@@ -164,6 +174,7 @@ public class ClusterService {
         Cluster cluster = findById(clusterId);
         MDCBuilder.buildMdcContext(cluster);
         clusterRepository.delete(cluster);
+        tlsSecurityService.evictTls(clusterId);
         calculateClusterStateMetrics();
     }
 
@@ -205,6 +216,17 @@ public class ClusterService {
         clusterRepository.setClusterLastEvaluated(clusterId, lastEvaluated);
     }
 
+    public void setLastEvaluated(Collection<Long> clusterIds, Long lastEvaluated) {
+        for (List<Long> clusterIdBatch : Iterables.partition(clusterIds, CLUSTER_ID_BATCH_SIZE)) {
+            clusterRepository.setClustersLastEvaluated(clusterIdBatch, lastEvaluated);
+        }
+    }
+
+    public long findLastScalingActivity(Long clusterId) {
+        Long lastScalingActivity = clusterRepository.findLastScalingActivityById(clusterId);
+        return lastScalingActivity == null ? 0L : lastScalingActivity;
+    }
+
     public void setLastScalingActivity(Long clusterId, Long lastScalingActivity) {
         clusterRepository.setClusterLastScalingActivity(clusterId, lastScalingActivity);
     }
@@ -225,6 +247,12 @@ public class ClusterService {
         return clusterRepository.findClustersByClusterIds(clusterIds);
     }
 
+    public List<Cluster> findClustersWithAlertsByClusterIds(Collection<Long> clusterIds) {
+        return StreamSupport.stream(Iterables.partition(clusterIds, CLUSTER_ID_BATCH_SIZE).spliterator(), false)
+                .flatMap(clusterIdBatch -> clusterRepository.findClustersWithAlertsByClusterIds(clusterIdBatch).stream())
+                .collect(Collectors.toList());
+    }
+
     public List<Long> findLoadAlertClustersForNode(StackType stackType, ClusterState state,
             boolean autoscalingEnabled, String nodeId) {
         return clusterRepository.findByLoadAlertAndStackTypeAndClusterStateAndAutoscaling(stackType, state, autoscalingEnabled, nodeId);
@@ -7,6 +7,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.Optional;
 
 import javax.inject.Inject;
 
@@ -59,6 +60,26 @@ public final class DateService {
         }
     }
 
+    /**
+     * Returns the first fire time of the alert's cron expression in the (windowStart, windowEnd] window, if there is any.
+     * It is computed directly from the cron expression, so the cost does not depend on the length of the window.
+     */
+    public Optional<ZonedDateTime> getFirstFireTimeInWindow(TimeAlert alert, ZonedDateTime windowStart, ZonedDateTime windowEnd) {
+        try {
+            String timeZone = alert.getTimeZone();
+            CronSequenceGenerator cronExpression = getCronExpression(alert.getCron());
+            ZonedDateTime zonedWindowStart = dateTimeService.getZonedDateTime(windowStart.toInstant(), timeZone);
+            Date startDate = Date.from(zonedWindowStart.toLocalDateTime().toInstant(windowStart.getOffset()));
+            Date nextTime = cronExpression.next(startDate);
+            ZonedDateTime zonedNextTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(nextTime.getTime()), windowStart.getZone()).atZone(ZoneId.of(timeZone));
+            return zonedNextTime.toEpochSecond() <= windowEnd.toEpochSecond()
+                    ? Optional.of(zonedNextTime.withZoneSameInstant(windowEnd.getZone())) : Optional.empty();
+        } catch (ParseException e) {
+            LOGGER.error("Invalid cron expression '{}', cluster '{}'", e.getMessage(), alert.getCluster().getStackCrn());
+            return Optional.empty();
+        }
+    }
+
     public CronSequenceGenerator getCronExpression(String cron) throws ParseException {
         String[] splits = cron.split("\\s+");
         if (splits.length < MINIMAL_CRON_SEGMENT_LENGTH && splits.length > MINIMAL_USER_DEFINED_CRON_SEGMENT_LENGTH) {
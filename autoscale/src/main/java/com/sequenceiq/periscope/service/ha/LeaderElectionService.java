@@ -4,6 +4,7 @@ import static com.sequenceiq.periscope.service.NotFoundException.notFound;
 
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -24,6 +25,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Iterables;
 import com.sequenceiq.cloudbreak.common.service.Clock;
 import com.sequenceiq.cloudbreak.common.service.TransactionService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
@@ -34,6 +36,7 @@ import com.sequenceiq.periscope.domain.TimeAlert;
 import com.sequenceiq.periscope.monitor.evaluator.CronTimeEvaluator;
 import com.sequenceiq.periscope.repository.ClusterRepository;
 import com.sequenceiq.periscope.repository.PeriscopeNodeRepository;
+import com.sequenceiq.periscope.service.DateService;
 import com.sequenceiq.periscope.service.DateTimeService;
 import com.sequenceiq.periscope.service.PeriscopeMetricService;
 import com.sequenceiq.periscope.utils.TimeUtil;
@@ -47,6 +50,8 @@ public class LeaderElectionService {
 
     private static final long STACK_COLLECTOR_PERIOD = 10000L;
 
+    private static final int CLUSTER_ID_BATCH_SIZE = 1000;
+
     @Value("${periscope.ha.heartbeat.threshold:60000}")
     private Integer heartbeatThresholdRate;
 
@@ -71,6 +76,9 @@ public class LeaderElectionService {
     @Inject
     private DateTimeService dateTimeService;
 
+    @Inject
+    private DateService dateService;
+
     @Inject
     private PeriscopeMetricService metricService;
 
@@ -135,19 +143,28 @@ public class LeaderElectionService {
         List<String> nodeIds = activeNodes.stream().map(PeriscopeNode::getUuid).collect(Collectors.toList());
         List<Cluster> orphanClusters = clusterRepository.findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(nodeIds);
         if (!orphanClusters.isEmpty()) {
+            long start = clock.getCurrentTimeMillis();
+            Map<String, List<Long>> clusterIdsByNode = new LinkedHashMap<>();
+            List<Map<TimeAlert, ZonedDateTime>> missedAlerts = new ArrayList<>();
+            ZonedDateTime now = dateTimeService.getDefaultZonedDateTime();
             Iterator<PeriscopeNode> iterator = activeNodes.iterator();
             for (Cluster cluster : orphanClusters) {
                 if (!iterator.hasNext()) {
                     iterator = activeNodes.iterator();
                 }
                 if (isExecutionOfMissedTimeBasedAlertsNeeded(cluster)) {
-                    LOGGER.info("Executing missed alerts on cluster {}", cluster.getId());
-                    executeMissedTimeBasedAlerts(cluster);
+                    Map<TimeAlert, ZonedDateTime> alerts = collectMissedTimeBasedAlerts(cluster, now);
+                    if (!alerts.isEmpty()) {
+                        missedAlerts.add(alerts);
+                    }
                 }
                 cluster.setPeriscopeNodeId(iterator.next().getUuid());
-                LOGGER.info("Allocationg cluster {} to node {}", cluster.getId(), cluster.getPeriscopeNodeId());
+                clusterIdsByNode.computeIfAbsent(cluster.getPeriscopeNodeId(), nodeId -> new ArrayList<>()).add(cluster.getId());
             }
-            clusterRepository.saveAll(orphanClusters);
+            executeMissedTimeBasedAlerts(missedAlerts);
+            clusterIdsByNode.forEach(this::allocateClustersToNode);
+            LOGGER.info("Allocated {} orphan clusters to {} nodes in {} ms, missed time based alerts were executed on {} clusters",
+                    orphanClusters.size(), clusterIdsByNode.size(), clock.getCurrentTimeMillis() - start, missedAlerts.size());
         }
     }
 
@@ -160,24 +177,44 @@ public class LeaderElectionService {
                 && cluster.getTimeAlerts() != null && !cluster.getTimeAlerts().isEmpty();
     }
 
-    private void executeMissedTimeBasedAlerts(Cluster cluster) {
+    /**
+     * Collects the time alerts of the cluster which should have fired since the cluster was evaluated the last time, but
+     * at most the cool down period back. The fire times are computed from the cron expressions, so the work does not
+     * depend on the length of the rewound window.
+     */
+    private Map<TimeAlert, ZonedDateTime> collectMissedTimeBasedAlerts(Cluster cluster, ZonedDateTime now) {
         Map<TimeAlert, ZonedDateTime> alerts = new LinkedHashMap<>();
-        ZonedDateTime now = dateTimeService.getDefaultZonedDateTime();
         long millisDiff = clock.getCurrentTimeMillis() - cluster.getLastEvaluated();
         long coolDown = TimeUtil.convertMinToMillisec(cluster.getCoolDown());
         long rewindMillis = Math.min(millisDiff, coolDown);
         LOGGER.debug("Start rewind for cluster {} at {} - millisDiff: {}, coolDown: {}, rewindMillis: {}",
                 cluster.getId(), now, millisDiff, coolDown, rewindMillis);
-        for (long r = rewindMillis; r > TimeUtil.SECOND_TO_MILLISEC; r -= TimeUtil.SECOND_TO_MILLISEC) {
+        if (rewindMillis > TimeUtil.SECOND_TO_MILLISEC) {
+            ZonedDateTime windowStart = now.minus(rewindMillis, ChronoUnit.MILLIS);
             for (TimeAlert alert : cluster.getTimeAlerts()) {
-                ZonedDateTime past = dateTimeService.getNextSecound(now.minus(r, ChronoUnit.MILLIS));
-                LOGGER.debug("Create alert for cluster {} at {}", cluster.getId(), past);
-                alerts.put(alert, past);
+                dateService.getFirstFireTimeInWindow(alert, windowStart, now).ifPresent(fireTime -> {
+                    LOGGER.debug("Missed alert {} of cluster {} at {}", alert.getId(), cluster.getId(), fireTime);
+                    alerts.put(alert, fireTime);
+                });
             }
         }
-        if (!alerts.isEmpty()) {
+        return alerts;
+    }
+
+    private void executeMissedTimeBasedAlerts(List<Map<TimeAlert, ZonedDateTime>> missedAlerts) {
+        if (!missedAlerts.isEmpty()) {
             CronTimeEvaluator evaluator = applicationContext.getBean("CronTimeEvaluator", CronTimeEvaluator.class);
-            evaluator.publishIfNeeded(alerts);
+            for (Map<TimeAlert, ZonedDateTime> alerts : missedAlerts) {
+                evaluator.publishIfNeeded(alerts);
+            }
+        }
+    }
+
+    private void allocateClustersToNode(String nodeId, List<Long> clusterIds) {
+        LOGGER.info("Allocating {} clusters to node {}", clusterIds.size(), nodeId);
+        LOGGER.debug("Allocating clusters {} to node {}", clusterIds, nodeId);
+        for (List<Long> clusterIdBatch : Iterables.partition(clusterIds, CLUSTER_ID_BATCH_SIZE)) {
+            clusterRepository.allocateClustersToNode(clusterIdBatch, nodeId);
         }
     }
 
@@ -0,0 +1,197 @@
+package com.sequenceiq.periscope.service.security;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.ws.rs.client.Client;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cloudera.api.swagger.client.ApiClient;
+import com.sequenceiq.cloudbreak.client.CertificateTrustManager;
+import com.sequenceiq.cloudbreak.client.HttpClientConfig;
+import com.sequenceiq.cloudbreak.client.RestClientUtil;
+import com.sequenceiq.cloudbreak.cm.client.ClouderaManagerApiClientProvider;
+import com.sequenceiq.periscope.domain.MetricType;
+import com.sequenceiq.periscope.model.TlsConfiguration;
+import com.sequenceiq.periscope.service.PeriscopeMetricService;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.OkHttpClient;
+
+/**
+ * Keeps one pooled http client per cluster for the YARN and Cloudera Manager calls of the autoscale evaluations, so the
+ * connections and TLS sessions are reused between the evaluations instead of doing a full handshake every time.
+ * The clients are rebuilt when the TLS configuration or the credentials of the cluster change.
+ */
+@Component
+public class TlsHttpClientCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TlsHttpClientCache.class);
+
+    private static final String CLIENT_TAG = "client";
+
+    private static final String YARN_CLIENT = "yarn";
+
+    private static final String CM_CLIENT = "cm";
+
+    @Value("${periscope.httpclient.pool.max.total:20}")
+    private int maxTotalConnections;
+
+    @Value("${periscope.httpclient.pool.max.per.route:10}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${periscope.httpclient.pool.max.idle:5}")
+    private int maxIdleConnections;
+
+    @Value("${periscope.httpclient.keepalive.seconds:300}")
+    private long keepAliveSeconds;
+
+    @Inject
+    private ClouderaManagerApiClientProvider clouderaManagerApiClientProvider;
+
+    @Inject
+    private PeriscopeMetricService metricService;
+
+    private final Map<Long, CachedClient<Client>> yarnClients = new ConcurrentHashMap<>();
+
+    private final Map<Long, CachedClient<ApiClient>> clouderaManagerClients = new ConcurrentHashMap<>();
+
+    public Client getYarnClient(Long clusterId, TlsConfiguration tlsConfiguration) throws Exception {
+        return getOrCreate(yarnClients, YARN_CLIENT, clusterId, tlsConfiguration, () -> {
+            Client client = createYarnClient(tlsConfiguration);
+            return new CachedClient<>(tlsConfiguration, client, client::close);
+        });
+    }
+
+    public ApiClient getClouderaManagerClient(Long clusterId, Integer port, String user, String password, HttpClientConfig clientConfig)
+            throws Exception {
+        List<Object> key = Arrays.asList(port, user, password, clientConfig.getApiAddress(), clientConfig.getServerCert(), clientConfig.getClientCert(),
+                clientConfig.getClientKey(), clientConfig.getClusterProxyUrl(), clientConfig.getClusterCrn());
+        return getOrCreate(clouderaManagerClients, CM_CLIENT, clusterId, key, () -> {
+            ApiClient client = clouderaManagerApiClientProvider.createClient(port, user, password, clientConfig);
+            OkHttpClient httpClient = client.getHttpClient();
+            httpClient.setConnectionPool(new ConnectionPool(maxIdleConnections, TimeUnit.SECONDS.toMillis(keepAliveSeconds)));
+            SSLSocketFactory socketFactory = httpClient.getSslSocketFactory() != null
+                    ? httpClient.getSslSocketFactory() : HttpsURLConnection.getDefaultSSLSocketFactory();
+            httpClient.setSslSocketFactory(new HandshakeCountingSSLSocketFactory(socketFactory, event -> onHandshake(CM_CLIENT, event)));
+            return new CachedClient<>(key, client, () -> httpClient.getConnectionPool().evictAll());
+        });
+    }
+
+    public void evict(Long clusterId) {
+        close(YARN_CLIENT, clusterId, yarnClients.remove(clusterId));
+        close(CM_CLIENT, clusterId, clouderaManagerClients.remove(clusterId));
+    }
+
+    private <T> T getOrCreate(Map<Long, CachedClient<T>> clients, String clientType, Long clusterId, Object key, ClientFactory<T> clientFactory)
+            throws Exception {
+        CachedClient<T> cachedClient = clients.get(clusterId);
+        if (cachedClient == null || !cachedClient.key.equals(key)) {
+            synchronized (clients) {
+                cachedClient = clients.get(clusterId);
+                if (cachedClient == null || !cachedClient.key.equals(key)) {
+                    metricService.incrementMetricCounter(MetricType.HTTP_CLIENT_CACHE_MISS, CLIENT_TAG, clientType);
+                    CachedClient<T> previous = cachedClient;
+                    cachedClient = clientFactory.create();
+                    clients.put(clusterId, cachedClient);
+                    close(clientType, clusterId, previous);
+                    return cachedClient.client;
+                }
+            }
+        }
+        metricService.incrementMetricCounter(MetricType.HTTP_CLIENT_CACHE_HIT, CLIENT_TAG, clientType);
+        return cachedClient.client;
+    }
+
+    private void close(String clientType, Long clusterId, CachedClient<?> cachedClient) {
+        if (cachedClient != null) {
+            LOGGER.debug("Closing the {} http client of cluster {}", clientType, clusterId);
+            metricService.incrementMetricCounter(MetricType.HTTP_CLIENT_CACHE_EVICTED, CLIENT_TAG, clientType);
+            try {
+                cachedClient.closer.run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to close the {} http client of cluster {}", clientType, clusterId, e);
+            }
+        }
+    }
+
+    private Client createYarnClient(TlsConfiguration tlsConfiguration) throws Exception {
+        SSLContext sslContext = RestClientUtil.createSslContext(tlsConfiguration.getServerCert(), tlsConfiguration.getClientCert(),
+                tlsConfiguration.getClientKey());
+        SSLSocketFactory socketFactory = new HandshakeCountingSSLSocketFactory(sslContext.getSocketFactory(), event -> onHandshake(YARN_CLIENT, event));
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(socketFactory, CertificateTrustManager.hostnameVerifier()))
+                .build();
+        PoolingHttpClientConnectionManager connectionManager = new StatelessConnectionManager(registry, keepAliveSeconds);
+        connectionManager.setMaxTotal(maxTotalConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        return RestClientUtil.createClient(sslContext, connectionManager, true);
+    }
+
+    private void onHandshake(String clientType, HandshakeCompletedEvent event) {
+        LOGGER.debug("TLS handshake completed by the {} http client with {}", clientType, event.getSocket().getInetAddress());
+        metricService.incrementMetricCounter(MetricType.HTTP_CLIENT_TLS_HANDSHAKE, CLIENT_TAG, clientType);
+    }
+
+    @FunctionalInterface
+    private interface ClientFactory<T> {
+        CachedClient<T> create() throws Exception;
+    }
+
+    private static class CachedClient<T> {
+
+        private final Object key;
+
+        private final T client;
+
+        private final Runnable closer;
+
+        CachedClient(Object key, T client, Runnable closer) {
+            this.key = key;
+            this.client = client;
+            this.closer = closer;
+        }
+    }
+
+    /**
+     * The connections authenticated with a client certificate get the principal as their state, which would prevent reusing
+     * them for the next request. Every connection of the manager belongs to the same client identity, so the state is ignored.
+     */
+    private static class StatelessConnectionManager extends PoolingHttpClientConnectionManager {
+
+        StatelessConnectionManager(Registry<ConnectionSocketFactory> registry, long timeToLiveSeconds) {
+            super(registry, null, null, null, timeToLiveSeconds, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            return super.requestConnection(route, null);
+        }
+
+        @Override
+        public void releaseConnection(HttpClientConnection managedConn, Object state, long keepalive, TimeUnit timeUnit) {
+            super.releaseConnection(managedConn, null, keepalive, timeUnit);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import javax.inject.Inject;
 import org.bouncycastle.util.encoders.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -24,6 +25,9 @@ public class TlsSecurityService {
     @Inject
     private SecretService secretService;
 
+    @Inject
+    private TlsHttpClientCache tlsHttpClientCache;
+
     @PostConstruct
     public void init() {
         LOGGER.info("init TlsSecurityService");
@@ -36,6 +40,13 @@ public class TlsSecurityService {
         return createTls(securityConfig);
     }
 
+    @CacheEvict(cacheNames = "tlsConfigurationCache")
+    public void evictTls(Long clusterId) {
+        LOGGER.debug("Evict TlsConfiguration and the cached http clients for clusterId: {}", clusterId);
+        securityConfigService.evictSecurityConfig(clusterId);
+        tlsHttpClientCache.evict(clusterId);
+    }
+
     private TlsConfiguration createTls(SecurityConfig securityConfig) {
         String clientKey = new String(Base64.decode(secretService.get(securityConfig.getClientKey())));
         String clientCert = new String(Base64.decode(secretService.get(securityConfig.getClientCert())));
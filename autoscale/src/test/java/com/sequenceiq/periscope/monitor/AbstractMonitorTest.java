@@ -1,6 +1,7 @@
 package com.sequenceiq.periscope.monitor;
 
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -19,6 +20,7 @@ import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
 import org.springframework.context.ApplicationContext;
 
+import com.sequenceiq.cloudbreak.api.endpoint.v4.common.StackType;
 import com.sequenceiq.periscope.api.model.ClusterState;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.monitor.context.EvaluatorContext;
@@ -74,6 +76,23 @@ public class AbstractMonitorTest {
         verify(rejectedThreadService).remove(CLUSTER_ID);
     }
 
+    @Test
+    public void testClusterMonitorUpdatesLastEvaluatedInOneBatch() {
+        List<Cluster> clusterList = List.of(getCluster(CLUSTER_ID), getCluster(2L));
+        when(periscopeNodeConfig.getId()).thenReturn("nodeId");
+        when(clusterService.findLoadAlertClustersForNode(StackType.WORKLOAD, ClusterState.RUNNING, true, "nodeId")).thenReturn(List.of(CLUSTER_ID, 2L));
+        when(clusterService.findClustersWithAlertsByClusterIds(List.of(CLUSTER_ID, 2L))).thenReturn(clusterList);
+        JobExecutionContext context = getContext();
+        ApplicationContext applicationContext = (ApplicationContext) context.getJobDetail().getJobDataMap().get("APPLICATION_CONTEXT");
+        when(applicationContext.getBean("YarnLoadEvaluator", EvaluatorExecutor.class)).thenReturn(testExecutor);
+
+        new LoadMonitor().execute(context);
+
+        verify(executorServiceWithRegistry).submitIfAbsent(testExecutor, CLUSTER_ID);
+        verify(executorServiceWithRegistry).submitIfAbsent(testExecutor, 2L);
+        verify(clusterService).setLastEvaluated(eq(List.of(CLUSTER_ID, 2L)), anyLong());
+    }
+
     private JobExecutionContext getContext() {
         JobExecutionContext jobExecutionContext = mock(JobExecutionContext.class);
         JobDetail jobDetail = mock(JobDetail.class);
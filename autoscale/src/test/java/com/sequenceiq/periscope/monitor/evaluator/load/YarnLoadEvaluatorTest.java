@@ -116,6 +116,27 @@ public class YarnLoadEvaluatorTest {
         verify(eventPublisher, never()).publishEvent(any());
     }
 
+    @Test
+    public void testNoScalingWhenTheClusterWasScaledDuringTheRound() throws Exception {
+        Cluster cluster = getARunningCluster();
+        StackV4Response stackV4Response = MockStackResponseGenerator.getMockStackV4Response(CLOUDBREAK_STACK_CRN, "compute", fqdnBase, 3);
+        when(clusterService.findById(anyLong())).thenReturn(cluster);
+        when(clusterService.findLastScalingActivity(AUTOSCALE_CLUSTER_ID)).thenReturn(Instant.now().minus(1, ChronoUnit.MINUTES).toEpochMilli());
+        when(cloudbreakCommunicator.getByCrn(anyString())).thenReturn(stackV4Response);
+        when(stackResponseUtils.getCloudInstanceIdsForHostGroup(any(), any())).thenCallRealMethod();
+        when(yarnMetricsClient.getYarnMetricsForCluster(any(Cluster.class), any(StackV4Response.class), anyString(), any(Optional.class)))
+                .thenReturn(getMockYarnScalingResponse("compute", 5, 0));
+        when(yarnResponseUtils.getYarnRecommendedScaleUpCount(any(YarnScalingServiceV1Response.class), anyString(), anyInt(), any(Optional.class)))
+                .thenCallRealMethod();
+        when(yarnResponseUtils.getYarnRecommendedDecommissionHostsForHostGroup(anyString(), any(YarnScalingServiceV1Response.class),
+                any(Map.class), anyInt(), any(Optional.class))).thenCallRealMethod();
+
+        underTest.setContext(new ClusterIdEvaluatorContext(AUTOSCALE_CLUSTER_ID));
+        underTest.execute();
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     public static Stream<Arguments> dataUpScaling() {
         return Stream.of(
                 //TestCase,CurrentHostGroupCount,YarnRecommendedUpScaleCount,ExpectedDesiredNodeCount
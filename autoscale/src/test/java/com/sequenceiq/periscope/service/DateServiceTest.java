@@ -1,5 +1,6 @@
 package com.sequenceiq.periscope.service;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
@@ -7,6 +8,7 @@ import static org.mockito.Mockito.when;
 import java.text.ParseException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Optional;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -125,6 +127,43 @@ public class DateServiceTest {
         assertTrue(underTest.isTrigger(timeAlert, monitorUpdateRate));
     }
 
+    @Test
+    public void testGetFirstFireTimeInWindowWhenTheCronFiresInTheWindow() {
+        ZoneId zone = ZoneId.systemDefault();
+        String timeZone = zone.getId();
+        ZonedDateTime windowStart = ZonedDateTime.of(2017, 12, 20, 11, 30, 0, 0, zone.normalized());
+        ZonedDateTime windowEnd = ZonedDateTime.of(2017, 12, 20, 12, 5, 0, 0, zone.normalized());
+
+        when(dateTimeService.getZonedDateTime(windowStart.toInstant(), timeZone)).thenReturn(windowStart);
+        Optional<ZonedDateTime> fireTime = underTest.getFirstFireTimeInWindow(createTimeAlert(timeZone), windowStart, windowEnd);
+
+        assertEquals(ZonedDateTime.of(2017, 12, 20, 12, 0, 0, 0, zone.normalized()).toInstant(), fireTime.get().toInstant());
+    }
+
+    @Test
+    public void testGetFirstFireTimeInWindowWhenTheCronFiresAtTheStartOfTheWindowThenItShouldNotBeReturned() {
+        ZoneId zone = ZoneId.systemDefault();
+        String timeZone = zone.getId();
+        ZonedDateTime windowStart = ZonedDateTime.of(2017, 12, 20, 12, 0, 0, 0, zone.normalized());
+        ZonedDateTime windowEnd = ZonedDateTime.of(2017, 12, 20, 12, 30, 0, 0, zone.normalized());
+
+        when(dateTimeService.getZonedDateTime(windowStart.toInstant(), timeZone)).thenReturn(windowStart);
+
+        assertFalse(underTest.getFirstFireTimeInWindow(createTimeAlert(timeZone), windowStart, windowEnd).isPresent());
+    }
+
+    @Test
+    public void testGetFirstFireTimeInWindowWhenTheCronFiresAfterTheEndOfTheWindowThenItShouldNotBeReturned() {
+        ZoneId zone = ZoneId.systemDefault();
+        String timeZone = zone.getId();
+        ZonedDateTime windowStart = ZonedDateTime.of(2017, 12, 20, 11, 30, 0, 0, zone.normalized());
+        ZonedDateTime windowEnd = ZonedDateTime.of(2017, 12, 20, 11, 59, 59, 0, zone.normalized());
+
+        when(dateTimeService.getZonedDateTime(windowStart.toInstant(), timeZone)).thenReturn(windowStart);
+
+        assertFalse(underTest.getFirstFireTimeInWindow(createTimeAlert(timeZone), windowStart, windowEnd).isPresent());
+    }
+
     @Test
     public void testValidateTimeZoneWhenValid() throws Exception {
         underTest.validateTimeZone("GMT");
@@ -9,10 +9,12 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.function.Supplier;
@@ -37,6 +39,7 @@ import com.sequenceiq.periscope.domain.TimeAlert;
 import com.sequenceiq.periscope.monitor.evaluator.CronTimeEvaluator;
 import com.sequenceiq.periscope.repository.ClusterRepository;
 import com.sequenceiq.periscope.repository.PeriscopeNodeRepository;
+import com.sequenceiq.periscope.service.DateService;
 import com.sequenceiq.periscope.service.DateTimeService;
 import com.sequenceiq.periscope.service.PeriscopeMetricService;
 
@@ -73,6 +76,9 @@ public class LeaderElectionServiceTest {
     @Mock
     private DateTimeService dateTimeService;
 
+    @Mock
+    private DateService dateService;
+
     @Mock
     private CronTimeEvaluator cronTimeEvaluator;
 
@@ -157,7 +163,7 @@ public class LeaderElectionServiceTest {
 
         verify(transactionService, times(2)).required(any(Supplier.class));
         verify(clusterRepository, times(1)).findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(any(List.class));
-        verify(clusterRepository, times(1)).saveAll(any(List.class));
+        verify(clusterRepository, times(1)).allocateClustersToNode(eq(Collections.singletonList(null)), eq("nodeid"));
     }
 
     @Test
@@ -210,50 +216,69 @@ public class LeaderElectionServiceTest {
     }
 
     @Test
-    public void testExecuteMissedTimeBasedAlertsNotNeedLastEvalLessThanRewind() throws Exception {
+    public void testCollectMissedTimeBasedAlertsNotNeedLastEvalLessThanRewind() throws Exception {
         Cluster cluster = new Cluster();
         cluster.setCoolDown(2);
         cluster.setLastEvaluated(4900L);
         cluster.setTimeAlerts(Collections.singleton(new TimeAlert()));
 
-        WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", cluster);
+        Map<TimeAlert, ZonedDateTime> alerts = WhiteboxImpl.invokeMethod(underTest, "collectMissedTimeBasedAlerts", cluster, ZonedDateTime.now());
 
-        verify(applicationContext, times(0)).getBean(anyString(), eq(CronTimeEvaluator.class));
-        verify(cronTimeEvaluator, times(0)).publishIfNeeded(any(Map.class));
+        Assert.assertTrue(alerts.isEmpty());
+        verify(dateService, times(0)).getFirstFireTimeInWindow(any(), any(), any());
     }
 
     @Test
-    public void testExecuteMissedTimeBasedAlertsNotNeedCooldownLessThanRewind() throws Exception {
+    public void testCollectMissedTimeBasedAlertsNotNeedCooldownLessThanRewind() throws Exception {
         Cluster cluster = new Cluster();
         cluster.setCoolDown(0);
         cluster.setLastEvaluated(1L);
         cluster.setTimeAlerts(Collections.singleton(new TimeAlert()));
 
-        WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", cluster);
+        Map<TimeAlert, ZonedDateTime> alerts = WhiteboxImpl.invokeMethod(underTest, "collectMissedTimeBasedAlerts", cluster, ZonedDateTime.now());
 
-        verify(applicationContext, times(0)).getBean(anyString(), eq(CronTimeEvaluator.class));
-        verify(cronTimeEvaluator, times(0)).publishIfNeeded(any(Map.class));
+        Assert.assertTrue(alerts.isEmpty());
+        verify(dateService, times(0)).getFirstFireTimeInWindow(any(), any(), any());
     }
 
     @Test
-    public void testExecuteMissedTimeBasedAlertsNeed() throws Exception {
+    public void testCollectMissedTimeBasedAlertsNeed() throws Exception {
         ZonedDateTime now = ZonedDateTime.now();
-        when(dateTimeService.getDefaultZonedDateTime()).thenReturn(now);
-        when(dateTimeService.getNextSecound(any())).thenReturn(now);
+        ZonedDateTime fireTime = now.minusSeconds(1L);
         Cluster cluster = new Cluster();
         cluster.setCoolDown(5);
         cluster.setLastEvaluated(2900L);
-        TimeAlert timeAlert = new TimeAlert();
-        cluster.setTimeAlerts(Collections.singleton(timeAlert));
+        TimeAlert firedAlert = new TimeAlert();
+        firedAlert.setId(1L);
+        TimeAlert notFiredAlert = new TimeAlert();
+        notFiredAlert.setId(2L);
+        cluster.setTimeAlerts(Set.of(firedAlert, notFiredAlert));
+        when(dateService.getFirstFireTimeInWindow(firedAlert, now.minus(2100L, ChronoUnit.MILLIS), now)).thenReturn(Optional.of(fireTime));
+        when(dateService.getFirstFireTimeInWindow(notFiredAlert, now.minus(2100L, ChronoUnit.MILLIS), now)).thenReturn(Optional.empty());
+
+        Map<TimeAlert, ZonedDateTime> alerts = WhiteboxImpl.invokeMethod(underTest, "collectMissedTimeBasedAlerts", cluster, now);
+
+        Assert.assertEquals(Map.of(firedAlert, fireTime), alerts);
+    }
+
+    @Test
+    public void testExecuteMissedTimeBasedAlertsUsesOneEvaluator() throws Exception {
+        Map<TimeAlert, ZonedDateTime> firstClusterAlerts = Map.of(new TimeAlert(), ZonedDateTime.now());
+        Map<TimeAlert, ZonedDateTime> secondClusterAlerts = Map.of(new TimeAlert(), ZonedDateTime.now());
 
-        WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", cluster);
+        WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", List.of(firstClusterAlerts, secondClusterAlerts));
 
         verify(applicationContext, times(1)).getBean(anyString(), eq(CronTimeEvaluator.class));
+        verify(cronTimeEvaluator, times(1)).publishIfNeeded(firstClusterAlerts);
+        verify(cronTimeEvaluator, times(1)).publishIfNeeded(secondClusterAlerts);
+    }
 
-        Map<TimeAlert, ZonedDateTime> expectedAlerts = new LinkedHashMap<>();
-        expectedAlerts.put(timeAlert, now);
-        expectedAlerts.put(timeAlert, now);
-        verify(cronTimeEvaluator, times(1)).publishIfNeeded(eq(expectedAlerts));
+    @Test
+    public void testExecuteMissedTimeBasedAlertsNothingMissed() throws Exception {
+        WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", Collections.emptyList());
+
+        verify(applicationContext, times(0)).getBean(anyString(), eq(CronTimeEvaluator.class));
+        verify(cronTimeEvaluator, times(0)).publishIfNeeded(any(Map.class));
     }
 
     private Cluster getValidIsMissedNeeded() {
@@ -0,0 +1,106 @@
+package com.sequenceiq.periscope.service.ha;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.domain.TimeAlert;
+import com.sequenceiq.periscope.monitor.MonitorUpdateRate;
+import com.sequenceiq.periscope.service.DateService;
+import com.sequenceiq.periscope.service.DateTimeService;
+import com.sequenceiq.periscope.utils.TimeUtil;
+
+/**
+ * Compares the per second rewind of the missed time based alerts with the cron based fire time computation on a failover
+ * of many clusters with several alerts each. Set the {@code missedalerts.benchmark.clusters} and the
+ * {@code missedalerts.benchmark.legacy.clusters} system properties to change the number of the clusters. It only reports the timings,
+ * the behavior of the fire time computation is covered by DateServiceTest and LeaderElectionServiceTest.
+ * It is excluded from the unit tests, run it with the {@code benchmark} task.
+ */
+public class MissedTimeBasedAlertsBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MissedTimeBasedAlertsBenchmark.class);
+
+    private static final int COOL_DOWN_MINUTES = 30;
+
+    private static final String[] CRONS = {"0 */5 * * * ?", "0 0 12 * * ?", "0 15 8 ? * MON-FRI", "0 0/10 * * * ?"};
+
+    private static final String[] TIME_ZONES = {"UTC", "America/New_York", "Europe/Budapest", "Asia/Kolkata"};
+
+    private final int clusterCount = Integer.getInteger("missedalerts.benchmark.clusters", 10000);
+
+    private final int legacyClusterCount = Integer.getInteger("missedalerts.benchmark.legacy.clusters", 500);
+
+    @Test
+    public void benchmarkRewindAgainstCronWindow() {
+        DateTimeService dateTimeService = new DateTimeService();
+        DateService dateService = new DateService();
+        ReflectionTestUtils.setField(dateService, "dateTimeService", dateTimeService);
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("UTC"));
+        List<Cluster> clusters = clusters();
+
+        long legacyStart = System.nanoTime();
+        for (Cluster cluster : clusters.subList(0, Math.min(legacyClusterCount, clusters.size()))) {
+            rewind(dateTimeService, dateService, cluster, now);
+        }
+        long legacyNanos = System.nanoTime() - legacyStart;
+
+        long start = System.nanoTime();
+        int missedAlerts = 0;
+        for (Cluster cluster : clusters) {
+            ZonedDateTime windowStart = now.minus(TimeUtil.convertMinToMillisec(COOL_DOWN_MINUTES), ChronoUnit.MILLIS);
+            for (TimeAlert alert : cluster.getTimeAlerts()) {
+                if (dateService.getFirstFireTimeInWindow(alert, windowStart, now).isPresent()) {
+                    missedAlerts++;
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        LOGGER.info("Rewind: {} us per cluster on {} clusters; cron window: {} us per cluster, {} ms on {} clusters with {} missed alerts",
+                legacyNanos / legacyClusterCount / 1000L, legacyClusterCount, nanos / clusterCount / 1000L, nanos / 1000_000L, clusterCount,
+                missedAlerts);
+    }
+
+    private void rewind(DateTimeService dateTimeService, DateService dateService, Cluster cluster, ZonedDateTime now) {
+        Map<TimeAlert, ZonedDateTime> alerts = new LinkedHashMap<>();
+        long rewindMillis = TimeUtil.convertMinToMillisec(cluster.getCoolDown());
+        for (long r = rewindMillis; r > TimeUtil.SECOND_TO_MILLISEC; r -= TimeUtil.SECOND_TO_MILLISEC) {
+            for (TimeAlert alert : cluster.getTimeAlerts()) {
+                alerts.put(alert, dateTimeService.getNextSecound(now.minus(r, ChronoUnit.MILLIS)));
+            }
+        }
+        alerts.forEach((alert, time) -> dateService.isTrigger(alert, MonitorUpdateRate.CRON_UPDATE_RATE_IN_MILLIS, time));
+    }
+
+    private List<Cluster> clusters() {
+        List<Cluster> clusters = new ArrayList<>(clusterCount);
+        for (long i = 0; i < clusterCount; i++) {
+            Cluster cluster = new Cluster();
+            cluster.setId(i);
+            cluster.setStackCrn("crn" + i);
+            cluster.setCoolDown(COOL_DOWN_MINUTES);
+            for (int j = 0; j < CRONS.length; j++) {
+                TimeAlert alert = new TimeAlert();
+                alert.setId(i * CRONS.length + j);
+                alert.setName("alert" + j);
+                alert.setCron(CRONS[j]);
+                alert.setTimeZone(TIME_ZONES[(int) ((i + j) % TIME_ZONES.length)]);
+                alert.setCluster(cluster);
+                cluster.getTimeAlerts().add(alert);
+            }
+            clusters.add(cluster);
+        }
+        return clusters;
+    }
+}
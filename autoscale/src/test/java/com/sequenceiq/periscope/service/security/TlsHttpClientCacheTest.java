@@ -0,0 +1,91 @@
+package com.sequenceiq.periscope.service.security;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.ws.rs.client.Client;
+
+import org.glassfish.jersey.media.multipart.MultiPartFeature;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloudera.api.swagger.client.ApiClient;
+import com.sequenceiq.cloudbreak.client.HttpClientConfig;
+import com.sequenceiq.cloudbreak.cm.client.ClouderaManagerApiClientProvider;
+import com.sequenceiq.periscope.domain.MetricType;
+import com.sequenceiq.periscope.model.TlsConfiguration;
+import com.sequenceiq.periscope.service.PeriscopeMetricService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TlsHttpClientCacheTest {
+
+    private static final Long CLUSTER_ID = 1L;
+
+    @InjectMocks
+    private TlsHttpClientCache underTest;
+
+    @Mock
+    private ClouderaManagerApiClientProvider clouderaManagerApiClientProvider;
+
+    @Mock
+    private PeriscopeMetricService metricService;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "maxTotalConnections", 2);
+        ReflectionTestUtils.setField(underTest, "maxConnectionsPerRoute", 1);
+        ReflectionTestUtils.setField(underTest, "maxIdleConnections", 1);
+        ReflectionTestUtils.setField(underTest, "keepAliveSeconds", 10L);
+    }
+
+    @Test
+    public void testYarnClientIsReusedUntilTlsConfigurationChanges() throws Exception {
+        Client first = underTest.getYarnClient(CLUSTER_ID, new TlsConfiguration(null, null, null));
+        Client second = underTest.getYarnClient(CLUSTER_ID, new TlsConfiguration(null, null, null));
+        Client rotated = underTest.getYarnClient(CLUSTER_ID, new TlsConfiguration(null, null, "rotated"));
+
+        assertSame(first, second);
+        assertNotSame(first, rotated);
+        verify(metricService, times(2)).incrementMetricCounter(MetricType.HTTP_CLIENT_CACHE_MISS, "client", "yarn");
+        verify(metricService).incrementMetricCounter(MetricType.HTTP_CLIENT_CACHE_HIT, "client", "yarn");
+        verify(metricService).incrementMetricCounter(MetricType.HTTP_CLIENT_CACHE_EVICTED, "client", "yarn");
+    }
+
+    @Test
+    public void testYarnClientHasTheSharedClientConfiguration() throws Exception {
+        Client client = underTest.getYarnClient(CLUSTER_ID, new TlsConfiguration(null, null, null));
+
+        assertTrue(client.getConfiguration().isRegistered(MultiPartFeature.class));
+    }
+
+    @Test
+    public void testClouderaManagerClientIsRecreatedWhenCredentialsChangeOrEvicted() throws Exception {
+        HttpClientConfig clientConfig = new HttpClientConfig("host").withClusterProxy("http://proxy", "crn");
+        when(clouderaManagerApiClientProvider.createClient(eq(7180), anyString(), anyString(), any(HttpClientConfig.class)))
+                .thenAnswer(invocation -> new ApiClient());
+
+        ApiClient first = underTest.getClouderaManagerClient(CLUSTER_ID, 7180, "user", "pass", clientConfig);
+        ApiClient second = underTest.getClouderaManagerClient(CLUSTER_ID, 7180, "user", "pass", clientConfig);
+        ApiClient newPassword = underTest.getClouderaManagerClient(CLUSTER_ID, 7180, "user", "newpass", clientConfig);
+        underTest.evict(CLUSTER_ID);
+        ApiClient afterEviction = underTest.getClouderaManagerClient(CLUSTER_ID, 7180, "user", "newpass", clientConfig);
+
+        assertSame(first, second);
+        assertNotSame(second, newPassword);
+        assertNotSame(newPassword, afterEviction);
+        verify(clouderaManagerApiClientProvider, times(3)).createClient(eq(7180), anyString(), anyString(), any(HttpClientConfig.class));
+        verify(metricService, times(2)).incrementMetricCounter(MetricType.HTTP_CLIENT_CACHE_EVICTED, "client", "cm");
+    }
+}
@@ -0,0 +1,241 @@
+package com.sequenceiq.cloudbreak.cm.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cloudera.api.swagger.client.ApiClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.hash.Hashing;
+import com.sequenceiq.cloudbreak.client.HttpClientConfig;
+import com.squareup.okhttp.ConnectionPool;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded registry of the Cloudera Manager API clients, keyed by the base path (endpoint and API version), the credentials and the
+ * fingerprint of the certificates of the cluster. The clients of a cluster share the socket factory of the SSL context built from its
+ * certificates, so the PEM material is parsed once, and the TLS sessions of the context are resumed instead of doing a full handshake.
+ * All the clients use the same connection pool, and as the connections are pooled by socket factory, they are reused between the
+ * clients of a cluster.
+ * <p>
+ * When the certificates of an endpoint change, its clients and the SSL context of the old certificates are evicted. Idle clients, and
+ * the certificate fingerprints of the endpoints that are not called anymore, expire after {@code cb.cm.client.pool.expire.minutes}.
+ * The pooled clients are shared between threads, so the callers must not modify them, callers that customise the client have to
+ * create their own with
+ * {@link ClouderaManagerApiClientProvider#createClient(Integer, String, String, HttpClientConfig)}.
+ */
+@Component
+public class ClouderaManagerApiClientPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClouderaManagerApiClientPool.class);
+
+    private static final String CLIENT_CACHE_NAME = "clouderaManagerApiClientPool";
+
+    private static final String SOCKET_FACTORY_CACHE_NAME = "clouderaManagerSocketFactoryPool";
+
+    private static final String CREATED_METRIC = "cm.client.created";
+
+    @Value("${cb.cm.client.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cb.cm.client.pool.max.size:1000}")
+    private long maxSize;
+
+    @Value("${cb.cm.client.pool.expire.minutes:30}")
+    private long expireAfterAccessMinutes;
+
+    @Value("${cb.cm.client.pool.connections.max.idle:50}")
+    private int maxIdleConnections;
+
+    @Value("${cb.cm.client.pool.connections.keepalive.seconds:300}")
+    private long keepAliveSeconds;
+
+    private Cache<String, String> certFingerprintsByEndpoint;
+
+    private Cache<ClientKey, ApiClient> clients;
+
+    private Cache<String, SSLSocketFactory> socketFactories;
+
+    private ConnectionPool connectionPool;
+
+    @PostConstruct
+    public void init() {
+        certFingerprintsByEndpoint = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                .build();
+        clients = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                .removalListener((ClientKey key, ApiClient client, RemovalCause cause) ->
+                        LOGGER.debug("Cloudera Manager client removed from the pool: {}, cause: {}", key, cause))
+                .recordStats()
+                .build();
+        socketFactories = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        connectionPool = new ConnectionPool(maxIdleConnections, TimeUnit.SECONDS.toMillis(keepAliveSeconds));
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, clients, CLIENT_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, socketFactories, SOCKET_FACTORY_CACHE_NAME);
+    }
+
+    /**
+     * Returns the pooled client of the base path and credentials, or creates it with the factory if the pool does not contain it yet.
+     */
+    public ApiClient getClient(String basePath, HttpClientConfig clientConfig, String userName, String password, ClientFactory factory)
+            throws ClouderaManagerClientInitException {
+        if (!enabled) {
+            return create(factory, null);
+        }
+        String endpoint = endpoint(clientConfig);
+        String certFingerprint = certFingerprint(clientConfig);
+        String previousFingerprint = certFingerprintsByEndpoint.asMap().put(endpoint, certFingerprint);
+        if (previousFingerprint != null && !previousFingerprint.equals(certFingerprint)) {
+            evictRotatedCertificates(endpoint, previousFingerprint, certFingerprint);
+        }
+        ClientKey key = new ClientKey(endpoint, basePath, userName, sha256(password), certFingerprint);
+        ApiClient client = clients.getIfPresent(key);
+        if (client == null) {
+            client = create(factory, connectionPool);
+            ApiClient pooledClient = clients.asMap().putIfAbsent(key, client);
+            if (pooledClient != null) {
+                client = pooledClient;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Returns the socket factory of the SSL context of the certificates, or builds the context with the factory if it has not been
+     * built yet, so the clients of a cluster share the socket factory and the TLS session cache of the context.
+     */
+    public SSLSocketFactory getSslSocketFactory(HttpClientConfig clientConfig, SslContextFactory factory) throws Exception {
+        if (!enabled) {
+            return factory.create().getSocketFactory();
+        }
+        String certFingerprint = certFingerprint(clientConfig);
+        SSLSocketFactory socketFactory = socketFactories.getIfPresent(certFingerprint);
+        if (socketFactory == null) {
+            socketFactory = factory.create().getSocketFactory();
+            SSLSocketFactory pooledFactory = socketFactories.asMap().putIfAbsent(certFingerprint, socketFactory);
+            if (pooledFactory != null) {
+                socketFactory = pooledFactory;
+            }
+        }
+        return socketFactory;
+    }
+
+    public long size() {
+        return clients.estimatedSize();
+    }
+
+    private ApiClient create(ClientFactory factory, ConnectionPool pool) throws ClouderaManagerClientInitException {
+        Metrics.counter(CREATED_METRIC, "pooled", String.valueOf(pool != null)).increment();
+        ApiClient client = factory.create();
+        if (pool != null) {
+            client.getHttpClient().setConnectionPool(pool);
+        }
+        return client;
+    }
+
+    private void evictRotatedCertificates(String endpoint, String previousFingerprint, String certFingerprint) {
+        List<ClientKey> rotatedKeys = clients.asMap().keySet().stream()
+                .filter(key -> key.endpoint.equals(endpoint) && !key.certFingerprint.equals(certFingerprint))
+                .collect(Collectors.toList());
+        LOGGER.info("Certificates of Cloudera Manager endpoint {} have been changed, evicting its {} clients from the pool", endpoint,
+                rotatedKeys.size());
+        clients.invalidateAll(rotatedKeys);
+        if (!certFingerprintsByEndpoint.asMap().containsValue(previousFingerprint)) {
+            socketFactories.invalidate(previousFingerprint);
+        }
+    }
+
+    private String endpoint(HttpClientConfig clientConfig) {
+        return clientConfig.isClusterProxyEnabled()
+                ? clientConfig.getClusterProxyUrl() + '/' + clientConfig.getClusterCrn()
+                : clientConfig.getApiAddress();
+    }
+
+    private String certFingerprint(HttpClientConfig clientConfig) {
+        return sha256(String.join("|", String.valueOf(clientConfig.getServerCert()), String.valueOf(clientConfig.getClientCert()),
+                String.valueOf(clientConfig.getClientKey())));
+    }
+
+    private String sha256(String value) {
+        return Hashing.sha256().hashString(String.valueOf(value), StandardCharsets.UTF_8).toString();
+    }
+
+    @FunctionalInterface
+    public interface ClientFactory {
+        ApiClient create() throws ClouderaManagerClientInitException;
+    }
+
+    @FunctionalInterface
+    public interface SslContextFactory {
+        SSLContext create() throws Exception;
+    }
+
+    private static class ClientKey {
+
+        private final String endpoint;
+
+        private final String basePath;
+
+        private final String userName;
+
+        private final String passwordHash;
+
+        private final String certFingerprint;
+
+        ClientKey(String endpoint, String basePath, String userName, String passwordHash, String certFingerprint) {
+            this.endpoint = endpoint;
+            this.basePath = basePath;
+            this.userName = userName;
+            this.passwordHash = passwordHash;
+            this.certFingerprint = certFingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClientKey clientKey = (ClientKey) o;
+            return Objects.equals(endpoint, clientKey.endpoint)
+                    && Objects.equals(basePath, clientKey.basePath)
+                    && Objects.equals(userName, clientKey.userName)
+                    && passwordHash.equals(clientKey.passwordHash)
+                    && certFingerprint.equals(clientKey.certFingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, basePath, userName, passwordHash, certFingerprint);
+        }
+
+        @Override
+        public String toString() {
+            return "ClientKey{basePath='" + basePath + '\'' + ", userName='" + userName + '\'' + '}';
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.sequenceiq.cloudbreak.cm.client;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
-import javax.net.ssl.SSLContext;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLSocketFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.ssl.SSLContexts;
@@ -44,19 +45,27 @@ public class ClouderaManagerApiClientProvider {
     @Inject
     private CmOkHttpTracingInterceptor cmOkHttpTracingInterceptor;
 
+    @Inject
+    private ClouderaManagerApiClientPool clientPool;
+
+    private final HostnameVerifier hostnameVerifier = CertificateTrustManager.hostnameVerifier();
+
     public ApiClient getDefaultClient(Integer gatewayPort, HttpClientConfig clientConfig, String apiVersion) throws ClouderaManagerClientInitException {
-        ApiClient client = getClouderaManagerClient(clientConfig, gatewayPort, "admin", "admin", apiVersion);
-        client.getHttpClient().interceptors().add(cmOkHttpTracingInterceptor);
-        if (clientConfig.isClusterProxyEnabled()) {
-            client.addDefaultHeader("Proxy-Ignore-Auth", "true");
-        }
-        return client;
+        return getClouderaManagerClient(clientConfig, gatewayPort, "admin", "admin", apiVersion);
     }
 
     public ApiClient getClient(Integer gatewayPort, String user, String password, HttpClientConfig clientConfig) throws ClouderaManagerClientInitException {
         return getApiClientByApiVersion(gatewayPort, user, password, clientConfig, API_V_31);
     }
 
+    /**
+     * Creates a new client that is not shared through the pool, for the callers that customise the http client of the client.
+     */
+    public ApiClient createClient(Integer gatewayPort, String user, String password, HttpClientConfig clientConfig)
+            throws ClouderaManagerClientInitException {
+        return createApiClientWithContext(clientConfig, getBasePath(clientConfig, gatewayPort, API_V_31), user, password);
+    }
+
     private ApiClient getApiClientByApiVersion(Integer gatewayPort, String user, String password, HttpClientConfig clientConfig, String apiVersion)
             throws ClouderaManagerClientInitException {
         if (StringUtils.isNoneBlank(user, password)) {
@@ -88,16 +97,29 @@ public class ClouderaManagerApiClientProvider {
 
     private ApiClient getApiClientWithContext(HttpClientConfig clientConfig, Integer port, String userName, String password, String context)
             throws ClouderaManagerClientInitException {
+        String basePath = getBasePath(clientConfig, port, context);
+        return clientPool.getClient(basePath, clientConfig, userName, password,
+                () -> createApiClientWithContext(clientConfig, basePath, userName, password));
+    }
+
+    private String getBasePath(HttpClientConfig clientConfig, Integer port, String context) {
+        if (clientConfig.isClusterProxyEnabled()) {
+            return clientConfig.getClusterProxyUrl() + "/proxy/" + clientConfig.getClusterCrn() + "/cb-internal" + context;
+        } else if (port != null && !HostUtil.hasPort(clientConfig.getApiAddress())) {
+            return "https://" + clientConfig.getApiAddress() + ':' + port + context;
+        } else {
+            return "https://" + clientConfig.getApiAddress() + context;
+        }
+    }
+
+    private ApiClient createApiClientWithContext(HttpClientConfig clientConfig, String basePath, String userName, String password)
+            throws ClouderaManagerClientInitException {
         try {
             ApiClient cmClient = new ApiClient();
+            cmClient.setBasePath(basePath);
             if (clientConfig.isClusterProxyEnabled()) {
-                cmClient.setBasePath(clientConfig.getClusterProxyUrl() + "/proxy/" + clientConfig.getClusterCrn() + "/cb-internal" + context);
                 cmClient.addDefaultHeader("Proxy-Ignore-Auth", "true");
                 cmClient.addDefaultHeader("Proxy-With-Timeout", clusterProxyTimeout.toString());
-            } else if (port != null && !HostUtil.hasPort(clientConfig.getApiAddress())) {
-                cmClient.setBasePath("https://" + clientConfig.getApiAddress() + ':' + port + context);
-            } else {
-                cmClient.setBasePath("https://" + clientConfig.getApiAddress() + context);
             }
             return decorateClient(clientConfig, userName, password, cmClient);
         } catch (Exception e) {
@@ -112,12 +134,12 @@ public class ClouderaManagerApiClientProvider {
         cmClient.setVerifyingSsl(true);
         try {
             if (isCmSslConfigValidClientConfigValid(clientConfig) && !clientConfig.isClusterProxyEnabled()) {
-                SSLContext sslContext = SSLContexts.custom()
+                SSLSocketFactory socketFactory = clientPool.getSslSocketFactory(clientConfig, () -> SSLContexts.custom()
                         .loadTrustMaterial(KeyStoreUtil.createTrustStore(clientConfig.getServerCert()), null)
                         .loadKeyMaterial(KeyStoreUtil.createKeyStore(clientConfig.getClientCert(), clientConfig.getClientKey()), "consul".toCharArray())
-                        .build();
-                cmClient.getHttpClient().setSslSocketFactory(sslContext.getSocketFactory());
-                cmClient.getHttpClient().setHostnameVerifier(CertificateTrustManager.hostnameVerifier());
+                        .build());
+                cmClient.getHttpClient().setSslSocketFactory(socketFactory);
+                cmClient.getHttpClient().setHostnameVerifier(hostnameVerifier);
             }
             cmClient.getHttpClient().interceptors().add(cmOkHttpTracingInterceptor);
             cmClient.getHttpClient().setConnectTimeout(Long.valueOf(connectTimeoutSeconds), TimeUnit.SECONDS);
@@ -0,0 +1,78 @@
+package com.sequenceiq.cloudbreak.cm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloudera.api.swagger.ClouderaManagerResourceApi;
+import com.cloudera.api.swagger.model.ApiVersionInfo;
+
+/**
+ * Compares the TLS handshakes per operation of the Cloudera Manager clients created on every call, with a new SSL context each, with
+ * the pooled clients. The operations call the version endpoint of a local HTTPS stub, which counts the handshakes. Set the
+ * {@code cm.benchmark.operations} system property to change the number of operations.
+ * <p>
+ * It is excluded from the unit tests, run it with the {@code benchmark} task.
+ */
+class ClouderaManagerApiClientPoolBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClouderaManagerApiClientPoolBenchmark.class);
+
+    private final int operations = Integer.getInteger("cm.benchmark.operations", 200);
+
+    private final ClouderaManagerHttpsStub stub = new ClouderaManagerHttpsStub();
+
+    private final ClouderaManagerApiClientPool clientPool = new ClouderaManagerApiClientPool();
+
+    private ClouderaManagerApiClientProvider underTest;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub.start();
+        underTest = ClouderaManagerHttpsStub.clientProvider(clientPool);
+        ReflectionTestUtils.setField(clientPool, "maxSize", 100L);
+        ReflectionTestUtils.setField(clientPool, "expireAfterAccessMinutes", 30L);
+        ReflectionTestUtils.setField(clientPool, "maxIdleConnections", 5);
+        ReflectionTestUtils.setField(clientPool, "keepAliveSeconds", 300L);
+        clientPool.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    @Test
+    void benchmarkClientPerCallAgainstPooledClients() throws Exception {
+        ReflectionTestUtils.setField(clientPool, "enabled", false);
+        long start = System.nanoTime();
+        callVersionEndpoint();
+        long perCallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int perCallHandshakes = stub.getAndResetHandshakes();
+
+        ReflectionTestUtils.setField(clientPool, "enabled", true);
+        start = System.nanoTime();
+        callVersionEndpoint();
+        long pooledMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int pooledHandshakes = stub.getAndResetHandshakes();
+
+        LOGGER.info("{} Cloudera Manager operations: client per call {} handshakes ({} per operation) in {} ms, pooled clients {} handshakes "
+                        + "({} per operation) in {} ms", operations, perCallHandshakes, (double) perCallHandshakes / operations, perCallMillis,
+                pooledHandshakes, (double) pooledHandshakes / operations, pooledMillis);
+    }
+
+    private void callVersionEndpoint() throws Exception {
+        for (int i = 0; i < operations; i++) {
+            ApiVersionInfo version = new ClouderaManagerResourceApi(underTest.getClient(stub.getPort(), "admin", "admin", stub.getClientConfig()))
+                    .getVersion();
+            assertEquals(ClouderaManagerHttpsStub.VERSION, version.getVersion());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.sequenceiq.cloudbreak.cm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloudera.api.swagger.client.ApiClient;
+import com.sequenceiq.cloudbreak.client.HttpClientConfig;
+
+class ClouderaManagerApiClientPoolTest {
+
+    private static final String BASE_PATH = "https://10.0.0.1:7183/api/v31";
+
+    private final ClouderaManagerApiClientPool underTest = new ClouderaManagerApiClientPool();
+
+    private final AtomicInteger createdClients = new AtomicInteger();
+
+    private final AtomicInteger createdContexts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "maxSize", 100L);
+        ReflectionTestUtils.setField(underTest, "expireAfterAccessMinutes", 30L);
+        ReflectionTestUtils.setField(underTest, "maxIdleConnections", 5);
+        ReflectionTestUtils.setField(underTest, "keepAliveSeconds", 60L);
+        underTest.init();
+    }
+
+    @Test
+    void testClientOfTheSameBasePathAndCredentialsIsReused() throws Exception {
+        HttpClientConfig clientConfig = clientConfig("server-cert");
+
+        ApiClient first = underTest.getClient(BASE_PATH, clientConfig, "admin", "password", this::newClient);
+        ApiClient second = underTest.getClient(BASE_PATH, clientConfig, "admin", "password", this::newClient);
+
+        assertSame(first, second);
+        assertEquals(1, createdClients.get());
+        assertEquals(1L, underTest.size());
+    }
+
+    @Test
+    void testDifferentBasePathOrCredentialsCreateNewClient() throws Exception {
+        HttpClientConfig clientConfig = clientConfig("server-cert");
+
+        ApiClient client = underTest.getClient(BASE_PATH, clientConfig, "admin", "password", this::newClient);
+        ApiClient rootClient = underTest.getClient("https://10.0.0.1:7183/api", clientConfig, "admin", "password", this::newClient);
+        ApiClient otherUserClient = underTest.getClient(BASE_PATH, clientConfig, "cloudbreak", "password", this::newClient);
+        ApiClient otherPasswordClient = underTest.getClient(BASE_PATH, clientConfig, "admin", "changed", this::newClient);
+
+        assertNotSame(client, rootClient);
+        assertNotSame(client, otherUserClient);
+        assertNotSame(client, otherPasswordClient);
+        assertEquals(4, createdClients.get());
+    }
+
+    @Test
+    void testRotatedCertificatesEvictTheClientsAndTheSocketFactoryOfTheEndpoint() throws Exception {
+        HttpClientConfig clientConfig = clientConfig("server-cert");
+        ApiClient client = underTest.getClient(BASE_PATH, clientConfig, "admin", "password", this::newClient);
+        SSLSocketFactory socketFactory = underTest.getSslSocketFactory(clientConfig, this::newSslContext);
+
+        HttpClientConfig rotatedClientConfig = clientConfig("rotated-server-cert");
+        ApiClient rotatedClient = underTest.getClient(BASE_PATH, rotatedClientConfig, "admin", "password", this::newClient);
+        SSLSocketFactory rotatedSocketFactory = underTest.getSslSocketFactory(rotatedClientConfig, this::newSslContext);
+
+        assertNotSame(client, rotatedClient);
+        assertNotSame(socketFactory, rotatedSocketFactory);
+        assertEquals(1L, underTest.size());
+        assertNotSame(socketFactory, underTest.getSslSocketFactory(clientConfig, this::newSslContext));
+        assertEquals(3, createdContexts.get());
+    }
+
+    @Test
+    void testClientsOfTheSameCertificatesShareTheSocketFactory() throws Exception {
+        HttpClientConfig clientConfig = clientConfig("server-cert");
+
+        SSLSocketFactory first = underTest.getSslSocketFactory(clientConfig, this::newSslContext);
+        SSLSocketFactory second = underTest.getSslSocketFactory(clientConfig("server-cert"), this::newSslContext);
+
+        assertSame(first, second);
+        assertEquals(1, createdContexts.get());
+    }
+
+    @Test
+    void testPooledClientsShareTheConnectionPool() throws Exception {
+        ApiClient client = underTest.getClient(BASE_PATH, clientConfig("server-cert"), "admin", "password", this::newClient);
+        ApiClient otherClient = underTest.getClient("https://10.0.0.2:7183/api/v31", new HttpClientConfig("10.0.0.2", "other-server-cert", "client-cert",
+                "client-key"), "admin", "password", this::newClient);
+
+        assertSame(client.getHttpClient().getConnectionPool(), otherClient.getHttpClient().getConnectionPool());
+    }
+
+    @Test
+    void testNewClientIsCreatedOnEveryCallWhenThePoolIsDisabled() throws Exception {
+        ReflectionTestUtils.setField(underTest, "enabled", false);
+        HttpClientConfig clientConfig = clientConfig("server-cert");
+
+        ApiClient first = underTest.getClient(BASE_PATH, clientConfig, "admin", "password", this::newClient);
+        ApiClient second = underTest.getClient(BASE_PATH, clientConfig, "admin", "password", this::newClient);
+        underTest.getSslSocketFactory(clientConfig, this::newSslContext);
+        underTest.getSslSocketFactory(clientConfig, this::newSslContext);
+
+        assertNotSame(first, second);
+        assertEquals(2, createdClients.get());
+        assertEquals(2, createdContexts.get());
+        assertEquals(0L, underTest.size());
+    }
+
+    private HttpClientConfig clientConfig(String serverCert) {
+        return new HttpClientConfig("10.0.0.1", serverCert, "client-cert", "client-key");
+    }
+
+    private ApiClient newClient() {
+        createdClients.incrementAndGet();
+        return new ApiClient();
+    }
+
+    private SSLContext newSslContext() throws Exception {
+        createdContexts.incrementAndGet();
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, null, null);
+        return sslContext;
+    }
+}
@@ -0,0 +1,55 @@
+package com.sequenceiq.cloudbreak.cm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloudera.api.swagger.ClouderaManagerResourceApi;
+import com.cloudera.api.swagger.client.ApiClient;
+
+class ClouderaManagerApiClientProviderTest {
+
+    private static final int CALLS = 5;
+
+    private final ClouderaManagerHttpsStub stub = new ClouderaManagerHttpsStub();
+
+    private final ClouderaManagerApiClientPool clientPool = new ClouderaManagerApiClientPool();
+
+    private ClouderaManagerApiClientProvider underTest;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub.start();
+        underTest = ClouderaManagerHttpsStub.clientProvider(clientPool);
+        ReflectionTestUtils.setField(clientPool, "enabled", true);
+        ReflectionTestUtils.setField(clientPool, "maxSize", 100L);
+        ReflectionTestUtils.setField(clientPool, "expireAfterAccessMinutes", 30L);
+        ReflectionTestUtils.setField(clientPool, "maxIdleConnections", 5);
+        ReflectionTestUtils.setField(clientPool, "keepAliveSeconds", 300L);
+        clientPool.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    @Test
+    void testCallsOfAnEndpointShareThePooledClientAndItsTlsConnection() throws Exception {
+        ApiClient first = underTest.getClient(stub.getPort(), "admin", "admin", stub.getClientConfig());
+
+        for (int i = 0; i < CALLS; i++) {
+            ApiClient client = underTest.getClient(stub.getPort(), "admin", "admin", stub.getClientConfig());
+            assertSame(first, client);
+            assertEquals(ClouderaManagerHttpsStub.VERSION, new ClouderaManagerResourceApi(client).getVersion().getVersion());
+        }
+
+        assertEquals(1L, clientPool.size());
+        assertTrue(stub.getAndResetHandshakes() < CALLS);
+    }
+}
@@ -0,0 +1,106 @@
+package com.sequenceiq.cloudbreak.cm.client;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.ssl.SSLContexts;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.certificate.PkiUtil;
+import com.sequenceiq.cloudbreak.client.HttpClientConfig;
+import com.sequenceiq.cloudbreak.client.KeyStoreUtil;
+import com.sequenceiq.cloudbreak.cm.client.tracing.CmOkHttpTracingInterceptor;
+import com.squareup.okhttp.Interceptor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+
+/**
+ * Local HTTPS stub of the version endpoint of Cloudera Manager with a self-signed certificate. It counts the TLS connections it accepts,
+ * every one of them is a handshake.
+ */
+class ClouderaManagerHttpsStub {
+
+    static final String VERSION = "7.2.0";
+
+    private final AtomicInteger handshakes = new AtomicInteger();
+
+    private HttpsServer server;
+
+    private HttpClientConfig clientConfig;
+
+    void start() throws Exception {
+        KeyPair keyPair = PkiUtil.generateKeypair();
+        String cert = PkiUtil.convert(PkiUtil.cert(keyPair, "localhost", keyPair));
+        String key = PkiUtil.convert(keyPair.getPrivate());
+        clientConfig = new HttpClientConfig("localhost", cert, cert, key);
+        server = HttpsServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(SSLContexts.custom()
+                .loadKeyMaterial(KeyStoreUtil.createKeyStore(cert, key), "consul".toCharArray()).build()) {
+            @Override
+            public void configure(HttpsParameters params) {
+                handshakes.incrementAndGet();
+                super.configure(params);
+            }
+        });
+        server.createContext("/", this::handleVersionRequest);
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    HttpClientConfig getClientConfig() {
+        return clientConfig;
+    }
+
+    int getAndResetHandshakes() {
+        return handshakes.getAndSet(0);
+    }
+
+    /**
+     * Creates a client provider with the given pool, its tracing interceptor only passes the requests on.
+     */
+    static ClouderaManagerApiClientProvider clientProvider(ClouderaManagerApiClientPool clientPool) throws IOException {
+        CmOkHttpTracingInterceptor tracingInterceptor = mock(CmOkHttpTracingInterceptor.class);
+        when(tracingInterceptor.intercept(any())).thenAnswer(invocation -> {
+            Interceptor.Chain chain = invocation.getArgument(0);
+            return chain.proceed(chain.request());
+        });
+        ClouderaManagerApiClientProvider clientProvider = new ClouderaManagerApiClientProvider();
+        ReflectionTestUtils.setField(clientProvider, "clusterProxyTimeout", 90);
+        ReflectionTestUtils.setField(clientProvider, "connectTimeoutSeconds", 10);
+        ReflectionTestUtils.setField(clientProvider, "readTimeoutSeconds", 10);
+        ReflectionTestUtils.setField(clientProvider, "writeTimeoutSeconds", 10);
+        ReflectionTestUtils.setField(clientProvider, "cmOkHttpTracingInterceptor", tracingInterceptor);
+        ReflectionTestUtils.setField(clientProvider, "clientPool", clientPool);
+        return clientProvider;
+    }
+
+    private void handleVersionRequest(HttpExchange exchange) throws IOException {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            requestBody.readAllBytes();
+        }
+        byte[] response = ("{\"version\":\"" + VERSION + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(response);
+        }
+    }
+}
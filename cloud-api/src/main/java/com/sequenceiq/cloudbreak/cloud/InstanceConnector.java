@@ -1,8 +1,11 @@
 package com.sequenceiq.cloudbreak.cloud;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
 import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
 import com.sequenceiq.cloudbreak.cloud.model.CloudResource;
 import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
@@ -69,6 +72,21 @@ public interface InstanceConnector {
         return check(authenticatedContext, vms);
     }
 
+    /**
+     * Invoked to check the instances of several stacks that use the same credential in the same region with as few provider calls as possible.
+     * (Retry logic won't be used in this case) The returned statuses must refer to the given {@link CloudInstance} objects, so the caller can assign
+     * them back to their stacks. The instances that the provider does not know about can be left out of the result, the caller checks their stacks
+     * one by one.
+     *
+     * @param authenticatedContext the authenticated context of one of the stacks which holds the client object
+     * @param vmsByStack           the VM instances for which the status needs to be checked, grouped by the cloud context of their stack
+     * @return status of instances, or empty if the connector can check the instances of one stack at a time only
+     */
+    default Optional<List<CloudVmInstanceStatus>> checkStacksWithoutRetry(AuthenticatedContext authenticatedContext,
+            Map<CloudContext, List<CloudInstance>> vmsByStack) {
+        return Optional.empty();
+    }
+
     /**
      * Gets the Consol output of a particular VM, useful for debugging and also required for setting up a secure connection between Cloudbreak and VM instances
      * since the SSH fingerprint is written into the console output.
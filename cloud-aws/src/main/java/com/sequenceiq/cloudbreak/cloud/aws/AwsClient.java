@@ -39,6 +39,7 @@ import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClient;
 import com.sequenceiq.cloudbreak.cloud.aws.client.AmazonAutoScalingRetryClient;
 import com.sequenceiq.cloudbreak.cloud.aws.client.AmazonCloudFormationRetryClient;
+import com.sequenceiq.cloudbreak.cloud.aws.client.AwsClientPool;
 import com.sequenceiq.cloudbreak.cloud.aws.tracing.AwsTracingRequestHandler;
 import com.sequenceiq.cloudbreak.cloud.aws.view.AuthenticatedContextView;
 import com.sequenceiq.cloudbreak.cloud.aws.view.AwsCredentialView;
@@ -61,6 +62,12 @@ public class AwsClient {
 
     private static final int MAX_CONSECUTIVE_RETRIES_BEFORE_THROTTLING = 200;
 
+    private static final String DEFAULT_CONFIGURATION = "default";
+
+    private static final String MINIMAL_RETRIES_CONFIGURATION = "minimalRetries";
+
+    private static final String SDK_DEFAULT_CONFIGURATION = "sdkDefault";
+
     @Inject
     private AwsSessionCredentialClient credentialClient;
 
@@ -76,6 +83,9 @@ public class AwsClient {
     @Inject
     private Tracer tracer;
 
+    @Inject
+    private AwsClientPool awsClientPool;
+
     public AuthenticatedContext createAuthenticatedContext(CloudContext cloudContext, CloudCredential cloudCredential) {
         AuthenticatedContext authenticatedContext = new AuthenticatedContext(cloudContext, cloudCredential);
         try {
@@ -96,11 +106,13 @@ public class AwsClient {
     }
 
     public AmazonEC2Client createAccess(AwsCredentialView awsCredential, String regionName) {
-        return createAccessWithClientConfiguration(awsCredential, regionName, getDefaultClientConfiguration());
+        return awsClientPool.getClient(awsCredential, regionName, AmazonEC2Client.class, DEFAULT_CONFIGURATION,
+                () -> createAccessWithClientConfiguration(awsCredential, regionName, getDefaultClientConfiguration()));
     }
 
     public AmazonEC2Client createAccessWithMinimalRetries(AwsCredentialView awsCredential, String regionName) {
-        return createAccessWithClientConfiguration(awsCredential, regionName, getClientConfigurationWithMinimalRetries());
+        return awsClientPool.getClient(awsCredential, regionName, AmazonEC2Client.class, MINIMAL_RETRIES_CONFIGURATION,
+                () -> createAccessWithClientConfiguration(awsCredential, regionName, getClientConfigurationWithMinimalRetries()));
     }
 
     public AmazonEC2Client createAccessWithClientConfiguration(AwsCredentialView awsCredential, String regionName, ClientConfiguration clientConfiguration) {
@@ -124,6 +136,11 @@ public class AwsClient {
     }
 
     public AmazonCloudWatchClient createCloudWatchClient(AwsCredentialView awsCredential, String regionName) {
+        return awsClientPool.getClient(awsCredential, regionName, AmazonCloudWatchClient.class, SDK_DEFAULT_CONFIGURATION,
+                () -> buildCloudWatchClient(awsCredential, regionName));
+    }
+
+    private AmazonCloudWatchClient buildCloudWatchClient(AwsCredentialView awsCredential, String regionName) {
         AmazonCloudWatchClient client = isRoleAssumeRequired(awsCredential) ?
                 new AmazonCloudWatchClient(createAwsSessionCredentialProvider(awsCredential)) :
                 new AmazonCloudWatchClient(createAwsCredentials(awsCredential));
@@ -132,29 +149,38 @@ public class AwsClient {
     }
 
     public AWSSecurityTokenService createAwsSecurityTokenService(AwsCredentialView awsCredential) {
-        return isRoleAssumeRequired(awsCredential)
-                ? new AWSSecurityTokenServiceClient(createAwsSessionCredentialProvider(awsCredential))
-                : new AWSSecurityTokenServiceClient(createAwsCredentials(awsCredential));
+        return awsClientPool.getClient(awsCredential, null, AWSSecurityTokenService.class, SDK_DEFAULT_CONFIGURATION,
+                () -> isRoleAssumeRequired(awsCredential)
+                        ? new AWSSecurityTokenServiceClient(createAwsSessionCredentialProvider(awsCredential))
+                        : new AWSSecurityTokenServiceClient(createAwsCredentials(awsCredential)));
     }
 
     public AmazonIdentityManagement createAmazonIdentityManagement(AwsCredentialView awsCredential) {
-        return AmazonIdentityManagementClientBuilder.standard()
-                .withRequestHandlers(new AwsTracingRequestHandler(tracer))
-                .withRegion(awsDefaultZoneProvider.getDefaultZone(awsCredential))
-                .withClientConfiguration(getDefaultClientConfiguration())
-                .withCredentials(getCredentialProvider(awsCredential))
-                .build();
+        String regionName = awsDefaultZoneProvider.getDefaultZone(awsCredential);
+        return awsClientPool.getClient(awsCredential, regionName, AmazonIdentityManagement.class, DEFAULT_CONFIGURATION,
+                () -> AmazonIdentityManagementClientBuilder.standard()
+                        .withRequestHandlers(new AwsTracingRequestHandler(tracer))
+                        .withRegion(regionName)
+                        .withClientConfiguration(getDefaultClientConfiguration())
+                        .withCredentials(getCredentialProvider(awsCredential))
+                        .build());
     }
 
     public AWSKMS createAWSKMS(AwsCredentialView awsCredential, String regionName) {
-        return AWSKMSClientBuilder.standard()
-                .withRequestHandlers(new AwsTracingRequestHandler(tracer))
-                .withCredentials(getCredentialProvider(awsCredential))
-                .withRegion(regionName)
-                .build();
+        return awsClientPool.getClient(awsCredential, regionName, AWSKMS.class, SDK_DEFAULT_CONFIGURATION,
+                () -> AWSKMSClientBuilder.standard()
+                        .withRequestHandlers(new AwsTracingRequestHandler(tracer))
+                        .withCredentials(getCredentialProvider(awsCredential))
+                        .withRegion(regionName)
+                        .build());
     }
 
     public AmazonCloudFormationClient createCloudFormationClient(AwsCredentialView awsCredential, String regionName) {
+        return awsClientPool.getClient(awsCredential, regionName, AmazonCloudFormationClient.class, DEFAULT_CONFIGURATION,
+                () -> buildCloudFormationClient(awsCredential, regionName));
+    }
+
+    private AmazonCloudFormationClient buildCloudFormationClient(AwsCredentialView awsCredential, String regionName) {
         AmazonCloudFormationClient client = isRoleAssumeRequired(awsCredential) ?
                 new AmazonCloudFormationClient(createAwsSessionCredentialProvider(awsCredential), getDefaultClientConfiguration()) :
                 new AmazonCloudFormationClient(createAwsCredentials(awsCredential), getDefaultClientConfiguration());
@@ -172,6 +198,11 @@ public class AwsClient {
     }
 
     public AmazonElasticLoadBalancingClient createElasticLoadBalancingClient(AwsCredentialView awsCredential, String regionName) {
+        return awsClientPool.getClient(awsCredential, regionName, AmazonElasticLoadBalancingClient.class, DEFAULT_CONFIGURATION,
+                () -> buildElasticLoadBalancingClient(awsCredential, regionName));
+    }
+
+    private AmazonElasticLoadBalancingClient buildElasticLoadBalancingClient(AwsCredentialView awsCredential, String regionName) {
         AmazonElasticLoadBalancingClient client = isRoleAssumeRequired(awsCredential) ?
             new AmazonElasticLoadBalancingClient(createAwsSessionCredentialProvider(awsCredential), getDefaultClientConfiguration()) :
             new AmazonElasticLoadBalancingClient(createAwsCredentials(awsCredential), getDefaultClientConfiguration());
@@ -181,6 +212,11 @@ public class AwsClient {
     }
 
     public AmazonAutoScalingClient createAutoScalingClient(AwsCredentialView awsCredential, String regionName) {
+        return awsClientPool.getClient(awsCredential, regionName, AmazonAutoScalingClient.class, DEFAULT_CONFIGURATION,
+                () -> buildAutoScalingClient(awsCredential, regionName));
+    }
+
+    private AmazonAutoScalingClient buildAutoScalingClient(AwsCredentialView awsCredential, String regionName) {
         AmazonAutoScalingClient client = isRoleAssumeRequired(awsCredential) ?
                 new AmazonAutoScalingClient(createAwsSessionCredentialProvider(awsCredential), getDefaultClientConfiguration()) :
                 new AmazonAutoScalingClient(createAwsCredentials(awsCredential), getDefaultClientConfiguration());
@@ -194,30 +230,34 @@ public class AwsClient {
     }
 
     public AmazonS3 createS3Client(AwsCredentialView awsCredential) {
-        return AmazonS3ClientBuilder.standard()
-                .withRequestHandlers(new AwsTracingRequestHandler(tracer))
-                .withCredentials(getCredentialProvider(awsCredential))
-                .withRegion(awsDefaultZoneProvider.getDefaultZone(awsCredential))
-                .withForceGlobalBucketAccessEnabled(Boolean.TRUE)
-                .build();
+        String regionName = awsDefaultZoneProvider.getDefaultZone(awsCredential);
+        return awsClientPool.getClient(awsCredential, regionName, AmazonS3.class, SDK_DEFAULT_CONFIGURATION,
+                () -> AmazonS3ClientBuilder.standard()
+                        .withRequestHandlers(new AwsTracingRequestHandler(tracer))
+                        .withCredentials(getCredentialProvider(awsCredential))
+                        .withRegion(regionName)
+                        .withForceGlobalBucketAccessEnabled(Boolean.TRUE)
+                        .build());
     }
 
     public AmazonDynamoDB createDynamoDbClient(AwsCredentialView awsCredential, String region) {
-        return AmazonDynamoDBClientBuilder.standard()
-                .withRequestHandlers(new AwsTracingRequestHandler(tracer))
-                .withClientConfiguration(getDynamoDbClientConfiguration())
-                .withCredentials(getCredentialProvider(awsCredential))
-                .withRegion(region)
-                .build();
+        return awsClientPool.getClient(awsCredential, region, AmazonDynamoDB.class, DEFAULT_CONFIGURATION,
+                () -> AmazonDynamoDBClientBuilder.standard()
+                        .withRequestHandlers(new AwsTracingRequestHandler(tracer))
+                        .withClientConfiguration(getDynamoDbClientConfiguration())
+                        .withCredentials(getCredentialProvider(awsCredential))
+                        .withRegion(region)
+                        .build());
     }
 
     public AmazonRDS createRdsClient(AwsCredentialView awsCredentialView, String region) {
-        return AmazonRDSClientBuilder.standard()
-                .withRequestHandlers(new AwsTracingRequestHandler(tracer))
-                .withCredentials(getCredentialProvider(awsCredentialView))
-                .withClientConfiguration(getDefaultClientConfiguration())
-                .withRegion(region)
-                .build();
+        return awsClientPool.getClient(awsCredentialView, region, AmazonRDS.class, DEFAULT_CONFIGURATION,
+                () -> AmazonRDSClientBuilder.standard()
+                        .withRequestHandlers(new AwsTracingRequestHandler(tracer))
+                        .withCredentials(getCredentialProvider(awsCredentialView))
+                        .withClientConfiguration(getDefaultClientConfiguration())
+                        .withRegion(region)
+                        .build());
     }
 
     private ClientConfiguration getDefaultClientConfiguration() {
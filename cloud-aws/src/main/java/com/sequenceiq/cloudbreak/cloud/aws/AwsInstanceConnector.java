@@ -5,9 +5,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -34,12 +36,14 @@ import com.amazonaws.services.ec2.model.Instance;
 import com.amazonaws.services.ec2.model.Reservation;
 import com.amazonaws.services.ec2.model.StartInstancesRequest;
 import com.amazonaws.services.ec2.model.StopInstancesRequest;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.sequenceiq.cloudbreak.cloud.InstanceConnector;
 import com.sequenceiq.cloudbreak.cloud.aws.poller.PollerUtil;
 import com.sequenceiq.cloudbreak.cloud.aws.util.AwsInstanceStatusMapper;
 import com.sequenceiq.cloudbreak.cloud.aws.view.AuthenticatedContextView;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
 import com.sequenceiq.cloudbreak.cloud.exception.CloudOperationNotSupportedException;
 import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
 import com.sequenceiq.cloudbreak.cloud.model.CloudResource;
@@ -53,6 +57,10 @@ public class AwsInstanceConnector implements InstanceConnector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AwsInstanceConnector.class);
 
+    private static final int MAX_INSTANCE_IDS_PER_REQUEST = 1000;
+
+    private static final Pattern INSTANCE_ID_PATTERN = Pattern.compile("i-[a-z0-9]*");
+
     @Inject
     private PollerUtil pollerUtil;
 
@@ -200,8 +208,7 @@ public class AwsInstanceConnector implements InstanceConnector {
     private void handleEC2Exception(List<CloudInstance> vms, AmazonEC2Exception e) throws AmazonEC2Exception {
         LOGGER.debug("Exception received from AWS: ", e);
         if (e.getErrorCode().equalsIgnoreCase(INSTANCE_NOT_FOUND_ERROR_CODE)) {
-            Pattern pattern = Pattern.compile("i-[a-z0-9]*");
-            Matcher matcher = pattern.matcher(e.getErrorMessage());
+            Matcher matcher = INSTANCE_ID_PATTERN.matcher(e.getErrorMessage());
             if (matcher.find()) {
                 String doesNotExistInstanceId = matcher.group();
                 LOGGER.debug("Remove instance from vms: {}", doesNotExistInstanceId);
@@ -231,10 +238,9 @@ public class AwsInstanceConnector implements InstanceConnector {
 
         String region = ac.getCloudContext().getLocation().getRegion().value();
         try {
-            DescribeInstancesResult result = new AuthenticatedContextView(ac).getAmazonEC2Client()
-                    .describeInstances(new DescribeInstancesRequest().withInstanceIds(instanceIds));
-            LOGGER.debug("Result from AWS: {}", result);
-            return fillCloudVmInstanceStatuses(ac, cloudInstancesWithInstanceId, region, result);
+            List<Reservation> reservations = describeInstances(new AuthenticatedContextView(ac).getAmazonEC2Client(), instanceIds);
+            LOGGER.debug("Result from AWS: {}", reservations);
+            return fillCloudVmInstanceStatuses(ac, cloudInstancesWithInstanceId, region, reservations);
         } catch (AmazonEC2Exception e) {
             handleEC2Exception(vms, e);
         } catch (SdkClientException e) {
@@ -244,16 +250,72 @@ public class AwsInstanceConnector implements InstanceConnector {
         return Collections.emptyList();
     }
 
+    @Override
+    public Optional<List<CloudVmInstanceStatus>> checkStacksWithoutRetry(AuthenticatedContext ac, Map<CloudContext, List<CloudInstance>> vmsByStack) {
+        List<CloudInstance> cloudInstancesWithInstanceId = vmsByStack.values().stream()
+                .flatMap(List::stream)
+                .filter(cloudInstance -> cloudInstance.getInstanceId() != null)
+                .collect(Collectors.toList());
+        LOGGER.debug("Check {} instances of {} stacks on aws side", cloudInstancesWithInstanceId.size(), vmsByStack.size());
+        AmazonEC2Client amazonEC2Client = new AuthenticatedContextView(ac).getAmazonEC2Client();
+        String region = ac.getCloudContext().getLocation().getRegion().value();
+        List<CloudVmInstanceStatus> cloudVmInstanceStatuses = new ArrayList<>();
+        for (List<CloudInstance> cloudInstances : Lists.partition(cloudInstancesWithInstanceId, MAX_INSTANCE_IDS_PER_REQUEST)) {
+            cloudVmInstanceStatuses.addAll(checkExistingInstances(ac, amazonEC2Client, region, cloudInstances));
+        }
+        return Optional.of(cloudVmInstanceStatuses);
+    }
+
+    private List<CloudVmInstanceStatus> checkExistingInstances(AuthenticatedContext ac, AmazonEC2Client amazonEC2Client, String region,
+            List<CloudInstance> cloudInstances) {
+        List<CloudInstance> remainingInstances = new ArrayList<>(cloudInstances);
+        while (!remainingInstances.isEmpty()) {
+            List<String> instanceIds = remainingInstances.stream().map(CloudInstance::getInstanceId).collect(Collectors.toList());
+            try {
+                return fillCloudVmInstanceStatuses(ac, remainingInstances, region, describeInstances(amazonEC2Client, instanceIds));
+            } catch (AmazonEC2Exception e) {
+                Set<String> notFoundInstanceIds = getNotFoundInstanceIds(e);
+                if (!remainingInstances.removeIf(cloudInstance -> notFoundInstanceIds.contains(cloudInstance.getInstanceId()))) {
+                    throw e;
+                }
+                LOGGER.debug("Instances {} do not exist on AWS, checking the other instances without them", notFoundInstanceIds);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private Set<String> getNotFoundInstanceIds(AmazonEC2Exception e) {
+        Set<String> instanceIds = new HashSet<>();
+        if (INSTANCE_NOT_FOUND_ERROR_CODE.equalsIgnoreCase(e.getErrorCode()) && e.getErrorMessage() != null) {
+            Matcher matcher = INSTANCE_ID_PATTERN.matcher(e.getErrorMessage());
+            while (matcher.find()) {
+                instanceIds.add(matcher.group());
+            }
+        }
+        return instanceIds;
+    }
+
+    private List<Reservation> describeInstances(AmazonEC2 amazonEC2Client, Collection<String> instanceIds) {
+        List<Reservation> reservations = new ArrayList<>();
+        DescribeInstancesRequest describeInstancesRequest = new DescribeInstancesRequest().withInstanceIds(instanceIds);
+        DescribeInstancesResult result;
+        do {
+            result = amazonEC2Client.describeInstances(describeInstancesRequest);
+            reservations.addAll(result.getReservations());
+            describeInstancesRequest.setNextToken(result.getNextToken());
+        } while (result.getNextToken() != null);
+        return reservations;
+    }
+
     private List<CloudVmInstanceStatus> fillCloudVmInstanceStatuses(AuthenticatedContext ac, List<CloudInstance> cloudIntancesWithInstanceId, String region,
-            DescribeInstancesResult result) {
+            List<Reservation> reservations) {
+        Map<String, CloudInstance> cloudInstancesByInstanceId = cloudIntancesWithInstanceId.stream()
+                .collect(Collectors.toMap(CloudInstance::getInstanceId, Function.identity(), (first, second) -> first));
         List<CloudVmInstanceStatus> cloudVmInstanceStatuses = new ArrayList<>();
-        for (Reservation reservation : result.getReservations()) {
+        for (Reservation reservation : reservations) {
             for (Instance instance : reservation.getInstances()) {
-                Optional<CloudInstance> cloudInstanceForInstanceId = cloudIntancesWithInstanceId.stream()
-                        .filter(cloudInstance -> cloudInstance.getInstanceId().equals(instance.getInstanceId()))
-                        .findFirst();
-                if (cloudInstanceForInstanceId.isPresent()) {
-                    CloudInstance cloudInstance = cloudInstanceForInstanceId.get();
+                CloudInstance cloudInstance = cloudInstancesByInstanceId.get(instance.getInstanceId());
+                if (cloudInstance != null) {
                     LOGGER.debug("AWS instance [{}] is in {} state, region: {}, stack: {}",
                             instance.getInstanceId(), instance.getState().getName(), region, ac.getCloudContext().getId());
                     cloudVmInstanceStatuses.add(new CloudVmInstanceStatus(cloudInstance,
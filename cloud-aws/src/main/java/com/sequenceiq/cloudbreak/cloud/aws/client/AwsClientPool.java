@@ -0,0 +1,195 @@
+package com.sequenceiq.cloudbreak.cloud.aws.client;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.amazonaws.AmazonWebServiceClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.cloud.aws.view.AwsCredentialView;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded registry of the AWS SDK clients, keyed by the credential, the region, the type of the client and the name of its client
+ * configuration, so the operations of a credential share the connection pool and the session credential provider of a client
+ * instead of creating new ones on every call.
+ * <p>
+ * The key contains a fingerprint of the secrets of the credential: when a credential is modified, its clients are evicted and new
+ * ones are created with the new secrets. Idle clients expire after {@code cb.aws.client.pool.expire.minutes}. Removed clients are shut
+ * down, because the idle connection reaper of the SDK keeps their connection pool alive otherwise. A removed client may still be used by
+ * the operations that got it before, so it is shut down only {@code cb.aws.client.pool.shutdown.delay.minutes} later, which has to be
+ * longer than the longest operation on a client. The last fingerprints of the
+ * credentials are bounded and expire the same way. The pooled clients are shared between threads, so their state, like the region,
+ * must not be modified by the callers.
+ */
+@Component
+public class AwsClientPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AwsClientPool.class);
+
+    private static final String CACHE_NAME = "awsClientPool";
+
+    private static final String CREATED_METRIC = "aws.client.created";
+
+    @Value("${cb.aws.client.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cb.aws.client.pool.max.size:1000}")
+    private long maxSize;
+
+    @Value("${cb.aws.client.pool.expire.minutes:30}")
+    private long expireAfterAccessMinutes;
+
+    @Value("${cb.aws.client.pool.shutdown.delay.minutes:60}")
+    private long shutdownDelayMinutes;
+
+    private ScheduledExecutorService shutdownExecutor;
+
+    private Cache<String, String> fingerprintsByCredentialId;
+
+    private Cache<ClientKey, Object> clients;
+
+    @PostConstruct
+    public void init() {
+        shutdownExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("aws-client-shutdown-%d")
+                .setDaemon(true)
+                .build());
+        fingerprintsByCredentialId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                .build();
+        clients = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                .executor(Runnable::run)
+                .removalListener(this::shutdown)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, clients, CACHE_NAME);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (shutdownExecutor != null) {
+            shutdownExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the pooled client of the credential, or creates it with the factory if the pool does not contain it yet. Credentials
+     * without an id, like the ones under verification, are not pooled.
+     */
+    public <T> T getClient(AwsCredentialView awsCredential, String region, Class<T> clientType, String configurationName, Supplier<T> factory) {
+        String credentialId = awsCredential.getId();
+        if (!enabled || credentialId == null) {
+            return create(clientType, factory);
+        }
+        String fingerprint = fingerprint(awsCredential);
+        String previousFingerprint = fingerprintsByCredentialId.asMap().put(credentialId, fingerprint);
+        if (previousFingerprint != null && !previousFingerprint.equals(fingerprint)) {
+            evictChangedCredential(credentialId, fingerprint);
+        }
+        ClientKey key = new ClientKey(credentialId, fingerprint, region, clientType, configurationName);
+        return clientType.cast(clients.get(key, k -> create(clientType, factory)));
+    }
+
+    public long size() {
+        return clients.estimatedSize();
+    }
+
+    private <T> T create(Class<T> clientType, Supplier<T> factory) {
+        Metrics.counter(CREATED_METRIC, "client", clientType.getSimpleName()).increment();
+        return factory.get();
+    }
+
+    private void shutdown(ClientKey key, Object client, RemovalCause cause) {
+        LOGGER.debug("AWS client removed from the pool: {}, cause: {}", key, cause);
+        if (client instanceof AmazonWebServiceClient) {
+            shutdownExecutor.schedule(() -> {
+                LOGGER.debug("Shutting down the removed AWS client: {}", key);
+                ((AmazonWebServiceClient) client).shutdown();
+            }, shutdownDelayMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    private void evictChangedCredential(String credentialId, String fingerprint) {
+        List<ClientKey> changedKeys = clients.asMap().keySet().stream()
+                .filter(key -> key.credentialId.equals(credentialId) && !key.fingerprint.equals(fingerprint))
+                .collect(Collectors.toList());
+        LOGGER.info("Credential {} has been changed, evicting its {} AWS clients from the pool", credentialId, changedKeys.size());
+        clients.invalidateAll(changedKeys);
+    }
+
+    private String fingerprint(AwsCredentialView awsCredential) {
+        return DigestUtils.sha256Hex(String.join("|", String.valueOf(awsCredential.getRoleArn()), String.valueOf(awsCredential.getExternalId()),
+                String.valueOf(awsCredential.getAccessKey()), String.valueOf(awsCredential.getSecretKey()),
+                String.valueOf(awsCredential.isGovernmentCloudEnabled())));
+    }
+
+    private static class ClientKey {
+
+        private final String credentialId;
+
+        private final String fingerprint;
+
+        private final String region;
+
+        private final Class<?> clientType;
+
+        private final String configurationName;
+
+        ClientKey(String credentialId, String fingerprint, String region, Class<?> clientType, String configurationName) {
+            this.credentialId = credentialId;
+            this.fingerprint = fingerprint;
+            this.region = region;
+            this.clientType = clientType;
+            this.configurationName = configurationName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClientKey clientKey = (ClientKey) o;
+            return credentialId.equals(clientKey.credentialId)
+                    && fingerprint.equals(clientKey.fingerprint)
+                    && Objects.equals(region, clientKey.region)
+                    && clientType.equals(clientKey.clientType)
+                    && Objects.equals(configurationName, clientKey.configurationName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(credentialId, fingerprint, region, clientType, configurationName);
+        }
+
+        @Override
+        public String toString() {
+            return "ClientKey{credentialId='" + credentialId + '\'' + ", region='" + region + '\'' + ", clientType=" + clientType.getSimpleName()
+                    + ", configurationName='" + configurationName + '\'' + '}';
+        }
+    }
+}
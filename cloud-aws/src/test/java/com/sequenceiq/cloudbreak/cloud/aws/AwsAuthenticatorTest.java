@@ -22,6 +22,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.amazonaws.AmazonClientException;
@@ -29,6 +30,7 @@ import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.auth.InstanceProfileCredentialsProvider;
 import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.sequenceiq.cloudbreak.cloud.aws.client.AwsClientPool;
 import com.sequenceiq.cloudbreak.cloud.aws.view.AwsCredentialView;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
 import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
@@ -41,6 +43,7 @@ import com.sequenceiq.cloudbreak.service.RetryService;
 import io.opentracing.Tracer;
 
 @ExtendWith(SpringExtension.class)
+@TestPropertySource(properties = "cb.aws.client.pool.enabled=false")
 public class AwsAuthenticatorTest {
 
     @Inject
@@ -146,6 +149,7 @@ public class AwsAuthenticatorTest {
     @Configuration
     @Import({AwsAuthenticator.class,
             AwsClient.class,
+            AwsClientPool.class,
             AwsSessionCredentialClient.class,
             AwsDefaultZoneProvider.class,
             AwsEnvironmentVariableChecker.class,
@@ -20,6 +20,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.inject.Inject;
 
@@ -56,6 +58,7 @@ import com.amazonaws.services.ec2.model.StartInstancesResult;
 import com.amazonaws.services.ec2.model.StopInstancesRequest;
 import com.amazonaws.services.ec2.model.StopInstancesResult;
 import com.dyngr.exception.PollerStoppedException;
+import com.sequenceiq.cloudbreak.cloud.aws.client.AwsClientPool;
 import com.sequenceiq.cloudbreak.cloud.aws.poller.PollerUtil;
 import com.sequenceiq.cloudbreak.cloud.aws.util.AwsInstanceStatusMapper;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
@@ -74,6 +77,7 @@ import io.opentracing.Tracer;
 @ExtendWith(SpringExtension.class)
 @TestPropertySource(properties = {
         "cb.aws.hostkey.verify=true",
+        "cb.aws.client.pool.enabled=false",
         "cb.vm.status.polling.interval=1",
         "cb.vm.status.polling.attempt=7",
         "cb.vm.retry.backoff.delay=20",
@@ -191,6 +195,65 @@ public class AwsInstanceConnectorTest {
         Assert.assertThat(result, hasSize(2));
     }
 
+    @Test
+    public void testCheckStacksFollowsTheNextToken() {
+        List<String> nextTokens = new ArrayList<>();
+        when(amazonEC2Client.describeInstances(any(DescribeInstancesRequest.class))).then(invocation -> {
+            String nextToken = ((DescribeInstancesRequest) invocation.getArgument(0)).getNextToken();
+            nextTokens.add(nextToken);
+            return nextToken == null
+                    ? new DescribeInstancesResult().withReservations(getReservation(getAwsInstance("i-1", "running", 16), "1")).withNextToken("page2")
+                    : new DescribeInstancesResult().withReservations(getReservation(getAwsInstance("i-2", "stopped", 80), "2"));
+        });
+
+        List<CloudInstance> instances = getCloudInstances();
+
+        List<CloudVmInstanceStatus> result = underTest.checkStacksWithoutRetry(authenticatedContext,
+                Map.of(authenticatedContext.getCloudContext(), instances)).get();
+
+        Assert.assertEquals(Arrays.asList(null, "page2"), nextTokens);
+        Assert.assertThat(result, hasSize(2));
+        Assert.assertThat(result, hasItem(allOf(hasProperty("cloudInstance", is(instances.get(1))), hasProperty("status", is(InstanceStatus.STOPPED)))));
+    }
+
+    @Test
+    public void testCheckStacksRetriesWithoutTheInstancesNotFound() {
+        List<List<String>> requestedInstanceIds = new ArrayList<>();
+        when(amazonEC2Client.describeInstances(any(DescribeInstancesRequest.class))).then(invocation -> {
+            List<String> instanceIds = ((DescribeInstancesRequest) invocation.getArgument(0)).getInstanceIds();
+            requestedInstanceIds.add(List.copyOf(instanceIds));
+            if (instanceIds.contains("i-1")) {
+                AmazonEC2Exception exception = new AmazonEC2Exception("Not found");
+                exception.setErrorCode(INSTANCE_NOT_FOUND_ERROR_CODE);
+                exception.setErrorMessage("The instance ID 'i-1' does not exist");
+                throw exception;
+            }
+            return new DescribeInstancesResult().withReservations(getReservation(getAwsInstance("i-2", "running", 16), "2"));
+        });
+
+        List<CloudVmInstanceStatus> result = underTest.checkStacksWithoutRetry(authenticatedContext,
+                Map.of(authenticatedContext.getCloudContext(), getCloudInstances())).get();
+
+        Assert.assertEquals(List.of(List.of("i-1", "i-2"), List.of("i-2")), requestedInstanceIds);
+        Assert.assertThat(result, hasSize(1));
+        Assert.assertEquals("i-2", result.get(0).getCloudInstance().getInstanceId());
+    }
+
+    @Test
+    public void testCheckStacksQueriesAtMostThousandInstancesInARequest() {
+        List<Integer> requestSizes = new ArrayList<>();
+        when(amazonEC2Client.describeInstances(any(DescribeInstancesRequest.class))).then(invocation -> {
+            requestSizes.add(((DescribeInstancesRequest) invocation.getArgument(0)).getInstanceIds().size());
+            return new DescribeInstancesResult();
+        });
+        CloudContext otherStack = new CloudContext(2L, "other", "crn2", "AWS", "AWS", Location.location(Region.region("region")), "user", "account");
+
+        underTest.checkStacksWithoutRetry(authenticatedContext, Map.of(authenticatedContext.getCloudContext(), cloudInstances(0, 700),
+                otherStack, cloudInstances(700, 1500)));
+
+        Assert.assertEquals(List.of(1000, 500), requestSizes);
+    }
+
     @Test
     public void testStartPollingWithSuccess() {
         String status = "Running";
@@ -435,6 +498,10 @@ public class AwsInstanceConnectorTest {
         return List.of(instance1, instance2);
     }
 
+    private List<CloudInstance> cloudInstances(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> new CloudInstance("i-" + i, null, null)).collect(Collectors.toList());
+    }
+
     private Reservation getReservation(Instance instances1, String s) {
         return new Reservation().withReservationId(s).withInstances(instances1);
     }
@@ -448,6 +515,7 @@ public class AwsInstanceConnectorTest {
     @Import({AwsInstanceConnector.class,
             AwsAuthenticator.class,
             AwsClient.class,
+            AwsClientPool.class,
             PollerUtil.class,
             AwsSessionCredentialClient.class,
             AwsDefaultZoneProvider.class,
@@ -0,0 +1,120 @@
+package com.sequenceiq.cloudbreak.cloud.aws.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.sequenceiq.cloudbreak.cloud.aws.view.AwsCredentialView;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+
+class AwsClientPoolTest {
+
+    private static final String REGION = "eu-west-1";
+
+    private static final String CONFIGURATION = "default";
+
+    private static final long TIMEOUT_MILLIS = 10000L;
+
+    private final AtomicInteger createdClients = new AtomicInteger();
+
+    private AwsClientPool underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new AwsClientPool();
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "maxSize", 10L);
+        ReflectionTestUtils.setField(underTest, "expireAfterAccessMinutes", 10L);
+        ReflectionTestUtils.setField(underTest, "shutdownDelayMinutes", 60L);
+        underTest.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void testClientIsReusedForTheSameCredentialRegionAndType() {
+        AwsCredentialView credential = credential("id", "secret");
+
+        Object client = underTest.getClient(credential, REGION, Object.class, CONFIGURATION, this::createClient);
+        Object sameClient = underTest.getClient(credential("id", "secret"), REGION, Object.class, CONFIGURATION, this::createClient);
+        Object otherRegionClient = underTest.getClient(credential, "us-east-1", Object.class, CONFIGURATION, this::createClient);
+        Object otherConfigurationClient = underTest.getClient(credential, REGION, Object.class, "minimalRetries", this::createClient);
+
+        assertSame(client, sameClient);
+        assertNotSame(client, otherRegionClient);
+        assertNotSame(client, otherConfigurationClient);
+        assertEquals(3, createdClients.get());
+    }
+
+    @Test
+    void testClientsOfAChangedCredentialAreEvicted() {
+        Object client = underTest.getClient(credential("id", "secret"), REGION, Object.class, CONFIGURATION, this::createClient);
+        underTest.getClient(credential("id", "secret"), "us-east-1", Object.class, CONFIGURATION, this::createClient);
+
+        Object newClient = underTest.getClient(credential("id", "rotated"), REGION, Object.class, CONFIGURATION, this::createClient);
+
+        assertNotSame(client, newClient);
+        assertEquals(3, createdClients.get());
+        assertEquals(1L, underTest.size());
+    }
+
+    @Test
+    void testEvictedClientsAreShutDownAfterTheDelay() {
+        ReflectionTestUtils.setField(underTest, "shutdownDelayMinutes", 0L);
+        AmazonEC2Client client = mock(AmazonEC2Client.class);
+        AmazonEC2Client newClient = mock(AmazonEC2Client.class);
+        underTest.getClient(credential("id", "secret"), REGION, AmazonEC2Client.class, CONFIGURATION, () -> client);
+
+        underTest.getClient(credential("id", "rotated"), REGION, AmazonEC2Client.class, CONFIGURATION, () -> newClient);
+
+        verify(client, timeout(TIMEOUT_MILLIS)).shutdown();
+        verify(newClient, never()).shutdown();
+    }
+
+    @Test
+    void testClientEvictedWhileInUseIsNotShutDown() {
+        AmazonEC2Client client = mock(AmazonEC2Client.class);
+        AmazonEC2Client inUse = underTest.getClient(credential("id", "secret"), REGION, AmazonEC2Client.class, CONFIGURATION, () -> client);
+
+        underTest.getClient(credential("id", "rotated"), REGION, AmazonEC2Client.class, CONFIGURATION, () -> mock(AmazonEC2Client.class));
+        inUse.describeInstances();
+
+        assertEquals(1L, underTest.size());
+        verify(client).describeInstances();
+        verify(client, never()).shutdown();
+    }
+
+    @Test
+    void testCredentialWithoutIdIsNotPooled() {
+        Object client = underTest.getClient(credential(null, "secret"), REGION, Object.class, CONFIGURATION, this::createClient);
+        Object otherClient = underTest.getClient(credential(null, "secret"), REGION, Object.class, CONFIGURATION, this::createClient);
+
+        assertNotSame(client, otherClient);
+        assertEquals(0L, underTest.size());
+    }
+
+    private Object createClient() {
+        createdClients.incrementAndGet();
+        return new Object();
+    }
+
+    private AwsCredentialView credential(String id, String secretKey) {
+        return new AwsCredentialView(new CloudCredential(id, "name", Map.of("accessKey", "access", "secretKey", secretKey), false));
+    }
+}
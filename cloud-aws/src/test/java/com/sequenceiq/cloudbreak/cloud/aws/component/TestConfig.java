@@ -43,7 +43,6 @@ import freemarker.template.TemplateException;
 @TestPropertySource(properties = {
         "cb.max.aws.resource.name.length=200",
         "cb.gcp.stopStart.batch.size=2",
-        "cb.gcp.create.batch.size=2",
         "cb.aws.hostkey.verify=true",
         "cb.aws.spotinstances.enabled=true",
         "cb.aws.credential.cache.ttl=1"
@@ -0,0 +1,45 @@
+package com.sequenceiq.cloudbreak.concurrent;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Creates the bounded executors of the work that is moved off the request threads, like sending the structured events of the REST calls.
+ * The tasks run with the actor CRN and the MDC context of the submitting thread. A task is never dropped: when the queue is full or the
+ * executor is already shut down, it runs on the submitting thread. On shutdown the queued tasks are still completed, waiting at most the
+ * given number of seconds.
+ */
+public final class BoundedTaskExecutorFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoundedTaskExecutorFactory.class);
+
+    private BoundedTaskExecutorFactory() {
+    }
+
+    public static ThreadPoolTaskExecutor create(String threadNamePrefix, int poolSize, int queueCapacity, int awaitTerminationSeconds) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setTaskDecorator(new CompositeTaskDecorator(List.of(new ActorCrnTaskDecorator(), new MDCCleanerTaskDecorator())));
+        executor.setRejectedExecutionHandler(BoundedTaskExecutorFactory::runOnSubmittingThread);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        executor.initialize();
+        return executor;
+    }
+
+    private static void runOnSubmittingThread(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            LOGGER.debug("Executor is shut down, the task runs on the submitting thread");
+        } else {
+            LOGGER.debug("Queue of the executor is full, the task runs on the submitting thread");
+        }
+        task.run();
+    }
+}
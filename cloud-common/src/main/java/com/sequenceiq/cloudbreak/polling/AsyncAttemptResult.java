@@ -0,0 +1,43 @@
+package com.sequenceiq.cloudbreak.polling;
+
+public class AsyncAttemptResult<R> {
+
+    private static final AsyncAttemptResult<?> CONTINUE = new AsyncAttemptResult<>(false, null, null);
+
+    private final boolean finished;
+
+    private final R result;
+
+    private final Exception cause;
+
+    private AsyncAttemptResult(boolean finished, R result, Exception cause) {
+        this.finished = finished;
+        this.result = result;
+        this.cause = cause;
+    }
+
+    public static <R> AsyncAttemptResult<R> finishWith(R result) {
+        return new AsyncAttemptResult<>(true, result, null);
+    }
+
+    public static <R> AsyncAttemptResult<R> breakFor(Exception cause) {
+        return new AsyncAttemptResult<>(true, null, cause);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <R> AsyncAttemptResult<R> justContinue() {
+        return (AsyncAttemptResult<R>) CONTINUE;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public R getResult() {
+        return result;
+    }
+
+    public Exception getCause() {
+        return cause;
+    }
+}
@@ -0,0 +1,159 @@
+package com.sequenceiq.cloudbreak.polling;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerScheduledExecutor;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
+
+/**
+ * Polling engine which does not hold any thread between two attempts. The attempts are executed on a worker pool,
+ * the waiting between them is done by a small timer pool which only hands the next attempt over to the workers.
+ */
+@Component
+public class AsyncPollingEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncPollingEngine.class);
+
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 60L;
+
+    @Value("${cb.polling.async.timer.pool.size:1}")
+    private int timerPoolSize;
+
+    @Value("${cb.polling.async.worker.pool.size:40}")
+    private int workerPoolSize;
+
+    @Inject
+    private MetricService metricService;
+
+    private final AtomicInteger inFlightPolls = new AtomicInteger();
+
+    private ScheduledThreadPoolExecutor timer;
+
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void init() {
+        timer = new MDCCleanerScheduledExecutor(timerPoolSize, new ThreadFactoryBuilder().setNameFormat("async-polling-timer-%d").build());
+        timer.setRemoveOnCancelPolicy(true);
+        workers = new MDCCleanerThreadPoolExecutor(workerPoolSize, workerPoolSize, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat("async-polling-worker-%d").build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Starts polling with the given attempt. The first attempt is executed immediately, the following ones after the
+     * given interval elapsed since the previous attempt finished. Cancelling the returned future stops the polling
+     * before the next attempt.
+     *
+     * @param pollerName     name of the poller used in logs and metrics
+     * @param intervalMillis waits this many milliseconds between two attempts
+     * @param pollingAttempt the attempt to execute
+     */
+    public <R> CompletableFuture<R> poll(String pollerName, long intervalMillis, PollingAttempt<R> pollingAttempt) {
+        Poll<R> poll = new Poll<>(pollerName, intervalMillis, pollingAttempt, MDCBuilder.getMdcContextMap());
+        metricService.submit(PollingMetricType.POLLING_IN_FLIGHT, inFlightPolls.incrementAndGet());
+        poll.future.whenComplete((result, throwable) -> {
+            metricService.submit(PollingMetricType.POLLING_IN_FLIGHT, inFlightPolls.decrementAndGet());
+            metricService.incrementMetricCounter(PollingMetricType.POLLING_FINISHED, "poller", pollerName,
+                    "result", throwable == null ? "success" : throwable.getClass().getSimpleName());
+        });
+        submit(poll);
+        return poll.future;
+    }
+
+    public int getInFlightPolls() {
+        return inFlightPolls.get();
+    }
+
+    private void submit(Poll<?> poll) {
+        try {
+            workers.execute(poll);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Polling attempt of {} was rejected, the polling engine is shutting down.", poll.pollerName);
+            poll.future.completeExceptionally(e);
+        }
+    }
+
+    private void scheduleNext(Poll<?> poll) {
+        try {
+            timer.schedule(() -> submit(poll), poll.intervalMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Scheduling the next attempt of {} was rejected, the polling engine is shutting down.", poll.pollerName);
+            poll.future.completeExceptionally(e);
+        }
+    }
+
+    private final class Poll<R> implements Runnable {
+
+        private final String pollerName;
+
+        private final long intervalMillis;
+
+        private final PollingAttempt<R> pollingAttempt;
+
+        private final Map<String, String> mdcContext;
+
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private int attempt;
+
+        private Poll(String pollerName, long intervalMillis, PollingAttempt<R> pollingAttempt, Map<String, String> mdcContext) {
+            this.pollerName = pollerName;
+            this.intervalMillis = intervalMillis;
+            this.pollingAttempt = pollingAttempt;
+            this.mdcContext = mdcContext;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                LOGGER.debug("Polling of {} has been already finished or cancelled, skipping attempt {}.", pollerName, attempt);
+                return;
+            }
+            MDCBuilder.buildMdcContextFromMap(mdcContext);
+            long start = System.currentTimeMillis();
+            try {
+                AsyncAttemptResult<R> attemptResult = pollingAttempt.process(attempt);
+                if (!attemptResult.isFinished()) {
+                    attempt++;
+                    scheduleNext(this);
+                } else if (attemptResult.getCause() != null) {
+                    future.completeExceptionally(attemptResult.getCause());
+                } else {
+                    future.complete(attemptResult.getResult());
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Polling attempt {} of {} failed, stopping the polling.", attempt, pollerName, e);
+                future.completeExceptionally(e);
+            } finally {
+                metricService.submit(PollingMetricType.POLLING_ATTEMPT_LATENCY, System.currentTimeMillis() - start, Map.of("poller", pollerName));
+            }
+        }
+    }
+}
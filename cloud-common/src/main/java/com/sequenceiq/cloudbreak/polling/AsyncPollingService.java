@@ -0,0 +1,104 @@
+package com.sequenceiq.cloudbreak.polling;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Non-blocking counterpart of {@link PollingService}. Executes existing {@link StatusCheckerTask} implementations with
+ * the same semantics, but no thread is parked between the attempts.
+ */
+@Component
+public class AsyncPollingService<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncPollingService.class);
+
+    @Inject
+    private AsyncPollingEngine asyncPollingEngine;
+
+    /**
+     * Executes a {@link StatusCheckerTask} until it signals success, or the
+     * maximum attempts are reached. If maxAttempts is lower than 0,
+     * there will be no timeout.
+     *
+     * @param interval    waits this many milliseconds between status checking attempts
+     * @param maxAttempts signals how many times will the status check be executed before timeout
+     * @return a future which is completed with the result of the polling, or completed exceptionally if
+     * {@link StatusCheckerTask#handleException(Exception)} or {@link StatusCheckerTask#handleTimeout(Object)} throws
+     */
+    public CompletableFuture<Pair<PollingResult, Exception>> pollWithTimeout(StatusCheckerTask<T> statusCheckerTask, T t, long interval,
+            int maxAttempts, int maxConsecutiveFailures) {
+        return pollWithTimeout(statusCheckerTask, t, interval, new AttemptBasedTimeoutChecker(maxAttempts), maxConsecutiveFailures);
+    }
+
+    public CompletableFuture<Pair<PollingResult, Exception>> pollWithAbsoluteTimeout(StatusCheckerTask<T> statusCheckerTask, T t, long interval,
+            long maximumWaitTimeInSeconds, int maxConsecutiveFailures) {
+        return pollWithTimeout(statusCheckerTask, t, interval, new AbsolutTimeBasedTimeoutChecker(maximumWaitTimeInSeconds), maxConsecutiveFailures);
+    }
+
+    public CompletableFuture<Pair<PollingResult, Exception>> pollWithTimeout(StatusCheckerTask<T> statusCheckerTask, T t, long interval,
+            TimeoutChecker timeoutChecker, int maxConsecutiveFailures) {
+        StatusCheckerAttempt attempt = new StatusCheckerAttempt(statusCheckerTask, t, timeoutChecker, maxConsecutiveFailures);
+        return asyncPollingEngine.poll(statusCheckerTask.getClass().getSimpleName(), interval, attempt);
+    }
+
+    private final class StatusCheckerAttempt implements PollingAttempt<Pair<PollingResult, Exception>> {
+
+        private final StatusCheckerTask<T> statusCheckerTask;
+
+        private final T t;
+
+        private final TimeoutChecker timeoutChecker;
+
+        private final int maxConsecutiveFailures;
+
+        private int consecutiveFailures;
+
+        private Exception actual;
+
+        private StatusCheckerAttempt(StatusCheckerTask<T> statusCheckerTask, T t, TimeoutChecker timeoutChecker, int maxConsecutiveFailures) {
+            this.statusCheckerTask = statusCheckerTask;
+            this.t = t;
+            this.timeoutChecker = timeoutChecker;
+            this.maxConsecutiveFailures = maxConsecutiveFailures;
+        }
+
+        @Override
+        public AsyncAttemptResult<Pair<PollingResult, Exception>> process(int attempt) {
+            if (attempt > 0 && timeoutChecker.checkTimeout()) {
+                LOGGER.debug("Poller timeout.");
+                statusCheckerTask.handleTimeout(t);
+                return AsyncAttemptResult.finishWith(new ImmutablePair<>(PollingResult.TIMEOUT, actual));
+            }
+            if (statusCheckerTask.exitPolling(t)) {
+                LOGGER.debug("Poller exiting.");
+                return AsyncAttemptResult.finishWith(new ImmutablePair<>(PollingResult.EXIT, actual));
+            }
+            LOGGER.debug("Polling attempt {}.", attempt);
+            boolean success = false;
+            try {
+                success = statusCheckerTask.checkStatus(t);
+            } catch (Exception ex) {
+                consecutiveFailures++;
+                actual = ex;
+                LOGGER.debug("Exception occurred in the polling: {}. Number of consecutive failures: [{}/{}]",
+                        ex.getMessage(), consecutiveFailures, maxConsecutiveFailures, ex);
+            }
+            if (consecutiveFailures >= maxConsecutiveFailures) {
+                LOGGER.debug("Polling failure reached the limit which was {}, poller will drop the last exception.", maxConsecutiveFailures);
+                statusCheckerTask.handleException(actual);
+                return AsyncAttemptResult.finishWith(new ImmutablePair<>(PollingResult.FAILURE, actual));
+            } else if (success) {
+                LOGGER.debug(statusCheckerTask.successMessage(t));
+                return AsyncAttemptResult.finishWith(new ImmutablePair<>(PollingResult.SUCCESS, actual));
+            }
+            return AsyncAttemptResult.justContinue();
+        }
+    }
+}
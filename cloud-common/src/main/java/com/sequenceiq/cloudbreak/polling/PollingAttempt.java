@@ -0,0 +1,13 @@
+package com.sequenceiq.cloudbreak.polling;
+
+@FunctionalInterface
+public interface PollingAttempt<R> {
+    /**
+     * Executes one polling attempt. It must not block for the time between attempts, the
+     * {@link AsyncPollingEngine} schedules the next attempt when {@link AsyncAttemptResult#justContinue()} is returned.
+     *
+     * @param attempt zero based number of the current attempt
+     * @return the outcome of the attempt
+     */
+    AsyncAttemptResult<R> process(int attempt) throws Exception;
+}
@@ -0,0 +1,20 @@
+package com.sequenceiq.cloudbreak.polling;
+
+import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
+
+public enum PollingMetricType implements Metric {
+    POLLING_IN_FLIGHT("polling.async.inflight"),
+    POLLING_ATTEMPT_LATENCY("polling.async.attempt.latency"),
+    POLLING_FINISHED("polling.async.finished");
+
+    private final String metricName;
+
+    PollingMetricType(String metricName) {
+        this.metricName = metricName;
+    }
+
+    @Override
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,78 @@
+package com.sequenceiq.cloudbreak.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+class BoundedTaskExecutorFactoryTest {
+
+    @Test
+    void testTaskRunsOnTheSubmittingThreadWhenTheQueueIsFull() throws InterruptedException {
+        ThreadPoolTaskExecutor underTest = BoundedTaskExecutorFactory.create("test-", 1, 1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            underTest.execute(() -> await(release));
+            underTest.execute(() -> { });
+            AtomicReference<Thread> runningThread = new AtomicReference<>();
+
+            underTest.execute(() -> runningThread.set(Thread.currentThread()));
+
+            assertEquals(Thread.currentThread(), runningThread.get());
+        } finally {
+            release.countDown();
+            underTest.shutdown();
+        }
+    }
+
+    @Test
+    void testTaskRunsOnTheSubmittingThreadWhenTheExecutorIsShutDown() {
+        ThreadPoolTaskExecutor underTest = BoundedTaskExecutorFactory.create("test-", 1, 1, 10);
+        underTest.shutdown();
+        AtomicReference<Thread> runningThread = new AtomicReference<>();
+
+        underTest.execute(() -> runningThread.set(Thread.currentThread()));
+
+        assertEquals(Thread.currentThread(), runningThread.get());
+    }
+
+    @Test
+    void testQueuedTasksAreCompletedOnShutdown() throws InterruptedException {
+        ThreadPoolTaskExecutor underTest = BoundedTaskExecutorFactory.create("test-", 1, 10, 10);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        underTest.execute(() -> {
+            started.countDown();
+            sleep();
+            completed.incrementAndGet();
+        });
+        underTest.execute(completed::incrementAndGet);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        underTest.shutdown();
+
+        assertEquals(2, completed.get());
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.sequenceiq.cloudbreak.polling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+
+public class AsyncPollingServiceTest {
+
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    private final AsyncPollingEngine asyncPollingEngine = new AsyncPollingEngine();
+
+    private final AsyncPollingService<Object> underTest = new AsyncPollingService<>();
+
+    private final StatusCheckerTask<Object> statusCheckerTask = mock(StatusCheckerTask.class);
+
+    private final Object context = new Object();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(asyncPollingEngine, "timerPoolSize", 1);
+        ReflectionTestUtils.setField(asyncPollingEngine, "workerPoolSize", 2);
+        ReflectionTestUtils.setField(asyncPollingEngine, "metricService", mock(MetricService.class));
+        asyncPollingEngine.init();
+        ReflectionTestUtils.setField(underTest, "asyncPollingEngine", asyncPollingEngine);
+    }
+
+    @After
+    public void tearDown() {
+        asyncPollingEngine.shutdown();
+    }
+
+    @Test
+    public void testPollingSucceedsAfterRetries() throws Exception {
+        when(statusCheckerTask.checkStatus(context)).thenReturn(false, false, true);
+
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(statusCheckerTask, context, 10L, 5, 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(PollingResult.SUCCESS, result.getLeft());
+        verify(statusCheckerTask, times(3)).checkStatus(context);
+        assertEquals(0, asyncPollingEngine.getInFlightPolls());
+    }
+
+    @Test
+    public void testPollingTimesOut() throws Exception {
+        when(statusCheckerTask.checkStatus(context)).thenReturn(false);
+
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(statusCheckerTask, context, 10L, 3, 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(PollingResult.TIMEOUT, result.getLeft());
+        verify(statusCheckerTask, times(3)).checkStatus(context);
+        verify(statusCheckerTask).handleTimeout(context);
+    }
+
+    @Test
+    public void testPollingExitsBeforeFirstAttempt() throws Exception {
+        when(statusCheckerTask.exitPolling(context)).thenReturn(true);
+
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(statusCheckerTask, context, 10L, 3, 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(PollingResult.EXIT, result.getLeft());
+        verify(statusCheckerTask, times(0)).checkStatus(context);
+    }
+
+    @Test
+    public void testPollingFailsAfterConsecutiveFailures() throws Exception {
+        RuntimeException failure = new RuntimeException("failure");
+        when(statusCheckerTask.checkStatus(context)).thenThrow(failure);
+
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(statusCheckerTask, context, 10L, 5, 2).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(PollingResult.FAILURE, result.getLeft());
+        assertSame(failure, result.getRight());
+        verify(statusCheckerTask, times(2)).checkStatus(context);
+        verify(statusCheckerTask).handleException(failure);
+    }
+
+    @Test
+    public void testHandleExceptionFailureCompletesFutureExceptionally() throws Exception {
+        IllegalStateException handled = new IllegalStateException("handled");
+        when(statusCheckerTask.checkStatus(context)).thenThrow(new RuntimeException("failure"));
+        doThrow(handled).when(statusCheckerTask).handleException(any());
+
+        try {
+            underTest.pollWithTimeout(statusCheckerTask, context, 10L, 5, 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertSame(handled, e.getCause());
+            return;
+        }
+        fail("The polling should have been completed exceptionally");
+    }
+}
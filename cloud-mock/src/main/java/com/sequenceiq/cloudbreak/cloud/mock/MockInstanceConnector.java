@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -18,6 +19,7 @@ import org.springframework.stereotype.Service;
 
 import com.sequenceiq.cloudbreak.cloud.InstanceConnector;
 import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
 import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
 import com.sequenceiq.cloudbreak.cloud.model.CloudResource;
 import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
@@ -82,6 +84,17 @@ public class MockInstanceConnector implements InstanceConnector {
         }
     }
 
+    @Override
+    public Optional<List<CloudVmInstanceStatus>> checkStacksWithoutRetry(AuthenticatedContext authenticatedContext,
+            Map<CloudContext, List<CloudInstance>> vmsByStack) {
+        LOGGER.debug("Collect instance statuses of {} stacks from mock spi", vmsByStack.size());
+        // the mock infrastructure stores the instances per stack, so it is queried stack by stack
+        List<CloudVmInstanceStatus> cloudVmInstanceStatuses = new ArrayList<>();
+        vmsByStack.forEach((cloudContext, vms) ->
+                cloudVmInstanceStatuses.addAll(check(new AuthenticatedContext(cloudContext, authenticatedContext.getCloudCredential()), vms)));
+        return Optional.of(cloudVmInstanceStatuses);
+    }
+
     @Override
     public String getConsoleOutput(AuthenticatedContext authenticatedContext, CloudInstance vm) {
         return CB_FINGERPRINT;
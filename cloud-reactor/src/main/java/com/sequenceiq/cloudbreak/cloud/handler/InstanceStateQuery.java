@@ -1,6 +1,8 @@
 package com.sequenceiq.cloudbreak.cloud.handler;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import javax.inject.Inject;
 
@@ -34,4 +36,11 @@ public class InstanceStateQuery {
         return connector.instances().checkWithoutRetry(auth, instances);
     }
 
+    public Optional<List<CloudVmInstanceStatus>> getCloudVmInstanceStatusesOfStacksWithoutRetry(
+            CloudCredential cloudCredential, CloudContext cloudContext, Map<CloudContext, List<CloudInstance>> instancesByStack) {
+        CloudConnector<Object> connector = cloudPlatformConnectors.get(cloudContext.getPlatformVariant());
+        AuthenticatedContext auth = connector.authentication().authenticate(cloudContext, cloudCredential);
+        return connector.instances().checkStacksWithoutRetry(auth, instancesByStack);
+    }
+
 }
@@ -0,0 +1,58 @@
+package com.sequenceiq.cloudbreak.cloud.scheduler;
+
+import static com.sequenceiq.cloudbreak.cloud.scheduler.SyncPollingScheduler.FAILURE_TOLERANT_ATTEMPT;
+import static com.sequenceiq.cloudbreak.cloud.scheduler.SyncPollingScheduler.MAX_POLLING_ATTEMPT;
+import static com.sequenceiq.cloudbreak.cloud.scheduler.SyncPollingScheduler.POLLING_INTERVAL;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.cloud.task.PollTask;
+import com.sequenceiq.cloudbreak.polling.AsyncAttemptResult;
+import com.sequenceiq.cloudbreak.polling.AsyncPollingEngine;
+
+/**
+ * Non-blocking counterpart of {@link SyncPollingScheduler}. The returned future is completed with the result of the
+ * task, or exceptionally with the same exceptions the synchronous scheduler would throw.
+ */
+@Component
+public class AsyncPollingScheduler<T> {
+
+    @Inject
+    private AsyncPollingEngine asyncPollingEngine;
+
+    public CompletableFuture<T> schedule(PollTask<T> task) {
+        return schedule(task, POLLING_INTERVAL, MAX_POLLING_ATTEMPT, FAILURE_TOLERANT_ATTEMPT);
+    }
+
+    public CompletableFuture<T> schedule(PollTask<T> task, int interval, int maxAttempt, int maxFailureTolerant) {
+        int[] actualFailureTolerant = {0};
+        return asyncPollingEngine.poll(task.getClass().getSimpleName(), interval, attempt -> {
+            if (attempt >= maxAttempt) {
+                int duration = interval * maxAttempt;
+                return AsyncAttemptResult.breakFor(new TimeoutException(String.format("Task (%s) did not finish within %d seconds",
+                        task.getClass().getSimpleName(), TimeUnit.MILLISECONDS.toSeconds(duration))));
+            }
+            if (task.cancelled()) {
+                return AsyncAttemptResult.breakFor(new CancellationException("Task was cancelled."));
+            }
+            try {
+                T callResult = task.call();
+                if (task.completed(callResult)) {
+                    return AsyncAttemptResult.finishWith(callResult);
+                }
+            } catch (Exception ex) {
+                actualFailureTolerant[0]++;
+                if (actualFailureTolerant[0] >= maxFailureTolerant) {
+                    return AsyncAttemptResult.breakFor(ex);
+                }
+            }
+            return AsyncAttemptResult.justContinue();
+        });
+    }
+}
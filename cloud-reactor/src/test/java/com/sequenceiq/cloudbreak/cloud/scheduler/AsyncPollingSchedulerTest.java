@@ -0,0 +1,98 @@
+package com.sequenceiq.cloudbreak.cloud.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.cloud.task.PollTask;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.polling.AsyncPollingEngine;
+
+class AsyncPollingSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    private static final int INTERVAL = 1;
+
+    private final AsyncPollingEngine asyncPollingEngine = new AsyncPollingEngine();
+
+    private final AsyncPollingScheduler<String> underTest = new AsyncPollingScheduler<>();
+
+    private final PollTask<String> task = mock(PollTask.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(asyncPollingEngine, "timerPoolSize", 1);
+        ReflectionTestUtils.setField(asyncPollingEngine, "workerPoolSize", 2);
+        ReflectionTestUtils.setField(asyncPollingEngine, "metricService", mock(MetricService.class));
+        asyncPollingEngine.init();
+        ReflectionTestUtils.setField(underTest, "asyncPollingEngine", asyncPollingEngine);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncPollingEngine.shutdown();
+    }
+
+    @Test
+    void testResultOfTheCompletedTaskIsReturned() throws Exception {
+        when(task.call()).thenReturn("pending", "pending", "done");
+        when(task.completed("pending")).thenReturn(false);
+        when(task.completed("done")).thenReturn(true);
+
+        String result = underTest.schedule(task, INTERVAL, 10, 3).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals("done", result);
+        verify(task, times(3)).call();
+    }
+
+    @Test
+    void testFailuresAreToleratedUntilTheLimit() throws Exception {
+        RuntimeException failure = new RuntimeException("failure");
+        when(task.call()).thenThrow(new RuntimeException("first")).thenThrow(failure);
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> underTest.schedule(task, INTERVAL, 10, 2).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertSame(failure, exception.getCause());
+        verify(task, times(2)).call();
+    }
+
+    @Test
+    void testTimeoutAfterTheMaximumNumberOfAttempts() throws Exception {
+        when(task.call()).thenReturn("pending");
+        when(task.completed("pending")).thenReturn(false);
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> underTest.schedule(task, INTERVAL, 3, 3).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue(exception.getCause() instanceof TimeoutException);
+        verify(task, times(3)).call();
+    }
+
+    @Test
+    void testCancelledTaskIsNotCalled() throws Exception {
+        when(task.cancelled()).thenReturn(true);
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> underTest.schedule(task, INTERVAL, 10, 3).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue(exception.getCause() instanceof CancellationException);
+        verify(task, never()).call();
+    }
+}
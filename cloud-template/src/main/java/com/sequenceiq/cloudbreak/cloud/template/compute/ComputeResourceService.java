@@ -7,12 +7,8 @@ import static java.lang.String.format;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -57,9 +53,6 @@ public class ComputeResourceService {
     @Value("${cb.gcp.stopStart.batch.size}")
     private Integer stopStartBatchSize;
 
-    @Value("${cb.gcp.create.batch.size}")
-    private Integer createBatchSize;
-
     @Inject
     private AsyncTaskExecutor resourceBuilderExecutor;
 
@@ -100,23 +93,20 @@ public class ComputeResourceService {
             Iterable<CloudResource> resources, boolean cancellable) {
         LOGGER.debug("Deleting the following resources: {}", resources);
         List<CloudResourceStatus> results = new ArrayList<>();
-        Collection<Future<ResourceRequestResult<List<CloudResourceStatus>>>> futures = new ArrayList<>();
         Platform platform = auth.getCloudContext().getPlatform();
         List<ComputeResourceBuilder<ResourceBuilderContext>> builders = resourceBuilders.compute(platform);
         int numberOfBuilders = builders.size();
         for (int i = numberOfBuilders - 1; i >= 0; i--) {
             ComputeResourceBuilder<?> builder = builders.get(i);
             List<CloudResource> resourceList = getResources(builder.resourceType(), resources);
+            ResourceRequestWindow<List<CloudResourceStatus>> window = new ResourceRequestWindow<>(resourceBuilderExecutor,
+                    context.getParallelResourceRequest());
             for (CloudResource cloudResource : resourceList) {
                 ResourceDeleteThread thread = createThread(ResourceDeleteThread.NAME, context, auth, cloudResource, builder, cancellable);
-                Future<ResourceRequestResult<List<CloudResourceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                futures.add(future);
-                if (isRequestFull(futures.size(), context)) {
-                    results.addAll(flatList(waitForRequests(futures).get(FutureResult.SUCCESS)));
-                }
+                window.submit(thread);
             }
             // wait for builder type to finish before starting the next one
-            results.addAll(flatList(waitForRequests(futures).get(FutureResult.SUCCESS)));
+            results.addAll(flatList(window.waitForAll()));
         }
         return results;
     }
@@ -150,31 +140,14 @@ public class ComputeResourceService {
                 Collection<List<CloudInstance>> instancesChunks = allInstances.stream()
                         .collect(Collectors.groupingBy(it -> counter.getAndIncrement() / stopStartBatchSize)).values();
 
-                Collection<Future<ResourceRequestResult<List<CloudVmInstanceStatus>>>> futures = new ArrayList<>();
+                ResourceRequestWindow<List<CloudVmInstanceStatus>> window = new ResourceRequestWindow<>(resourceBuilderExecutor,
+                        context.getParallelResourceRequest());
                 for (List<CloudInstance> instancesChunk : instancesChunks) {
                     LOGGER.debug("Submit stop/start operation thread with {} instances", instancesChunk.size());
                     ResourceStopStartThread thread = createThread(ResourceStopStartThread.NAME, context, auth, instancesChunk, builder);
-                    Future<ResourceRequestResult<List<CloudVmInstanceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                    futures.add(future);
-                }
-
-                if (!futures.isEmpty()) {
-                    LOGGER.debug("Wait for all {} stop/start threads to finish", futures.size());
-                    List<List<CloudVmInstanceStatus>> instancesStatuses = waitForRequests(futures).get(FutureResult.SUCCESS);
-                    List<CloudVmInstanceStatus> allVmStatuses = instancesStatuses.stream().flatMap(Collection::stream).collect(Collectors.toList());
-                    List<CloudInstance> checkInstances = allVmStatuses.stream().map(CloudVmInstanceStatus::getCloudInstance).collect(Collectors.toList());
-                    PollTask<List<CloudVmInstanceStatus>> pollTask = resourcePollTaskFactory
-                            .newPollComputeStatusTask(builder, auth, context, checkInstances);
-                    try {
-                        List<CloudVmInstanceStatus> statuses = syncVMPollingScheduler.schedule(pollTask);
-                        results.addAll(statuses);
-                    } catch (Exception e) {
-                        LOGGER.debug("Failed to poll the instances status of {}, set the status to failed", checkInstances, e);
-                        results.addAll(allVmStatuses.stream()
-                                .map(vs -> new CloudVmInstanceStatus(vs.getCloudInstance(), InstanceStatus.FAILED, e.getMessage()))
-                                .collect(Collectors.toList()));
-                    }
+                    window.submit(thread, vmStatuses -> pollInstanceStatuses(context, auth, builder, vmStatuses));
                 }
+                window.waitForAll().forEach(results::addAll);
             } else {
                 LOGGER.debug("Cloud resources are not instances so they cannot be stopped or started, skipping builder type {}", builder.resourceType());
             }
@@ -182,35 +155,19 @@ public class ComputeResourceService {
         return results;
     }
 
-    private <T> Map<FutureResult, List<T>> waitForRequests(Collection<Future<ResourceRequestResult<T>>> futures) {
-        Map<FutureResult, List<T>> result = new EnumMap<>(FutureResult.class);
-        result.put(FutureResult.FAILED, new ArrayList<>());
-        result.put(FutureResult.SUCCESS, new ArrayList<>());
-        int requests = futures.size();
-        LOGGER.debug("Waiting for {} requests to finish", requests);
+    private List<CloudVmInstanceStatus> pollInstanceStatuses(ResourceBuilderContext context, AuthenticatedContext auth,
+            ComputeResourceBuilder<?> builder, List<CloudVmInstanceStatus> vmStatuses) {
+        List<CloudInstance> checkInstances = vmStatuses.stream().map(CloudVmInstanceStatus::getCloudInstance).collect(Collectors.toList());
+        PollTask<List<CloudVmInstanceStatus>> pollTask = resourcePollTaskFactory
+                .newPollComputeStatusTask(builder, auth, context, checkInstances);
         try {
-            for (Future<ResourceRequestResult<T>> future : futures) {
-                ResourceRequestResult<T> resourceRequestResult = future.get();
-                if (FutureResult.FAILED == resourceRequestResult.getStatus()) {
-                    result.get(FutureResult.FAILED).add(resourceRequestResult.getResult());
-                } else {
-                    result.get(FutureResult.SUCCESS).add(resourceRequestResult.getResult());
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.error("Failed to execute the request", e);
+            return syncVMPollingScheduler.schedule(pollTask);
+        } catch (Exception e) {
+            LOGGER.debug("Failed to poll the instances status of {}, set the status to failed", checkInstances, e);
+            return vmStatuses.stream()
+                    .map(vs -> new CloudVmInstanceStatus(vs.getCloudInstance(), InstanceStatus.FAILED, e.getMessage()))
+                    .collect(Collectors.toList());
         }
-        LOGGER.debug("{} requests have finished, continue with next group", requests);
-        futures.clear();
-        return result;
-    }
-
-    private boolean isRequestFull(int runningRequests, ResourceBuilderContext context) {
-        return isRequestFullWithCloudPlatform(1, runningRequests, context);
-    }
-
-    private boolean isRequestFullWithCloudPlatform(int numberOfBuilders, int runningRequests, ResourceBuilderContext context) {
-        return (runningRequests * numberOfBuilders) % context.getParallelResourceRequest() == 0;
     }
 
     private List<CloudResource> getResources(ResourceType resourceType, Iterable<CloudResource> resources) {
@@ -269,26 +226,18 @@ public class ComputeResourceService {
         public List<CloudResourceStatus> buildResources(CloudStack cloudStack, Iterable<Group> groups,
                 Boolean upscale, AdjustmentType adjustmentType, Long threshold) {
             List<CloudResourceStatus> results = new ArrayList<>();
-            Collection<Future<ResourceRequestResult<List<CloudResourceStatus>>>> futures = new ArrayList<>();
             for (Group group : getOrderedCopy(groups)) {
                 List<CloudInstance> instances = group.getInstances();
 
-                LOGGER.debug("Split the instances to {} chunks to execute the operation in parallel", createBatchSize);
-                AtomicInteger counter = new AtomicInteger();
-                Collection<List<CloudInstance>> instancesChunks = instances.stream()
-                        .collect(Collectors.groupingBy(it -> counter.getAndIncrement() / createBatchSize)).values();
-
-                for (List<CloudInstance> instancesChunk : instancesChunks) {
-                    LOGGER.debug("Submit the create operation thread with {} instances", instancesChunk.size());
-                    ResourceCreateThread thread = createThread(ResourceCreateThread.NAME, instancesChunk, group, ctx, auth, cloudStack);
-                    Future<ResourceRequestResult<List<CloudResourceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                    futures.add(future);
-                }
-
-                if (!futures.isEmpty()) {
-                    LOGGER.debug("Wait for all {} creation threads to finish", futures.size());
-                    List<List<CloudResourceStatus>> cloudResourceStatusChunks = waitForRequests(futures).get(FutureResult.SUCCESS);
-                    List<CloudResourceStatus> resourceStatuses = waitForResourceCreations(cloudResourceStatusChunks);
+                if (!instances.isEmpty()) {
+                    LOGGER.debug("Submit the create operation of {} instances, at most {} in parallel", instances.size(), ctx.getParallelResourceRequest());
+                    ResourceRequestWindow<List<CloudResourceStatus>> window = new ResourceRequestWindow<>(resourceBuilderExecutor,
+                            ctx.getParallelResourceRequest());
+                    for (CloudInstance instance : instances) {
+                        ResourceCreateThread thread = createThread(ResourceCreateThread.NAME, List.of(instance), group, ctx, auth, cloudStack);
+                        window.submit(thread, this::waitForResourceCreation);
+                    }
+                    List<CloudResourceStatus> resourceStatuses = flatList(window.waitForAll());
                     List<CloudResourceStatus> failedResources = filterResourceStatuses(resourceStatuses, ResourceStatus.FAILED);
                     CloudFailureContext cloudFailureContext = new CloudFailureContext(auth, new ScaleContext(upscale, adjustmentType, threshold), ctx);
                     cloudFailureHandler.rollback(cloudFailureContext, failedResources, resourceStatuses, group, resourceBuilders, getFullNodeCount(groups)
@@ -299,48 +248,43 @@ public class ComputeResourceService {
             return results;
         }
 
-        private List<CloudResourceStatus> waitForResourceCreations(List<List<CloudResourceStatus>> cloudResourceStatusChunks) {
-            List<CloudResourceStatus> result = new ArrayList<>();
-            for (List<CloudResourceStatus> cloudResourceStatuses : cloudResourceStatusChunks) {
-                List<CloudResourceStatus> instanceResourceStatuses = cloudResourceStatuses.stream()
-                        .filter(crs -> ResourceType.isInstanceResource(crs.getCloudResource().getType()))
-                        .filter(crs -> ResourceStatus.IN_PROGRESS.equals(crs.getStatus())).collect(Collectors.toList());
-                if (!instanceResourceStatuses.isEmpty()) {
-                    LOGGER.debug("Poll {} instance's state whether they have reached the created state", instanceResourceStatuses.size());
-                    CloudResource resourceProbe = instanceResourceStatuses.get(0).getCloudResource();
-                    Optional<ComputeResourceBuilder<ResourceBuilderContext>> builderOpt = determineComputeResourceBuilder(resourceProbe);
-                    if (builderOpt.isEmpty()) {
-                        LOGGER.debug("No resource builder found for type {}", resourceProbe.getType());
-                        continue;
-                    }
-                    ComputeResourceBuilder<ResourceBuilderContext> builder = builderOpt.get();
-                    LOGGER.debug("Determined resource builder for instances: {}", builder.resourceType());
-                    for (CloudResourceStatus instanceResourceStatus : instanceResourceStatuses) {
-                        PollGroup pollGroup = InMemoryStateStore.getStack(auth.getCloudContext().getId());
-                        if (pollGroup == null || CANCELLED.equals(pollGroup)) {
-                            throw new CancellationException(format("Building of %s has been cancelled", instanceResourceStatus));
-                        }
-                        CloudResource instance = instanceResourceStatus.getCloudResource();
-                        PollTask<List<CloudResourceStatus>> pollTask = resourcePollTaskFactory
-                                .newPollResourceTask(builder, auth, List.of(instance), ctx, true);
-                        try {
-                            List<CloudResourceStatus> statuses = syncPollingScheduler.schedule(pollTask);
-                            instanceResourceStatus.setStatus(statuses.get(0).getStatus());
-                        } catch (Exception e) {
-                            LOGGER.debug("Failure during polling the instance status of {}", instanceResourceStatus, e);
-                            cloudResourceStatuses.stream().filter(crs -> crs.getPrivateId().equals(instanceResourceStatus.getPrivateId())).forEach(crs -> {
-                                crs.setStatus(ResourceStatus.FAILED);
-                                crs.setStatusReason(e.getMessage());
-                            });
-                        }
-                    }
-                    result.addAll(cloudResourceStatuses);
-                } else {
-                    result.addAll(cloudResourceStatuses);
-                    LOGGER.debug("No instances to poll");
+        private List<CloudResourceStatus> waitForResourceCreation(List<CloudResourceStatus> cloudResourceStatuses) {
+            List<CloudResourceStatus> instanceResourceStatuses = cloudResourceStatuses.stream()
+                    .filter(crs -> ResourceType.isInstanceResource(crs.getCloudResource().getType()))
+                    .filter(crs -> ResourceStatus.IN_PROGRESS.equals(crs.getStatus())).collect(Collectors.toList());
+            if (instanceResourceStatuses.isEmpty()) {
+                LOGGER.debug("No instances to poll");
+                return cloudResourceStatuses;
+            }
+            LOGGER.debug("Poll {} instance's state whether they have reached the created state", instanceResourceStatuses.size());
+            CloudResource resourceProbe = instanceResourceStatuses.get(0).getCloudResource();
+            Optional<ComputeResourceBuilder<ResourceBuilderContext>> builderOpt = determineComputeResourceBuilder(resourceProbe);
+            if (builderOpt.isEmpty()) {
+                LOGGER.debug("No resource builder found for type {}", resourceProbe.getType());
+                return Collections.emptyList();
+            }
+            ComputeResourceBuilder<ResourceBuilderContext> builder = builderOpt.get();
+            LOGGER.debug("Determined resource builder for instances: {}", builder.resourceType());
+            for (CloudResourceStatus instanceResourceStatus : instanceResourceStatuses) {
+                PollGroup pollGroup = InMemoryStateStore.getStack(auth.getCloudContext().getId());
+                if (pollGroup == null || CANCELLED.equals(pollGroup)) {
+                    throw new CancellationException(format("Building of %s has been cancelled", instanceResourceStatus));
+                }
+                CloudResource instance = instanceResourceStatus.getCloudResource();
+                PollTask<List<CloudResourceStatus>> pollTask = resourcePollTaskFactory
+                        .newPollResourceTask(builder, auth, List.of(instance), ctx, true);
+                try {
+                    List<CloudResourceStatus> statuses = syncPollingScheduler.schedule(pollTask);
+                    instanceResourceStatus.setStatus(statuses.get(0).getStatus());
+                } catch (Exception e) {
+                    LOGGER.debug("Failure during polling the instance status of {}", instanceResourceStatus, e);
+                    cloudResourceStatuses.stream().filter(crs -> crs.getPrivateId().equals(instanceResourceStatus.getPrivateId())).forEach(crs -> {
+                        crs.setStatus(ResourceStatus.FAILED);
+                        crs.setStatusReason(e.getMessage());
+                    });
                 }
             }
-            return result;
+            return cloudResourceStatuses;
         }
 
         private List<CloudResourceStatus> filterResourceStatuses(List<CloudResourceStatus> cloudResourceStatuses, ResourceStatus resourceStatus) {
@@ -0,0 +1,117 @@
+package com.sequenceiq.cloudbreak.cloud.template.compute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Semaphore;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.cloud.scheduler.CancellationException;
+
+/**
+ * Sliding window of resource requests: at most the given number of requests run at the same time and a new request is started as
+ * soon as any running one finishes, instead of waiting for a whole batch. The results are returned in the order the requests finish.
+ *
+ * @param <T> the type of the result of the requests
+ */
+class ResourceRequestWindow<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceRequestWindow.class);
+
+    private final CompletionService<ResourceRequestResult<T>> completionService;
+
+    private final Semaphore permits;
+
+    private int pending;
+
+    ResourceRequestWindow(Executor executor, int size) {
+        completionService = new ExecutorCompletionService<>(executor);
+        permits = new Semaphore(Math.max(1, size));
+    }
+
+    /**
+     * Submits the request, waiting for a free slot in the window if the window is full.
+     */
+    void submit(Callable<ResourceRequestResult<T>> request) {
+        permits.acquireUninterruptibly();
+        try {
+            completionService.submit(() -> {
+                try {
+                    return request.call();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        pending++;
+    }
+
+    /**
+     * Submits the request like {@link #submit(Callable)}, and passes its successful result to the follow-up in the same task. The follow-up of
+     * a request, like polling its resources, starts as soon as the request finishes and it keeps the slot of the request until it finishes.
+     */
+    void submit(Callable<ResourceRequestResult<T>> request, UnaryOperator<T> followUp) {
+        submit(() -> {
+            ResourceRequestResult<T> resourceRequestResult = request.call();
+            if (FutureResult.FAILED == resourceRequestResult.getStatus()) {
+                return resourceRequestResult;
+            }
+            return new ResourceRequestResult<>(resourceRequestResult.getStatus(), followUp.apply(resourceRequestResult.getResult()));
+        });
+    }
+
+    boolean hasPending() {
+        return pending > 0;
+    }
+
+    /**
+     * Waits for the next request to finish and returns its result, or empty if the request failed. The cancellation of the operation is
+     * passed on to the caller.
+     */
+    Optional<T> takeNext() {
+        Optional<T> result = Optional.empty();
+        try {
+            ResourceRequestResult<T> resourceRequestResult = completionService.take().get();
+            pending--;
+            if (FutureResult.FAILED == resourceRequestResult.getStatus()) {
+                LOGGER.debug("Resource request failed: {}", resourceRequestResult.getResult());
+            } else {
+                result = Optional.ofNullable(resourceRequestResult.getResult());
+            }
+        } catch (ExecutionException e) {
+            pending--;
+            if (e.getCause() instanceof CancellationException) {
+                throw (CancellationException) e.getCause();
+            }
+            LOGGER.error("Failed to execute the request", e);
+        } catch (InterruptedException e) {
+            LOGGER.error("Interrupted while waiting for {} requests to finish", pending, e);
+            Thread.currentThread().interrupt();
+            pending = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Waits for every submitted request to finish and returns the results of the successful ones in the order they finished.
+     */
+    List<T> waitForAll() {
+        LOGGER.debug("Waiting for {} requests to finish", pending);
+        List<T> results = new ArrayList<>();
+        while (hasPending()) {
+            takeNext().ifPresent(results::add);
+        }
+        return results;
+    }
+}
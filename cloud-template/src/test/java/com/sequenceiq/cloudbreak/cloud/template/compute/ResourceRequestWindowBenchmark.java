@@ -0,0 +1,105 @@
+package com.sequenceiq.cloudbreak.cloud.template.compute;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the wall clock time of an upscale with the batch barrier, where a new batch of requests is started only when the slowest
+ * request of the previous batch finished, with the sliding window of the compute resource service. The requests simulate the latency
+ * of the mock cloud provider, set the {@code compute.benchmark.nodes}, {@code compute.benchmark.parallel} and
+ * {@code compute.benchmark.maxLatencyMillis} system properties to change the size of the upscale.
+ * It is excluded from the unit tests, run it with the {@code benchmark} task.
+ */
+public class ResourceRequestWindowBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceRequestWindowBenchmark.class);
+
+    private static final long SEED = 42L;
+
+    private final int nodes = Integer.getInteger("compute.benchmark.nodes", 500);
+
+    private final int parallelRequests = Integer.getInteger("compute.benchmark.parallel", 30);
+
+    private final int maxLatencyMillis = Integer.getInteger("compute.benchmark.maxLatencyMillis", 100);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(parallelRequests);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void benchmarkBatchBarrierAgainstSlidingWindow() throws Exception {
+        List<Long> latencies = latencies();
+
+        long start = System.nanoTime();
+        int batchResults = runWithBatchBarrier(latencies);
+        long batchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        start = System.nanoTime();
+        int windowResults = runWithWindow(latencies);
+        long windowMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        LOGGER.info("Upscale of {} nodes with {} parallel requests: batch barrier {} ms, sliding window {} ms", nodes, parallelRequests, batchMillis,
+                windowMillis);
+        assertEquals(nodes, batchResults);
+        assertEquals(nodes, windowResults);
+    }
+
+    private int runWithBatchBarrier(List<Long> latencies) throws InterruptedException, ExecutionException {
+        int results = 0;
+        List<Future<ResourceRequestResult<Long>>> futures = new ArrayList<>();
+        for (Long latency : latencies) {
+            futures.add(executor.submit(() -> createInstance(latency)));
+            if (futures.size() == parallelRequests) {
+                results += waitForBatch(futures);
+            }
+        }
+        return results + waitForBatch(futures);
+    }
+
+    private int waitForBatch(List<Future<ResourceRequestResult<Long>>> futures) throws InterruptedException, ExecutionException {
+        for (Future<ResourceRequestResult<Long>> future : futures) {
+            future.get();
+        }
+        int results = futures.size();
+        futures.clear();
+        return results;
+    }
+
+    private int runWithWindow(List<Long> latencies) {
+        ResourceRequestWindow<Long> window = new ResourceRequestWindow<>(executor, parallelRequests);
+        for (Long latency : latencies) {
+            window.submit(() -> createInstance(latency));
+        }
+        return window.waitForAll().size();
+    }
+
+    private ResourceRequestResult<Long> createInstance(long latency) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(latency);
+        return new ResourceRequestResult<>(FutureResult.SUCCESS, latency);
+    }
+
+    private List<Long> latencies() {
+        Random random = new Random(SEED);
+        List<Long> latencies = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            latencies.add((long) random.nextInt(maxLatencyMillis) + 1);
+        }
+        return latencies;
+    }
+}
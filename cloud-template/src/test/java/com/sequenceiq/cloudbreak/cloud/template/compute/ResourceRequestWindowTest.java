@@ -0,0 +1,144 @@
+package com.sequenceiq.cloudbreak.cloud.template.compute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sequenceiq.cloudbreak.cloud.scheduler.CancellationException;
+
+public class ResourceRequestWindowTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testNoMoreRequestsRunThanTheSizeOfTheWindow() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ResourceRequestWindow<Integer> underTest = new ResourceRequestWindow<>(executor, 3);
+
+        for (int i = 0; i < 20; i++) {
+            int request = i;
+            underTest.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                TimeUnit.MILLISECONDS.sleep(5);
+                running.decrementAndGet();
+                return new ResourceRequestResult<>(FutureResult.SUCCESS, request);
+            });
+        }
+        List<Integer> results = underTest.waitForAll();
+
+        assertEquals(20, results.size());
+        assertTrue(maxRunning.get() <= 3);
+        assertFalse(underTest.hasPending());
+    }
+
+    @Test
+    public void testResultsAreReturnedInCompletionOrder() throws InterruptedException {
+        CountDownLatch slowRequest = new CountDownLatch(1);
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 2);
+
+        underTest.submit(() -> {
+            slowRequest.await();
+            return new ResourceRequestResult<>(FutureResult.SUCCESS, "slow");
+        });
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.SUCCESS, "fast"));
+
+        assertEquals("fast", underTest.takeNext().get());
+        slowRequest.countDown();
+        assertEquals("slow", underTest.takeNext().get());
+    }
+
+    @Test
+    public void testNewRequestsDoNotWaitForTheSlowestRequestOfTheWindow() {
+        CountDownLatch slowRequest = new CountDownLatch(1);
+        AtomicInteger finishedRequests = new AtomicInteger();
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 2);
+
+        underTest.submit(() -> {
+            slowRequest.await();
+            return new ResourceRequestResult<>(FutureResult.SUCCESS, "slow");
+        });
+        for (int i = 0; i < 5; i++) {
+            underTest.submit(() -> {
+                finishedRequests.incrementAndGet();
+                return new ResourceRequestResult<>(FutureResult.SUCCESS, "fast");
+            });
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("fast", underTest.takeNext().get());
+        }
+        assertEquals(5, finishedRequests.get());
+        slowRequest.countDown();
+        assertEquals(List.of("slow"), underTest.waitForAll());
+    }
+
+    @Test
+    public void testFollowUpStartsWhileTheOtherRequestsAreRunning() {
+        CountDownLatch slowRequest = new CountDownLatch(1);
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 2);
+
+        underTest.submit(() -> {
+            slowRequest.await();
+            return new ResourceRequestResult<>(FutureResult.SUCCESS, "slow");
+        }, result -> result + " polled");
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.SUCCESS, "fast"), result -> result + " polled");
+
+        assertEquals("fast polled", underTest.takeNext().get());
+        slowRequest.countDown();
+        assertEquals(List.of("slow polled"), underTest.waitForAll());
+    }
+
+    @Test
+    public void testFollowUpIsSkippedForFailedRequests() {
+        AtomicInteger followUps = new AtomicInteger();
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 2);
+
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.FAILED, "failed"), result -> {
+            followUps.incrementAndGet();
+            return result;
+        });
+
+        assertEquals(List.of(), underTest.waitForAll());
+        assertEquals(0, followUps.get());
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testCancellationOfTheFollowUpIsPassedOn() {
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 2);
+
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.SUCCESS, "created"), result -> {
+            throw new CancellationException("cancelled");
+        });
+
+        underTest.waitForAll();
+    }
+
+    @Test
+    public void testFailedRequestsAreLeftOut() {
+        ResourceRequestWindow<String> underTest = new ResourceRequestWindow<>(executor, 2);
+
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.FAILED, "failed"));
+        underTest.submit(() -> {
+            throw new IllegalStateException("error");
+        });
+        underTest.submit(() -> new ResourceRequestResult<>(FutureResult.SUCCESS, "created"));
+
+        assertEquals(List.of("created"), underTest.waitForAll());
+    }
+}
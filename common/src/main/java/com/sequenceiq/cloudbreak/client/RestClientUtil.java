@@ -9,7 +9,10 @@ import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.ssl.SSLContexts;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.logging.LoggingFeature;
@@ -50,29 +53,48 @@ public class RestClientUtil {
 
     public static Client createClient(String serverCert, String clientCert, String clientKey, int connectionTimeout, OptionalInt readTimeout, boolean debug)
             throws Exception {
-        SSLContext sslContext;
+        return createClient(createSslContext(serverCert, clientCert, clientKey), connectionTimeout, readTimeout, debug);
+    }
+
+    public static Client createClient(SSLContext sslContext, boolean debug) {
+        return createClient(sslContext, CONNECT_TIMEOUT_MS, OptionalInt.empty(), debug);
+    }
+
+    /**
+     * Creates a client which sends its requests through the given pooled connection manager, so the connections and their TLS sessions
+     * are reused between the requests. The TLS connections are created by the socket factories registered in the connection manager.
+     */
+    public static Client createClient(SSLContext sslContext, HttpClientConnectionManager connectionManager, boolean debug) {
+        ClientConfig config = createClientConfig(CONNECT_TIMEOUT_MS, OptionalInt.empty());
+        config.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+        config.connectorProvider(new ApacheConnectorProvider());
+        return createClient(config, sslContext, debug);
+    }
+
+    public static SSLContext createSslContext(String serverCert, String clientCert, String clientKey) throws Exception {
         if (StringUtils.isNoneBlank(serverCert, clientCert, clientKey)) {
-            sslContext = SSLContexts.custom()
+            return SSLContexts.custom()
                     .loadTrustMaterial(KeyStoreUtil.createTrustStore(serverCert), null)
                     .loadKeyMaterial(KeyStoreUtil.createKeyStore(clientCert, clientKey), "consul".toCharArray())
                     .build();
-        } else {
-            sslContext = CertificateTrustManager.sslContext();
         }
-        return createClient(sslContext, connectionTimeout, readTimeout, debug);
+        return CertificateTrustManager.sslContext();
     }
 
-    public static Client createClient(SSLContext sslContext, boolean debug) {
-        return createClient(sslContext, CONNECT_TIMEOUT_MS, OptionalInt.empty(), debug);
+    private static Client createClient(SSLContext sslContext, int connectionTimeout, OptionalInt readTimeout, boolean debug) {
+        return createClient(createClientConfig(connectionTimeout, readTimeout), sslContext, debug);
     }
 
-    private static Client createClient(SSLContext sslContext, int connectionTimeout, OptionalInt readTimeout, boolean debug) {
+    private static ClientConfig createClientConfig(int connectionTimeout, OptionalInt readTimeout) {
         ClientConfig config = new ClientConfig();
         config.property(ClientProperties.FOLLOW_REDIRECTS, "false");
         config.property(ClientProperties.CONNECT_TIMEOUT, connectionTimeout);
         readTimeout.ifPresent(rt -> config.property(ClientProperties.READ_TIMEOUT, rt));
         config.register(MultiPartFeature.class);
+        return config;
+    }
 
+    private static Client createClient(ClientConfig config, SSLContext sslContext, boolean debug) {
         ClientBuilder builder = ClientBuilder.newBuilder().withConfig(config);
         builder.sslContext(sslContext);
         builder.hostnameVerifier(CertificateTrustManager.hostnameVerifier());
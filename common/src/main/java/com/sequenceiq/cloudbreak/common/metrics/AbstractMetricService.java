@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.common.metrics;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -8,6 +9,7 @@ import java.util.stream.Collectors;
 import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
@@ -53,6 +55,29 @@ public abstract class AbstractMetricService implements MetricService {
         counter.increment();
     }
 
+    @Override
+    public void recordTimerMetric(Metric metric, Duration duration, String... tags) {
+        Timer.builder(getMetricName(metric))
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(duration);
+    }
+
+    /**
+     * Records a value of an event, like the size of a batch, so the distribution of the values is kept instead of the last one.
+     *
+     * @param metric Metric name
+     * @param amount Value of the event
+     */
+    @Override
+    public void recordDistributionSummary(Metric metric, double amount, String... tags) {
+        DistributionSummary.builder(getMetricName(metric))
+                .tags(tags)
+                .register(Metrics.globalRegistry)
+                .record(amount);
+    }
+
     protected boolean gaugeMetric(Metric metric) {
         return metric.getMetricName().contains("state") || metric.getMetricName().contains("leader") || metric.getMetricName().contains("threadpool");
     }
@@ -6,11 +6,14 @@ public enum MetricType implements Metric {
     VAULT_WRITE("vault.write"),
     VAULT_WRITE_FAILED("vault.write.failed"),
     VAULT_DELETE("vault.delete"),
+    SECRET_SAVE_WRITE("secret.save.write"),
+    SECRET_SAVE_WRITE_COUNT("secret.save.write.count"),
     HEARTBEAT_UPDATE_SUCCESS("heartbeat.update.success"),
     HEARTBEAT_UPDATE_FAILED("heartbeat.update.failed"),
     REST_OPERATION("rest.operation"),
     REST_OPERATION_FAILED("rest.operation.failed"),
-    REST_OPERATION_CALLER_ID("rest.operation.caller.id");
+    REST_OPERATION_CALLER_ID("rest.operation.caller.id"),
+    SALT_JOB_WAIT("salt.job.wait");
 
     private final String metricName;
 
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -21,9 +22,31 @@ public class CompressUtil {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CompressUtil.class);
 
+    private static final Map<List<String>, CompressedBundle> CACHED_BUNDLES = new ConcurrentHashMap<>();
+
     private CompressUtil() {
     }
 
+    /**
+     * Returns the zip of the classpath folders built at the first call. The classpath does not change while the
+     * application is running, so the bundle and its digest are built once per application version.
+     */
+    public static CompressedBundle getCachedCompressedOutputFromFolders(String... classpathFolders) throws IOException {
+        List<String> key = List.of(classpathFolders);
+        CompressedBundle bundle = CACHED_BUNDLES.get(key);
+        if (bundle == null) {
+            synchronized (CACHED_BUNDLES) {
+                bundle = CACHED_BUNDLES.get(key);
+                if (bundle == null) {
+                    bundle = CompressedBundle.of(generateCompressedOutputFromFolders(classpathFolders));
+                    LOGGER.info("Compressed bundle of {} is built with {} bytes, digest: {}", key, bundle.getSize(), bundle.getDigest());
+                    CACHED_BUNDLES.put(key, bundle);
+                }
+            }
+        }
+        return bundle;
+    }
+
     public static byte[] generateCompressedOutputFromFolders(String... classpathFolders) throws IOException {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             try (ZipOutputStream zout = new ZipOutputStream(baos)) {
@@ -0,0 +1,35 @@
+package com.sequenceiq.cloudbreak.util;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Compressed artifact together with the SHA-256 digest of its content. The content is shared by every caller and is not copied,
+ * so it must not be modified.
+ */
+public final class CompressedBundle {
+
+    private final byte[] content;
+
+    private final String digest;
+
+    private CompressedBundle(byte[] content, String digest) {
+        this.content = content;
+        this.digest = digest;
+    }
+
+    public static CompressedBundle of(byte[] bytes) {
+        return new CompressedBundle(bytes, Hashing.sha256().hashBytes(bytes).toString());
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public int getSize() {
+        return content.length;
+    }
+}
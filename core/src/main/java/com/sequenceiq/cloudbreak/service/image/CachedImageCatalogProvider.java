@@ -2,79 +2,167 @@ package com.sequenceiq.cloudbreak.service.image;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Invocation.Builder;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.Response.Status.Family;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sequenceiq.cloudbreak.client.RestClientUtil;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV3;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Images;
 import com.sequenceiq.cloudbreak.core.CloudbreakImageCatalogException;
-import com.sequenceiq.cloudbreak.util.FileReaderUtils;
 
 @Component
 public class CachedImageCatalogProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(CachedImageCatalogProvider.class);
 
+    private static final long MAX_ENTRIES = 1000L;
+
     @Value("${cb.etc.config.dir:}")
     private String etcConfigDir;
 
     @Value("#{'${cb.enabled.linux.types}'.split(',')}")
     private List<String> enabledLinuxTypes;
 
+    @Value("${cb.image.catalog.cache.ttl:15}")
+    private long ttlMinutes;
+
+    @Value("${cb.image.catalog.cache.max.idle:120}")
+    private long maxIdleMinutes;
+
     @Inject
     private ObjectMapper objectMapper;
 
-    @Cacheable(cacheNames = "imageCatalogCache", key = "#catalogUrl")
+    private LoadingCache<String, IndexedImageCatalog> imageCatalogs;
+
+    private ExecutorService refreshExecutor;
+
+    /**
+     * Builds the cache of the catalogs unless the TTL is 0, which disables the caching. The refreshes download the catalog with a
+     * blocking HTTP call, so they run on a thread of their own instead of the common pool.
+     */
+    @PostConstruct
+    public void init() {
+        if (ttlMinutes == 0L) {
+            LOGGER.info("Image catalog cache is disabled, the catalog is read at every request");
+            imageCatalogs = null;
+            return;
+        }
+        refreshExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("image-catalog-refresh-%d").setDaemon(true).build());
+        imageCatalogs = Caffeine.newBuilder()
+                .executor(refreshExecutor)
+                .maximumSize(MAX_ENTRIES)
+                .refreshAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+                .expireAfterAccess(Math.max(ttlMinutes, maxIdleMinutes), TimeUnit.MINUTES)
+                .build(new CacheLoader<>() {
+                    @Override
+                    public IndexedImageCatalog load(String catalogUrl) throws CloudbreakImageCatalogException {
+                        return fetchImageCatalog(catalogUrl, null);
+                    }
+
+                    @Override
+                    public IndexedImageCatalog reload(String catalogUrl, IndexedImageCatalog oldValue) throws CloudbreakImageCatalogException {
+                        return fetchImageCatalog(catalogUrl, oldValue);
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
     public CloudbreakImageCatalogV3 getImageCatalogV3(String catalogUrl) throws CloudbreakImageCatalogException {
-        CloudbreakImageCatalogV3 catalog;
+        IndexedImageCatalog indexedImageCatalog = getIndexedImageCatalog(catalogUrl);
+        return indexedImageCatalog == null ? null : indexedImageCatalog.getCatalog();
+    }
+
+    /**
+     * Returns the parsed and indexed image catalog. After the cache TTL the catalog is refreshed in the background and the previous
+     * version is returned until the refresh finishes.
+     *
+     * @param catalogUrl the URL or the file name of the image catalog
+     * @return the indexed image catalog or null if no catalog URL is defined
+     * @throws CloudbreakImageCatalogException if the catalog cannot be read or it is not valid
+     */
+    public IndexedImageCatalog getIndexedImageCatalog(String catalogUrl) throws CloudbreakImageCatalogException {
         if (catalogUrl == null) {
             LOGGER.info("No image catalog was defined!");
             return null;
         }
+        if (imageCatalogs == null) {
+            return fetchImageCatalog(catalogUrl, null);
+        }
+        try {
+            return imageCatalogs.get(catalogUrl);
+        } catch (CompletionException e) {
+            throw unwrap(e, catalogUrl);
+        }
+    }
 
+    /**
+     * Refreshes the image catalog right now. The catalog is downloaded and parsed again only if it has changed since the last fetch.
+     *
+     * @param catalogUrl the URL or the file name of the image catalog
+     * @throws CloudbreakImageCatalogException if the catalog cannot be read or it is not valid
+     */
+    public void refreshImageCatalog(String catalogUrl) throws CloudbreakImageCatalogException {
+        if (catalogUrl != null && imageCatalogs != null) {
+            imageCatalogs.put(catalogUrl, fetchImageCatalog(catalogUrl, imageCatalogs.getIfPresent(catalogUrl)));
+        }
+    }
+
+    private IndexedImageCatalog fetchImageCatalog(String catalogUrl, IndexedImageCatalog previous) throws CloudbreakImageCatalogException {
         try {
             long started = System.currentTimeMillis();
-            String content;
-            if (catalogUrl.startsWith("http")) {
-                Client client = RestClientUtil.get();
-                WebTarget target = client.target(catalogUrl);
-                Response response = target.request().get();
-                content = readResponse(target, response);
+            IndexedImageCatalog indexedImageCatalog = catalogUrl.startsWith("http")
+                    ? fetchImageCatalogFromUrl(catalogUrl, previous)
+                    : readCatalogFromFile(catalogUrl, previous);
+            long timeOfParse = System.currentTimeMillis() - started;
+            if (indexedImageCatalog == previous) {
+                LOGGER.debug("ImageCatalog has not changed at '{}', the check took '{}' ms.", catalogUrl, timeOfParse);
             } else {
-                content = readCatalogFromFile(catalogUrl);
+                LOGGER.debug("ImageCatalog has been get and parsed from '{}' and took '{}' ms.", catalogUrl, timeOfParse);
             }
-            catalog = objectMapper.readValue(content, CloudbreakImageCatalogV3.class);
-            validateImageCatalogUuids(catalog);
-            validateCloudBreakVersions(catalog);
-            cleanAndValidateMaps(catalog);
-            catalog = filterImagesByOsType(catalog);
-            long timeOfParse = System.currentTimeMillis() - started;
-            LOGGER.debug("ImageCatalog has been get and parsed from '{}' and took '{}' ms.", catalogUrl, timeOfParse);
+            return indexedImageCatalog;
         } catch (RuntimeException e) {
             throw new CloudbreakImageCatalogException(String.format("Failed to get image catalog: %s from %s", e.getMessage(), catalogUrl), e);
         } catch (JsonMappingException e) {
@@ -82,7 +170,50 @@ public class CachedImageCatalogProvider {
         } catch (IOException e) {
             throw new CloudbreakImageCatalogException(String.format("Failed to read image catalog from file: '%s'", catalogUrl), e);
         }
-        return catalog;
+    }
+
+    private IndexedImageCatalog fetchImageCatalogFromUrl(String catalogUrl, IndexedImageCatalog previous)
+            throws CloudbreakImageCatalogException, IOException {
+        Client client = RestClientUtil.get();
+        WebTarget target = client.target(catalogUrl);
+        Builder request = target.request();
+        if (previous != null) {
+            Optional.ofNullable(previous.getEtag()).ifPresent(etag -> request.header(HttpHeaders.IF_NONE_MATCH, etag));
+            Optional.ofNullable(previous.getLastModified()).ifPresent(lastModified -> request.header(HttpHeaders.IF_MODIFIED_SINCE, lastModified));
+        }
+        try (Response response = request.get()) {
+            if (previous != null && response.getStatus() == Status.NOT_MODIFIED.getStatusCode()) {
+                return previous;
+            }
+            try (InputStream content = readResponse(target, response)) {
+                CloudbreakImageCatalogV3 catalog = objectMapper.readValue(content, CloudbreakImageCatalogV3.class);
+                return index(catalog, response.getHeaderString(HttpHeaders.ETAG), response.getHeaderString(HttpHeaders.LAST_MODIFIED));
+            }
+        }
+    }
+
+    private IndexedImageCatalog readCatalogFromFile(String catalogUrl, IndexedImageCatalog previous) throws CloudbreakImageCatalogException, IOException {
+        File customCatalogFile = new File(etcConfigDir, catalogUrl);
+        String lastModified = String.valueOf(customCatalogFile.lastModified());
+        if (previous != null && lastModified.equals(previous.getLastModified())) {
+            return previous;
+        }
+        CloudbreakImageCatalogV3 catalog = objectMapper.readValue(customCatalogFile, CloudbreakImageCatalogV3.class);
+        return index(catalog, null, lastModified);
+    }
+
+    private IndexedImageCatalog index(CloudbreakImageCatalogV3 catalog, String etag, String lastModified) throws CloudbreakImageCatalogException {
+        validateImageCatalogUuids(catalog);
+        validateCloudBreakVersions(catalog);
+        cleanAndValidateMaps(catalog);
+        return new IndexedImageCatalog(filterImagesByOsType(catalog), etag, lastModified);
+    }
+
+    private CloudbreakImageCatalogException unwrap(CompletionException e, String catalogUrl) {
+        if (e.getCause() instanceof CloudbreakImageCatalogException) {
+            return (CloudbreakImageCatalogException) e.getCause();
+        }
+        return new CloudbreakImageCatalogException(String.format("Failed to get image catalog: %s from %s", e.getMessage(), catalogUrl), e);
     }
 
     private CloudbreakImageCatalogV3 filterImagesByOsType(CloudbreakImageCatalogV3 catalog) {
@@ -123,44 +254,34 @@ public class CachedImageCatalogProvider {
         return enabledLinuxTypes.stream().filter(StringUtils::isNoneBlank).collect(Collectors.toList());
     }
 
-    private String readResponse(WebTarget target, Response response) throws CloudbreakImageCatalogException {
-        CloudbreakImageCatalogV3 catalog;
+    private InputStream readResponse(WebTarget target, Response response) throws CloudbreakImageCatalogException {
         if (!response.getStatusInfo().getFamily().equals(Family.SUCCESSFUL)) {
             throw new CloudbreakImageCatalogException(String.format("Failed to get image catalog from '%s' due to: '%s'",
                     target.getUri().toString(), response.getStatusInfo().getReasonPhrase()));
         }
         try {
-            return response.readEntity(String.class);
+            return response.readEntity(InputStream.class);
         } catch (ProcessingException e) {
             throw new CloudbreakImageCatalogException(String.format("Failed to process image catalog from '%s' due to: '%s'",
                     target.getUri().toString(), e.getMessage()));
         }
     }
 
-    @CacheEvict(value = "imageCatalogCache", key = "#catalogUrl")
-    public void evictImageCatalogCache(String catalogUrl) {
-    }
-
     private void validateImageCatalogUuids(CloudbreakImageCatalogV3 imageCatalog) throws CloudbreakImageCatalogException {
         Stream<String> baseUuids = imageCatalog.getImages().getBaseImages().stream().map(Image::getUuid);
         Stream<String> cdhUuids = imageCatalog.getImages().getCdhImages().stream().map(Image::getUuid);
         Stream<String> uuidStream = Stream.of(baseUuids, cdhUuids).
                 reduce(Stream::concat).
                 orElseGet(Stream::empty);
-        List<String> uuidList = uuidStream.collect(Collectors.toList());
+        Set<String> uuids = uuidStream.collect(Collectors.toSet());
         List<String> orphanUuids = imageCatalog.getVersions().getCloudbreakVersions().stream().flatMap(cbv -> cbv.getImageIds().stream()).
-                filter(imageId -> !uuidList.contains(imageId)).collect(Collectors.toList());
+                filter(imageId -> !uuids.contains(imageId)).collect(Collectors.toList());
         if (!orphanUuids.isEmpty()) {
             throw new CloudbreakImageCatalogException(String.format("Images with ids: %s is not present in cdh-images block",
                     StringUtils.join(orphanUuids, ",")));
         }
     }
 
-    private String readCatalogFromFile(String catalogUrl) throws IOException {
-        File customCatalogFile = new File(etcConfigDir, catalogUrl);
-        return FileReaderUtils.readFileFromPath(customCatalogFile.toPath());
-    }
-
     private void cleanAndValidateMaps(CloudbreakImageCatalogV3 catalog) throws CloudbreakImageCatalogException {
         boolean baseImagesValidate = cleanAndAllIsEmpty(catalog.getImages().getBaseImages());
         boolean cdhImagesValidate = cleanAndAllIsEmpty(catalog.getImages().getCdhImages());
@@ -19,8 +19,19 @@ public class ImageCatalogProvider {
 
     public CloudbreakImageCatalogV3 getImageCatalogV3(String catalogUrl, boolean forceRefresh) throws CloudbreakImageCatalogException {
         if (forceRefresh) {
-            cachedImageCatalogProvider.evictImageCatalogCache(catalogUrl);
+            cachedImageCatalogProvider.refreshImageCatalog(catalogUrl);
         }
         return cachedImageCatalogProvider.getImageCatalogV3(catalogUrl);
     }
+
+    public IndexedImageCatalog getIndexedImageCatalog(String catalogUrl) throws CloudbreakImageCatalogException {
+        return getIndexedImageCatalog(catalogUrl, false);
+    }
+
+    public IndexedImageCatalog getIndexedImageCatalog(String catalogUrl, boolean forceRefresh) throws CloudbreakImageCatalogException {
+        if (forceRefresh) {
+            cachedImageCatalogProvider.refreshImageCatalog(catalogUrl);
+        }
+        return cachedImageCatalogProvider.getIndexedImageCatalog(catalogUrl);
+    }
 }
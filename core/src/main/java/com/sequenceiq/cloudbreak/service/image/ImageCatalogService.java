@@ -47,7 +47,6 @@ import com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider;
 import com.sequenceiq.cloudbreak.auth.altus.Crn;
 import com.sequenceiq.cloudbreak.auth.altus.CrnResourceDescriptor;
 import com.sequenceiq.cloudbreak.auth.altus.EntitlementService;
-import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV3;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakVersion;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Images;
@@ -282,11 +281,9 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
 
     public StatedImage getImage(String catalogUrl, String catalogName, String imageId) throws CloudbreakImageNotFoundException,
             CloudbreakImageCatalogException {
-        Images images = imageCatalogProvider.getImageCatalogV3(catalogUrl).getImages();
-        Optional<? extends Image> image = getImage(imageId, images);
+        Optional<Image> image = imageCatalogProvider.getIndexedImageCatalog(catalogUrl).getImage(imageId);
         if (image.isEmpty()) {
-            images = imageCatalogProvider.getImageCatalogV3(catalogUrl, true).getImages();
-            image = getImage(imageId, images);
+            image = imageCatalogProvider.getIndexedImageCatalog(catalogUrl, true).getImage(imageId);
         }
         if (image.isEmpty()) {
             throw new CloudbreakImageNotFoundException(String.format("Could not find any image with id: '%s' in catalog:. '%s'", imageId, catalogName));
@@ -414,35 +411,26 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
         return new Images(emptyList(), emptyList(), emptySet());
     }
 
-    private Optional<? extends Image> getImage(String imageId, Images images) {
-        Optional<? extends Image> image = findFirstWithImageId(imageId, images.getBaseImages());
-        if (image.isEmpty()) {
-            image = findFirstWithImageId(imageId, images.getCdhImages());
-        }
-        return image;
-    }
-
     public StatedImages getImages(ImageFilter imageFilter) throws CloudbreakImageCatalogException {
         LOGGER.info("Determine images for imageCatalogUrl: '{}', platforms: '{}' and Cloudbreak version: '{}'.",
                 imageFilter.getImageCatalog().getImageCatalogUrl(), imageFilter.getPlatforms(), imageFilter.getCbVersion());
         StatedImages images;
         validateRequestPlatforms(imageFilter.getPlatforms());
 
-        CloudbreakImageCatalogV3 imageCatalogV3 = imageCatalogProvider.getImageCatalogV3(imageFilter.getImageCatalog().getImageCatalogUrl());
+        IndexedImageCatalog indexedImageCatalog = imageCatalogProvider.getIndexedImageCatalog(imageFilter.getImageCatalog().getImageCatalogUrl());
 
         Set<String> suppertedVersions;
-        if (imageCatalogV3 != null) {
+        if (indexedImageCatalog != null) {
             LOGGER.info("Image catalog found, filtering the images..");
 
             Set<String> vMImageUUIDs = new HashSet<>();
             Set<String> defaultVMImageUUIDs = new HashSet<>();
 
-            List<CloudbreakVersion> cloudbreakVersions = imageCatalogV3.getVersions().getCloudbreakVersions();
+            List<CloudbreakVersion> cloudbreakVersions = indexedImageCatalog.getCatalog().getVersions().getCloudbreakVersions();
 
             String currentCbVersion = getCBVersion(imageFilter, cloudbreakVersions);
 
-            List<CloudbreakVersion> exactMatchedImages = cloudbreakVersions.stream()
-                    .filter(cloudbreakVersion -> cloudbreakVersion.getVersions().contains(currentCbVersion)).collect(toList());
+            List<CloudbreakVersion> exactMatchedImages = indexedImageCatalog.getCloudbreakVersions(currentCbVersion);
 
             if (!exactMatchedImages.isEmpty()) {
                 for (CloudbreakVersion exactMatchedImg : exactMatchedImages) {
@@ -459,11 +447,11 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
             }
             LOGGER.info("The following images are matching for CB version ({}): {} ", currentCbVersion, vMImageUUIDs);
 
-            List<Image> baseImages = filterImagesByPlatforms(imageFilter.getPlatforms(), imageCatalogV3.getImages().getBaseImages(), vMImageUUIDs);
-            List<Image> cdhImages = filterImagesByPlatforms(imageFilter.getPlatforms(), imageCatalogV3.getImages().getCdhImages(), vMImageUUIDs);
+            List<Image> baseImages = filterImagesByUuids(indexedImageCatalog.getBaseImages(imageFilter.getPlatforms()), vMImageUUIDs);
+            List<Image> cdhImages = filterImagesByUuids(indexedImageCatalog.getCdhImages(imageFilter.getPlatforms()), vMImageUUIDs);
 
             List<Image> defaultImages = defaultVMImageUUIDs.stream()
-                    .map(imageId -> getImage(imageId, imageCatalogV3.getImages()))
+                    .map(indexedImageCatalog::getImage)
                     .flatMap(Optional::stream)
                     .collect(Collectors.toList());
 
@@ -527,23 +515,12 @@ public class ImageCatalogService extends AbstractWorkspaceAwareResourceService<I
         return baseImageEnabled;
     }
 
-    private Optional<? extends Image> findFirstWithImageId(String imageId, Collection<? extends Image> images) {
+    private List<Image> filterImagesByUuids(Collection<Image> images, Collection<String> vMImageUUIDs) {
         return images.stream()
-                .filter(img -> img.getUuid().equals(imageId))
-                .findFirst();
-    }
-
-    private List<Image> filterImagesByPlatforms(Collection<String> platforms, Collection<Image> images, Collection<String> vMImageUUIDs) {
-        return images.stream()
-                .filter(isPlatformMatching(platforms, vMImageUUIDs))
+                .filter(img -> vMImageUUIDs.contains(img.getUuid()))
                 .collect(toList());
     }
 
-    private static Predicate<Image> isPlatformMatching(Collection<String> platforms, Collection<String> vMImageUUIDs) {
-        return img -> vMImageUUIDs.contains(img.getUuid())
-                && img.getImageSetsByProvider().keySet().stream().anyMatch(p -> platforms.stream().anyMatch(platform -> platform.equalsIgnoreCase(p)));
-    }
-
     private List<Image> filterImagesByOperatingSystemsAndPackageVersion(List<Image> images, Set<String> operatingSystems,
             Predicate<Image> imageFilter) {
         Map<Boolean, List<Image>> partitionedImages = images
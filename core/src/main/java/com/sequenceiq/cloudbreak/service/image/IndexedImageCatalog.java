@@ -0,0 +1,109 @@
+package com.sequenceiq.cloudbreak.service.image;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV3;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakVersion;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
+
+/**
+ * Parsed image catalog together with lookup indexes by image id, by Cloudbreak version and by platform, so the image lookups do not
+ * scan the whole catalog. The validators of the HTTP response are kept to refresh the catalog with conditional requests.
+ */
+public class IndexedImageCatalog {
+
+    private final CloudbreakImageCatalogV3 catalog;
+
+    private final String etag;
+
+    private final String lastModified;
+
+    private final Map<String, Image> imagesByUuid = new HashMap<>();
+
+    private final Map<String, List<CloudbreakVersion>> cloudbreakVersionsByVersion = new HashMap<>();
+
+    private final Map<String, List<Image>> baseImagesByPlatform = new HashMap<>();
+
+    private final Map<String, List<Image>> cdhImagesByPlatform = new HashMap<>();
+
+    public IndexedImageCatalog(CloudbreakImageCatalogV3 catalog) {
+        this(catalog, null, null);
+    }
+
+    public IndexedImageCatalog(CloudbreakImageCatalogV3 catalog, String etag, String lastModified) {
+        this.catalog = catalog;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        indexImages(catalog.getImages().getBaseImages(), baseImagesByPlatform);
+        indexImages(catalog.getImages().getCdhImages(), cdhImagesByPlatform);
+        for (CloudbreakVersion cloudbreakVersion : catalog.getVersions().getCloudbreakVersions()) {
+            for (String version : cloudbreakVersion.getVersions()) {
+                cloudbreakVersionsByVersion.computeIfAbsent(version, v -> new ArrayList<>()).add(cloudbreakVersion);
+            }
+        }
+    }
+
+    public CloudbreakImageCatalogV3 getCatalog() {
+        return catalog;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns the image with the given id. A base image wins over a CDH image with the same id, like in the order of the catalog.
+     *
+     * @param imageId the uuid of the image
+     * @return the image or empty if the catalog does not contain it
+     */
+    public Optional<Image> getImage(String imageId) {
+        return Optional.ofNullable(imagesByUuid.get(imageId));
+    }
+
+    public List<CloudbreakVersion> getCloudbreakVersions(String version) {
+        return cloudbreakVersionsByVersion.getOrDefault(version, Collections.emptyList());
+    }
+
+    public List<Image> getBaseImages(Collection<String> platforms) {
+        return getImages(platforms, baseImagesByPlatform, catalog.getImages().getBaseImages());
+    }
+
+    public List<Image> getCdhImages(Collection<String> platforms) {
+        return getImages(platforms, cdhImagesByPlatform, catalog.getImages().getCdhImages());
+    }
+
+    private void indexImages(List<Image> images, Map<String, List<Image>> imagesByPlatform) {
+        for (Image image : images) {
+            imagesByUuid.putIfAbsent(image.getUuid(), image);
+            for (String platform : image.getImageSetsByProvider().keySet()) {
+                imagesByPlatform.computeIfAbsent(platform.toLowerCase(Locale.ROOT), p -> new ArrayList<>()).add(image);
+            }
+        }
+    }
+
+    private List<Image> getImages(Collection<String> platforms, Map<String, List<Image>> imagesByPlatform, List<Image> images) {
+        if (platforms.size() == 1) {
+            return imagesByPlatform.getOrDefault(platforms.iterator().next().toLowerCase(Locale.ROOT), Collections.emptyList());
+        }
+        Set<String> lowerCasePlatforms = platforms.stream().map(platform -> platform.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        return images.stream()
+                .filter(image -> image.getImageSetsByProvider().keySet().stream().anyMatch(p -> lowerCasePlatforms.contains(p.toLowerCase(Locale.ROOT))))
+                .collect(toList());
+    }
+}
@@ -0,0 +1,263 @@
+package com.sequenceiq.cloudbreak.service.stack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.handler.InstanceStateQuery;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudPlatformVariant;
+import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
+
+/**
+ * Coalesces the instance status checks of the stacks that share the same credential, platform variant and region into a single
+ * provider call. The first check of a batch schedules the query of the batch after the configured window, the checks of the other
+ * stacks arriving in the meantime join its batch, then the statuses of all of them are queried together on the batch query threads
+ * and handed back to the waiting callers. A batch is queried right away when it reaches the maximal number of instances.
+ * <p>
+ * The stacks whose statuses are not returned by the bulk query, because the provider does not support it, it has failed or the batch
+ * has only one stack, are queried by their own caller like without batching, so a failing or slow stack does not delay the others.
+ * <p>
+ * The status checker jobs of the stacks start with a random delay of up to two minutes and repeat with the same interval, so the
+ * checks of {@code n} stacks of the same credential and region meet in a window of {@code w} seconds about {@code n * w / 120} times.
+ * With the default 2 seconds window, batches are formed when a credential has more than about 60 stacks in a region, and every check
+ * waits for the window at most. Deployments with fewer stacks per credential gain nothing from it, so batching is disabled by default.
+ */
+@Component
+public class InstanceStatusCheckBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstanceStatusCheckBatcher.class);
+
+    private static final int BATCH_QUERY_THREADS = 4;
+
+    @Value("${cb.statuschecker.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cb.statuschecker.batch.windowMs:2000}")
+    private long windowMillis;
+
+    @Value("${cb.statuschecker.batch.maxInstances:1000}")
+    private int maxInstances;
+
+    @Inject
+    private InstanceStateQuery instanceStateQuery;
+
+    private ScheduledExecutorService batchQueryExecutor;
+
+    private final Map<BatchKey, Batch> openBatches = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            batchQueryExecutor = Executors.newScheduledThreadPool(BATCH_QUERY_THREADS,
+                    new ThreadFactoryBuilder().setNameFormat("instance-status-batch-%d").setDaemon(true).build());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchQueryExecutor != null) {
+            batchQueryExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<CloudVmInstanceStatus> queryInstanceStatuses(CloudCredential cloudCredential, CloudContext cloudContext,
+            List<CloudInstance> cloudInstances) {
+        Optional<List<CloudVmInstanceStatus>> statuses = cloudCredential.getId() == null
+                ? Optional.empty()
+                : submit(cloudCredential, cloudContext, cloudInstances).join();
+        return statuses.orElseGet(() -> instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(cloudCredential, cloudContext, cloudInstances));
+    }
+
+    /**
+     * Adds the check to the open batch of its credential, platform variant and region. The returned future is completed with the
+     * statuses when the bulk query of the batch returned them, or with empty when the caller has to query them itself.
+     */
+    @VisibleForTesting
+    CompletableFuture<Optional<List<CloudVmInstanceStatus>>> submit(CloudCredential cloudCredential, CloudContext cloudContext,
+            List<CloudInstance> cloudInstances) {
+        BatchKey key = new BatchKey(cloudCredential.getId(), cloudContext.getPlatformVariant(), regionOf(cloudContext));
+        StatusRequest request = new StatusRequest(cloudCredential, cloudContext, cloudInstances);
+        Batch batch;
+        boolean leader;
+        boolean full;
+        synchronized (openBatches) {
+            batch = openBatches.get(key);
+            leader = batch == null;
+            if (leader) {
+                batch = new Batch();
+                openBatches.put(key, batch);
+            }
+            batch.add(request);
+            full = batch.instanceCount >= maxInstances && openBatches.remove(key, batch);
+        }
+        if (full) {
+            schedule(batch, () -> flush(batch), 0L);
+        } else if (leader) {
+            Batch scheduledBatch = batch;
+            schedule(batch, () -> {
+                if (close(key, scheduledBatch)) {
+                    flush(scheduledBatch);
+                }
+            }, windowMillis);
+        }
+        return request.future;
+    }
+
+    private void schedule(Batch batch, Runnable task, long delayMillis) {
+        try {
+            batchQueryExecutor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Batch query executor is shut down, the stacks are queried one by one");
+            batch.requests.forEach(request -> request.future.complete(Optional.empty()));
+        }
+    }
+
+    private boolean close(BatchKey key, Batch batch) {
+        synchronized (openBatches) {
+            return openBatches.remove(key, batch);
+        }
+    }
+
+    private void flush(Batch batch) {
+        List<StatusRequest> requests = batch.requests;
+        try {
+            if (requests.size() > 1) {
+                queryTogether(requests);
+            }
+        } finally {
+            requests.forEach(request -> request.future.complete(Optional.empty()));
+        }
+    }
+
+    private void queryTogether(List<StatusRequest> requests) {
+        Map<CloudContext, List<CloudInstance>> instancesByStack = new LinkedHashMap<>();
+        Map<CloudInstance, StatusRequest> requestsByInstance = new IdentityHashMap<>();
+        int instanceCount = 0;
+        for (StatusRequest request : requests) {
+            instancesByStack.put(request.cloudContext, request.cloudInstances);
+            request.cloudInstances.forEach(instance -> requestsByInstance.put(instance, request));
+            instanceCount += request.cloudInstances.size();
+        }
+        StatusRequest first = requests.get(0);
+        try {
+            LOGGER.debug("Query the statuses of {} instances of {} stacks together", instanceCount, requests.size());
+            Optional<List<CloudVmInstanceStatus>> statuses = instanceStateQuery.getCloudVmInstanceStatusesOfStacksWithoutRetry(
+                    first.cloudCredential, first.cloudContext, instancesByStack);
+            statuses.ifPresent(vmInstanceStatuses -> distribute(vmInstanceStatuses, requestsByInstance));
+        } catch (RuntimeException e) {
+            LOGGER.info("Failed to query the statuses of {} stacks together, they are queried one by one", requests.size(), e);
+        }
+    }
+
+    private void distribute(List<CloudVmInstanceStatus> statuses, Map<CloudInstance, StatusRequest> requestsByInstance) {
+        Map<StatusRequest, List<CloudVmInstanceStatus>> statusesByRequest = new IdentityHashMap<>();
+        for (CloudVmInstanceStatus status : statuses) {
+            StatusRequest request = requestsByInstance.get(status.getCloudInstance());
+            if (request != null) {
+                statusesByRequest.computeIfAbsent(request, r -> new ArrayList<>()).add(status);
+            }
+        }
+        statusesByRequest.forEach((request, requestStatuses) -> {
+            if (requestStatuses.size() == request.cloudInstances.size()) {
+                request.future.complete(Optional.of(requestStatuses));
+            }
+        });
+    }
+
+    private String regionOf(CloudContext cloudContext) {
+        return cloudContext.getLocation() == null || cloudContext.getLocation().getRegion() == null
+                ? null
+                : cloudContext.getLocation().getRegion().value();
+    }
+
+    private static class Batch {
+
+        private final List<StatusRequest> requests = new ArrayList<>();
+
+        private int instanceCount;
+
+        void add(StatusRequest request) {
+            requests.add(request);
+            instanceCount += request.cloudInstances.size();
+        }
+    }
+
+    private static class StatusRequest {
+
+        private final CloudCredential cloudCredential;
+
+        private final CloudContext cloudContext;
+
+        private final List<CloudInstance> cloudInstances;
+
+        private final CompletableFuture<Optional<List<CloudVmInstanceStatus>>> future = new CompletableFuture<>();
+
+        StatusRequest(CloudCredential cloudCredential, CloudContext cloudContext, List<CloudInstance> cloudInstances) {
+            this.cloudCredential = cloudCredential;
+            this.cloudContext = cloudContext;
+            this.cloudInstances = cloudInstances;
+        }
+    }
+
+    private static class BatchKey {
+
+        private final String credentialId;
+
+        private final CloudPlatformVariant platformVariant;
+
+        private final String region;
+
+        BatchKey(String credentialId, CloudPlatformVariant platformVariant, String region) {
+            this.credentialId = credentialId;
+            this.platformVariant = platformVariant;
+            this.region = region;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey batchKey = (BatchKey) o;
+            return credentialId.equals(batchKey.credentialId)
+                    && Objects.equals(platformVariant, batchKey.platformVariant)
+                    && Objects.equals(region, batchKey.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(credentialId, platformVariant, region);
+        }
+    }
+}
@@ -45,6 +45,9 @@ public class StackInstanceStatusChecker {
     @Inject
     private CredentialToCloudCredentialConverter cloudCredentialConverter;
 
+    @Inject
+    private InstanceStatusCheckBatcher instanceStatusCheckBatcher;
+
     public List<CloudVmInstanceStatus> queryInstanceStatuses(Stack stack, Collection<InstanceMetaData> instanceMetaData) {
         List<CloudVmInstanceStatus> result = Collections.emptyList();
         if (!instanceMetaData.isEmpty()) {
@@ -63,7 +66,11 @@ public class StackInstanceStatusChecker {
             CloudContext cloudContext, CloudCredential cloudCredential) {
         List<CloudVmInstanceStatus> instanceStatuses;
         try {
-            instanceStatuses = instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(cloudCredential, cloudContext, cloudInstances);
+            if (instanceStatusCheckBatcher.isEnabled()) {
+                instanceStatuses = instanceStatusCheckBatcher.queryInstanceStatuses(cloudCredential, cloudContext, cloudInstances);
+            } else {
+                instanceStatuses = instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(cloudCredential, cloudContext, cloudInstances);
+            }
         } catch (RuntimeException e) {
             instanceStatuses = cloudInstances.stream()
                     .map(instance -> new CloudVmInstanceStatus(instance, InstanceStatus.UNKNOWN))
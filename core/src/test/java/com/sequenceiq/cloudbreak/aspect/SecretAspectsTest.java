@@ -19,14 +19,16 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.sequenceiq.cloudbreak.service.secret.SecretValue;
-import com.sequenceiq.cloudbreak.common.service.Clock;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
 import com.sequenceiq.cloudbreak.service.secret.domain.Secret;
 import com.sequenceiq.cloudbreak.service.secret.domain.SecretProxy;
 import com.sequenceiq.cloudbreak.common.exception.CloudbreakServiceException;
 import com.sequenceiq.cloudbreak.workspace.model.Tenant;
 import com.sequenceiq.cloudbreak.workspace.model.TenantAwareResource;
+import com.sequenceiq.cloudbreak.service.secret.service.SecretAspectService;
 import com.sequenceiq.cloudbreak.service.secret.service.SecretService;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -42,7 +44,7 @@ public class SecretAspectsTest {
     private SecretService secretService;
 
     @Mock
-    private Clock clock;
+    private MetricService metricService;
 
     @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
@@ -52,7 +54,7 @@ public class SecretAspectsTest {
 
     @Before
     public void setup() {
-
+        ReflectionTestUtils.setField(underTest, "secretAspectService", new SecretAspectService(secretService, metricService));
     }
 
     @Test
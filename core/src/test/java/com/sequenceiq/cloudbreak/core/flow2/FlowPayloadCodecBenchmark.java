@@ -0,0 +1,112 @@
+package com.sequenceiq.cloudbreak.core.flow2;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.cloudbreak.common.type.ClusterManagerType;
+import com.sequenceiq.cloudbreak.common.type.ScalingType;
+import com.sequenceiq.cloudbreak.core.flow2.event.ClusterAndStackDownscaleTriggerEvent;
+import com.sequenceiq.cloudbreak.core.flow2.event.ClusterDownscaleDetails;
+import com.sequenceiq.cloudbreak.core.flow2.event.ClusterScaleTriggerEvent;
+import com.sequenceiq.cloudbreak.core.flow2.event.StackAndClusterUpscaleTriggerEvent;
+import com.sequenceiq.cloudbreak.reactor.api.event.StackEvent;
+import com.sequenceiq.cloudbreak.reactor.api.event.StackFailureEvent;
+import com.sequenceiq.cloudbreak.reactor.api.event.stack.TerminationEvent;
+import com.sequenceiq.flow.conf.JsonIoConfig;
+import com.sequenceiq.flow.service.flowlog.codec.BinaryFlowPayloadCodec;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadCodec;
+import com.sequenceiq.flow.service.flowlog.codec.JsonIoFlowPayloadCodec;
+
+import reactor.rx.Promise;
+
+/**
+ * Compares the size and the encoding and decoding time of the json-io and the binary flow payload formats with the
+ * payloads of the core flows. Set the {@code flowpayload.benchmark.iterations} system property to make it run longer.
+ * It is excluded from the unit tests, run it with the {@code benchmark} task.
+ */
+public class FlowPayloadCodecBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowPayloadCodecBenchmark.class);
+
+    private static final long STACK_ID = 1L;
+
+    private final int iterations = Integer.getInteger("flowpayload.benchmark.iterations", 2000);
+
+    @Test
+    public void benchmarkJsonIoAgainstBinaryCodec() {
+        JsonIoFlowPayloadCodec jsonIoCodec = new JsonIoFlowPayloadCodec();
+        ReflectionTestUtils.setField(jsonIoCodec, "writeOptions", new JsonIoConfig().getCustomWriteOptions());
+        BinaryFlowPayloadCodec binaryCodec = new BinaryFlowPayloadCodec();
+        ReflectionTestUtils.setField(binaryCodec, "compressionThreshold", 1024);
+
+        for (Object payload : payloads()) {
+            Result jsonIo = measure(jsonIoCodec, payload);
+            Result binary = measure(binaryCodec, payload);
+            LOGGER.info("{}: json-io {} chars, encode {} ns, decode {} ns; binary {} chars, encode {} ns, decode {} ns",
+                    payload.getClass().getSimpleName(), jsonIo.size, jsonIo.encodeNanos, jsonIo.decodeNanos, binary.size,
+                    binary.encodeNanos, binary.decodeNanos);
+        }
+    }
+
+    private Result measure(FlowPayloadCodec codec, Object payload) {
+        String encoded = codec.encode(payload);
+        Object decoded = codec.decode(encoded);
+        if (payload instanceof Payload) {
+            assertEquals(((Payload) payload).getResourceId(), ((Payload) decoded).getResourceId());
+        }
+        long encodeStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            codec.encode(payload);
+        }
+        long encodeNanos = System.nanoTime() - encodeStart;
+        long decodeStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            codec.decode(encoded);
+        }
+        long decodeNanos = System.nanoTime() - decodeStart;
+        return new Result(encoded.length(), encodeNanos / iterations, decodeNanos / iterations);
+    }
+
+    private List<Object> payloads() {
+        Map<Object, Object> variables = new HashMap<>();
+        variables.put("FAILED", Boolean.FALSE);
+        variables.put("CLUSTER_MANAGER_TYPE", ClusterManagerType.CLOUDERA_MANAGER);
+        variables.put("HOSTNAMES", Set.of("host1.example.com", "host2.example.com"));
+        return List.of(
+                new StackEvent("STACK_EVENT", STACK_ID),
+                new TerminationEvent("TERMINATION_EVENT", STACK_ID, Boolean.TRUE),
+                new StackFailureEvent("STACK_FAILURE_EVENT", STACK_ID, new IllegalStateException("Something went wrong")),
+                new ClusterScaleTriggerEvent("CLUSTER_UPSCALE_TRIGGER_EVENT", STACK_ID, "worker", 2, Set.of("host1", "host2"), true, true, false, false,
+                        ClusterManagerType.CLOUDERA_MANAGER),
+                new StackAndClusterUpscaleTriggerEvent("FULL_UPSCALE_TRIGGER_EVENT", STACK_ID, "worker", 10, ScalingType.UPSCALE_TOGETHER,
+                        Set.of("host1", "host2", "host3"), true, false, new Promise<>(), false, true, ClusterManagerType.CLOUDERA_MANAGER),
+                new ClusterAndStackDownscaleTriggerEvent("FULL_DOWNSCALE_TRIGGER_EVENT", STACK_ID, "compute", Set.of(1L, 2L, 3L),
+                        ScalingType.DOWNSCALE_TOGETHER, new Promise<>(), new ClusterDownscaleDetails(true, false)),
+                variables);
+    }
+
+    private static class Result {
+
+        private final int size;
+
+        private final long encodeNanos;
+
+        private final long decodeNanos;
+
+        Result(int size, long encodeNanos, long decodeNanos) {
+            this.size = size;
+            this.encodeNanos = encodeNanos;
+            this.decodeNanos = decodeNanos;
+        }
+    }
+}
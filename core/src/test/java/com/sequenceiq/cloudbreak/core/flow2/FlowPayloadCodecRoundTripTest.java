@@ -0,0 +1,82 @@
+package com.sequenceiq.cloudbreak.core.flow2;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.type.ClusterManagerType;
+import com.sequenceiq.cloudbreak.common.type.ScalingType;
+import com.sequenceiq.cloudbreak.core.flow2.event.ClusterAndStackDownscaleTriggerEvent;
+import com.sequenceiq.cloudbreak.core.flow2.event.ClusterDownscaleDetails;
+import com.sequenceiq.cloudbreak.core.flow2.event.ClusterScaleTriggerEvent;
+import com.sequenceiq.cloudbreak.reactor.api.event.StackFailureEvent;
+import com.sequenceiq.flow.service.flowlog.codec.BinaryFlowPayloadCodec;
+
+import reactor.rx.Promise;
+
+public class FlowPayloadCodecRoundTripTest {
+
+    private static final long STACK_ID = 1L;
+
+    private BinaryFlowPayloadCodec underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new BinaryFlowPayloadCodec();
+        ReflectionTestUtils.setField(underTest, "compressionThreshold", 1024);
+    }
+
+    @Test
+    public void testFailureEventRoundTrip() {
+        StackFailureEvent event = new StackFailureEvent("STACK_FAILURE_EVENT", STACK_ID, new IllegalStateException("Something went wrong"));
+
+        StackFailureEvent result = (StackFailureEvent) underTest.decode(underTest.encode(event));
+
+        assertEquals(event.selector(), result.selector());
+        assertEquals(event.getResourceId(), result.getResourceId());
+        assertEquals(IllegalStateException.class, result.getException().getClass());
+        assertEquals("Something went wrong", result.getException().getMessage());
+    }
+
+    @Test
+    public void testScaleTriggerEventRoundTrip() {
+        ClusterScaleTriggerEvent event = new ClusterScaleTriggerEvent("CLUSTER_UPSCALE_TRIGGER_EVENT", STACK_ID, "worker", 2, Set.of("host1", "host2"),
+                true, true, false, false, ClusterManagerType.CLOUDERA_MANAGER);
+
+        ClusterScaleTriggerEvent result = (ClusterScaleTriggerEvent) underTest.decode(underTest.encode(event));
+
+        assertEquals(event.getResourceId(), result.getResourceId());
+        assertEquals("worker", result.getHostGroupName());
+        assertEquals(event.getAdjustment(), result.getAdjustment());
+        assertEquals(event.getHostNames(), result.getHostNames());
+        assertEquals(ClusterManagerType.CLOUDERA_MANAGER, result.getClusterManagerType());
+    }
+
+    @Test
+    public void testDownscaleTriggerEventRoundTrip() {
+        ClusterAndStackDownscaleTriggerEvent event = new ClusterAndStackDownscaleTriggerEvent("FULL_DOWNSCALE_TRIGGER_EVENT", STACK_ID, "compute",
+                Set.of(1L, 2L, 3L), ScalingType.DOWNSCALE_TOGETHER, new Promise<>(), new ClusterDownscaleDetails(true, false));
+
+        ClusterAndStackDownscaleTriggerEvent result = (ClusterAndStackDownscaleTriggerEvent) underTest.decode(underTest.encode(event));
+
+        assertEquals(event.getResourceId(), result.getResourceId());
+        assertEquals(event.getPrivateIds(), result.getPrivateIds());
+        assertEquals(ScalingType.DOWNSCALE_TOGETHER, result.getScalingType());
+    }
+
+    @Test
+    public void testVariablesRoundTrip() {
+        Map<Object, Object> variables = new HashMap<>();
+        variables.put("FAILED", Boolean.FALSE);
+        variables.put("CLUSTER_MANAGER_TYPE", ClusterManagerType.CLOUDERA_MANAGER);
+        variables.put("HOSTNAMES", Set.of("host1.example.com", "host2.example.com"));
+
+        assertEquals(variables, underTest.decode(underTest.encode(variables)));
+    }
+}
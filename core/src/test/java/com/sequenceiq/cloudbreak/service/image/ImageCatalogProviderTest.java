@@ -2,11 +2,19 @@ package com.sequenceiq.cloudbreak.service.image;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Collections;
@@ -19,7 +27,9 @@ import java.util.stream.Collectors;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Invocation.Builder;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.Response.Status.Family;
 import javax.ws.rs.core.Response.StatusType;
 
@@ -110,6 +120,7 @@ public class ImageCatalogProviderTest {
         modifiersField.setInt(field, field.getModifiers() & ~Modifier.FINAL);
 
         field.set(null, clientMap);
+        underTest.init();
     }
 
     @Test
@@ -225,7 +236,7 @@ public class ImageCatalogProviderTest {
         when(builderMock.get()).thenReturn(responseMock);
         when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
         when(statusTypeMock.getFamily()).thenReturn(Family.SUCCESSFUL);
-        when(responseMock.readEntity(String.class)).thenReturn(Files.readString(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON)));
+        when(responseMock.readEntity(InputStream.class)).thenReturn(Files.newInputStream(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON)));
 
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
         ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
@@ -239,6 +250,48 @@ public class ImageCatalogProviderTest {
 
     }
 
+    @Test
+    public void testHttpImageCatalogRefreshIsSkippedWhenNotModified() throws CloudbreakImageCatalogException, IOException {
+        String path = getPath(CB_IMAGE_CATALOG_VALID_JSON);
+        String catalogUrl = "http";
+
+        when(clientMock.target(catalogUrl)).thenReturn(webTargetMock);
+        when(webTargetMock.request()).thenReturn(builderMock);
+        when(builderMock.get()).thenReturn(responseMock);
+        when(responseMock.getStatus()).thenReturn(Status.NOT_MODIFIED.getStatusCode());
+        when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
+        when(statusTypeMock.getFamily()).thenReturn(Family.SUCCESSFUL);
+        when(responseMock.getHeaderString(HttpHeaders.ETAG)).thenReturn("\"etag\"");
+        when(responseMock.readEntity(InputStream.class)).thenReturn(Files.newInputStream(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON)));
+
+        ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
+        ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
+        ReflectionTestUtils.setField(underTest, "ttlMinutes", 15L);
+        ReflectionTestUtils.setField(underTest, "maxIdleMinutes", 10L);
+        underTest.init();
+
+        IndexedImageCatalog catalog = underTest.getIndexedImageCatalog(catalogUrl);
+        underTest.refreshImageCatalog(catalogUrl);
+
+        assertSame(catalog, underTest.getIndexedImageCatalog(catalogUrl));
+        verify(builderMock).header(HttpHeaders.IF_NONE_MATCH, "\"etag\"");
+        verify(responseMock, times(1)).readEntity(InputStream.class);
+        assertTrue(catalog.getImage(catalog.getCatalog().getImages().getBaseImages().get(0).getUuid()).isPresent());
+    }
+
+    @Test
+    public void testImageCatalogIsReadAtEveryRequestWhenTheCacheIsDisabled() throws CloudbreakImageCatalogException {
+        String path = getPath(CB_IMAGE_CATALOG_V2_JSON);
+        ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
+        ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
+        ReflectionTestUtils.setField(underTest, "ttlMinutes", 0L);
+        underTest.init();
+
+        IndexedImageCatalog catalog = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON);
+
+        assertNotSame(catalog, underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON));
+    }
+
     @Test(expected = CloudbreakImageCatalogException.class)
     public void testHttpImageCatalogNotValidJson() throws CloudbreakImageCatalogException {
         String path = getPath(CB_IMAGE_CATALOG_VALID_JSON);
@@ -249,7 +302,7 @@ public class ImageCatalogProviderTest {
         when(builderMock.get()).thenReturn(responseMock);
         when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
         when(statusTypeMock.getFamily()).thenReturn(Family.SUCCESSFUL);
-        when(responseMock.readEntity(String.class)).thenReturn("image catalog");
+        when(responseMock.readEntity(InputStream.class)).thenReturn(new ByteArrayInputStream("image catalog".getBytes()));
 
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
         ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
@@ -257,6 +310,29 @@ public class ImageCatalogProviderTest {
         underTest.getImageCatalogV3(catalogUrl);
     }
 
+    @Test
+    public void testHttpImageCatalogResponseIsClosedWhenTheRequestFailed() throws CloudbreakImageCatalogException {
+        String path = getPath(CB_IMAGE_CATALOG_VALID_JSON);
+        String catalogUrl = "http";
+
+        when(clientMock.target(catalogUrl)).thenReturn(webTargetMock);
+        when(webTargetMock.request()).thenReturn(builderMock);
+        when(webTargetMock.getUri()).thenReturn(URI.create(catalogUrl));
+        when(builderMock.get()).thenReturn(responseMock);
+        when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
+        when(statusTypeMock.getFamily()).thenReturn(Family.SERVER_ERROR);
+
+        ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
+        ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
+
+        try {
+            underTest.getImageCatalogV3(catalogUrl);
+            Assert.fail("CloudbreakImageCatalogException is expected");
+        } catch (CloudbreakImageCatalogException e) {
+            verify(responseMock).close();
+        }
+    }
+
     @Test
     public void testImageCatalogWithEmptyCloudBreakVersions() {
         String path = getPath(CB_IMAGE_CATALOG_EMPTY_CLOUDBREAK_VERSIONS_JSON);
@@ -79,7 +79,7 @@ public class ImageCatalogServiceDefaultNotFoundTest {
     public void testGetDefaultImageShouldThrowNotFoundException2() throws Exception {
         String catalogJson = FileReaderUtils.readFileFromClasspath(DEFAULT_CDH_IMAGE_CATALOG);
         CloudbreakImageCatalogV3 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV3.class);
-        when(imageCatalogProvider.getImageCatalogV3(DEFAULT_CDH_IMAGE_CATALOG)).thenReturn(catalog);
+        when(imageCatalogProvider.getIndexedImageCatalog(DEFAULT_CDH_IMAGE_CATALOG)).thenReturn(new IndexedImageCatalog(catalog));
         when(imageCatalog.getImageCatalogUrl()).thenReturn(DEFAULT_CDH_IMAGE_CATALOG);
         when(latestDefaultImageUuidProvider.getLatestDefaultImageUuids(any(), any())).thenReturn(Collections.EMPTY_LIST);
 
@@ -125,7 +125,7 @@ public class ImageCatalogServiceDefaultTest {
         MockitoAnnotations.initMocks(this);
         String catalogJson = FileReaderUtils.readFileFromClasspath(catalogFile);
         CloudbreakImageCatalogV3 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV3.class);
-        when(imageCatalogProvider.getImageCatalogV3(catalogFile)).thenReturn(catalog);
+        when(imageCatalogProvider.getIndexedImageCatalog(catalogFile)).thenReturn(new IndexedImageCatalog(catalog));
         when(preferencesService.enabledPlatforms()).thenReturn(new HashSet<>(Arrays.asList(PROVIDERS)));
 
         when(userProfileService.getOrCreate(user)).thenReturn(new UserProfile());
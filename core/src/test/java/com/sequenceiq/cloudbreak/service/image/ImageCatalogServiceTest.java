@@ -443,12 +443,12 @@ public class ImageCatalogServiceTest {
         ImageCatalog ret = new ImageCatalog();
         ret.setImageCatalogUrl("");
         when(imageCatalogRepository.findByNameAndWorkspaceId("name", ORG_ID)).thenReturn(Optional.of(ret));
-        when(imageCatalogProvider.getImageCatalogV3("")).thenReturn(null);
+        when(imageCatalogProvider.getIndexedImageCatalog("")).thenReturn(null);
         underTest.getImages(ORG_ID, "name", "aws");
 
         verify(entitlementService, times(1)).baseImageEnabled(Objects.requireNonNull(Crn.fromString(user.getUserCrn())).getAccountId());
         verify(entitlementService, never()).baseImageEnabled(user.getUserCrn());
-        verify(imageCatalogProvider, times(1)).getImageCatalogV3("");
+        verify(imageCatalogProvider, times(1)).getIndexedImageCatalog("");
 
     }
 
@@ -463,7 +463,7 @@ public class ImageCatalogServiceTest {
 
         verify(entitlementService, times(1)).baseImageEnabled(Objects.requireNonNull(Crn.fromString(user.getUserCrn())).getAccountId());
         verify(entitlementService, never()).baseImageEnabled(user.getUserCrn());
-        verify(imageCatalogProvider, times(0)).getImageCatalogV3("");
+        verify(imageCatalogProvider, times(0)).getIndexedImageCatalog("");
     }
 
     @Test
@@ -694,7 +694,7 @@ public class ImageCatalogServiceTest {
         String catalogJson = FileReaderUtils.readFileFromClasspath(catalogFile);
         CloudbreakImageCatalogV3 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV3.class);
         when(imageCatalog.getImageCatalogUrl()).thenReturn(catalogUrl);
-        when(imageCatalogProvider.getImageCatalogV3(catalogUrl)).thenReturn(catalog);
+        when(imageCatalogProvider.getIndexedImageCatalog(catalogUrl)).thenReturn(new IndexedImageCatalog(catalog));
     }
 
     private void setupUserProfileService() {
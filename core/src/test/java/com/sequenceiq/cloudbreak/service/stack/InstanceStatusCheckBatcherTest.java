@@ -0,0 +1,194 @@
+package com.sequenceiq.cloudbreak.service.stack;
+
+import static com.sequenceiq.cloudbreak.cloud.model.Location.location;
+import static com.sequenceiq.cloudbreak.cloud.model.Region.region;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.handler.InstanceStateQuery;
+import com.sequenceiq.cloudbreak.cloud.model.CloudCredential;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudVmInstanceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.InstanceStatus;
+
+@ExtendWith(MockitoExtension.class)
+class InstanceStatusCheckBatcherTest {
+
+    private static final long WINDOW_MILLIS = 2000L;
+
+    @InjectMocks
+    private InstanceStatusCheckBatcher underTest;
+
+    @Mock
+    private InstanceStateQuery instanceStateQuery;
+
+    @Mock
+    private ScheduledExecutorService batchQueryExecutor;
+
+    private final CloudCredential cloudCredential = new CloudCredential("credential-id", "credential");
+
+    private final List<Runnable> scheduledQueries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "windowMillis", WINDOW_MILLIS);
+        ReflectionTestUtils.setField(underTest, "maxInstances", 1000);
+        ReflectionTestUtils.setField(underTest, "batchQueryExecutor", batchQueryExecutor);
+        lenient().when(batchQueryExecutor.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> {
+            scheduledQueries.add(invocation.getArgument(0));
+            return null;
+        });
+    }
+
+    @Test
+    void testChecksOfTheSameRegionInTheWindowAreQueriedTogether() {
+        List<CloudInstance> firstInstances = List.of(instance("i-1"), instance("i-2"));
+        List<CloudInstance> secondInstances = List.of(instance("i-3"));
+        when(instanceStateQuery.getCloudVmInstanceStatusesOfStacksWithoutRetry(eq(cloudCredential), any(), anyMap()))
+                .thenAnswer(invocation -> {
+                    Map<CloudContext, List<CloudInstance>> instancesByStack = invocation.getArgument(2);
+                    return Optional.of(instancesByStack.values().stream()
+                            .flatMap(List::stream)
+                            .map(instance -> new CloudVmInstanceStatus(instance, InstanceStatus.STARTED))
+                            .collect(Collectors.toList()));
+                });
+
+        CompletableFuture<Optional<List<CloudVmInstanceStatus>>> firstResult = underTest.submit(cloudCredential, cloudContext(1L, "eu-west-1"),
+                firstInstances);
+        CompletableFuture<Optional<List<CloudVmInstanceStatus>>> secondResult = underTest.submit(cloudCredential, cloudContext(2L, "eu-west-1"),
+                secondInstances);
+
+        assertFalse(firstResult.isDone());
+        verify(batchQueryExecutor).schedule(any(Runnable.class), eq(WINDOW_MILLIS), eq(TimeUnit.MILLISECONDS));
+        runScheduledQueries();
+
+        assertEquals(2, firstResult.join().get().size());
+        assertSame(secondInstances.get(0), secondResult.join().get().get(0).getCloudInstance());
+        verify(instanceStateQuery, never()).getCloudVmInstanceStatusesWithoutRetry(any(), any(), any());
+    }
+
+    @Test
+    void testStacksAreLeftToTheirCallersWhenTheProviderDoesNotSupportBulkQuery() {
+        when(instanceStateQuery.getCloudVmInstanceStatusesOfStacksWithoutRetry(eq(cloudCredential), any(), anyMap())).thenReturn(Optional.empty());
+
+        CompletableFuture<Optional<List<CloudVmInstanceStatus>>> firstResult = underTest.submit(cloudCredential, cloudContext(1L, "eu-west-1"),
+                List.of(instance("i-1")));
+        CompletableFuture<Optional<List<CloudVmInstanceStatus>>> secondResult = underTest.submit(cloudCredential, cloudContext(2L, "eu-west-1"),
+                List.of(instance("i-2")));
+        runScheduledQueries();
+
+        assertTrue(firstResult.join().isEmpty());
+        assertTrue(secondResult.join().isEmpty());
+        verify(instanceStateQuery, never()).getCloudVmInstanceStatusesWithoutRetry(any(), any(), any());
+    }
+
+    @Test
+    void testStacksAreLeftToTheirCallersWhenTheBulkQueryFails() {
+        when(instanceStateQuery.getCloudVmInstanceStatusesOfStacksWithoutRetry(eq(cloudCredential), any(), anyMap()))
+                .thenThrow(new IllegalStateException("provider error"));
+
+        CompletableFuture<Optional<List<CloudVmInstanceStatus>>> firstResult = underTest.submit(cloudCredential, cloudContext(1L, "eu-west-1"),
+                List.of(instance("i-1")));
+        CompletableFuture<Optional<List<CloudVmInstanceStatus>>> secondResult = underTest.submit(cloudCredential, cloudContext(2L, "eu-west-1"),
+                List.of(instance("i-2")));
+        runScheduledQueries();
+
+        assertTrue(firstResult.join().isEmpty());
+        assertTrue(secondResult.join().isEmpty());
+    }
+
+    @Test
+    void testChecksOfDifferentRegionsAreNotQueriedTogether() {
+        CompletableFuture<Optional<List<CloudVmInstanceStatus>>> firstResult = underTest.submit(cloudCredential, cloudContext(1L, "eu-west-1"),
+                List.of(instance("i-1")));
+        CompletableFuture<Optional<List<CloudVmInstanceStatus>>> secondResult = underTest.submit(cloudCredential, cloudContext(2L, "us-east-1"),
+                List.of(instance("i-2")));
+        runScheduledQueries();
+
+        assertEquals(2, scheduledQueries.size());
+        assertTrue(firstResult.join().isEmpty());
+        assertTrue(secondResult.join().isEmpty());
+        verify(instanceStateQuery, never()).getCloudVmInstanceStatusesOfStacksWithoutRetry(any(), any(), anyMap());
+    }
+
+    @Test
+    void testFullBatchIsQueriedWithoutWaitingForTheWindow() {
+        ReflectionTestUtils.setField(underTest, "maxInstances", 2);
+
+        underTest.submit(cloudCredential, cloudContext(1L, "eu-west-1"), List.of(instance("i-1")));
+        underTest.submit(cloudCredential, cloudContext(2L, "eu-west-1"), List.of(instance("i-2")));
+
+        verify(batchQueryExecutor).schedule(any(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testCallerQueriesItsStackWhenTheBatchDidNotReturnIt() {
+        CloudContext cloudContext = cloudContext(1L, "eu-west-1");
+        List<CloudInstance> instances = List.of(instance("i-1"));
+        List<CloudVmInstanceStatus> statuses = List.of(new CloudVmInstanceStatus(instances.get(0), InstanceStatus.STOPPED));
+        runScheduledQueriesRightAway();
+        when(instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(cloudCredential, cloudContext, instances)).thenReturn(statuses);
+
+        assertSame(statuses, underTest.queryInstanceStatuses(cloudCredential, cloudContext, instances));
+    }
+
+    @Test
+    void testFailureOfTheStackQueryIsThrownToTheCaller() {
+        CloudContext cloudContext = cloudContext(1L, "eu-west-1");
+        List<CloudInstance> instances = List.of(instance("i-1"));
+        runScheduledQueriesRightAway();
+        when(instanceStateQuery.getCloudVmInstanceStatusesWithoutRetry(cloudCredential, cloudContext, instances))
+                .thenThrow(new IllegalStateException("provider error"));
+
+        assertThrows(IllegalStateException.class, () -> underTest.queryInstanceStatuses(cloudCredential, cloudContext, instances));
+    }
+
+    private void runScheduledQueries() {
+        scheduledQueries.forEach(Runnable::run);
+    }
+
+    private void runScheduledQueriesRightAway() {
+        when(batchQueryExecutor.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        });
+    }
+
+    private CloudContext cloudContext(Long id, String region) {
+        return new CloudContext(id, "stack-" + id, "crn-" + id, "AWS", "AWS", location(region(region)), "user", "account");
+    }
+
+    private CloudInstance instance(String instanceId) {
+        return new CloudInstance(instanceId, null, null);
+    }
+}
@@ -51,6 +51,9 @@ class StackInstanceStatusCheckerTest {
     @Mock
     private CredentialToCloudCredentialConverter cloudCredentialConverter;
 
+    @Mock
+    private InstanceStatusCheckBatcher instanceStatusCheckBatcher;
+
     @Mock
     private EnvironmentServiceCrnEndpoints environmentServiceCrnEndpoints;
 
@@ -34,6 +34,7 @@ import com.sequenceiq.flow.core.ApplicationFlowInformation;
 import com.sequenceiq.flow.core.Flow2Handler;
 import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.flow.core.FlowRegister;
+import com.sequenceiq.flow.core.RunningFlowIndex;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
@@ -69,6 +70,9 @@ public class HeartbeatService {
     @Inject
     private FlowRegister runningFlows;
 
+    @Inject
+    private RunningFlowIndex runningFlowIndex;
+
     @Inject
     private MetricService metricService;
 
@@ -113,6 +117,7 @@ public class HeartbeatService {
             } catch (Retry.ActionFailedException af) {
                 LOGGER.error("Failed to update the heartbeat timestamp 5 times for node {}: {}", nodeId, af.getMessage());
                 inMemoryCleanup.cancelEveryFlowWithoutDbUpdate();
+                runningFlowIndex.invalidate();
             }
 
             cancelInvalidFlows();
@@ -149,6 +154,7 @@ public class HeartbeatService {
                     LOGGER.error(String.format("Failed to restart flow: %s", flow), e);
                 }
             }
+            runningFlowIndex.reconcile(runningFlows.getRunningFlowIds());
         }
     }
 
@@ -10,11 +10,11 @@ import javax.annotation.Resource;
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.mutable.MutableBoolean;
+import org.apache.commons.lang3.mutable.MutableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import com.cedarsoftware.util.io.JsonReader;
 import com.sequenceiq.cloudbreak.common.event.AcceptResult;
 import com.sequenceiq.cloudbreak.common.event.Acceptable;
 import com.sequenceiq.cloudbreak.common.event.Payload;
@@ -31,6 +31,7 @@ import com.sequenceiq.flow.core.exception.FlowNotFoundException;
 import com.sequenceiq.flow.core.model.FlowAcceptResult;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.ha.NodeConfig;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
 
 import io.opentracing.Scope;
 import io.opentracing.Span;
@@ -87,6 +88,9 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
     @Inject
     private InMemoryCleanup inMemoryCleanup;
 
+    @Inject
+    private FlowPayloadSerializer flowPayloadSerializer;
+
     @Override
     public void accept(Event<? extends Payload> event) {
         String key = (String) event.getKey();
@@ -152,7 +156,7 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
                         flowParameters.setFlowId(flowId);
                         Flow flow = flowConfig.createFlow(flowId, flowChainId, payload.getResourceId());
                         flow.initialize(contextParams);
-                        runningFlows.put(flow, flowChainId);
+                        runningFlows.put(flow, flowChainId, payload.getResourceId());
                         try {
                             transactionService.required(() -> {
                                 flowLogService.save(flowParameters, flowChainId, key, payload, null, flowConfig.getClass(), flow.getCurrentState());
@@ -194,20 +198,14 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
         Flow flow = runningFlows.get(flowId);
         if (flow != null) {
             MutableBoolean flowCancelled = new MutableBoolean(false);
-            transactionService.required(() -> {
-                Optional<FlowLog> lastFlowLog = flowLogService.getLastFlowLog(flow.getFlowId());
-                lastFlowLog.ifPresent(flowLog -> {
-                    String nodeId = nodeConfig.getId();
-                    if (flowLog.getFinalized() || flowLog.getCloudbreakNodeId() == null || flowLog.getCloudbreakNodeId().equals(nodeId)) {
-                        updateFlowLogStatus(key, payload, flowChainId, flow, flowLog, flowParameters);
-                    } else {
-                        LOGGER.info("Flow {} was handled by another node {}, current node ID is {}, abandoning.",
-                                flow.getFlowId(), flowLog.getCloudbreakNodeId(), nodeId);
-                        inMemoryCleanup.cancelFlowWithoutDbUpdate(flow.getFlowId());
-                        flowCancelled.setTrue();
-                    }
-                });
-            });
+            boolean batchedWrite = flowLogService.isWriteBatchingEnabled();
+            MutableObject<FlowLog> batchedLastFlowLog = new MutableObject<>();
+            transactionService.required(() -> handleLastFlowLog(key, payload, flowParameters, flowChainId, flow, flowCancelled,
+                    batchedWrite ? batchedLastFlowLog : null));
+            if (batchedLastFlowLog.getValue() != null) {
+                // the batch is written with another connection of the pool, so it is waited for only after the transaction above has released its own
+                updateFlowLogStatusBatched(key, payload, flowChainId, flow, batchedLastFlowLog.getValue(), flowParameters);
+            }
             if (!flowCancelled.booleanValue()) {
                 flow.sendEvent(key, flowParameters.getFlowTriggerUserCrn(), payload, flowParameters.getSpanContext());
             }
@@ -216,6 +214,26 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
         }
     }
 
+    private void handleLastFlowLog(String key, Payload payload, FlowParameters flowParameters, String flowChainId, Flow flow,
+            MutableBoolean flowCancelled, MutableObject<FlowLog> batchedLastFlowLog) {
+        Optional<FlowLog> lastFlowLog = flowLogService.getLastFlowLog(flow.getFlowId());
+        lastFlowLog.ifPresent(flowLog -> {
+            String nodeId = nodeConfig.getId();
+            if (flowLog.getFinalized() || flowLog.getCloudbreakNodeId() == null || flowLog.getCloudbreakNodeId().equals(nodeId)) {
+                if (batchedLastFlowLog != null) {
+                    batchedLastFlowLog.setValue(flowLog);
+                } else {
+                    updateFlowLogStatus(key, payload, flowChainId, flow, flowLog, flowParameters);
+                }
+            } else {
+                LOGGER.info("Flow {} was handled by another node {}, current node ID is {}, abandoning.",
+                        flow.getFlowId(), flowLog.getCloudbreakNodeId(), nodeId);
+                inMemoryCleanup.cancelFlowWithoutDbUpdate(flow.getFlowId());
+                flowCancelled.setTrue();
+            }
+        });
+    }
+
     private void updateFlowLogStatus(String key, Payload payload, String flowChainId, Flow flow, FlowLog lastFlowLog, FlowParameters flowParameters) {
         if (flowLogService.repeatedFlowState(lastFlowLog, key)) {
             flowLogService.updateLastFlowLogPayload(lastFlowLog, payload, flow.getVariables());
@@ -225,6 +243,15 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
         }
     }
 
+    private void updateFlowLogStatusBatched(String key, Payload payload, String flowChainId, Flow flow, FlowLog lastFlowLog,
+            FlowParameters flowParameters) {
+        if (flowLogService.repeatedFlowState(lastFlowLog, key)) {
+            flowLogService.updateLastFlowLogPayloadBatched(lastFlowLog, payload, flow.getVariables());
+        } else {
+            flowLogService.saveTransitionBatched(lastFlowLog, failHandledEvents.contains(key), flowParameters, flowChainId, key, payload, flow);
+        }
+    }
+
     private boolean isFlowAcceptable(String key, Payload payload) {
         if (payload instanceof Acceptable && ((Acceptable) payload).accepted() != null) {
             Acceptable acceptable = (Acceptable) payload;
@@ -293,13 +320,13 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
                 Optional<FlowConfiguration<?>> flowConfig = flowConfigs.stream()
                         .filter(fc -> fc.getClass().equals(flowLog.getFlowType())).findFirst();
                 try {
-                    Payload payload = (Payload) JsonReader.jsonToJava(flowLog.getPayload());
+                    Payload payload = (Payload) flowPayloadSerializer.deserializePayload(flowLog);
                     Flow flow = flowConfig.get().createFlow(flowLog.getFlowId(), flowLog.getFlowChainId(), payload.getResourceId());
-                    runningFlows.put(flow, flowLog.getFlowChainId());
+                    runningFlows.put(flow, flowLog.getFlowChainId(), payload.getResourceId());
                     if (flowLog.getFlowChainId() != null) {
                         flowChainHandler.restoreFlowChain(flowLog.getFlowChainId());
                     }
-                    Map<Object, Object> variables = (Map<Object, Object>) JsonReader.jsonToJava(flowLog.getVariables());
+                    Map<Object, Object> variables = flowPayloadSerializer.deserializeVariables(flowLog);
                     flow.initialize(flowLog.getCurrentState(), variables);
                     RestartAction restartAction = flowConfig.get().getRestartAction(flowLog.getNextEvent());
                     if (restartAction != null) {
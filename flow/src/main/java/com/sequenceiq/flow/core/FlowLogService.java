@@ -16,6 +16,11 @@ public interface FlowLogService {
     FlowLog save(FlowParameters flowParameters, String flowChanId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
             FlowState currentState);
 
+    void saveTransitionBatched(FlowLog lastFlowLog, boolean failureEvent, FlowParameters flowParameters, String flowChanId, String key, Payload payload,
+            Flow flow);
+
+    boolean isWriteBatchingEnabled();
+
     Iterable<FlowLog> saveAll(Iterable<FlowLog> entities);
 
     FlowLog close(Long stackId, String flowId) throws TransactionService.TransactionExecutionException;
@@ -36,6 +41,8 @@ public interface FlowLogService {
 
     void updateLastFlowLogPayload(FlowLog lastFlowLog, Payload payload, Map<Object, Object> variables);
 
+    void updateLastFlowLogPayloadBatched(FlowLog lastFlowLog, Payload payload, Map<Object, Object> variables);
+
     Optional<FlowLog> getLastFlowLog(String flowId);
 
     void cancelTooOldTerminationFlowForResource(Long resourceId, long olderThan);
@@ -4,7 +4,12 @@ import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
 
 public enum FlowMetricType implements Metric {
     FLOW_STEP("flowstep"),
-    ACTIVE_FLOWS("activeflow");
+    ACTIVE_FLOWS("activeflow"),
+    FLOWLOG_BATCH_SIZE("flowlog.batch.size"),
+    FLOWLOG_BATCH_FLUSH_TIME("flowlog.batch.flushtime"),
+    EVENTBUS_LANE_QUEUE_SIZE("eventbus.lane.queuesize"),
+    EVENTBUS_LANE_AVERAGE_WAIT_TIME("eventbus.lane.waittime.avg"),
+    EVENTBUS_LANE_MAX_WAIT_TIME("eventbus.lane.waittime.max");
 
     private final String metricName;
 
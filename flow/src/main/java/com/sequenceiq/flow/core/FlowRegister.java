@@ -22,11 +22,15 @@ public class FlowRegister {
     @Inject
     private MetricService metricService;
 
+    @Inject
+    private RunningFlowIndex runningFlowIndex;
+
     private final Map<String, Pair<Flow, String>> runningFlows = new ConcurrentHashMap<>();
 
-    public void put(Flow flow, String chainFlowId) {
+    public void put(Flow flow, String chainFlowId, Long resourceId) {
         LOGGER.info("Put flow {} to running flows", flow.getFlowId());
         runningFlows.put(flow.getFlowId(), new ImmutablePair<>(flow, chainFlowId));
+        runningFlowIndex.add(flow.getFlowId(), resourceId, flow.getFlowConfigClass());
         LOGGER.info("Running flows after put: {}", runningFlows.keySet());
         metricService.submit(FlowMetricType.ACTIVE_FLOWS, runningFlows.size());
     }
@@ -44,6 +48,7 @@ public class FlowRegister {
     public Flow remove(String flowId) {
         LOGGER.info("Remove flow {} from running flows", flowId);
         Pair<Flow, String> pair = runningFlows.remove(flowId);
+        runningFlowIndex.remove(flowId);
         metricService.submit(FlowMetricType.ACTIVE_FLOWS, runningFlows.size());
         LOGGER.info("Running flows after removal: {}", runningFlows.keySet());
         return pair == null ? null : pair.getLeft();
@@ -0,0 +1,241 @@
+package com.sequenceiq.flow.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.flow.domain.FlowLogIdWithTypeAndTimestamp;
+import com.sequenceiq.flow.ha.NodeConfig;
+
+/**
+ * Node local index of the pending flows by resource id, to answer whether a flow is running on a resource without
+ * querying the flow logs. The index is fed by {@link FlowRegister} and the flow log finalization.
+ * <p>
+ * A flow found in the index is always running. When no flow is found, the answer can be trusted only if this node
+ * sees every flow change of the resource: this is the case only without HA, and only after the pending flows of the
+ * resource have been loaded from the database and nothing unknown has happened to them since. In every other case
+ * the index answers with empty and the caller has to fall back to the database.
+ * <p>
+ * Limitation with HA (a node id is specified): every node accepts the requests and starts their flows, so a flow of a
+ * resource can be started on another node at any time without this node knowing about it. Invalidating the index when
+ * the flow logs change owner, like {@link #reconcile(Set)} does, does not cover these flows, so the index never answers
+ * false with HA. Deployments with HA still query the database for every negative answer, only the positive answers and
+ * non-HA deployments benefit from the index.
+ * <p>
+ * A resource is kept only while it has a flow running on this node, or while its pending flows are known. When the
+ * number of resources reaches {@code flow.runningflowindex.maxresources}, the known resources without a running flow
+ * are removed, so they are loaded from the database again on their next check.
+ */
+@Component
+public class RunningFlowIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RunningFlowIndex.class);
+
+    @Value("${flow.runningflowindex.maxresources:10000}")
+    private int maxResources;
+
+    @Inject
+    private NodeConfig nodeConfig;
+
+    private final Map<Long, ResourceFlows> resources = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> resourceIdsByFlowId = new ConcurrentHashMap<>();
+
+    private final AtomicLong modificationCounter = new AtomicLong();
+
+    private final AtomicLong removalCounter = new AtomicLong();
+
+    public void add(String flowId, Long resourceId, Class<?> flowType) {
+        if (resourceId != null) {
+            resourceIdsByFlowId.put(flowId, resourceId);
+            long modification = modificationCounter.incrementAndGet();
+            resources.compute(resourceId, (id, flows) -> (flows == null ? new ResourceFlows() : flows).add(flowId, flowType, modification));
+        }
+    }
+
+    /**
+     * The flow is not running on this node anymore, but its flow logs might still be pending in the database,
+     * so the resource is not known by the index until it is loaded again.
+     */
+    public void remove(String flowId) {
+        Long resourceId = resourceIdsByFlowId.remove(flowId);
+        if (resourceId != null) {
+            long modification = modificationCounter.incrementAndGet();
+            resources.computeIfPresent(resourceId, (id, flows) -> removeIfUseless(flows.remove(flowId, false, modification)));
+        }
+    }
+
+    /**
+     * The flow logs of the flow have been finalized, so the flow is not pending anymore.
+     */
+    public void finalized(Long resourceId, String flowId) {
+        resourceIdsByFlowId.remove(flowId);
+        if (resourceId != null) {
+            long modification = modificationCounter.incrementAndGet();
+            resources.computeIfPresent(resourceId, (id, flows) -> removeIfUseless(flows.remove(flowId, true, modification)));
+        }
+    }
+
+    /**
+     * Checks whether a flow with a type accepted by the filter is running on the resource.
+     *
+     * @return true if a matching flow is running, false if there is no such flow, or empty if the database
+     * has to be checked
+     */
+    public Optional<Boolean> isFlowRunning(Long resourceId, Predicate<Class<?>> flowTypeFilter) {
+        ResourceFlows flows = resources.get(resourceId);
+        if (flows != null) {
+            synchronized (flows) {
+                if (flows.flowTypes.values().stream().anyMatch(flowTypeFilter)) {
+                    return Optional.of(Boolean.TRUE);
+                } else if (flows.known && isLocalAnswerComplete()) {
+                    return Optional.of(Boolean.FALSE);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the stamp to pass to {@link #load(Long, long, Collection)} after the pending flows of the resource
+     * have been queried, so a concurrent modification of the resource discards the result of the query.
+     */
+    public long getLoadStamp(Long resourceId) {
+        ResourceFlows flows = resources.get(resourceId);
+        return flows == null ? getAbsentStamp() : flows.modification;
+    }
+
+    public void load(Long resourceId, long loadStamp, Collection<FlowLogIdWithTypeAndTimestamp> pendingFlowLogs) {
+        if (isLocalAnswerComplete() && hasRoomFor(resourceId)) {
+            long modification = modificationCounter.incrementAndGet();
+            resources.compute(resourceId, (id, flows) -> {
+                long currentStamp = flows == null ? getAbsentStamp() : flows.modification;
+                if (currentStamp != loadStamp) {
+                    LOGGER.debug("Flows of resource {} changed while they were loaded from the database, not caching them.", resourceId);
+                    return flows;
+                }
+                ResourceFlows loaded = flows == null ? new ResourceFlows() : flows;
+                return loaded.load(pendingFlowLogs, modification);
+            });
+        }
+    }
+
+    /**
+     * Forgets everything which was loaded from the database and keeps only the flows which are still running on this
+     * node. Used when the flows of the node might have been changed by another node.
+     */
+    public void reconcile(Set<String> runningFlowIds) {
+        LOGGER.debug("Reconciling running flow index with the running flows: {}", runningFlowIds);
+        resourceIdsByFlowId.keySet().retainAll(runningFlowIds);
+        long modification = modificationCounter.incrementAndGet();
+        resources.replaceAll((resourceId, flows) -> flows.retain(runningFlowIds, modification));
+        removeUselessResources();
+    }
+
+    public void invalidate() {
+        LOGGER.debug("Invalidating running flow index");
+        long modification = modificationCounter.incrementAndGet();
+        resources.replaceAll((resourceId, flows) -> flows.forget(modification));
+        removeUselessResources();
+    }
+
+    /**
+     * With HA the flows of a resource can be started by any node, so only the database knows that none is running.
+     */
+    private boolean isLocalAnswerComplete() {
+        return !nodeConfig.isNodeIdSpecified();
+    }
+
+    private boolean hasRoomFor(Long resourceId) {
+        if (resources.size() < maxResources || resources.containsKey(resourceId)) {
+            return true;
+        }
+        LOGGER.debug("Running flow index has reached its limit of {} resources, removing the resources without running flows.", maxResources);
+        removalCounter.incrementAndGet();
+        resources.entrySet().removeIf(entry -> entry.getValue().isIdle());
+        return resources.size() < maxResources;
+    }
+
+    /**
+     * The stamp of a resource which is not in the index. It changes whenever a resource is removed from the index, so
+     * a load started before a resource was added and removed again is discarded.
+     */
+    private long getAbsentStamp() {
+        return -1L - removalCounter.get();
+    }
+
+    private ResourceFlows removeIfUseless(ResourceFlows flows) {
+        if (flows.isUseless()) {
+            removalCounter.incrementAndGet();
+            return null;
+        }
+        return flows;
+    }
+
+    private void removeUselessResources() {
+        removalCounter.incrementAndGet();
+        resources.entrySet().removeIf(entry -> entry.getValue().isUseless());
+    }
+
+    private static final class ResourceFlows {
+
+        private final Map<String, Class<?>> flowTypes = new HashMap<>();
+
+        private boolean known;
+
+        private long modification;
+
+        private synchronized ResourceFlows add(String flowId, Class<?> flowType, long modification) {
+            flowTypes.put(flowId, flowType);
+            this.modification = modification;
+            return this;
+        }
+
+        private synchronized ResourceFlows remove(String flowId, boolean finalized, long modification) {
+            if (flowTypes.remove(flowId) != null || !finalized) {
+                known = known && finalized;
+                this.modification = modification;
+            }
+            return this;
+        }
+
+        private synchronized ResourceFlows load(Collection<FlowLogIdWithTypeAndTimestamp> pendingFlowLogs, long modification) {
+            flowTypes.clear();
+            pendingFlowLogs.forEach(flowLog -> flowTypes.put(flowLog.getFlowId(), flowLog.getFlowType()));
+            known = true;
+            this.modification = modification;
+            return this;
+        }
+
+        private synchronized ResourceFlows retain(Set<String> runningFlowIds, long modification) {
+            flowTypes.keySet().retainAll(runningFlowIds);
+            return forget(modification);
+        }
+
+        private synchronized ResourceFlows forget(long modification) {
+            known = false;
+            this.modification = modification;
+            return this;
+        }
+
+        private synchronized boolean isUseless() {
+            return !known && flowTypes.isEmpty();
+        }
+
+        private synchronized boolean isIdle() {
+            return flowTypes.isEmpty();
+        }
+    }
+}
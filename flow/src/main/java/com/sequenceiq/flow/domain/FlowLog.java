@@ -60,6 +60,8 @@ public class FlowLog {
 
     private String flowTriggerUserCrn;
 
+    private String payloadFormat;
+
     public FlowLog() {
 
     }
@@ -222,6 +224,14 @@ public class FlowLog {
         this.flowTriggerUserCrn = flowTriggerUserCrn;
     }
 
+    public String getPayloadFormat() {
+        return payloadFormat;
+    }
+
+    public void setPayloadFormat(String payloadFormat) {
+        this.payloadFormat = payloadFormat;
+    }
+
     public String minimizedString() {
         return "FlowLog{" +
                 "resourceId=" + resourceId +
@@ -18,6 +18,7 @@ import org.springframework.context.annotation.Lazy;
 import com.sequenceiq.cloudbreak.logger.MDCBuilder;
 import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
 import com.sequenceiq.flow.core.ApplicationFlowInformation;
+import com.sequenceiq.flow.reactor.dispatch.ResourceShardedDispatcher;
 import com.sequenceiq.flow.reactor.handler.ConsumerNotFoundHandler;
 import com.sequenceiq.flow.service.flowlog.FlowLogDBService;
 
@@ -25,6 +26,7 @@ import reactor.Environment;
 import reactor.bus.Event;
 import reactor.bus.EventBus;
 import reactor.bus.spec.EventBusSpec;
+import reactor.core.Dispatcher;
 import reactor.core.dispatch.ThreadPoolExecutorDispatcher;
 import reactor.core.support.Exceptions;
 import reactor.core.support.NamedDaemonThreadFactory;
@@ -44,6 +46,18 @@ public class EventBusConfig {
     @Value("${cb.eventbus.threadpool.backlog.size:1000}")
     private int eventBusThreadPoolBacklogSize;
 
+    @Value("${cb.eventbus.dispatcher.sharded.enabled:false}")
+    private boolean shardedDispatcherEnabled;
+
+    @Value("${cb.eventbus.dispatcher.lane.count:64}")
+    private int dispatcherLaneCount;
+
+    @Value("${cb.eventbus.dispatcher.lane.capacity:200}")
+    private int dispatcherLaneCapacity;
+
+    @Value("${cb.eventbus.dispatcher.lane.offer.timeout.ms:30000}")
+    private long dispatcherLaneOfferTimeoutMs;
+
     @Inject
     @Lazy
     private ApplicationFlowInformation applicationFlowInformation;
@@ -121,7 +135,7 @@ public class EventBusConfig {
     public EventBus reactor(MDCCleanerThreadPoolExecutor threadPoolExecutor, Environment env) {
         return new EventBusSpec()
                 .env(env)
-                .dispatcher(new ThreadPoolExecutorDispatcher(eventBusThreadPoolBacklogSize, eventBusThreadPoolCoreSize, threadPoolExecutor))
+                .dispatcher(createDispatcher(threadPoolExecutor))
                 .traceEventPath()
                 .dispatchErrorHandler(throwable -> {
                     handleFlowFail(throwable);
@@ -131,6 +145,14 @@ public class EventBusConfig {
                 .get();
     }
 
+    private Dispatcher createDispatcher(MDCCleanerThreadPoolExecutor threadPoolExecutor) {
+        if (shardedDispatcherEnabled) {
+            LOGGER.info("Event bus uses {} resource sharded lanes with capacity {}", dispatcherLaneCount, dispatcherLaneCapacity);
+            return new ResourceShardedDispatcher("reactorLane", dispatcherLaneCount, dispatcherLaneCapacity, dispatcherLaneOfferTimeoutMs);
+        }
+        return new ThreadPoolExecutorDispatcher(eventBusThreadPoolBacklogSize, eventBusThreadPoolCoreSize, threadPoolExecutor);
+    }
+
     @Bean("eventBusThreadPoolExecutor")
     public MDCCleanerThreadPoolExecutor getPoolExecutor() {
         return new MDCCleanerThreadPoolExecutor(eventBusThreadPoolCoreSize,
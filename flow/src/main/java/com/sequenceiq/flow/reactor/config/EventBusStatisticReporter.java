@@ -1,15 +1,24 @@
 package com.sequenceiq.flow.reactor.config;
 
-import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
+import com.sequenceiq.flow.core.FlowMetricType;
+import com.sequenceiq.flow.reactor.dispatch.DispatcherLaneStatistics;
+import com.sequenceiq.flow.reactor.dispatch.ResourceShardedDispatcher;
+
 import reactor.bus.EventBus;
 import reactor.core.Dispatcher;
 
-import javax.inject.Inject;
-import javax.inject.Named;
-
 @Component
 public class EventBusStatisticReporter {
 
@@ -22,6 +31,9 @@ public class EventBusStatisticReporter {
     @Named("eventBusThreadPoolExecutor")
     private MDCCleanerThreadPoolExecutor executor;
 
+    @Inject
+    private MetricService metricService;
+
     public void logInfoReport() {
         LOGGER.info("Reactor event bus statistics: {}", create());
     }
@@ -44,9 +56,21 @@ public class EventBusStatisticReporter {
         stats.setActiveCount(executor.getActiveCount());
         stats.setCompletedTaskCount(executor.getCompletedTaskCount());
 
+        if (dispatcher instanceof ResourceShardedDispatcher) {
+            List<DispatcherLaneStatistics> laneStatistics = ((ResourceShardedDispatcher) dispatcher).getLaneStatistics();
+            laneStatistics.forEach(this::submitLaneMetrics);
+            stats.setLanes(laneStatistics);
+        }
         return stats;
     }
 
+    private void submitLaneMetrics(DispatcherLaneStatistics laneStatistics) {
+        Map<String, String> labels = Map.of("lane", String.valueOf(laneStatistics.getLane()));
+        metricService.submit(FlowMetricType.EVENTBUS_LANE_QUEUE_SIZE, laneStatistics.getQueueSize(), labels);
+        metricService.submit(FlowMetricType.EVENTBUS_LANE_AVERAGE_WAIT_TIME, laneStatistics.getAverageWaitMillis(), labels);
+        metricService.submit(FlowMetricType.EVENTBUS_LANE_MAX_WAIT_TIME, laneStatistics.getMaxWaitMillis(), labels);
+    }
+
     public static class EventBusStatistics {
 
         private long backLogSize;
@@ -67,6 +91,8 @@ public class EventBusStatisticReporter {
 
         private boolean inContext;
 
+        private List<DispatcherLaneStatistics> lanes;
+
         public void setGetActiveCount(long getActiveCount) {
             this.getActiveCount = getActiveCount;
         }
@@ -103,6 +129,10 @@ public class EventBusStatisticReporter {
             this.inContext = inContext;
         }
 
+        public void setLanes(List<DispatcherLaneStatistics> lanes) {
+            this.lanes = lanes;
+        }
+
         @Override
         public String toString() {
             return "EventBusStatistics{" +
@@ -115,6 +145,7 @@ public class EventBusStatisticReporter {
                     ", poolSize=" + poolSize +
                     ", activeCount=" + activeCount +
                     ", inContext=" + inContext +
+                    (lanes == null ? "" : ", lanes=" + lanes) +
                     '}';
         }
     }
@@ -0,0 +1,133 @@
+package com.sequenceiq.flow.reactor.dispatch;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
+
+import reactor.core.support.NamedDaemonThreadFactory;
+
+/**
+ * A bounded FIFO queue consumed by a single thread. The capacity is enforced with a semaphore instead of the queue
+ * itself, so the tasks dispatched from a lane thread can always be accepted and the lanes can not deadlock each other.
+ */
+final class DispatcherLane {
+
+    private static final ThreadLocal<DispatcherLane> CURRENT_LANE = new ThreadLocal<>();
+
+    private final int index;
+
+    private final Semaphore slots;
+
+    private final MDCCleanerThreadPoolExecutor executor;
+
+    private final AtomicLong completedCount = new AtomicLong();
+
+    private final AtomicLong waitTimeSum = new AtomicLong();
+
+    private final AtomicLong waitCount = new AtomicLong();
+
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    DispatcherLane(String name, int index, int capacity) {
+        this.index = index;
+        slots = new Semaphore(capacity);
+        executor = new MDCCleanerThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new NamedDaemonThreadFactory(name + '-' + index), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    static boolean isLaneThread() {
+        return CURRENT_LANE.get() != null;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        if (isLaneThread()) {
+            enqueue(task, false);
+            return true;
+        }
+        if (slots.tryAcquire(timeout, unit)) {
+            enqueue(task, true);
+            return true;
+        }
+        return false;
+    }
+
+    boolean tryOffer(Runnable task) {
+        if (isLaneThread()) {
+            enqueue(task, false);
+            return true;
+        }
+        if (slots.tryAcquire()) {
+            enqueue(task, true);
+            return true;
+        }
+        return false;
+    }
+
+    int getRemainingSlots() {
+        return slots.availablePermits();
+    }
+
+    DispatcherLaneStatistics getStatistics() {
+        long waits = waitCount.getAndSet(0L);
+        long waitSum = waitTimeSum.getAndSet(0L);
+        long averageWaitMillis = waits == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(waitSum / waits);
+        return new DispatcherLaneStatistics(index, executor.getQueue().size(), slots.availablePermits(), completedCount.get(), averageWaitMillis,
+                TimeUnit.NANOSECONDS.toMillis(maxWaitTime.getAndSet(0L)));
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    private void enqueue(Runnable task, boolean holdsSlot) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> run(task, enqueuedAt, holdsSlot));
+        } catch (RejectedExecutionException e) {
+            if (holdsSlot) {
+                slots.release();
+            }
+            throw e;
+        }
+    }
+
+    private void run(Runnable task, long enqueuedAt, boolean holdsSlot) {
+        if (holdsSlot) {
+            slots.release();
+        }
+        recordWaitTime(System.nanoTime() - enqueuedAt);
+        CURRENT_LANE.set(this);
+        try {
+            task.run();
+        } finally {
+            completedCount.incrementAndGet();
+        }
+    }
+
+    private void recordWaitTime(long waitTime) {
+        waitTimeSum.addAndGet(waitTime);
+        waitCount.incrementAndGet();
+        maxWaitTime.accumulateAndGet(waitTime, Math::max);
+    }
+}
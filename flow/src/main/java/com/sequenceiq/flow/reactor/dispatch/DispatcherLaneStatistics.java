@@ -0,0 +1,61 @@
+package com.sequenceiq.flow.reactor.dispatch;
+
+public class DispatcherLaneStatistics {
+
+    private final int lane;
+
+    private final int queueSize;
+
+    private final int remainingSlots;
+
+    private final long completedCount;
+
+    private final long averageWaitMillis;
+
+    private final long maxWaitMillis;
+
+    public DispatcherLaneStatistics(int lane, int queueSize, int remainingSlots, long completedCount, long averageWaitMillis, long maxWaitMillis) {
+        this.lane = lane;
+        this.queueSize = queueSize;
+        this.remainingSlots = remainingSlots;
+        this.completedCount = completedCount;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public int getLane() {
+        return lane;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getRemainingSlots() {
+        return remainingSlots;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatcherLaneStatistics{" +
+                "lane=" + lane +
+                ", queueSize=" + queueSize +
+                ", remainingSlots=" + remainingSlots +
+                ", completedCount=" + completedCount +
+                ", averageWaitMillis=" + averageWaitMillis +
+                ", maxWaitMillis=" + maxWaitMillis +
+                '}';
+    }
+}
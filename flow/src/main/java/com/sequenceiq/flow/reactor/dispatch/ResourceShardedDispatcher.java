@@ -0,0 +1,175 @@
+package com.sequenceiq.flow.reactor.dispatch;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+
+import reactor.bus.Event;
+import reactor.core.Dispatcher;
+import reactor.core.support.Exceptions;
+import reactor.fn.Consumer;
+
+/**
+ * Dispatches the events of the same resource to the same single threaded lane, so they are consumed in the order they
+ * were sent. Events without a resource id are distributed between the lanes in a round-robin fashion.
+ * <br>
+ * A full lane blocks the sender until a slot frees up or the offer timeout expires. An event which can not be
+ * dispatched in time is passed to the error consumer instead of being dropped. Senders running on a lane thread are
+ * never blocked, their events are queued over the capacity of the lane.
+ * <br>
+ * A long running consumer holds up every resource hashed to its lane, so the lane count should be well above the number
+ * of the concurrently running blocking handlers.
+ */
+public class ResourceShardedDispatcher implements Dispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceShardedDispatcher.class);
+
+    private final List<DispatcherLane> lanes;
+
+    private final int laneCapacity;
+
+    private final long offerTimeoutMillis;
+
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    public ResourceShardedDispatcher(String name, int laneCount, int laneCapacity, long offerTimeoutMillis) {
+        lanes = IntStream.range(0, laneCount)
+                .mapToObj(index -> new DispatcherLane(name, index, laneCapacity))
+                .collect(Collectors.toList());
+        this.laneCapacity = laneCapacity;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    @Override
+    public <E> boolean tryDispatch(E data, Consumer<E> eventConsumer, Consumer<Throwable> errorConsumer) {
+        return getLane(data).tryOffer(createTask(data, eventConsumer, errorConsumer));
+    }
+
+    @Override
+    public <E> void dispatch(E data, Consumer<E> eventConsumer, Consumer<Throwable> errorConsumer) {
+        DispatcherLane lane = getLane(data);
+        try {
+            if (!lane.offer(createTask(data, eventConsumer, errorConsumer), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                handleError(data, errorConsumer, new RejectedExecutionException(
+                        String.format("Event bus lane %d stayed full for %d ms", lane.getIndex(), offerTimeoutMillis)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleError(data, errorConsumer, new RejectedExecutionException("Interrupted while waiting for event bus lane " + lane.getIndex(), e));
+        } catch (RejectedExecutionException e) {
+            handleError(data, errorConsumer, e);
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        DispatcherLane lane = getLane(null);
+        try {
+            if (!lane.offer(command, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException(String.format("Event bus lane %d stayed full for %d ms", lane.getIndex(), offerTimeoutMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for event bus lane " + lane.getIndex(), e);
+        }
+    }
+
+    @Override
+    public boolean supportsOrdering() {
+        return false;
+    }
+
+    @Override
+    public long backlogSize() {
+        return (long) laneCapacity * lanes.size();
+    }
+
+    @Override
+    public long remainingSlots() {
+        return lanes.stream().mapToLong(DispatcherLane::getRemainingSlots).sum();
+    }
+
+    @Override
+    public boolean inContext() {
+        return DispatcherLane.isLaneThread();
+    }
+
+    @Override
+    public boolean alive() {
+        return lanes.stream().noneMatch(DispatcherLane::isShutdown);
+    }
+
+    @Override
+    public void shutdown() {
+        lanes.forEach(DispatcherLane::shutdown);
+    }
+
+    @Override
+    public boolean awaitAndShutdown() {
+        return awaitAndShutdown(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean awaitAndShutdown(long timeout, TimeUnit timeUnit) {
+        shutdown();
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        try {
+            for (DispatcherLane lane : lanes) {
+                if (!lane.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void forceShutdown() {
+        lanes.forEach(DispatcherLane::shutdownNow);
+    }
+
+    public List<DispatcherLaneStatistics> getLaneStatistics() {
+        return lanes.stream().map(DispatcherLane::getStatistics).collect(Collectors.toList());
+    }
+
+    private DispatcherLane getLane(Object data) {
+        Long resourceId = getResourceId(data);
+        int hash = resourceId == null ? nextLane.getAndIncrement() : resourceId.hashCode();
+        return lanes.get(Math.floorMod(hash, lanes.size()));
+    }
+
+    private Long getResourceId(Object data) {
+        Object payload = data instanceof Event ? ((Event<?>) data).getData() : data;
+        return payload instanceof Payload ? ((Payload) payload).getResourceId() : null;
+    }
+
+    private <E> Runnable createTask(E data, Consumer<E> eventConsumer, Consumer<Throwable> errorConsumer) {
+        return () -> {
+            try {
+                eventConsumer.accept(data);
+            } catch (Exception e) {
+                handleError(data, errorConsumer, e);
+            }
+        };
+    }
+
+    private void handleError(Object data, Consumer<Throwable> errorConsumer, Exception exception) {
+        Throwable error = Exceptions.addValueAsLastCause(exception, data);
+        if (errorConsumer == null) {
+            LOGGER.error("Failed to dispatch event: {}", data, error);
+        } else {
+            errorConsumer.accept(error);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.sequenceiq.flow.service.flowlog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionRuntimeExecutionException;
+import com.sequenceiq.flow.core.FlowMetricType;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+import com.sequenceiq.flow.service.flowlog.codec.SerializedFlowPayload;
+
+/**
+ * Coalesces the flow log writes of state transitions from all the running flows into batched JDBC statements, executed
+ * in a single transaction. The writes are group committed: the caller waits for the batch containing its write to be
+ * committed (at most the configured flush latency plus the database time), so a transition is always persisted before
+ * the flow proceeds and the restart guarantees are the same as with the per-event transactions. The callers must not hold a
+ * transaction while they wait, the batch needs a connection of the same pool. A write that is not taken by the writer in
+ * time is cancelled, the caller persists it synchronously then.
+ * The updates of the existing flow logs check and increment their version like the optimistic locking of the entity, so
+ * a flow log changed by another node since it was read fails the write instead of being overwritten.
+ */
+@Component
+public class FlowLogBatchWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowLogBatchWriter.class);
+
+    private static final String UPDATE_STATE_STATUS_SQL = "UPDATE flowlog SET statestatus = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    private static final String UPDATE_PAYLOAD_SQL = "UPDATE flowlog SET payload = ?, variables = ?, payloadformat = ?, version = version + 1 "
+            + "WHERE id = ? AND version = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO flowlog (id, resourceid, created, flowid, flowchainid, flowtriggerusercrn, nextevent, payload, "
+            + "payloadtype, variables, flowtype, currentstate, finalized, cloudbreaknodeid, statestatus, version, resourcetype, payloadformat) "
+            + "VALUES (nextval('flowlog_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private static final long STOP_TIMEOUT_MILLIS = 1000L;
+
+    @Value("${flow.flowlog.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${flow.flowlog.batch.size:200}")
+    private int maxBatchSize;
+
+    @Value("${flow.flowlog.batch.flushLatencyMs:20}")
+    private long maxFlushLatencyMillis;
+
+    @Value("${flow.flowlog.batch.awaitTimeoutMs:1000}")
+    private long awaitTimeoutMillis;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private TransactionService transactionService;
+
+    @Inject
+    private MetricService metricService;
+
+    private final BlockingQueue<PendingWrite> pendingWrites = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            running = true;
+            flusher = new Thread(this::flushLoop, "flowlog-batch-writer");
+            flusher.setDaemon(true);
+            flusher.start();
+            LOGGER.info("Flow log write batching is enabled with batch size {} and flush latency {} ms", maxBatchSize, maxFlushLatencyMillis);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            running = false;
+            flusher.join(STOP_TIMEOUT_MILLIS);
+            failPendingWrites(new IllegalStateException("Flow log batch writer has been stopped"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the status of the previous flow log of the flow and inserts the new one in the same batch, so they are
+     * committed atomically. The write fails if the version of the previous flow log is not the given one anymore.
+     */
+    public CompletableFuture<Void> saveTransition(Long lastFlowLogId, Long lastFlowLogVersion, StateStatus lastFlowLogStatus, FlowLog flowLog) {
+        return submit(new PendingWrite(lastFlowLogId, lastFlowLogVersion, lastFlowLogStatus, null, flowLog));
+    }
+
+    public CompletableFuture<Void> updatePayload(Long flowLogId, Long flowLogVersion, SerializedFlowPayload payload) {
+        return submit(new PendingWrite(flowLogId, flowLogVersion, null, payload, null));
+    }
+
+    /**
+     * Waits for the write to be committed. Returns false if the writer has not taken the write in {@code flow.flowlog.batch.awaitTimeoutMs}, the
+     * write is cancelled then and the caller has to persist it synchronously. A write that is taken already is waited for until its batch is
+     * committed, which is bounded by the transaction timeout.
+     */
+    public boolean await(CompletableFuture<Void> write) {
+        try {
+            write.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return cancelOrJoin(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return cancelOrJoin(write);
+        } catch (ExecutionException e) {
+            throw toRuntimeException(e.getCause());
+        }
+        return true;
+    }
+
+    private boolean cancelOrJoin(CompletableFuture<Void> write) {
+        if (write.cancel(false)) {
+            LOGGER.warn("Flow log write has not been taken by the batch writer in {} ms, it is cancelled", awaitTimeoutMillis);
+            return false;
+        }
+        try {
+            write.join();
+            return true;
+        } catch (CompletionException e) {
+            throw toRuntimeException(e.getCause());
+        }
+    }
+
+    private RuntimeException toRuntimeException(Throwable cause) {
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    }
+
+    private CompletableFuture<Void> submit(PendingWrite pendingWrite) {
+        if (!running) {
+            pendingWrite.completeExceptionally(new IllegalStateException("Flow log batch writer is not running"));
+        } else {
+            pendingWrites.add(pendingWrite);
+        }
+        return pendingWrite;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+            try {
+                PendingWrite first = pendingWrites.poll(maxFlushLatencyMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    collectBatch(batch);
+                    batch.removeIf(pendingWrite -> !pendingWrite.take());
+                    if (!batch.isEmpty()) {
+                        flush(batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOGGER.warn("Flow log batch writer has been interrupted", e);
+                Thread.currentThread().interrupt();
+                running = false;
+                failWrites(batch, new IllegalStateException("Flow log batch writer has been interrupted", e));
+            } catch (RuntimeException e) {
+                LOGGER.error("Unexpected error in flow log batch writer", e);
+                failWrites(batch, e);
+            }
+        }
+    }
+
+    private void collectBatch(List<PendingWrite> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxFlushLatencyMillis);
+        while (batch.size() < maxBatchSize) {
+            pendingWrites.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            PendingWrite next = pendingWrites.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        long start = System.currentTimeMillis();
+        try {
+            transactionService.required(() -> executeBatch(batch));
+            batch.forEach(pendingWrite -> pendingWrite.complete(null));
+        } catch (TransactionExecutionException e) {
+            LOGGER.warn("Failed to persist a batch of {} flow log writes, retrying them one by one", batch.size(), e);
+            batch.forEach(this::flushSingle);
+        }
+        long duration = System.currentTimeMillis() - start;
+        LOGGER.debug("Flushed {} flow log writes in {} ms", batch.size(), duration);
+        metricService.submit(FlowMetricType.FLOWLOG_BATCH_SIZE, batch.size());
+        metricService.submit(FlowMetricType.FLOWLOG_BATCH_FLUSH_TIME, duration);
+    }
+
+    private void flushSingle(PendingWrite pendingWrite) {
+        try {
+            transactionService.required(() -> executeBatch(List.of(pendingWrite)));
+            pendingWrite.complete(null);
+        } catch (TransactionExecutionException e) {
+            LOGGER.error("Failed to persist flow log write of flow log {}", pendingWrite.flowLogId, e);
+            pendingWrite.completeExceptionally(new TransactionRuntimeExecutionException(e));
+        }
+    }
+
+    private void executeBatch(List<PendingWrite> batch) {
+        List<Object[]> statusUpdates = batch.stream()
+                .filter(pendingWrite -> pendingWrite.flowLogId != null && pendingWrite.stateStatus != null)
+                .map(pendingWrite -> new Object[]{pendingWrite.stateStatus.name(), pendingWrite.flowLogId, pendingWrite.version})
+                .collect(Collectors.toList());
+        List<Object[]> payloadUpdates = batch.stream()
+                .filter(pendingWrite -> pendingWrite.flowLog == null && pendingWrite.stateStatus == null)
+                .map(pendingWrite -> new Object[]{pendingWrite.payload.getPayload(), pendingWrite.payload.getVariables(), pendingWrite.payload.getFormat(),
+                        pendingWrite.flowLogId, pendingWrite.version})
+                .collect(Collectors.toList());
+        List<Object[]> inserts = batch.stream()
+                .filter(pendingWrite -> pendingWrite.flowLog != null)
+                .map(pendingWrite -> toInsertParameters(pendingWrite.flowLog))
+                .collect(Collectors.toList());
+        if (!statusUpdates.isEmpty()) {
+            checkUpdateCounts(jdbcTemplate.batchUpdate(UPDATE_STATE_STATUS_SQL, statusUpdates), statusUpdates);
+        }
+        if (!payloadUpdates.isEmpty()) {
+            checkUpdateCounts(jdbcTemplate.batchUpdate(UPDATE_PAYLOAD_SQL, payloadUpdates), payloadUpdates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+    }
+
+    private void checkUpdateCounts(int[] updateCounts, List<Object[]> updates) {
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                Object[] parameters = updates.get(i);
+                throw new OptimisticLockingFailureException(String.format("Flow log %s with version %s has been changed or deleted by another transaction",
+                        parameters[parameters.length - 2], parameters[parameters.length - 1]));
+            }
+        }
+    }
+
+    private Object[] toInsertParameters(FlowLog flowLog) {
+        return new Object[]{
+                flowLog.getResourceId(),
+                flowLog.getCreated(),
+                flowLog.getFlowId(),
+                flowLog.getFlowChainId(),
+                flowLog.getFlowTriggerUserCrn(),
+                flowLog.getNextEvent(),
+                flowLog.getPayload(),
+                flowLog.getPayloadType() == null ? null : flowLog.getPayloadType().getName(),
+                flowLog.getVariables(),
+                flowLog.getFlowType() == null ? null : flowLog.getFlowType().getName(),
+                flowLog.getCurrentState(),
+                flowLog.getFinalized(),
+                flowLog.getCloudbreakNodeId(),
+                flowLog.getStateStatus().name(),
+                flowLog.getResourceType(),
+                flowLog.getPayloadFormat()
+        };
+    }
+
+    private void failPendingWrites(Exception cause) {
+        List<PendingWrite> remaining = new ArrayList<>();
+        pendingWrites.drainTo(remaining);
+        failWrites(remaining, cause);
+    }
+
+    private void failWrites(List<PendingWrite> writes, Exception cause) {
+        writes.forEach(pendingWrite -> pendingWrite.completeExceptionally(cause));
+    }
+
+    /**
+     * A write and its result. It is either taken by the writer or cancelled by the caller, never both, so a cancelled write is never persisted.
+     */
+    private static final class PendingWrite extends CompletableFuture<Void> {
+
+        private final Long flowLogId;
+
+        private final Long version;
+
+        private final StateStatus stateStatus;
+
+        private final SerializedFlowPayload payload;
+
+        private final FlowLog flowLog;
+
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        private PendingWrite(Long flowLogId, Long version, StateStatus stateStatus, SerializedFlowPayload payload, FlowLog flowLog) {
+            this.flowLogId = flowLogId;
+            this.version = version;
+            this.stateStatus = stateStatus;
+            this.payload = payload;
+            this.flowLog = flowLog;
+        }
+
+        private boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return take() && super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
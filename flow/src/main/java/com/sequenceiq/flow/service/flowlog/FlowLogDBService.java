@@ -14,7 +14,6 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
@@ -24,21 +23,25 @@ import com.sequenceiq.cloudbreak.auth.altus.Crn;
 import com.sequenceiq.cloudbreak.common.event.Payload;
 import com.sequenceiq.cloudbreak.common.event.Selectable;
 import com.sequenceiq.cloudbreak.common.exception.NotFoundException;
-import com.sequenceiq.cloudbreak.common.json.JsonUtil;
 import com.sequenceiq.cloudbreak.common.service.TransactionService;
 import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionRuntimeExecutionException;
 import com.sequenceiq.flow.core.ApplicationFlowInformation;
+import com.sequenceiq.flow.core.Flow;
 import com.sequenceiq.flow.core.FlowConstants;
 import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.flow.core.FlowParameters;
 import com.sequenceiq.flow.core.FlowState;
 import com.sequenceiq.flow.core.ResourceIdProvider;
+import com.sequenceiq.flow.core.RunningFlowIndex;
 import com.sequenceiq.flow.domain.FlowChainLog;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.FlowLogIdWithTypeAndTimestamp;
 import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
 import com.sequenceiq.flow.repository.FlowLogRepository;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
+import com.sequenceiq.flow.service.flowlog.codec.SerializedFlowPayload;
 
 @Primary
 @Service
@@ -59,8 +62,7 @@ public class FlowLogDBService implements FlowLogService {
     private ApplicationFlowInformation applicationFlowInformation;
 
     @Inject
-    @Qualifier("JsonWriterOptions")
-    private Map<String, Object> writeOptions;
+    private FlowPayloadSerializer flowPayloadSerializer;
 
     @Inject
     private TransactionService transactionService;
@@ -68,25 +70,49 @@ public class FlowLogDBService implements FlowLogService {
     @Inject
     private ResourceIdProvider resourceIdProvider;
 
+    @Inject
+    private FlowLogBatchWriter flowLogBatchWriter;
+
+    @Inject
+    private RunningFlowIndex runningFlowIndex;
+
     public FlowLog save(FlowParameters flowParameters, String flowChanId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
             FlowState currentState) {
-        String payloadAsString = getSerializedString(payload);
-        String variablesJson = getSerializedString(variables);
-        FlowLog flowLog = new FlowLog(payload.getResourceId(), flowParameters.getFlowId(), flowChanId, flowParameters.getFlowTriggerUserCrn(), key,
-                payloadAsString, payload.getClass(), variablesJson, flowType, currentState.toString());
-        flowLog.setCloudbreakNodeId(nodeConfig.getId());
+        FlowLog flowLog = createFlowLog(flowParameters, flowChanId, key, payload, variables, flowType, currentState);
         return flowLogRepository.save(flowLog);
     }
 
-    public String getSerializedString(Object object) {
-        String objectAsString;
-        try {
-            objectAsString = JsonWriter.objectToJson(object, writeOptions);
-        } catch (Exception e) {
-            LOGGER.debug("Somehow can not serialize object to string, try another method..", e);
-            objectAsString = JsonUtil.writeValueAsStringSilent(object);
+    @Override
+    public void saveTransitionBatched(FlowLog lastFlowLog, boolean failureEvent, FlowParameters flowParameters, String flowChanId, String key,
+            Payload payload, Flow flow) {
+        FlowLog flowLog = createFlowLog(flowParameters, flowChanId, key, payload, flow.getVariables(), flow.getFlowConfigClass(), flow.getCurrentState());
+        StateStatus stateStatus = failureEvent ? StateStatus.FAILED : StateStatus.SUCCESSFUL;
+        if (!flowLogBatchWriter.await(flowLogBatchWriter.saveTransition(lastFlowLog.getId(), lastFlowLog.getVersion(), stateStatus, flowLog))) {
+            LOGGER.debug("Saving the transition of flow {} without batching", flowParameters.getFlowId());
+            try {
+                transactionService.required(() -> {
+                    updateLastFlowLogStatus(lastFlowLog, failureEvent);
+                    flowLogRepository.save(flowLog);
+                });
+            } catch (TransactionExecutionException e) {
+                throw new TransactionRuntimeExecutionException(e);
+            }
         }
-        return objectAsString;
+    }
+
+    @Override
+    public boolean isWriteBatchingEnabled() {
+        return flowLogBatchWriter.isEnabled();
+    }
+
+    private FlowLog createFlowLog(FlowParameters flowParameters, String flowChanId, String key, Payload payload, Map<Object, Object> variables,
+            Class<?> flowType, FlowState currentState) {
+        SerializedFlowPayload serializedPayload = flowPayloadSerializer.serialize(payload, variables);
+        FlowLog flowLog = new FlowLog(payload.getResourceId(), flowParameters.getFlowId(), flowChanId, flowParameters.getFlowTriggerUserCrn(), key,
+                serializedPayload.getPayload(), payload.getClass(), serializedPayload.getVariables(), flowType, currentState.toString());
+        flowLog.setPayloadFormat(serializedPayload.getFormat());
+        flowLog.setCloudbreakNodeId(nodeConfig.getId());
+        return flowLog;
     }
 
     @Override
@@ -107,13 +133,15 @@ public class FlowLogDBService implements FlowLogService {
     }
 
     private FlowLog finalize(Long stackId, String flowId, String state) throws TransactionExecutionException {
-        return transactionService.required(() -> {
+        FlowLog finalizedFlowLog = transactionService.required(() -> {
             flowLogRepository.finalizeByFlowId(flowId);
             getLastFlowLog(flowId).ifPresent(flowLog -> updateLastFlowLogStatus(flowLog, false));
             FlowLog flowLog = new FlowLog(stackId, flowId, state, Boolean.TRUE, StateStatus.SUCCESSFUL);
             flowLog.setCloudbreakNodeId(nodeConfig.getId());
             return flowLogRepository.save(flowLog);
         });
+        runningFlowIndex.finalized(stackId, flowId);
+        return finalizedFlowLog;
     }
 
     public void saveChain(String flowChainId, String parentFlowChainId, Queue<Selectable> chain, String flowTriggerUserCrn) {
@@ -145,30 +173,41 @@ public class FlowLogDBService implements FlowLogService {
     }
 
     private Set<String> findAllRunningNonTerminationFlowIdsByResourceId(Long resourceId) {
-        Set<FlowLogIdWithTypeAndTimestamp> allRunningFlowIdsByResourceId = flowLogRepository.findAllRunningFlowLogByResourceId(resourceId);
+        Set<FlowLogIdWithTypeAndTimestamp> allRunningFlowIdsByResourceId = findAllRunningFlowLogByResourceId(resourceId);
         return allRunningFlowIdsByResourceId.stream()
-                .filter(flowLog -> applicationFlowInformation.getTerminationFlow().stream()
-                        .map(Class::getName)
-                        .noneMatch(terminationFlowClassName -> terminationFlowClassName.equals(flowLog.getFlowType().getName())))
+                .filter(flowLog -> isNonTerminationFlow(flowLog.getFlowType()))
                 .map(FlowLogIdWithTypeAndTimestamp::getFlowId)
                 .collect(Collectors.toSet());
     }
 
+    private boolean isNonTerminationFlow(Class<?> flowType) {
+        return applicationFlowInformation.getTerminationFlow().stream()
+                .map(Class::getName)
+                .noneMatch(terminationFlowClassName -> terminationFlowClassName.equals(flowType.getName()));
+    }
+
     public boolean isOtherNonTerminationFlowRunning(Long resourceId) {
-        Set<String> flowIds = findAllRunningNonTerminationFlowIdsByResourceId(resourceId);
-        return !flowIds.isEmpty();
+        return runningFlowIndex.isFlowRunning(resourceId, this::isNonTerminationFlow)
+                .orElseGet(() -> !findAllRunningNonTerminationFlowIdsByResourceId(resourceId).isEmpty());
     }
 
     private Set<String> findAllRunningFlowIdsByResourceId(Long resourceId) {
-        Set<FlowLogIdWithTypeAndTimestamp> allRunningFlowIdsByResourceId = flowLogRepository.findAllRunningFlowLogByResourceId(resourceId);
+        Set<FlowLogIdWithTypeAndTimestamp> allRunningFlowIdsByResourceId = findAllRunningFlowLogByResourceId(resourceId);
         return allRunningFlowIdsByResourceId.stream()
                 .map(FlowLogIdWithTypeAndTimestamp::getFlowId)
                 .collect(Collectors.toSet());
     }
 
     public boolean isOtherFlowRunning(Long resourceId) {
-        Set<String> flowIds = findAllRunningFlowIdsByResourceId(resourceId);
-        return !flowIds.isEmpty();
+        return runningFlowIndex.isFlowRunning(resourceId, flowType -> true)
+                .orElseGet(() -> !findAllRunningFlowIdsByResourceId(resourceId).isEmpty());
+    }
+
+    private Set<FlowLogIdWithTypeAndTimestamp> findAllRunningFlowLogByResourceId(Long resourceId) {
+        long loadStamp = runningFlowIndex.getLoadStamp(resourceId);
+        Set<FlowLogIdWithTypeAndTimestamp> runningFlowLogs = flowLogRepository.findAllRunningFlowLogByResourceId(resourceId);
+        runningFlowIndex.load(resourceId, loadStamp, runningFlowLogs);
+        return runningFlowLogs;
     }
 
     public boolean repeatedFlowState(FlowLog lastFlowLog, String event) {
@@ -176,16 +215,30 @@ public class FlowLogDBService implements FlowLogService {
     }
 
     public void updateLastFlowLogPayload(FlowLog lastFlowLog, Payload payload, Map<Object, Object> variables) {
-        String payloadJson = JsonWriter.objectToJson(payload, writeOptions);
-        String variablesJson = JsonWriter.objectToJson(variables, writeOptions);
+        SerializedFlowPayload serializedPayload = flowPayloadSerializer.serialize(payload, variables);
         Optional.ofNullable(lastFlowLog)
                 .ifPresent(flowLog -> {
-                    flowLog.setPayload(payloadJson);
-                    flowLog.setVariables(variablesJson);
+                    flowLog.setPayload(serializedPayload.getPayload());
+                    flowLog.setVariables(serializedPayload.getVariables());
+                    flowLog.setPayloadFormat(serializedPayload.getFormat());
                     flowLogRepository.save(flowLog);
                 });
     }
 
+    @Override
+    public void updateLastFlowLogPayloadBatched(FlowLog lastFlowLog, Payload payload, Map<Object, Object> variables) {
+        if (lastFlowLog != null) {
+            SerializedFlowPayload serializedPayload = flowPayloadSerializer.serialize(payload, variables);
+            if (!flowLogBatchWriter.await(flowLogBatchWriter.updatePayload(lastFlowLog.getId(), lastFlowLog.getVersion(), serializedPayload))) {
+                LOGGER.debug("Updating the payload of flow log {} without batching", lastFlowLog.getId());
+                lastFlowLog.setPayload(serializedPayload.getPayload());
+                lastFlowLog.setVariables(serializedPayload.getVariables());
+                lastFlowLog.setPayloadFormat(serializedPayload.getFormat());
+                flowLogRepository.save(lastFlowLog);
+            }
+        }
+    }
+
     public Optional<FlowLog> getLastFlowLog(String flowId) {
         return flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(flowId);
     }
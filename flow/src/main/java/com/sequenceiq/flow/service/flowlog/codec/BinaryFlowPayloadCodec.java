@@ -0,0 +1,80 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compact binary format for the flow payloads. Type information is written once per class instead of once per object,
+ * the field lists of the classes are resolved once per class and cached, and payloads above the compression threshold
+ * are deflated. The result is Base64 encoded, so it can be stored in the existing text columns of the flow logs.
+ */
+@Component
+public class BinaryFlowPayloadCodec implements FlowPayloadCodec {
+
+    public static final String FORMAT = "BINARY_V1";
+
+    private static final int UNCOMPRESSED = 0;
+
+    private static final int DEFLATED = 1;
+
+    @Value("${flow.payload.binary.compressionThreshold:1024}")
+    private int compressionThreshold;
+
+    private final Map<Class<?>, ClassSchema> schemas = new ConcurrentHashMap<>();
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public String encode(Object object) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            new BinaryPayloadWriter(new DataOutputStream(body), this::getSchema).writeValue(object);
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            if (compressionThreshold >= 0 && body.size() > compressionThreshold) {
+                result.write(DEFLATED);
+                try (DeflaterOutputStream deflater = new DeflaterOutputStream(result)) {
+                    body.writeTo(deflater);
+                }
+            } else {
+                result.write(UNCOMPRESSED);
+                body.writeTo(result);
+            }
+            return Base64.getEncoder().encodeToString(result.toByteArray());
+        } catch (IOException e) {
+            throw new FlowPayloadCodecException("Can not serialize flow payload", e);
+        }
+    }
+
+    @Override
+    public Object decode(String serialized) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(serialized);
+            InputStream body = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+            if (bytes[0] == DEFLATED) {
+                body = new InflaterInputStream(body);
+            }
+            return new BinaryPayloadReader(new DataInputStream(body), this::getSchema).readValue();
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new FlowPayloadCodecException("Can not read flow payload", e);
+        }
+    }
+
+    private ClassSchema getSchema(Class<?> type) {
+        return schemas.computeIfAbsent(type, ClassSchema::of);
+    }
+}
@@ -0,0 +1,201 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tags and primitive encodings of the binary flow payload format. Every value starts with a tag byte, numbers are
+ * written as zigzag encoded variable length integers and strings as UTF-8 bytes prefixed with their length.
+ */
+final class BinaryPayloadFormat {
+
+    static final int NULL = 0;
+
+    static final int TRUE = 1;
+
+    static final int FALSE = 2;
+
+    static final int INT = 3;
+
+    static final int LONG = 4;
+
+    static final int DOUBLE = 5;
+
+    static final int FLOAT = 6;
+
+    static final int SHORT = 7;
+
+    static final int BYTE = 8;
+
+    static final int CHAR = 9;
+
+    static final int STRING = 10;
+
+    static final int DATE = 11;
+
+    static final int BIG_DECIMAL = 12;
+
+    static final int BIG_INTEGER = 13;
+
+    static final int UUID_VALUE = 14;
+
+    static final int ENUM = 20;
+
+    static final int CLASS = 21;
+
+    static final int REFERENCE = 22;
+
+    static final int COLLECTION = 24;
+
+    static final int MAP = 25;
+
+    static final int ARRAY = 26;
+
+    static final int OBJECT = 27;
+
+    static final int FRESH_INSTANCE = 28;
+
+    static final int SORTED_COLLECTION = 29;
+
+    static final int SORTED_MAP = 30;
+
+    static final int DETAILED_THROWABLE = 31;
+
+    static final Map<Class<?>, ValueWriter> VALUE_WRITERS = Map.ofEntries(
+            Map.entry(Boolean.class, (output, value) -> output.writeByte((Boolean) value ? TRUE : FALSE)),
+            Map.entry(Integer.class, (output, value) -> writeTaggedVarLong(output, INT, (Integer) value)),
+            Map.entry(Long.class, (output, value) -> writeTaggedVarLong(output, LONG, (Long) value)),
+            Map.entry(Short.class, (output, value) -> writeTaggedVarLong(output, SHORT, (Short) value)),
+            Map.entry(Byte.class, (output, value) -> {
+                output.writeByte(BYTE);
+                output.writeByte((Byte) value);
+            }),
+            Map.entry(Character.class, (output, value) -> {
+                output.writeByte(CHAR);
+                output.writeChar((Character) value);
+            }),
+            Map.entry(Double.class, (output, value) -> {
+                output.writeByte(DOUBLE);
+                output.writeDouble((Double) value);
+            }),
+            Map.entry(Float.class, (output, value) -> {
+                output.writeByte(FLOAT);
+                output.writeFloat((Float) value);
+            }),
+            Map.entry(String.class, (output, value) -> {
+                output.writeByte(STRING);
+                writeString(output, (String) value);
+            }),
+            Map.entry(Date.class, (output, value) -> writeTaggedVarLong(output, DATE, ((Date) value).getTime())),
+            Map.entry(BigDecimal.class, (output, value) -> {
+                output.writeByte(BIG_DECIMAL);
+                writeString(output, value.toString());
+            }),
+            Map.entry(BigInteger.class, (output, value) -> {
+                output.writeByte(BIG_INTEGER);
+                writeString(output, value.toString());
+            }),
+            Map.entry(UUID.class, (output, value) -> {
+                output.writeByte(UUID_VALUE);
+                output.writeLong(((UUID) value).getMostSignificantBits());
+                output.writeLong(((UUID) value).getLeastSignificantBits());
+            }));
+
+    static final Map<Integer, ValueReader> VALUE_READERS = Map.ofEntries(
+            Map.entry(TRUE, input -> Boolean.TRUE),
+            Map.entry(FALSE, input -> Boolean.FALSE),
+            Map.entry(INT, input -> (int) readZigZagVarLong(input)),
+            Map.entry(LONG, BinaryPayloadFormat::readZigZagVarLong),
+            Map.entry(SHORT, input -> (short) readZigZagVarLong(input)),
+            Map.entry(BYTE, DataInput::readByte),
+            Map.entry(CHAR, DataInput::readChar),
+            Map.entry(DOUBLE, DataInput::readDouble),
+            Map.entry(FLOAT, DataInput::readFloat),
+            Map.entry(STRING, BinaryPayloadFormat::readString),
+            Map.entry(DATE, input -> new Date(readZigZagVarLong(input))),
+            Map.entry(BIG_DECIMAL, input -> new BigDecimal(readString(input))),
+            Map.entry(BIG_INTEGER, input -> new BigInteger(readString(input))),
+            Map.entry(UUID_VALUE, input -> new UUID(input.readLong(), input.readLong())));
+
+    private static final int SEVEN_BITS = 0x7F;
+
+    private static final int CONTINUATION_BIT = 0x80;
+
+    private static final int BITS_PER_BYTE = 7;
+
+    private static final int MAX_SHIFT = 63;
+
+    private BinaryPayloadFormat() {
+    }
+
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        writeVarLong(output, Integer.toUnsignedLong(value));
+    }
+
+    static int readVarInt(DataInput input) throws IOException {
+        return Math.toIntExact(readVarLong(input));
+    }
+
+    static void writeString(DataOutput output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(DataInput input) throws IOException {
+        byte[] bytes = new byte[readVarInt(input)];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTaggedVarLong(DataOutput output, int tag, long value) throws IOException {
+        output.writeByte(tag);
+        writeVarLong(output, (value << 1) ^ (value >> MAX_SHIFT));
+    }
+
+    private static long readZigZagVarLong(DataInput input) throws IOException {
+        long value = readVarLong(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutput output, long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~SEVEN_BITS) != 0) {
+            output.writeByte((int) (remaining & SEVEN_BITS) | CONTINUATION_BIT);
+            remaining >>>= BITS_PER_BYTE;
+        }
+        output.writeByte((int) remaining);
+    }
+
+    private static long readVarLong(DataInput input) throws IOException {
+        long result = 0;
+        int shift = 0;
+        int current;
+        do {
+            if (shift > MAX_SHIFT) {
+                throw new IOException("Malformed variable length number");
+            }
+            current = input.readUnsignedByte();
+            result |= (long) (current & SEVEN_BITS) << shift;
+            shift += BITS_PER_BYTE;
+        } while ((current & CONTINUATION_BIT) != 0);
+        return result;
+    }
+
+    @FunctionalInterface
+    interface ValueWriter {
+        void write(DataOutput output, Object value) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface ValueReader {
+        Object read(DataInput input) throws IOException;
+    }
+}
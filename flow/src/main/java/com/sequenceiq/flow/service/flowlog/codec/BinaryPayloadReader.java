@@ -0,0 +1,314 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.ARRAY;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.CLASS;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.COLLECTION;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.DETAILED_THROWABLE;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.ENUM;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.FRESH_INSTANCE;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.MAP;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.NULL;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.OBJECT;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.REFERENCE;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.SORTED_COLLECTION;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.SORTED_MAP;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.VALUE_READERS;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.readString;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.readVarInt;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.objenesis.SpringObjenesis;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.ValueReader;
+
+/**
+ * Reads an object graph written by {@link BinaryPayloadWriter}. Objects are instantiated with their default constructor,
+ * or without calling a constructor if they have none, then their fields are set by name. Fields which do not exist in
+ * the current version of the class are skipped, the new fields of the class keep the value set by the default
+ * constructor, or are left uninitialized without one.
+ */
+final class BinaryPayloadReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryPayloadReader.class);
+
+    private static final SpringObjenesis OBJENESIS = new SpringObjenesis();
+
+    private static final Field THROWABLE_MESSAGE = ReflectionUtils.findField(Throwable.class, "detailMessage");
+
+    private final DataInput input;
+
+    private final Function<Class<?>, ClassSchema> schemaProvider;
+
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    private final Map<Class<?>, List<Field>> readSchemas = new HashMap<>();
+
+    private final List<Object> objects = new ArrayList<>();
+
+    BinaryPayloadReader(DataInput input, Function<Class<?>, ClassSchema> schemaProvider) {
+        this.input = input;
+        this.schemaProvider = schemaProvider;
+    }
+
+    static boolean isThrowableRecreatable(Class<?> type) {
+        return getConstructor(type, String.class) != null || getConstructor(type) != null;
+    }
+
+    Object readValue() throws IOException {
+        int tag = input.readUnsignedByte();
+        ValueReader valueReader = VALUE_READERS.get(tag);
+        if (valueReader != null) {
+            return valueReader.read(input);
+        } else if (tag == NULL) {
+            return null;
+        } else if (tag == REFERENCE) {
+            return objects.get(readVarInt(input));
+        } else if (tag == ENUM) {
+            return readEnum();
+        } else if (tag == CLASS) {
+            return readClass();
+        }
+        return readReferenceType(tag);
+    }
+
+    private Object readReferenceType(int tag) throws IOException {
+        int id = objects.size();
+        objects.add(null);
+        switch (tag) {
+            case DETAILED_THROWABLE:
+                return readDetailedThrowable(id);
+            case COLLECTION:
+                return readCollection(id, false);
+            case SORTED_COLLECTION:
+                return readCollection(id, true);
+            case MAP:
+                return readMap(id, false);
+            case SORTED_MAP:
+                return readMap(id, true);
+            case ARRAY:
+                return readArray(id);
+            case OBJECT:
+                return readObject(id);
+            case FRESH_INSTANCE:
+                return register(id, newFreshInstance(readClass()));
+            default:
+                throw new FlowPayloadCodecException("Unknown tag in flow payload: " + tag);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum() throws IOException {
+        Class enumType = readClass();
+        return Enum.valueOf(enumType, readString(input));
+    }
+
+    private Object readDetailedThrowable(int id) throws IOException {
+        Class<?> type = readClass();
+        String message = (String) readValue();
+        Throwable throwable = newThrowable(type, message);
+        register(id, throwable);
+        Throwable cause = (Throwable) readValue();
+        if (cause != null && throwable.getCause() == null) {
+            try {
+                throwable.initCause(cause);
+            } catch (IllegalStateException e) {
+                throw new FlowPayloadCodecException("Can not set the cause of exception of type " + type.getName(), e);
+            }
+        }
+        StackTraceElement[] stackTrace = new StackTraceElement[readVarInt(input)];
+        for (int i = 0; i < stackTrace.length; i++) {
+            stackTrace[i] = readStackTraceElement();
+        }
+        throwable.setStackTrace(stackTrace);
+        int suppressedCount = readVarInt(input);
+        for (int i = 0; i < suppressedCount; i++) {
+            throwable.addSuppressed((Throwable) readValue());
+        }
+        setFields(getReadSchema(type), throwable);
+        return throwable;
+    }
+
+    private StackTraceElement readStackTraceElement() throws IOException {
+        String classLoaderName = (String) readValue();
+        String moduleName = (String) readValue();
+        String moduleVersion = (String) readValue();
+        String className = (String) readValue();
+        String methodName = (String) readValue();
+        String fileName = (String) readValue();
+        return new StackTraceElement(classLoaderName, moduleName, moduleVersion, className, methodName, fileName, (Integer) readValue());
+    }
+
+    private Throwable newThrowable(Class<?> type, String message) {
+        Constructor<?> messageConstructor = getConstructor(type, String.class);
+        Object throwable;
+        if (messageConstructor != null) {
+            throwable = instantiate(messageConstructor, message);
+        } else {
+            Constructor<?> defaultConstructor = getConstructor(type);
+            if (defaultConstructor == null) {
+                throw new FlowPayloadCodecException("Can not recreate exception of type " + type.getName());
+            }
+            throwable = instantiate(defaultConstructor);
+            ReflectionUtils.makeAccessible(THROWABLE_MESSAGE);
+            ReflectionUtils.setField(THROWABLE_MESSAGE, throwable, message);
+        }
+        return (Throwable) throwable;
+    }
+
+    private Object readCollection(int id, boolean sorted) throws IOException {
+        Class<?> type = readClass();
+        Collection<Object> collection = CollectionFactory.newCollection(type, sorted ? (Comparator<?>) readValue() : null);
+        register(id, collection);
+        int size = readVarInt(input);
+        for (int i = 0; i < size; i++) {
+            collection.add(readValue());
+        }
+        return collection;
+    }
+
+    private Object readMap(int id, boolean sorted) throws IOException {
+        Class<?> type = readClass();
+        Map<Object, Object> map = CollectionFactory.newMap(type, sorted ? (Comparator<?>) readValue() : null);
+        register(id, map);
+        int size = readVarInt(input);
+        for (int i = 0; i < size; i++) {
+            map.put(readValue(), readValue());
+        }
+        return map;
+    }
+
+    private Object readArray(int id) throws IOException {
+        Class<?> arrayType = readClass();
+        int length = readVarInt(input);
+        Object array = register(id, Array.newInstance(arrayType.getComponentType(), length));
+        for (int i = 0; i < length; i++) {
+            Array.set(array, i, readValue());
+        }
+        return array;
+    }
+
+    private Object readObject(int id) throws IOException {
+        Class<?> type = readClass();
+        List<Field> fields = getReadSchema(type);
+        Object object = register(id, newInstance(type));
+        setFields(fields, object);
+        return object;
+    }
+
+    private List<Field> getReadSchema(Class<?> type) throws IOException {
+        List<Field> fields = readSchemas.get(type);
+        if (fields == null) {
+            fields = readSchema(type);
+            readSchemas.put(type, fields);
+        }
+        return fields;
+    }
+
+    private void setFields(List<Field> fields, Object object) throws IOException {
+        for (Field field : fields) {
+            Object value = readValue();
+            if (field != null) {
+                setField(field, object, value);
+            }
+        }
+    }
+
+    private List<Field> readSchema(Class<?> type) throws IOException {
+        ClassSchema schema = schemaProvider.apply(type);
+        int fieldCount = readVarInt(input);
+        List<Field> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            fields.add(schema.getField(readString(input)));
+        }
+        return fields;
+    }
+
+    private Class<?> readClass() throws IOException {
+        int reference = readVarInt(input);
+        if (reference > 0) {
+            return classes.get(reference - 1);
+        }
+        String className = readString(input);
+        try {
+            Class<?> type = ClassUtils.forName(className, ClassUtils.getDefaultClassLoader());
+            classes.add(type);
+            return type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new FlowPayloadCodecException("Unknown class in flow payload: " + className, e);
+        }
+    }
+
+    private Object register(int id, Object object) {
+        objects.set(id, object);
+        return object;
+    }
+
+    private Object newInstance(Class<?> type) {
+        Constructor<?> defaultConstructor = schemaProvider.apply(type).getDefaultConstructor();
+        Exception constructorFailure = null;
+        if (defaultConstructor != null) {
+            try {
+                return defaultConstructor.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // the payload has to be readable even if the constructor fails, the fields are set from the payload anyway
+                LOGGER.debug("Default constructor of {} failed, instantiating it without a constructor", type.getName(), e);
+                constructorFailure = e;
+            }
+        }
+        try {
+            return OBJENESIS.newInstance(type);
+        } catch (RuntimeException e) {
+            if (constructorFailure != null) {
+                e.addSuppressed(constructorFailure);
+            }
+            throw new FlowPayloadCodecException("Can not instantiate " + type.getName(), e);
+        }
+    }
+
+    private Object newFreshInstance(Class<?> type) {
+        Constructor<?> defaultConstructor = getConstructor(type);
+        return defaultConstructor == null ? newInstance(type) : instantiate(defaultConstructor);
+    }
+
+    private void setField(Field field, Object object, Object value) {
+        try {
+            field.set(object, value);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new FlowPayloadCodecException("Can not set field " + field.getName() + " of " + object.getClass().getName(), e);
+        }
+    }
+
+    private Object instantiate(Constructor<?> constructor, Object... arguments) {
+        try {
+            return constructor.newInstance(arguments);
+        } catch (ReflectiveOperationException e) {
+            throw new FlowPayloadCodecException("Can not instantiate " + constructor.getDeclaringClass().getName(), e);
+        }
+    }
+
+    private static Constructor<?> getConstructor(Class<?> type, Class<?>... parameterTypes) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+            ReflectionUtils.makeAccessible(constructor);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.ARRAY;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.CLASS;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.COLLECTION;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.DETAILED_THROWABLE;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.ENUM;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.FRESH_INSTANCE;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.MAP;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.NULL;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.OBJECT;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.REFERENCE;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.SORTED_COLLECTION;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.SORTED_MAP;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.VALUE_WRITERS;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.writeString;
+import static com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.writeVarInt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.sequenceiq.flow.service.flowlog.codec.BinaryPayloadFormat.ValueWriter;
+
+import reactor.rx.Promise;
+
+/**
+ * Writes an object graph in the binary flow payload format. Class names and the field names of the classes are written
+ * only at their first occurrence, repeated objects are written as references to their first occurrence. Exceptions are
+ * written with their message, cause, stack trace, suppressed exceptions and the fields of their non-JDK classes.
+ * Objects which could not be recreated as they are, like objects with transient fields but without a default
+ * constructor, are rejected, so the payload is written in another format.
+ */
+final class BinaryPayloadWriter {
+
+    private final DataOutput output;
+
+    private final Function<Class<?>, ClassSchema> schemaProvider;
+
+    private final Map<Class<?>, Integer> classIds = new HashMap<>();
+
+    private final Set<Class<?>> writtenSchemas = new HashSet<>();
+
+    private final Map<Object, Integer> objectIds = new IdentityHashMap<>();
+
+    BinaryPayloadWriter(DataOutput output, Function<Class<?>, ClassSchema> schemaProvider) {
+        this.output = output;
+        this.schemaProvider = schemaProvider;
+    }
+
+    void writeValue(Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL);
+            return;
+        }
+        ValueWriter valueWriter = VALUE_WRITERS.get(value.getClass());
+        if (valueWriter != null) {
+            valueWriter.write(output, value);
+        } else if (value instanceof Enum) {
+            output.writeByte(ENUM);
+            writeClass(((Enum<?>) value).getDeclaringClass());
+            writeString(output, ((Enum<?>) value).name());
+        } else if (value instanceof Class) {
+            output.writeByte(CLASS);
+            writeClass((Class<?>) value);
+        } else {
+            writeReferenceType(value);
+        }
+    }
+
+    private void writeReferenceType(Object value) throws IOException {
+        Integer id = objectIds.get(value);
+        if (id != null) {
+            output.writeByte(REFERENCE);
+            writeVarInt(output, id);
+            return;
+        }
+        objectIds.put(value, objectIds.size());
+        if (value instanceof Throwable) {
+            writeThrowable((Throwable) value);
+        } else if (value instanceof Collection) {
+            writeCollection((Collection<?>) value);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if (value.getClass().isArray()) {
+            writeArray(value);
+        } else if (value instanceof Promise) {
+            output.writeByte(FRESH_INSTANCE);
+            writeClass(value.getClass());
+        } else {
+            writeObject(value);
+        }
+    }
+
+    private void writeThrowable(Throwable throwable) throws IOException {
+        Class<?> type = throwable.getClass();
+        if (!BinaryPayloadReader.isThrowableRecreatable(type)) {
+            throw new FlowPayloadCodecException("Exception type has neither message nor default constructor: " + type.getName());
+        }
+        output.writeByte(DETAILED_THROWABLE);
+        writeClass(type);
+        writeValue(throwable.getMessage());
+        writeValue(throwable.getCause());
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        writeVarInt(output, stackTrace.length);
+        for (StackTraceElement element : stackTrace) {
+            writeValue(element.getClassLoaderName());
+            writeValue(element.getModuleName());
+            writeValue(element.getModuleVersion());
+            writeValue(element.getClassName());
+            writeValue(element.getMethodName());
+            writeValue(element.getFileName());
+            writeValue(element.getLineNumber());
+        }
+        Throwable[] suppressed = throwable.getSuppressed();
+        writeVarInt(output, suppressed.length);
+        for (Throwable suppressedThrowable : suppressed) {
+            writeValue(suppressedThrowable);
+        }
+        ClassSchema schema = schemaProvider.apply(type);
+        writeFields(type, schema, schema.getFieldNames(), throwable);
+    }
+
+    private void writeCollection(Collection<?> collection) throws IOException {
+        writeCollectionHeader(collection, COLLECTION, SORTED_COLLECTION);
+        writeVarInt(output, collection.size());
+        for (Object element : collection) {
+            writeValue(element);
+        }
+    }
+
+    private void writeMap(Map<?, ?> map) throws IOException {
+        writeCollectionHeader(map, MAP, SORTED_MAP);
+        writeVarInt(output, map.size());
+        for (Entry<?, ?> entry : map.entrySet()) {
+            writeValue(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeCollectionHeader(Object collectionOrMap, int tag, int sortedTag) throws IOException {
+        Comparator<?> comparator = CollectionFactory.getComparator(collectionOrMap);
+        if (comparator == null) {
+            output.writeByte(tag);
+            writeClass(collectionOrMap.getClass());
+        } else {
+            if (!CollectionFactory.isRecreatableWithComparator(collectionOrMap.getClass())) {
+                throw new FlowPayloadCodecException("Sorted collection can not be recreated with its comparator: " + collectionOrMap.getClass().getName());
+            }
+            output.writeByte(sortedTag);
+            writeClass(collectionOrMap.getClass());
+            writeValue(comparator);
+        }
+    }
+
+    private void writeArray(Object array) throws IOException {
+        output.writeByte(ARRAY);
+        writeClass(array.getClass());
+        int length = Array.getLength(array);
+        writeVarInt(output, length);
+        for (int i = 0; i < length; i++) {
+            writeValue(Array.get(array, i));
+        }
+    }
+
+    private void writeObject(Object object) throws IOException {
+        Class<?> type = object.getClass();
+        checkSupported(type);
+        ClassSchema schema = schemaProvider.apply(type);
+        if (schema.hasTransientFields() && schema.getDefaultConstructor() == null) {
+            throw new FlowPayloadCodecException("Type with transient fields but without default constructor can not be recreated: " + type.getName());
+        }
+        output.writeByte(OBJECT);
+        writeClass(type);
+        writeFields(type, schema, schema.getFieldNames(), object);
+    }
+
+    private void writeFields(Class<?> type, ClassSchema schema, List<String> fieldNames, Object object) throws IOException {
+        if (writtenSchemas.add(type)) {
+            writeVarInt(output, fieldNames.size());
+            for (String fieldName : fieldNames) {
+                writeString(output, fieldName);
+            }
+        }
+        for (String fieldName : fieldNames) {
+            Field field = schema.getField(fieldName);
+            Object value = getFieldValue(field, object);
+            checkRecreatable(field, value);
+            writeValue(value);
+        }
+    }
+
+    private void writeClass(Class<?> type) throws IOException {
+        Integer id = classIds.get(type);
+        if (id == null) {
+            classIds.put(type, classIds.size());
+            writeVarInt(output, 0);
+            writeString(output, type.getName());
+        } else {
+            writeVarInt(output, id + 1);
+        }
+    }
+
+    private void checkSupported(Class<?> type) {
+        String typeName = type.getName();
+        if (type.isSynthetic() || type.isAnonymousClass() || ClassSchema.isJdkType(type)) {
+            throw new FlowPayloadCodecException("Unsupported type in flow payload: " + typeName);
+        }
+    }
+
+    private void checkRecreatable(Field field, Object value) {
+        if (value instanceof Collection || value instanceof Map) {
+            Class<?> recreatedType = CollectionFactory.getRecreatedType(value.getClass());
+            if (!field.getType().isAssignableFrom(recreatedType)) {
+                throw new FlowPayloadCodecException(String.format("Field %s of %s with type %s can not be recreated", field.getName(),
+                        field.getDeclaringClass().getName(), value.getClass().getName()));
+            }
+        }
+    }
+
+    private Object getFieldValue(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            throw new FlowPayloadCodecException("Can not read field " + field.getName() + " of " + object.getClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The serialized fields of a payload class: every non-static and non-transient field of the class and its superclasses.
+ * The fields of exceptions are taken only from their non-JDK classes, the state of {@link Throwable} is written separately.
+ * Fields are identified by their name, or by the name of their declaring class and their name if they are hidden by
+ * a field of a subclass, so a payload remains readable after fields have been added to or removed from its class.
+ * The default constructor of the class is kept as well, so the field initializers run when an object is recreated.
+ */
+final class ClassSchema {
+
+    private static final Set<String> JDK_PACKAGE_PREFIXES = Set.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    private final Map<String, Field> fields;
+
+    private final Constructor<?> defaultConstructor;
+
+    private final boolean transientFields;
+
+    private ClassSchema(Map<String, Field> fields, Constructor<?> defaultConstructor, boolean transientFields) {
+        this.fields = fields;
+        this.defaultConstructor = defaultConstructor;
+        this.transientFields = transientFields;
+    }
+
+    static ClassSchema of(Class<?> type) {
+        Map<String, Field> fields = new LinkedHashMap<>();
+        Set<String> names = new HashSet<>();
+        boolean transientFields = false;
+        boolean throwable = Throwable.class.isAssignableFrom(type);
+        for (Class<?> current = type; current != null && current != Object.class && !(throwable && isJdkType(current));
+                current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (isSerialized(field)) {
+                    field.setAccessible(true);
+                    String name = names.add(field.getName()) ? field.getName() : current.getName() + '.' + field.getName();
+                    fields.put(name, field);
+                } else if (Modifier.isTransient(field.getModifiers()) && !Modifier.isStatic(field.getModifiers())) {
+                    transientFields = true;
+                }
+            }
+        }
+        return new ClassSchema(Collections.unmodifiableMap(fields), findDefaultConstructor(type), transientFields);
+    }
+
+    List<String> getFieldNames() {
+        return new ArrayList<>(fields.keySet());
+    }
+
+    List<Field> getFields() {
+        return new ArrayList<>(fields.values());
+    }
+
+    Field getField(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * The constructor without parameters of the class, or null if it has none.
+     */
+    Constructor<?> getDefaultConstructor() {
+        return defaultConstructor;
+    }
+
+    /**
+     * Whether the class has transient fields. They are not written, so only their initializers can set them.
+     */
+    boolean hasTransientFields() {
+        return transientFields;
+    }
+
+    static boolean isJdkType(Class<?> type) {
+        return JDK_PACKAGE_PREFIXES.stream().anyMatch(type.getName()::startsWith);
+    }
+
+    private static Constructor<?> findDefaultConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isSerialized(Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers);
+    }
+}
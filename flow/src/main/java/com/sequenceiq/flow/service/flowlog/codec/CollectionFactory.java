@@ -0,0 +1,108 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Recreates the collections and maps of the payloads. Public classes with a public default constructor are recreated
+ * with their own type, the others (immutable, synchronized or empty collections, etc.) with the closest mutable type.
+ * Sorted collections and maps with a comparator are recreated with the same comparator, so only the types which have
+ * a public constructor with a comparator parameter can be recreated.
+ */
+final class CollectionFactory {
+
+    private CollectionFactory() {
+    }
+
+    static Class<?> getRecreatedType(Class<?> type) {
+        if (hasPublicDefaultConstructor(type)) {
+            return type;
+        } else if (Map.class.isAssignableFrom(type)) {
+            return SortedMap.class.isAssignableFrom(type) ? TreeMap.class : LinkedHashMap.class;
+        } else if (SortedSet.class.isAssignableFrom(type)) {
+            return TreeSet.class;
+        } else if (Set.class.isAssignableFrom(type)) {
+            return LinkedHashSet.class;
+        } else if (Queue.class.isAssignableFrom(type)) {
+            return LinkedList.class;
+        }
+        return ArrayList.class;
+    }
+
+    /**
+     * Returns the comparator of a sorted collection or map, or null if it uses the natural ordering or it is not sorted.
+     */
+    static Comparator<?> getComparator(Object collectionOrMap) {
+        if (collectionOrMap instanceof SortedSet) {
+            return ((SortedSet<?>) collectionOrMap).comparator();
+        } else if (collectionOrMap instanceof SortedMap) {
+            return ((SortedMap<?, ?>) collectionOrMap).comparator();
+        } else if (collectionOrMap instanceof PriorityQueue) {
+            return ((PriorityQueue<?>) collectionOrMap).comparator();
+        }
+        return null;
+    }
+
+    static boolean isRecreatableWithComparator(Class<?> type) {
+        return getComparatorConstructor(getRecreatedType(type)) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Collection<Object> newCollection(Class<?> type, Comparator<?> comparator) {
+        return (Collection<Object>) newInstance(getRecreatedType(type), comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<Object, Object> newMap(Class<?> type, Comparator<?> comparator) {
+        return (Map<Object, Object>) newInstance(getRecreatedType(type), comparator);
+    }
+
+    private static Object newInstance(Class<?> type, Comparator<?> comparator) {
+        try {
+            if (comparator == null) {
+                return type.getConstructor().newInstance();
+            }
+            Constructor<?> constructor = getComparatorConstructor(type);
+            if (constructor == null) {
+                throw new FlowPayloadCodecException("Can not create collection of type " + type.getName() + " with a comparator");
+            }
+            return constructor.newInstance(comparator);
+        } catch (ReflectiveOperationException e) {
+            throw new FlowPayloadCodecException("Can not create collection of type " + type.getName(), e);
+        }
+    }
+
+    private static Constructor<?> getComparatorConstructor(Class<?> type) {
+        try {
+            return type.getConstructor(Comparator.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasPublicDefaultConstructor(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers()) || Modifier.isAbstract(type.getModifiers())) {
+            return false;
+        }
+        for (Constructor<?> constructor : type.getConstructors()) {
+            if (constructor.getParameterCount() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+/**
+ * Serializes the payloads and the variables of the flows into the flow logs. The format of every codec is stored next
+ * to the serialized data in the flow log, so the rows can be read back with the same codec, even if the configured
+ * codec has been changed since they were written.
+ */
+public interface FlowPayloadCodec {
+
+    /**
+     * Unique identifier of the format including its version, stored in the payloadformat column of the flow logs.
+     */
+    String getFormat();
+
+    /**
+     * Serializes the object, throws {@link FlowPayloadCodecException} if it can not be represented in the format.
+     */
+    String encode(Object object);
+
+    /**
+     * Deserializes the object, throws {@link FlowPayloadCodecException} if the serialized data can not be read.
+     */
+    Object decode(String serialized);
+}
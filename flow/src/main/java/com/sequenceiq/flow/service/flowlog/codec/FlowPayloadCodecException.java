@@ -0,0 +1,12 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+public class FlowPayloadCodecException extends RuntimeException {
+
+    public FlowPayloadCodecException(String message) {
+        super(message);
+    }
+
+    public FlowPayloadCodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
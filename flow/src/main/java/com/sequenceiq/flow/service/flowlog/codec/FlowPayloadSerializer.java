@@ -0,0 +1,83 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sequenceiq.flow.domain.FlowLog;
+
+/**
+ * Serializes the payload and the variables of the flow logs with the configured {@link FlowPayloadCodec} and reads them
+ * back with the codec they have been written with. Rows without payload format are legacy json-io rows.
+ * <p>
+ * The binary format can be read only by the versions which know it, so it should be enabled only after every node of
+ * the service has been upgraded. Payloads which can not be represented in the configured format are written with
+ * json-io.
+ */
+@Service
+public class FlowPayloadSerializer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowPayloadSerializer.class);
+
+    @Value("${flow.payload.format:" + JsonIoFlowPayloadCodec.FORMAT + "}")
+    private String writeFormat;
+
+    @Inject
+    private List<FlowPayloadCodec> codecs;
+
+    @Inject
+    private JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec;
+
+    private Map<String, FlowPayloadCodec> codecsByFormat;
+
+    private FlowPayloadCodec writeCodec;
+
+    @PostConstruct
+    public void init() {
+        codecsByFormat = codecs.stream().collect(Collectors.toMap(FlowPayloadCodec::getFormat, Function.identity()));
+        writeCodec = getCodec(writeFormat);
+        LOGGER.info("Flow payloads are written in {} format", writeFormat);
+    }
+
+    public SerializedFlowPayload serialize(Object payload, Object variables) {
+        if (writeCodec != jsonIoFlowPayloadCodec) {
+            try {
+                return new SerializedFlowPayload(writeCodec.encode(payload), writeCodec.encode(variables), writeCodec.getFormat());
+            } catch (FlowPayloadCodecException e) {
+                LOGGER.debug("Can not serialize flow payload of type {} in {} format, falling back to json-io", payload.getClass().getName(),
+                        writeCodec.getFormat(), e);
+            }
+        }
+        return new SerializedFlowPayload(jsonIoFlowPayloadCodec.encode(payload), jsonIoFlowPayloadCodec.encode(variables),
+                jsonIoFlowPayloadCodec.getFormat());
+    }
+
+    public Object deserializePayload(FlowLog flowLog) {
+        return getCodec(flowLog.getPayloadFormat()).decode(flowLog.getPayload());
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<Object, Object> deserializeVariables(FlowLog flowLog) {
+        return (Map<Object, Object>) getCodec(flowLog.getPayloadFormat()).decode(flowLog.getVariables());
+    }
+
+    private FlowPayloadCodec getCodec(String format) {
+        if (format == null) {
+            return jsonIoFlowPayloadCodec;
+        }
+        FlowPayloadCodec codec = codecsByFormat.get(format);
+        if (codec == null) {
+            throw new FlowPayloadCodecException("Unknown flow payload format: " + format);
+        }
+        return codec;
+    }
+}
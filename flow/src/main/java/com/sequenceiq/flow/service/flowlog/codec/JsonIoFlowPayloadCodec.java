@@ -0,0 +1,55 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.cedarsoftware.util.io.JsonReader;
+import com.cedarsoftware.util.io.JsonWriter;
+import com.sequenceiq.cloudbreak.common.json.JsonUtil;
+
+/**
+ * The original json-io based format of the flow logs. Rows without a payload format have been written with this codec.
+ */
+@Component
+public class JsonIoFlowPayloadCodec implements FlowPayloadCodec {
+
+    public static final String FORMAT = "JSON_IO";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonIoFlowPayloadCodec.class);
+
+    @Inject
+    @Qualifier("JsonWriterOptions")
+    private Map<String, Object> writeOptions;
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public String encode(Object object) {
+        String objectAsString;
+        try {
+            objectAsString = JsonWriter.objectToJson(object, writeOptions);
+        } catch (Exception e) {
+            LOGGER.debug("Somehow can not serialize object to string, try another method..", e);
+            objectAsString = JsonUtil.writeValueAsStringSilent(object);
+        }
+        return objectAsString;
+    }
+
+    @Override
+    public Object decode(String serialized) {
+        try {
+            return JsonReader.jsonToJava(serialized);
+        } catch (RuntimeException e) {
+            throw new FlowPayloadCodecException("Can not read json-io payload", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+public class SerializedFlowPayload {
+
+    private final String payload;
+
+    private final String variables;
+
+    private final String format;
+
+    public SerializedFlowPayload(String payload, String variables, String format) {
+        this.payload = payload;
+        this.variables = variables;
+        this.format = format;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public String getVariables() {
+        return variables;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+}
@@ -0,0 +1,9 @@
+-- // flowlog payload format
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE IF EXISTS flowlog ADD COLUMN IF NOT EXISTS payloadformat varchar(32) NULL;
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+ALTER TABLE IF EXISTS flowlog DROP COLUMN IF EXISTS payloadformat;
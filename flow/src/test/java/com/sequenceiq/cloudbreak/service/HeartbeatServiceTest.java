@@ -59,6 +59,7 @@ import com.sequenceiq.flow.core.ApplicationFlowInformation;
 import com.sequenceiq.flow.core.Flow2Handler;
 import com.sequenceiq.flow.core.FlowLogService;
 import com.sequenceiq.flow.core.FlowRegister;
+import com.sequenceiq.flow.core.RunningFlowIndex;
 import com.sequenceiq.flow.core.config.FlowConfiguration;
 import com.sequenceiq.flow.core.helloworld.config.HelloWorldFlowConfig;
 import com.sequenceiq.flow.domain.FlowLog;
@@ -100,6 +101,9 @@ public class HeartbeatServiceTest {
     @Mock
     private FlowRegister runningFlows;
 
+    @Mock
+    private RunningFlowIndex runningFlowIndex;
+
     @Mock
     private TransactionService transactionService;
 
@@ -1,6 +1,7 @@
 package com.sequenceiq.flow.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -23,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -55,6 +57,8 @@ import com.sequenceiq.flow.core.restart.DefaultRestartAction;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
+import com.sequenceiq.flow.service.flowlog.codec.JsonIoFlowPayloadCodec;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.opentracing.Scope;
@@ -182,6 +186,7 @@ public class Flow2HandlerTest {
         when(spanBuilder.start()).thenReturn(span);
         when(tracer.activateSpan(span)).thenReturn(scope);
         when(span.context()).thenReturn(spanContext);
+        ReflectionTestUtils.setField(underTest, "flowPayloadSerializer", createFlowPayloadSerializer());
     }
 
     @Test
@@ -195,7 +200,7 @@ public class Flow2HandlerTest {
         event.setKey("KEY");
         underTest.accept(event);
         verify(flowConfigurationMap, times(1)).get(anyString());
-        verify(runningFlows, times(1)).put(eq(flow), isNull(String.class));
+        verify(runningFlows, times(1)).put(eq(flow), isNull(String.class), any());
         verify(flowLogService, times(1))
                 .save(any(FlowParameters.class), nullable(String.class), eq("KEY"), any(Payload.class), any(), eq(flowConfig.getClass()), eq(flowState));
         verify(flow, times(1)).sendEvent(anyString(), isNull(), any(), any());
@@ -214,7 +219,7 @@ public class Flow2HandlerTest {
                 eq(flowConfig.getClass()), eq(flowState))).thenThrow(new RuntimeException("Can't save flow log"));
         underTest.accept(event);
         verify(flowConfigurationMap, times(1)).get(anyString());
-        verify(runningFlows, times(1)).put(eq(flow), isNull(String.class));
+        verify(runningFlows, times(1)).put(eq(flow), isNull(String.class), any());
         verify(flowLogService, times(1))
                 .save(any(FlowParameters.class), nullable(String.class), eq("KEY"), any(Payload.class), any(), eq(flowConfig.getClass()), eq(flowState));
         verify(runningFlows, times(1)).remove(anyString());
@@ -236,7 +241,7 @@ public class Flow2HandlerTest {
         event.getHeaders().set(FlowConstants.FLOW_TRIGGER_USERCRN, FLOW_TRIGGER_USERCRN);
         underTest.accept(event);
         verify(flowConfigurationMap, times(1)).get(anyString());
-        verify(runningFlows, times(1)).put(eq(flow), isNull(String.class));
+        verify(runningFlows, times(1)).put(eq(flow), isNull(String.class), any());
         verify(flowLogService, times(1)).save(any(FlowParameters.class), nullable(String.class), eq("KEY"), any(Payload.class), any(),
                 ArgumentMatchers.eq(helloWorldFlowConfig.getClass()), eq(flowState));
         verify(flow, times(1)).sendEvent(anyString(), anyString(), any(), any());
@@ -248,7 +253,7 @@ public class Flow2HandlerTest {
         event.setKey("KEY");
         underTest.accept(event);
         verify(flowConfigurationMap, times(1)).get(anyString());
-        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class), any());
         verify(flowLogService, never()).save(any(FlowParameters.class), anyString(), anyString(), any(Payload.class), anyMap(), any(), any(FlowState.class));
     }
 
@@ -274,6 +279,41 @@ public class Flow2HandlerTest {
         assertNull(flowParameters.getFlowTriggerUserCrn());
     }
 
+    @Test
+    public void testBatchedTransitionIsWrittenAfterTheTransaction() throws TransactionExecutionException {
+        FlowLog lastFlowLog = new FlowLog();
+        lastFlowLog.setNextEvent("OTHER_KEY");
+        BDDMockito.<FlowConfiguration<?>>given(flowConfigurationMap.get(any())).willReturn(flowConfig);
+        given(runningFlows.get(anyString())).willReturn(flow);
+        given(flow.getFlowId()).willReturn(FLOW_ID);
+        given(flowLogService.isWriteBatchingEnabled()).willReturn(true);
+        given(flowLogService.getLastFlowLog(FLOW_ID)).willReturn(Optional.of(lastFlowLog));
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        AtomicBoolean writtenInTransaction = new AtomicBoolean();
+        doAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                ((Runnable) invocation.getArgument(0)).run();
+            } finally {
+                inTransaction.set(false);
+            }
+            return null;
+        }).when(transactionService).required(any(Runnable.class));
+        doAnswer(invocation -> {
+            writtenInTransaction.set(inTransaction.get());
+            return null;
+        }).when(flowLogService).saveTransitionBatched(eq(lastFlowLog), eq(false), any(FlowParameters.class), nullable(String.class), eq("KEY"),
+                any(Payload.class), eq(flow));
+
+        dummyEvent.setKey("KEY");
+        underTest.accept(dummyEvent);
+
+        verify(flowLogService, times(1)).saveTransitionBatched(eq(lastFlowLog), eq(false), any(FlowParameters.class), nullable(String.class), eq("KEY"),
+                any(Payload.class), eq(flow));
+        assertFalse(writtenInTransaction.get());
+        verify(flow, times(1)).sendEvent(eq("KEY"), isNull(), any(), any());
+    }
+
     @Test
     public void testChangedNodeId() {
         FlowLog lastFlowLog = new FlowLog();
@@ -333,7 +373,7 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1)).close(anyLong(), eq(FLOW_ID));
         verify(runningFlows, times(1)).remove(eq(FLOW_ID));
         verify(runningFlows, never()).get(eq(FLOW_ID));
-        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class), any());
         verify(flowChains, never()).removeFlowChain(anyString());
         verify(flowChains, never()).triggerNextFlow(anyString(), anyString(), any(Map.class));
     }
@@ -348,7 +388,7 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1)).close(anyLong(), eq(FLOW_ID));
         verify(runningFlows, times(1)).remove(eq(FLOW_ID));
         verify(runningFlows, never()).get(eq(FLOW_ID));
-        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class), any());
         verify(flowChains, never()).removeFlowChain(anyString());
         verify(flowChains, times(1)).triggerNextFlow(eq(FLOW_CHAIN_ID), eq(FLOW_TRIGGER_USERCRN), any(Map.class));
     }
@@ -363,7 +403,7 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1)).close(anyLong(), eq(FLOW_ID));
         verify(runningFlows, times(1)).remove(eq(FLOW_ID));
         verify(runningFlows, never()).get(eq(FLOW_ID));
-        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class), any());
         verify(flowChains, never()).removeFullFlowChain(anyString());
         verify(flowChains, never()).triggerNextFlow(anyString(), anyString(), any(Map.class));
     }
@@ -379,7 +419,7 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1)).close(anyLong(), eq(FLOW_ID));
         verify(runningFlows, times(1)).remove(eq(FLOW_ID));
         verify(runningFlows, never()).get(eq(FLOW_ID));
-        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, never()).put(any(Flow.class), isNull(String.class), any());
         verify(flowChains, times(1)).removeFullFlowChain(anyString());
         verify(flowChains, never()).triggerNextFlow(anyString(), anyString(), any(Map.class));
     }
@@ -496,6 +536,16 @@ public class Flow2HandlerTest {
         return flowLog;
     }
 
+    private FlowPayloadSerializer createFlowPayloadSerializer() {
+        JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec = new JsonIoFlowPayloadCodec();
+        FlowPayloadSerializer flowPayloadSerializer = new FlowPayloadSerializer();
+        ReflectionTestUtils.setField(flowPayloadSerializer, "writeFormat", JsonIoFlowPayloadCodec.FORMAT);
+        ReflectionTestUtils.setField(flowPayloadSerializer, "codecs", List.of(jsonIoFlowPayloadCodec));
+        ReflectionTestUtils.setField(flowPayloadSerializer, "jsonIoFlowPayloadCodec", jsonIoFlowPayloadCodec);
+        flowPayloadSerializer.init();
+        return flowPayloadSerializer;
+    }
+
     private void setUpFlowConfigCreateFlow(HelloWorldFlowConfig stackStartFlowConfig) {
         doReturn(stateMachine).when(stateMachineFactory).getStateMachine();
         doReturn(stateMachineAccessor).when(stateMachine).getStateMachineAccessor();
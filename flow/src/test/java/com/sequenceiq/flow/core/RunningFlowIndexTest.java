@@ -0,0 +1,189 @@
+package com.sequenceiq.flow.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.flow.core.helloworld.config.HelloWorldFlowConfig;
+import com.sequenceiq.flow.domain.FlowLogIdWithTypeAndTimestamp;
+import com.sequenceiq.flow.ha.NodeConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RunningFlowIndexTest {
+
+    private static final Long RESOURCE_ID = 1L;
+
+    private static final String FLOW_ID = "flowId";
+
+    @InjectMocks
+    private RunningFlowIndex underTest;
+
+    @Mock
+    private NodeConfig nodeConfig;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "maxResources", 2);
+    }
+
+    @Test
+    public void testRegisteredFlowIsRunning() {
+        underTest.add(FLOW_ID, RESOURCE_ID, HelloWorldFlowConfig.class);
+
+        assertEquals(Optional.of(Boolean.TRUE), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+        assertEquals(Optional.empty(), underTest.isFlowRunning(RESOURCE_ID, flowType -> false));
+    }
+
+    @Test
+    public void testUnknownResourceNeedsDatabase() {
+        assertEquals(Optional.empty(), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+    }
+
+    @Test
+    public void testLoadedResourceWithoutHa() {
+        when(nodeConfig.isNodeIdSpecified()).thenReturn(false);
+
+        underTest.load(RESOURCE_ID, underTest.getLoadStamp(RESOURCE_ID), Set.of());
+
+        assertEquals(Optional.of(Boolean.FALSE), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+    }
+
+    @Test
+    public void testLoadedResourceWithHaNeedsDatabase() {
+        when(nodeConfig.isNodeIdSpecified()).thenReturn(true);
+
+        underTest.load(RESOURCE_ID, underTest.getLoadStamp(RESOURCE_ID), Set.of());
+
+        assertEquals(Optional.empty(), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+    }
+
+    @Test
+    public void testLoadIsDiscardedWhenResourceChangedMeanwhile() {
+        when(nodeConfig.isNodeIdSpecified()).thenReturn(false);
+        long loadStamp = underTest.getLoadStamp(RESOURCE_ID);
+        underTest.add(FLOW_ID, RESOURCE_ID, HelloWorldFlowConfig.class);
+        underTest.finalized(RESOURCE_ID, FLOW_ID);
+
+        underTest.load(RESOURCE_ID, loadStamp, Set.of(flowLog()));
+
+        assertEquals(Optional.empty(), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+    }
+
+    @Test
+    public void testFinalizedFlowKeepsResourceKnown() {
+        when(nodeConfig.isNodeIdSpecified()).thenReturn(false);
+        underTest.load(RESOURCE_ID, underTest.getLoadStamp(RESOURCE_ID), Set.of());
+        underTest.add(FLOW_ID, RESOURCE_ID, HelloWorldFlowConfig.class);
+
+        underTest.finalized(RESOURCE_ID, FLOW_ID);
+
+        assertEquals(Optional.of(Boolean.FALSE), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+    }
+
+    @Test
+    public void testRemovedButNotFinalizedFlowNeedsDatabase() {
+        underTest.load(RESOURCE_ID, underTest.getLoadStamp(RESOURCE_ID), Set.of());
+        underTest.add(FLOW_ID, RESOURCE_ID, HelloWorldFlowConfig.class);
+
+        underTest.remove(FLOW_ID);
+
+        assertEquals(Optional.empty(), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+    }
+
+    @Test
+    public void testInvalidateAndReconcile() {
+        when(nodeConfig.isNodeIdSpecified()).thenReturn(false);
+        underTest.load(RESOURCE_ID, underTest.getLoadStamp(RESOURCE_ID), Set.of(flowLog()));
+        underTest.add("otherFlowId", 2L, HelloWorldFlowConfig.class);
+
+        underTest.reconcile(Set.of("otherFlowId"));
+
+        assertEquals(Optional.empty(), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+        assertEquals(Optional.of(Boolean.TRUE), underTest.isFlowRunning(2L, flowType -> true));
+
+        underTest.invalidate();
+
+        assertEquals(Optional.of(Boolean.TRUE), underTest.isFlowRunning(2L, flowType -> true));
+    }
+
+    @Test
+    public void testLoadIsDiscardedWhenResourceWasAddedAndRemovedMeanwhile() {
+        when(nodeConfig.isNodeIdSpecified()).thenReturn(false);
+        long loadStamp = underTest.getLoadStamp(RESOURCE_ID);
+        underTest.add(FLOW_ID, RESOURCE_ID, HelloWorldFlowConfig.class);
+        underTest.remove(FLOW_ID);
+
+        underTest.load(RESOURCE_ID, loadStamp, Set.of(flowLog()));
+
+        assertEquals(Optional.empty(), underTest.isFlowRunning(RESOURCE_ID, flowType -> true));
+    }
+
+    @Test
+    public void testTerminatedFlowsOfUnknownResourceAreRemoved() {
+        underTest.add(FLOW_ID, RESOURCE_ID, HelloWorldFlowConfig.class);
+        underTest.add("otherFlowId", 2L, HelloWorldFlowConfig.class);
+
+        underTest.remove(FLOW_ID);
+        underTest.finalized(2L, "otherFlowId");
+
+        assertTrue(getResources().isEmpty());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(underTest, "resourceIdsByFlowId")).isEmpty());
+    }
+
+    @Test
+    public void testReconcileRemovesResourcesWithoutRunningFlow() {
+        underTest.add(FLOW_ID, RESOURCE_ID, HelloWorldFlowConfig.class);
+
+        underTest.reconcile(Set.of());
+
+        assertTrue(getResources().isEmpty());
+    }
+
+    @Test
+    public void testLoadedResourcesAreLimited() {
+        when(nodeConfig.isNodeIdSpecified()).thenReturn(false);
+        underTest.load(1L, underTest.getLoadStamp(1L), Set.of());
+        underTest.add(FLOW_ID, 2L, HelloWorldFlowConfig.class);
+
+        underTest.load(3L, underTest.getLoadStamp(3L), Set.of());
+
+        assertEquals(Optional.empty(), underTest.isFlowRunning(1L, flowType -> true));
+        assertEquals(Optional.of(Boolean.TRUE), underTest.isFlowRunning(2L, flowType -> true));
+        assertEquals(Optional.of(Boolean.FALSE), underTest.isFlowRunning(3L, flowType -> true));
+    }
+
+    private Map<?, ?> getResources() {
+        return (Map<?, ?>) ReflectionTestUtils.getField(underTest, "resources");
+    }
+
+    private FlowLogIdWithTypeAndTimestamp flowLog() {
+        return new FlowLogIdWithTypeAndTimestamp() {
+            @Override
+            public String getFlowId() {
+                return FLOW_ID;
+            }
+
+            @Override
+            public Class<?> getFlowType() {
+                return HelloWorldFlowConfig.class;
+            }
+
+            @Override
+            public Long getCreated() {
+                return 0L;
+            }
+        };
+    }
+}
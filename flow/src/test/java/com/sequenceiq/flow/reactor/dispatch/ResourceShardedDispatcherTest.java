@@ -0,0 +1,157 @@
+package com.sequenceiq.flow.reactor.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sequenceiq.cloudbreak.common.event.Payload;
+
+import reactor.bus.Event;
+import reactor.core.support.Exceptions;
+
+public class ResourceShardedDispatcherTest {
+
+    private ResourceShardedDispatcher underTest;
+
+    @After
+    public void tearDown() {
+        underTest.forceShutdown();
+    }
+
+    @Test
+    public void testEventsOfTheSameResourceAreConsumedInOrder() throws InterruptedException {
+        underTest = new ResourceShardedDispatcher("test", 4, 10, 1000L);
+        Map<Long, List<Integer>> consumed = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(400);
+
+        for (int i = 0; i < 100; i++) {
+            for (long resourceId = 1L; resourceId <= 4L; resourceId++) {
+                underTest.dispatch(new Event<>(new TestPayload(resourceId, i)), event -> {
+                    consumed.computeIfAbsent(event.getData().getResourceId(), id -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(event.getData().sequence);
+                    done.countDown();
+                }, null);
+            }
+        }
+
+        assertTrue(done.await(10L, TimeUnit.SECONDS));
+        for (List<Integer> sequences : consumed.values()) {
+            for (int i = 0; i < sequences.size(); i++) {
+                assertEquals(Integer.valueOf(i), sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testFullLaneRejectsToErrorConsumerAfterTimeout() throws InterruptedException {
+        underTest = new ResourceShardedDispatcher("test", 1, 1, 50L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Event<TestPayload> rejectedEvent = new Event<>(new TestPayload(1L, 3));
+
+        underTest.dispatch(new Event<>(new TestPayload(1L, 0)), event -> block(started, release), error::set);
+        assertTrue(started.await(10L, TimeUnit.SECONDS));
+        underTest.dispatch(new Event<>(new TestPayload(1L, 1)), event -> { }, error::set);
+        assertFalse(underTest.tryDispatch(new Event<>(new TestPayload(1L, 2)), event -> { }, error::set));
+        underTest.dispatch(rejectedEvent, event -> { }, error::set);
+        release.countDown();
+
+        assertNotNull(error.get());
+        assertTrue(error.get() instanceof RejectedExecutionException);
+        assertEquals(rejectedEvent, ((Exceptions.ValueCause) error.get().getCause()).getValue());
+    }
+
+    @Test
+    public void testDispatchFromLaneThreadIsNotBlockedByFullLane() throws InterruptedException {
+        underTest = new ResourceShardedDispatcher("test", 1, 1, 50L);
+        CountDownLatch done = new CountDownLatch(3);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        underTest.dispatch(new Event<>(new TestPayload(1L, 0)), event -> {
+            underTest.dispatch(new Event<>(new TestPayload(1L, 1)), e -> done.countDown(), error::set);
+            underTest.dispatch(new Event<>(new TestPayload(1L, 2)), e -> done.countDown(), error::set);
+            done.countDown();
+        }, error::set);
+
+        assertTrue(done.await(10L, TimeUnit.SECONDS));
+        assertNull(error.get());
+    }
+
+    @Test
+    public void testConsumerExceptionIsPassedToErrorConsumerWithTheEvent() throws InterruptedException {
+        underTest = new ResourceShardedDispatcher("test", 2, 10, 1000L);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Event<TestPayload> failingEvent = new Event<>(new TestPayload(1L, 0));
+
+        underTest.dispatch(failingEvent, event -> {
+            throw new IllegalStateException("failed");
+        }, throwable -> {
+            error.set(throwable);
+            done.countDown();
+        });
+
+        assertTrue(done.await(10L, TimeUnit.SECONDS));
+        assertEquals("failed", error.get().getMessage());
+        assertEquals(failingEvent, ((Exceptions.ValueCause) error.get().getCause()).getValue());
+    }
+
+    @Test
+    public void testLaneStatistics() {
+        underTest = new ResourceShardedDispatcher("test", 2, 10, 1000L);
+
+        underTest.dispatch(new Event<>(new TestPayload(1L, 0)), event -> { }, null);
+        underTest.dispatch(new Event<>(new TestPayload(3L, 1)), event -> { }, null);
+
+        assertTrue(underTest.awaitAndShutdown(10L, TimeUnit.SECONDS));
+        List<DispatcherLaneStatistics> statistics = underTest.getLaneStatistics();
+        assertEquals(2, statistics.size());
+        assertEquals(20L, underTest.backlogSize());
+        assertEquals(0L, statistics.get(0).getCompletedCount());
+        assertEquals(2L, statistics.get(1).getCompletedCount());
+        assertEquals(0, statistics.get(1).getQueueSize());
+        assertEquals(10, statistics.get(1).getRemainingSlots());
+    }
+
+    private void block(CountDownLatch started, CountDownLatch release) {
+        started.countDown();
+        try {
+            release.await(10L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TestPayload implements Payload {
+
+        private final Long resourceId;
+
+        private final int sequence;
+
+        TestPayload(Long resourceId, int sequence) {
+            this.resourceId = resourceId;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public Long getResourceId() {
+            return resourceId;
+        }
+    }
+}
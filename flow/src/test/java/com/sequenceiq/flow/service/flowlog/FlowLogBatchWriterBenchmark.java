@@ -0,0 +1,187 @@
+package com.sequenceiq.flow.service.flowlog;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+
+/**
+ * Compares the flow state transitions per second of the per-event transactions with the batched flow log writer.
+ * It runs against an in-memory H2 database by default, set the {@code flowlog.benchmark.jdbcUrl},
+ * {@code flowlog.benchmark.user} and {@code flowlog.benchmark.password} system properties to run it against a
+ * migrated PostgreSQL database, and {@code flowlog.benchmark.transitions} to make it run longer.
+ * It is excluded from the unit tests, run it with the {@code benchmark} task.
+ */
+public class FlowLogBatchWriterBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowLogBatchWriterBenchmark.class);
+
+    private static final String DEFAULT_JDBC_URL = "jdbc:h2:mem:flowlogbenchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    private static final int FLOWS = 32;
+
+    private static final String LAST_FLOW_LOG_SQL = "SELECT id, version FROM flowlog WHERE flowid = ? ORDER BY created DESC, id DESC LIMIT 1";
+
+    private final int transitionsPerFlow = Integer.getInteger("flowlog.benchmark.transitions", 50);
+
+    private final String jdbcUrl = System.getProperty("flowlog.benchmark.jdbcUrl", DEFAULT_JDBC_URL);
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private FlowLogBatchWriter batchWriter;
+
+    @Before
+    public void setUp() throws Exception {
+        dataSource = JdbcConnectionPool.create(jdbcUrl, System.getProperty("flowlog.benchmark.user", "sa"),
+                System.getProperty("flowlog.benchmark.password", ""));
+        dataSource.setMaxConnections(FLOWS + 1);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        if (DEFAULT_JDBC_URL.equals(jdbcUrl)) {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS flowlog_id_seq");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS flowlog (id bigint PRIMARY KEY, created bigint NOT NULL, flowid varchar(255) NOT NULL, "
+                    + "nextevent varchar(255), payloadtype varchar(255), flowtype varchar(255), currentstate varchar(255) NOT NULL, payload text, "
+                    + "resourceid bigint NOT NULL, finalized boolean NOT NULL, flowchainid varchar(255), variables text, cloudbreaknodeid varchar(255), "
+                    + "version bigint, statestatus varchar(255), resourcetype varchar(255), flowtriggerusercrn varchar(255), payloadformat varchar(32))");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_flowlog_flowid ON flowlog (flowid)");
+        }
+
+        TransactionService transactionService = mock(TransactionService.class);
+        doAnswer(invocation -> {
+            Runnable callback = invocation.getArgument(0);
+            transactionTemplate.execute(status -> {
+                callback.run();
+                return null;
+            });
+            return null;
+        }).when(transactionService).required(any(Runnable.class));
+        batchWriter = new FlowLogBatchWriter();
+        ReflectionTestUtils.setField(batchWriter, "enabled", true);
+        ReflectionTestUtils.setField(batchWriter, "maxBatchSize", FLOWS * 2);
+        ReflectionTestUtils.setField(batchWriter, "maxFlushLatencyMillis", 2L);
+        ReflectionTestUtils.setField(batchWriter, "awaitTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(batchWriter, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(batchWriter, "transactionService", transactionService);
+        ReflectionTestUtils.setField(batchWriter, "metricService", mock(MetricService.class));
+        batchWriter.init();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        batchWriter.stop();
+        dataSource.dispose();
+    }
+
+    @Test
+    public void benchmarkPerEventTransactionAgainstBatchedWriter() throws Exception {
+        String perEventPrefix = "perevent-" + System.nanoTime() + '-';
+        double perEvent = run(perEventPrefix, this::perEventTransition);
+        String batchedPrefix = "batched-" + System.nanoTime() + '-';
+        double batched = run(batchedPrefix, this::batchedTransition);
+
+        LOGGER.info("Flow log transitions/sec with {} flows: per-event transaction {}, batched writer {}", FLOWS, String.format("%.1f", perEvent),
+                String.format("%.1f", batched));
+        assertEquals(Integer.valueOf(FLOWS * (transitionsPerFlow + 1)), countFlowLogs(perEventPrefix));
+        assertEquals(Integer.valueOf(FLOWS * (transitionsPerFlow + 1)), countFlowLogs(batchedPrefix));
+    }
+
+    private double run(String flowIdPrefix, Transition transition) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(FLOWS);
+        try {
+            for (int i = 0; i < FLOWS; i++) {
+                jdbcTemplate.update(getInsertSql(), toParameters(flowLog(flowIdPrefix + i, 0)));
+            }
+            long start = System.nanoTime();
+            List<Future<?>> flows = new ArrayList<>();
+            for (int i = 0; i < FLOWS; i++) {
+                String flowId = flowIdPrefix + i;
+                flows.add(executor.submit(() -> {
+                    for (int step = 1; step <= transitionsPerFlow; step++) {
+                        transition.execute(flowId, step);
+                    }
+                }));
+            }
+            for (Future<?> flow : flows) {
+                flow.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return FLOWS * transitionsPerFlow / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void perEventTransition(String flowId, int step) {
+        transactionTemplate.execute(status -> {
+            Map<String, Object> lastFlowLog = jdbcTemplate.queryForMap(LAST_FLOW_LOG_SQL, flowId);
+            jdbcTemplate.update("UPDATE flowlog SET statestatus = ?, version = version + 1 WHERE id = ? AND version = ?", StateStatus.SUCCESSFUL.name(),
+                    lastFlowLog.get("id"), lastFlowLog.get("version"));
+            jdbcTemplate.update(getInsertSql(), toParameters(flowLog(flowId, step)));
+            return null;
+        });
+    }
+
+    /**
+     * Like the flow handler, reads the last flow log in a transaction and waits for the batched write after the transaction has been committed.
+     */
+    private void batchedTransition(String flowId, int step) {
+        Map<String, Object> lastFlowLog = transactionTemplate.execute(status -> jdbcTemplate.queryForMap(LAST_FLOW_LOG_SQL, flowId));
+        boolean written = batchWriter.await(batchWriter.saveTransition(((Number) lastFlowLog.get("id")).longValue(),
+                ((Number) lastFlowLog.get("version")).longValue(), StateStatus.SUCCESSFUL, flowLog(flowId, step)));
+        if (!written) {
+            perEventTransition(flowId, step);
+        }
+    }
+
+    private Integer countFlowLogs(String flowIdPrefix) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM flowlog WHERE flowid LIKE ?", Integer.class, flowIdPrefix + '%');
+    }
+
+    private String getInsertSql() {
+        return (String) ReflectionTestUtils.getField(FlowLogBatchWriter.class, "INSERT_SQL");
+    }
+
+    private Object[] toParameters(FlowLog flowLog) {
+        return (Object[]) ReflectionTestUtils.invokeMethod(batchWriter, "toInsertParameters", flowLog);
+    }
+
+    private FlowLog flowLog(String flowId, int step) {
+        FlowLog flowLog = new FlowLog(1L, flowId, null, "crn", "EVENT_" + step, "{\"resourceId\":1}", String.class, "{}", Object.class,
+                "STATE_" + step);
+        flowLog.setCreated(System.currentTimeMillis());
+        flowLog.setCloudbreakNodeId("node");
+        return flowLog;
+    }
+
+    @FunctionalInterface
+    private interface Transition {
+        void execute(String flowId, int step);
+    }
+}
@@ -0,0 +1,223 @@
+package com.sequenceiq.flow.service.flowlog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService;
+import com.sequenceiq.cloudbreak.common.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+import com.sequenceiq.flow.service.flowlog.codec.SerializedFlowPayload;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlowLogBatchWriterTest {
+
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    @InjectMocks
+    private FlowLogBatchWriter underTest;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private MetricService metricService;
+
+    @Before
+    public void setUp() throws TransactionExecutionException {
+        lenient().when(jdbcTemplate.batchUpdate(any(String.class), anyList())).thenAnswer(invocation -> updateCounts(invocation.getArgument(1), 1));
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(underTest, "maxFlushLatencyMillis", 200L);
+        ReflectionTestUtils.setField(underTest, "awaitTimeoutMillis", TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        lenient().doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(transactionService).required(any(Runnable.class));
+        underTest.init();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        underTest.stop();
+    }
+
+    @Test
+    public void testTransitionsAreWrittenInOneBatch() throws Exception {
+        CompletableFuture<Void> first = underTest.saveTransition(1L, 0L, StateStatus.SUCCESSFUL, flowLog("flow1"));
+        CompletableFuture<Void> second = underTest.saveTransition(2L, 3L, StateStatus.FAILED, flowLog("flow2"));
+        CompletableFuture<Void> third = underTest.updatePayload(3L, 1L, new SerializedFlowPayload("payload", "variables", "JSON_IO"));
+
+        CompletableFuture.allOf(first, second, third).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        ArgumentCaptor<List<Object[]>> statusCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(getSql("UPDATE_STATE_STATUS_SQL")), statusCaptor.capture());
+        assertEquals(2, statusCaptor.getValue().size());
+        assertEquals("FAILED", statusCaptor.getValue().get(1)[0]);
+        assertEquals(3L, statusCaptor.getValue().get(1)[2]);
+        ArgumentCaptor<List<Object[]>> payloadCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(getSql("UPDATE_PAYLOAD_SQL")), payloadCaptor.capture());
+        assertEquals(1, payloadCaptor.getValue().size());
+        assertEquals(1L, payloadCaptor.getValue().get(0)[4]);
+        ArgumentCaptor<List<Object[]>> insertCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(getSql("INSERT_SQL")), insertCaptor.capture());
+        assertEquals(2, insertCaptor.getValue().size());
+        assertEquals("flow1", insertCaptor.getValue().get(0)[2]);
+        verify(transactionService, times(1)).required(any(Runnable.class));
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedOneByOne() throws Exception {
+        FlowLog failingFlowLog = flowLog("failing");
+        when(jdbcTemplate.batchUpdate(eq(getSql("INSERT_SQL")), anyList())).thenAnswer(invocation -> {
+            List<Object[]> parameters = invocation.getArgument(1);
+            if (parameters.stream().anyMatch(p -> "failing".equals(p[2]))) {
+                throw new IllegalStateException("insert failed");
+            }
+            return updateCounts(parameters, 1);
+        });
+        mockFailingTransactions();
+
+        CompletableFuture<Void> failing = underTest.saveTransition(1L, 0L, StateStatus.SUCCESSFUL, failingFlowLog);
+        CompletableFuture<Void> succeeding = underTest.saveTransition(2L, 0L, StateStatus.SUCCESSFUL, flowLog("flow2"));
+
+        succeeding.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            underTest.await(failing);
+            fail("The failing write should have been reported");
+        } catch (TransactionService.TransactionRuntimeExecutionException e) {
+            assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testUpdateOfChangedFlowLogFails() throws Exception {
+        when(jdbcTemplate.batchUpdate(eq(getSql("UPDATE_STATE_STATUS_SQL")), anyList()))
+                .thenAnswer(invocation -> {
+                    List<Object[]> parameters = invocation.getArgument(1);
+                    return parameters.stream().mapToInt(p -> Long.valueOf(1L).equals(p[2]) ? 0 : 1).toArray();
+                });
+        mockFailingTransactions();
+
+        CompletableFuture<Void> stale = underTest.saveTransition(1L, 1L, StateStatus.SUCCESSFUL, flowLog("stale"));
+        CompletableFuture<Void> current = underTest.saveTransition(2L, 0L, StateStatus.SUCCESSFUL, flowLog("current"));
+
+        current.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            underTest.await(stale);
+            fail("The write of the changed flow log should have failed");
+        } catch (TransactionService.TransactionRuntimeExecutionException e) {
+            assertTrue(e.getCause().getCause() instanceof OptimisticLockingFailureException);
+        }
+    }
+
+    @Test
+    public void testWriteNotTakenInTimeIsCancelled() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(transactionService).required(any(Runnable.class));
+        CompletableFuture<Void> first = underTest.saveTransition(1L, 0L, StateStatus.SUCCESSFUL, flowLog("first"));
+        assertTrue(flushing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        ReflectionTestUtils.setField(underTest, "awaitTimeoutMillis", 10L);
+
+        boolean written = underTest.await(underTest.saveTransition(2L, 0L, StateStatus.SUCCESSFUL, flowLog("cancelled")));
+
+        release.countDown();
+        first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        underTest.stop();
+        assertFalse(written);
+        ArgumentCaptor<List<Object[]>> insertCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(getSql("INSERT_SQL")), insertCaptor.capture());
+        assertEquals(1, insertCaptor.getValue().size());
+        assertEquals("first", insertCaptor.getValue().get(0)[2]);
+    }
+
+    @Test
+    public void testWritesOfTheBatchFailOnUnexpectedError() throws Exception {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("no connection");
+        }).when(transactionService).required(any(Runnable.class));
+
+        CompletableFuture<Void> write = underTest.saveTransition(1L, 0L, StateStatus.SUCCESSFUL, flowLog("flow1"));
+
+        try {
+            write.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("The write should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList());
+    }
+
+    @Test
+    public void testSubmitWhenStopped() throws InterruptedException {
+        underTest.stop();
+
+        CompletableFuture<Void> write = underTest.updatePayload(1L, 0L, new SerializedFlowPayload("payload", "variables", "JSON_IO"));
+
+        assertTrue(write.isCompletedExceptionally());
+    }
+
+    private void mockFailingTransactions() throws TransactionExecutionException {
+        doAnswer(invocation -> {
+            try {
+                ((Runnable) invocation.getArgument(0)).run();
+            } catch (RuntimeException e) {
+                throw new TransactionExecutionException("Transaction failed", e);
+            }
+            return null;
+        }).when(transactionService).required(any(Runnable.class));
+    }
+
+    private int[] updateCounts(List<Object[]> parameters, int count) {
+        return parameters.stream().mapToInt(p -> count).toArray();
+    }
+
+    private String getSql(String name) {
+        return (String) ReflectionTestUtils.getField(FlowLogBatchWriter.class, name);
+    }
+
+    private FlowLog flowLog(String flowId) {
+        FlowLog flowLog = new FlowLog(1L, flowId, null, "crn", "NEXT_EVENT", "payload", String.class, "variables", Object.class, "STATE");
+        flowLog.setCloudbreakNodeId("node");
+        return flowLog;
+    }
+}
@@ -30,7 +30,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import com.cedarsoftware.util.io.JsonWriter;
 import com.sequenceiq.cloudbreak.auth.altus.Crn;
 import com.sequenceiq.cloudbreak.auth.altus.CrnResourceDescriptor;
 import com.sequenceiq.cloudbreak.common.event.Payload;
@@ -41,12 +40,15 @@ import com.sequenceiq.flow.core.ApplicationFlowInformation;
 import com.sequenceiq.flow.core.FlowEvent;
 import com.sequenceiq.flow.core.FlowState;
 import com.sequenceiq.flow.core.ResourceIdProvider;
+import com.sequenceiq.flow.core.RunningFlowIndex;
 import com.sequenceiq.flow.core.config.AbstractFlowConfiguration;
 import com.sequenceiq.flow.domain.FlowLog;
 import com.sequenceiq.flow.domain.FlowLogIdWithTypeAndTimestamp;
 import com.sequenceiq.flow.domain.StateStatus;
 import com.sequenceiq.flow.ha.NodeConfig;
 import com.sequenceiq.flow.repository.FlowLogRepository;
+import com.sequenceiq.flow.service.flowlog.codec.FlowPayloadSerializer;
+import com.sequenceiq.flow.service.flowlog.codec.SerializedFlowPayload;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FlowLogDBServiceTest {
@@ -81,6 +83,12 @@ public class FlowLogDBServiceTest {
     @Mock
     private NodeConfig nodeConfig;
 
+    @Mock
+    private RunningFlowIndex runningFlowIndex;
+
+    @Mock
+    private FlowPayloadSerializer flowPayloadSerializer;
+
     @Test
     public void updateLastFlowLogStatus() {
         runUpdateLastFlowLogStatusTest(false, StateStatus.SUCCESSFUL);
@@ -119,6 +127,7 @@ public class FlowLogDBServiceTest {
 
         Payload payload = mock(Selectable.class);
         Map<Object, Object> variables = Map.of("repeated", 2);
+        when(flowPayloadSerializer.serialize(payload, variables)).thenReturn(new SerializedFlowPayload("payload", "variables", "BINARY_V1"));
 
         underTest.updateLastFlowLogPayload(flowLog, payload, variables);
 
@@ -128,10 +137,9 @@ public class FlowLogDBServiceTest {
         FlowLog savedFlowLog = flowLogCaptor.getValue();
         assertEquals(flowLog.getId(), savedFlowLog.getId());
 
-        String payloadJson = JsonWriter.objectToJson(payload, Map.of());
-        String variablesJson = JsonWriter.objectToJson(variables, Map.of());
-        assertEquals(payloadJson, savedFlowLog.getPayload());
-        assertEquals(variablesJson, savedFlowLog.getVariables());
+        assertEquals("payload", savedFlowLog.getPayload());
+        assertEquals("variables", savedFlowLog.getVariables());
+        assertEquals("BINARY_V1", savedFlowLog.getPayloadFormat());
     }
 
     @Test
@@ -0,0 +1,275 @@
+package com.sequenceiq.flow.service.flowlog.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cedarsoftware.util.io.JsonWriter;
+import com.google.common.collect.ImmutableList;
+import com.sequenceiq.cloudbreak.common.event.AcceptResult;
+import com.sequenceiq.cloudbreak.common.event.Payload;
+import com.sequenceiq.flow.domain.FlowLog;
+import com.sequenceiq.flow.domain.StateStatus;
+
+import reactor.rx.Promise;
+
+public class BinaryFlowPayloadCodecTest {
+
+    private BinaryFlowPayloadCodec underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new BinaryFlowPayloadCodec();
+        ReflectionTestUtils.setField(underTest, "compressionThreshold", 64);
+    }
+
+    @Test
+    public void testPayloadRoundTrip() {
+        SamplePayload payload = new SamplePayload(1L, StateStatus.FAILED, Set.of("host1", "host2"), new IllegalStateException("failed"));
+
+        SamplePayload result = (SamplePayload) underTest.decode(underTest.encode(payload));
+
+        assertEquals(Long.valueOf(1L), result.getResourceId());
+        assertEquals(StateStatus.FAILED, result.status);
+        assertEquals(Set.of("host1", "host2"), result.hostNames);
+        assertEquals(ImmutableList.of(1, 2), result.counts);
+        assertEquals(IllegalStateException.class, result.exception.getClass());
+        assertEquals("failed", result.exception.getMessage());
+        assertNotNull(result.accepted);
+        assertEquals(Integer.valueOf(2), result.parameters.get("count"));
+    }
+
+    @Test
+    public void testVariablesRoundTrip() {
+        Map<Object, Object> variables = new HashMap<>();
+        variables.put("FAILED", Boolean.TRUE);
+        variables.put(StateStatus.PENDING, 3L);
+        variables.put("retries", Collections.singletonList(4.2D));
+        variables.put("empty", null);
+
+        Object result = underTest.decode(underTest.encode(variables));
+
+        assertEquals(variables, result);
+    }
+
+    @Test
+    public void testSharedAndCyclicReferencesArePreserved() {
+        Node first = new Node("first");
+        Node second = new Node("second");
+        first.next = second;
+        second.next = first;
+        List<Node> nodes = new ArrayList<>(List.of(first, second, first));
+
+        List<Node> result = (List<Node>) underTest.decode(underTest.encode(nodes));
+
+        assertSame(result.get(0), result.get(2));
+        assertSame(result.get(0), result.get(1).next);
+        assertEquals("second", result.get(0).next.name);
+    }
+
+    @Test
+    public void testEncodedPayloadIsSmallerThanJsonIo() {
+        Map<Object, Object> variables = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            variables.put("key" + i, new SamplePayload((long) i, StateStatus.SUCCESSFUL, Set.of(), null));
+        }
+
+        String encoded = underTest.encode(variables);
+
+        assertTrue(encoded.length() < JsonWriter.objectToJson(variables).length());
+        assertEquals(variables.size(), ((Map<?, ?>) underTest.decode(encoded)).size());
+    }
+
+    @Test(expected = FlowPayloadCodecException.class)
+    public void testFieldWhichCanNotBeRecreatedIsRejected() {
+        underTest.encode(new EnumMapHolder());
+    }
+
+    @Test
+    public void testSortedCollectionsKeepTheirComparator() {
+        SortedHolder holder = new SortedHolder();
+        holder.names.addAll(List.of("a", "c", "b"));
+        holder.counts.put("x", 1);
+        holder.counts.put("y", 2);
+
+        SortedHolder result = (SortedHolder) underTest.decode(underTest.encode(holder));
+        result.names.add("d");
+        result.counts.put("z", 3);
+
+        assertEquals(ReverseComparator.class, result.names.comparator().getClass());
+        assertEquals(List.of("d", "c", "b", "a"), new ArrayList<>(result.names));
+        assertEquals(ReverseComparator.class, result.counts.comparator().getClass());
+        assertEquals(List.of("z", "y", "x"), new ArrayList<>(result.counts.keySet()));
+    }
+
+    @Test(expected = FlowPayloadCodecException.class)
+    public void testComparatorWhichCanNotBeRecreatedIsRejected() {
+        TreeSet<String> names = new TreeSet<>(Comparator.reverseOrder());
+        names.add("a");
+
+        underTest.encode(names);
+    }
+
+    @Test
+    public void testExceptionRoundTrip() {
+        DetailedException exception = new DetailedException("failed");
+        exception.code = 42;
+        exception.initCause(new IllegalArgumentException("cause"));
+        exception.addSuppressed(new IllegalStateException("suppressed"));
+
+        DetailedException result = (DetailedException) underTest.decode(underTest.encode(exception));
+
+        assertEquals("failed", result.getMessage());
+        assertEquals(42, result.code);
+        assertEquals(IllegalArgumentException.class, result.getCause().getClass());
+        assertEquals("cause", result.getCause().getMessage());
+        assertArrayEquals(exception.getStackTrace(), result.getStackTrace());
+        assertArrayEquals(exception.getCause().getStackTrace(), result.getCause().getStackTrace());
+        assertEquals(1, result.getSuppressed().length);
+        assertEquals("suppressed", result.getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    public void testFieldInitializersRunOnRead() {
+        InitializedHolder holder = new InitializedHolder();
+        holder.name = "name";
+
+        InitializedHolder result = (InitializedHolder) underTest.decode(underTest.encode(holder));
+
+        assertEquals("name", result.name);
+        assertNotNull(result.cache);
+        assertEquals("initialized", result.cache.get("key"));
+    }
+
+    @Test(expected = FlowPayloadCodecException.class)
+    public void testTransientFieldWithoutDefaultConstructorIsRejected() {
+        underTest.encode(new TransientHolder("name"));
+    }
+
+    @Test
+    public void testSerializerFallsBackToJsonIoAndReadsLegacyRows() {
+        JsonIoFlowPayloadCodec jsonIoFlowPayloadCodec = new JsonIoFlowPayloadCodec();
+        FlowPayloadSerializer serializer = new FlowPayloadSerializer();
+        ReflectionTestUtils.setField(serializer, "writeFormat", BinaryFlowPayloadCodec.FORMAT);
+        ReflectionTestUtils.setField(serializer, "codecs", List.of(jsonIoFlowPayloadCodec, underTest));
+        ReflectionTestUtils.setField(serializer, "jsonIoFlowPayloadCodec", jsonIoFlowPayloadCodec);
+        serializer.init();
+
+        SerializedFlowPayload binary = serializer.serialize(new SamplePayload(1L, StateStatus.PENDING, Set.of(), null), Map.of());
+        SerializedFlowPayload fallback = serializer.serialize(new EnumMapHolder(), Map.of());
+        FlowLog legacyFlowLog = new FlowLog();
+        legacyFlowLog.setPayload(JsonWriter.objectToJson(new SamplePayload(2L, StateStatus.PENDING, Set.of(), null)));
+        legacyFlowLog.setVariables(JsonWriter.objectToJson(new HashMap<>(Map.of("key", "value"))));
+
+        assertEquals(BinaryFlowPayloadCodec.FORMAT, binary.getFormat());
+        assertEquals(JsonIoFlowPayloadCodec.FORMAT, fallback.getFormat());
+        assertEquals(Long.valueOf(2L), ((Payload) serializer.deserializePayload(legacyFlowLog)).getResourceId());
+        assertEquals("value", serializer.deserializeVariables(legacyFlowLog).get("key"));
+    }
+
+    public static class SamplePayload implements Payload {
+
+        private final Long resourceId;
+
+        private final StateStatus status;
+
+        private final Set<String> hostNames;
+
+        private final List<Integer> counts = ImmutableList.of(1, 2);
+
+        private final Exception exception;
+
+        private final Promise<AcceptResult> accepted = new Promise<>();
+
+        private final Map<String, Object> parameters = Map.of("count", 2);
+
+        public SamplePayload(Long resourceId, StateStatus status, Set<String> hostNames, Exception exception) {
+            this.resourceId = resourceId;
+            this.status = status;
+            this.hostNames = hostNames;
+            this.exception = exception;
+        }
+
+        @Override
+        public Long getResourceId() {
+            return resourceId;
+        }
+    }
+
+    public static class Node {
+
+        private final String name;
+
+        private Node next;
+
+        public Node(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class ReverseComparator implements Comparator<String> {
+
+        @Override
+        public int compare(String first, String second) {
+            return second.compareTo(first);
+        }
+    }
+
+    public static class SortedHolder {
+
+        private final SortedSet<String> names = new TreeSet<>(new ReverseComparator());
+
+        private final TreeMap<String, Integer> counts = new TreeMap<>(new ReverseComparator());
+    }
+
+    public static class DetailedException extends RuntimeException {
+
+        private int code;
+
+        public DetailedException(String message) {
+            super(message);
+        }
+    }
+
+    public static class InitializedHolder {
+
+        private final transient Map<String, String> cache = new HashMap<>(Map.of("key", "initialized"));
+
+        private String name;
+    }
+
+    public static class TransientHolder {
+
+        private final transient Map<String, String> cache = new HashMap<>();
+
+        private final String name;
+
+        public TransientHolder(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class EnumMapHolder {
+
+        private final EnumMap<StateStatus, String> statuses = new EnumMap<>(Map.of(StateStatus.PENDING, "pending"));
+    }
+}
@@ -17,6 +17,7 @@ import java.util.OptionalInt;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.TypeUtils;
@@ -25,6 +26,9 @@ import org.slf4j.LoggerFactory;
 
 import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
 import com.sequenceiq.cloudbreak.tracing.TracingUtil;
+import com.sequenceiq.freeipa.client.model.BatchOperation;
+import com.sequenceiq.freeipa.client.model.BatchResponse;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 import com.sequenceiq.freeipa.client.model.Ca;
 import com.sequenceiq.freeipa.client.model.Cert;
 import com.sequenceiq.freeipa.client.model.Config;
@@ -72,6 +76,8 @@ public class FreeIpaClient {
 
     private final Tracer tracer;
 
+    private volatile boolean unusable;
+
     public FreeIpaClient(JsonRpcHttpClient jsonRpcHttpClient, String apiAddress, String hostname, Tracer tracer) {
         this(jsonRpcHttpClient, DEFAULT_API_VERSION, apiAddress, hostname, tracer);
     }
@@ -92,6 +98,14 @@ public class FreeIpaClient {
         return hostname;
     }
 
+    /**
+     * Returns true once a call failed with an error that makes the client unusable, like an expired session, so the client must not be
+     * reused and a new one has to be built with a new login.
+     */
+    public boolean isUnusable() {
+        return unusable;
+    }
+
     public User userShow(String user) throws FreeIpaClientException {
         List<Object> flags = List.of(user);
         Map<String, Object> params = Map.of();
@@ -99,14 +113,9 @@ public class FreeIpaClient {
     }
 
     public Optional<User> userFind(String user) throws FreeIpaClientException {
-        List<Object> flags = List.of(user);
-        Map<String, Object> params = Map.of(
-                "uid", user,
-                "all", true
-        );
         ParameterizedType type = TypeUtils
                 .parameterize(List.class, User.class);
-        List<User> foundUsers = (List<User>) invoke("user_find", flags, params, type).getResult();
+        List<User> foundUsers = (List<User>) invoke(userFindOperation(user), type).getResult();
         if (foundUsers.size() > 1) {
             LOGGER.error("Found more than 1 user with uid {}.", user);
         }
@@ -117,6 +126,15 @@ public class FreeIpaClient {
         }
     }
 
+    public BatchOperation userFindOperation(String user) {
+        List<Object> flags = List.of(user);
+        Map<String, Object> params = Map.of(
+                "uid", user,
+                "all", true
+        );
+        return new BatchOperation("user_find", flags, params);
+    }
+
     public Set<User> userFindAll() throws FreeIpaClientException {
         List<Object> flags = List.of();
         Map<String, Object> params = Map.of(
@@ -185,10 +203,14 @@ public class FreeIpaClient {
     }
 
     public User deleteUser(String userUid) throws FreeIpaClientException {
+        return (User) invoke(deleteUserOperation(userUid), User.class).getResult();
+    }
+
+    public BatchOperation deleteUserOperation(String userUid) throws FreeIpaClientException {
         FreeIpaChecks.checkUserNotProtected(userUid, () -> String.format("User '%s' is protected and cannot be deleted from FreeIPA", userUid));
         List<Object> flags = List.of(userUid);
         Map<String, Object> params = Map.of();
-        return (User) invoke("user_del", flags, params, User.class).getResult();
+        return new BatchOperation("user_del", flags, params);
     }
 
     public Role deleteRole(String roleName) throws FreeIpaClientException {
@@ -198,6 +220,10 @@ public class FreeIpaClient {
     }
 
     public User userAdd(String user, String firstName, String lastName) throws FreeIpaClientException {
+        return (User) invoke(userAddOperation(user, firstName, lastName), User.class).getResult();
+    }
+
+    public BatchOperation userAddOperation(String user, String firstName, String lastName) throws FreeIpaClientException {
         FreeIpaChecks.checkUserNotProtected(user, () -> String.format("User '%s' is protected and cannot be added to FreeIPA", user));
         List<Object> flags = List.of(user);
         Map<String, Object> params = Map.of(
@@ -207,7 +233,7 @@ public class FreeIpaClient {
                 "random", true,
                 "setattr", "krbPasswordExpiration=" + MAX_PASSWORD_EXPIRATION_DATETIME
         );
-        return (User) invoke("user_add", flags, params, User.class).getResult();
+        return new BatchOperation("user_add", flags, params);
     }
 
     /**
@@ -272,35 +298,51 @@ public class FreeIpaClient {
     }
 
     public Group groupAdd(String group) throws FreeIpaClientException {
+        return (Group) invoke(groupAddOperation(group), Group.class).getResult();
+    }
+
+    public BatchOperation groupAddOperation(String group) throws FreeIpaClientException {
         FreeIpaChecks.checkGroupNotProtected(group, () -> String.format("Group '%s' is protected and cannot be added to FreeIPA", group));
         List<Object> flags = List.of(group);
         Map<String, Object> params = Map.of();
-        return (Group) invoke("group_add", flags, params, Group.class).getResult();
+        return new BatchOperation("group_add", flags, params);
     }
 
     public void deleteGroup(String group) throws FreeIpaClientException {
+        invoke(deleteGroupOperation(group), Object.class);
+    }
+
+    public BatchOperation deleteGroupOperation(String group) throws FreeIpaClientException {
         FreeIpaChecks.checkGroupNotProtected(group, () -> String.format("Group '%s' is protected and cannot be deleted from FreeIPA", group));
         List<Object> flags = List.of(group);
         Map<String, Object> params = Map.of();
-        invoke("group_del", flags, params, Object.class);
+        return new BatchOperation("group_del", flags, params);
     }
 
     public RPCResponse<Group> groupAddMembers(String group, Collection<String> users) throws FreeIpaClientException {
+        return invoke(groupAddMembersOperation(group, users), Group.class);
+    }
+
+    public BatchOperation groupAddMembersOperation(String group, Collection<String> users) throws FreeIpaClientException {
         FreeIpaChecks.checkGroupNotUnmanaged(group, () -> String.format("Group '%s' is not managed and membership cannot be changed", group));
         List<Object> flags = List.of(group);
         Map<String, Object> params = Map.of(
                 "user", users
         );
-        return invoke("group_add_member", flags, params, Group.class);
+        return new BatchOperation("group_add_member", flags, params);
     }
 
     public RPCResponse<Group> groupRemoveMembers(String group, Collection<String> users) throws FreeIpaClientException {
+        return invoke(groupRemoveMembersOperation(group, users), Group.class);
+    }
+
+    public BatchOperation groupRemoveMembersOperation(String group, Collection<String> users) throws FreeIpaClientException {
         FreeIpaChecks.checkGroupNotUnmanaged(group, () -> String.format("Group '%s' is not managed and membership cannot be changed", group));
         List<Object> flags = List.of(group);
         Map<String, Object> params = Map.of(
                 "user", users
         );
-        return invoke("group_remove_member", flags, params, Group.class);
+        return new BatchOperation("group_remove_member", flags, params);
     }
 
     public Set<Group> groupFindAll() throws FreeIpaClientException {
@@ -585,20 +627,53 @@ public class FreeIpaClient {
         return invoke("server_conncheck", List.of(cn), Map.of("remote_cn", remoteCn), Boolean.class);
     }
 
+    public <T> RPCResponse<T> invoke(BatchOperation operation, Type resultType) throws FreeIpaClientException {
+        return invoke(operation.getMethod(), operation.getFlags(), operation.getParams(), resultType);
+    }
+
     public <T> RPCResponse<T> invoke(String method, List<Object> flags, Map<String, Object> params, Type resultType) throws FreeIpaClientException {
+        ParameterizedType type = TypeUtils
+                .parameterize(RPCResponse.class, resultType);
+        return call(method, flags, params, type);
+    }
+
+    /**
+     * Sends the operations in a single request with the batch command of FreeIPA. The results are in the order of the operations, a failed
+     * operation does not fail the batch, its result contains the error of the operation.
+     */
+    public <T> List<BatchResult<T>> callBatch(List<BatchOperation> operations, Type resultType) throws FreeIpaClientException {
+        List<Object> calls = operations.stream()
+                .map(operation -> Map.of(
+                        "method", operation.getMethod(),
+                        "params", List.of(operation.getFlags(), withVersion(operation.getParams()))))
+                .collect(Collectors.toList());
+        ParameterizedType type = TypeUtils
+                .parameterize(BatchResponse.class, resultType);
+        BatchResponse<T> response = call("batch", calls, Map.of(), type);
+        List<BatchResult<T>> results = Optional.ofNullable(response.getResults()).orElse(List.of());
+        if (results.size() != operations.size()) {
+            throw new FreeIpaClientException(String.format("FreeIPA batch returned %d results for %d operations", results.size(), operations.size()));
+        }
+        return results;
+    }
+
+    private Map<String, Object> withVersion(Map<String, Object> params) {
         Map<String, Object> parameterMap = new HashMap<>();
         if (params != null && !params.isEmpty()) {
             parameterMap.putAll(params);
         }
         parameterMap.put("version", apiVersion);
+        return parameterMap;
+    }
+
+    private <T> T call(String method, List<Object> flags, Map<String, Object> params, Type type) throws FreeIpaClientException {
+        Map<String, Object> parameterMap = withVersion(params);
 
         LOGGER.debug("Issuing JSON-RPC request:\n\n method: {}\n flags: {}\n", method, flags);
-        ParameterizedType type = TypeUtils
-                .parameterize(RPCResponse.class, resultType);
 
         Span span = TracingUtil.initSpan(tracer, "FreeIpa", method);
         try (Scope ignored = tracer.activateSpan(span)) {
-            RPCResponse<T> response = (RPCResponse<T>) jsonRpcHttpClient.invoke(method, List.of(flags, parameterMap), type);
+            T response = (T) jsonRpcHttpClient.invoke(method, List.of(flags, parameterMap), type);
             LOGGER.debug("Response object: {}", response);
             if (response == null) {
                 // TODO CDPCP-1028 investigate why invoke returns null instead of throwing an exception
@@ -612,7 +687,11 @@ public class FreeIpaClient {
             OptionalInt responseCode = extractResponseCode(e);
             span.setTag(TracingUtil.ERROR, true);
             span.setTag(TracingUtil.MESSAGE, e.getLocalizedMessage());
-            throw FreeIpaClientExceptionUtil.convertToRetryableIfNeeded(new FreeIpaClientException(message, e, responseCode));
+            FreeIpaClientException clientException = new FreeIpaClientException(message, e, responseCode);
+            if (clientException.isClientUnusable()) {
+                unusable = true;
+            }
+            throw FreeIpaClientExceptionUtil.convertToRetryableIfNeeded(clientException);
         } catch (Throwable throwable) {
             String message = String.format("Invoke FreeIPA failed: %s", throwable.getLocalizedMessage());
             LOGGER.warn(message);
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 
 import com.googlecode.jsonrpc4j.JsonRpcClientException;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 
 public class FreeIpaClientExceptionUtil {
 
@@ -119,6 +120,15 @@ public class FreeIpaClientExceptionUtil {
         }
     }
 
+    /**
+     * Converts the error of an operation of a batch to the exception the operation would have thrown if it was called alone.
+     */
+    public static FreeIpaClientException convertBatchResultError(BatchResult<?> result) {
+        int errorCode = Optional.ofNullable(result.getErrorCode()).orElse(FreeIpaErrorCodes.GENERIC_ERROR.getValue());
+        JsonRpcClientException cause = new JsonRpcClientException(errorCode, result.getError(), null);
+        return convertToRetryableIfNeeded(new FreeIpaClientException(String.format("Invoke FreeIPA failed: %s", result.getError()), cause));
+    }
+
     public static void ignoreNotFoundException(FreeIpaClientRunnable runnable, String message, Object... messageParams) throws FreeIpaClientException {
         try {
             runnable.run();
@@ -0,0 +1,39 @@
+package com.sequenceiq.freeipa.client.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class BatchOperation {
+
+    private final String method;
+
+    private final List<Object> flags;
+
+    private final Map<String, Object> params;
+
+    public BatchOperation(String method, List<Object> flags, Map<String, Object> params) {
+        this.method = method;
+        this.flags = flags;
+        this.params = params;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public List<Object> getFlags() {
+        return flags;
+    }
+
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOperation{"
+                + "method='" + method + '\''
+                + ", flags=" + flags
+                + '}';
+    }
+}
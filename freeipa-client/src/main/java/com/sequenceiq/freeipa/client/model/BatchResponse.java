@@ -0,0 +1,36 @@
+package com.sequenceiq.freeipa.client.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchResponse<R> {
+    private Integer count;
+
+    private List<BatchResult<R>> results;
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public List<BatchResult<R>> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchResult<R>> results) {
+        this.results = results;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResponse{"
+                + "count=" + count
+                + ", results=" + results
+                + '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.sequenceiq.freeipa.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchResult<R> extends RPCResponse<R> {
+    private String error;
+
+    @JsonProperty("error_code")
+    private Integer errorCode;
+
+    @JsonProperty("error_name")
+    private String errorName;
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Integer getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(Integer errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorName() {
+        return errorName;
+    }
+
+    public void setErrorName(String errorName) {
+        this.errorName = errorName;
+    }
+
+    public boolean hasError() {
+        return error != null;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{"
+                + "error='" + error + '\''
+                + ", errorCode=" + errorCode
+                + ", errorName='" + errorName + '\''
+                + ", " + super.toString()
+                + '}';
+    }
+}
@@ -1,14 +1,29 @@
 package com.sequenceiq.freeipa.client;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.sequenceiq.freeipa.client.model.BatchResponse;
+import com.sequenceiq.freeipa.client.model.BatchResult;
+import com.sequenceiq.freeipa.client.model.User;
 
 import io.opentracing.Tracer;
 
@@ -16,14 +31,17 @@ class FreeIpaClientTest {
 
     private FreeIpaClient underTest;
 
+    private JsonRpcHttpClient jsonRpcHttpClient;
+
     @BeforeEach
     void setUp() {
+        jsonRpcHttpClient = mock(JsonRpcHttpClient.class);
         underTest = new FreeIpaClient(
-                mock(JsonRpcHttpClient.class),
+                jsonRpcHttpClient,
                 "apiVersion",
                 "apiAddress",
                 "hostname",
-                mock(Tracer.class));
+                mock(Tracer.class, RETURNS_DEEP_STUBS));
     }
 
     @Test
@@ -67,4 +85,60 @@ class FreeIpaClientTest {
                 underTest.groupAddMembers(FreeIpaChecks.IPA_UNMANAGED_GROUPS.get(0), List.of("harry", "sally"))
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void callBatchSendsTheOperationsAsSubCallsOfTheBatchCommand() throws Throwable {
+        BatchResult<User> userResult = new BatchResult<>();
+        BatchResult<User> failedResult = new BatchResult<>();
+        failedResult.setError("user with name \"sally\" already exists");
+        failedResult.setErrorCode(4002);
+        BatchResponse<User> response = new BatchResponse<>();
+        response.setCount(2);
+        response.setResults(List.of(userResult, failedResult));
+        when(jsonRpcHttpClient.invoke(eq("batch"), any(), any(Type.class))).thenReturn(response);
+
+        List<BatchResult<User>> results = underTest.callBatch(List.of(underTest.userAddOperation("harry", "first", "last"),
+                underTest.userAddOperation("sally", "first", "last")), User.class);
+
+        ArgumentCaptor<Object> argumentCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(jsonRpcHttpClient).invoke(eq("batch"), argumentCaptor.capture(), any(Type.class));
+        List<Object> arguments = (List<Object>) argumentCaptor.getValue();
+        List<Map<String, Object>> calls = (List<Map<String, Object>>) arguments.get(0);
+        assertEquals(2, calls.size());
+        assertEquals("user_add", calls.get(0).get("method"));
+        List<Object> params = (List<Object>) calls.get(1).get("params");
+        assertEquals(List.of("sally"), params.get(0));
+        assertEquals("apiVersion", ((Map<String, Object>) params.get(1)).get("version"));
+        assertFalse(results.get(0).hasError());
+        assertTrue(FreeIpaClientExceptionUtil.isDuplicateEntryException(FreeIpaClientExceptionUtil.convertBatchResultError(results.get(1))));
+    }
+
+    @Test
+    void callBatchThrowsWhenResultsAreMissing() throws Throwable {
+        BatchResponse<User> response = new BatchResponse<>();
+        response.setResults(List.of(new BatchResult<>()));
+        when(jsonRpcHttpClient.invoke(eq("batch"), any(), any(Type.class))).thenReturn(response);
+
+        assertThrows(FreeIpaClientException.class, () -> underTest.callBatch(List.of(underTest.deleteUserOperation("harry"),
+                underTest.deleteUserOperation("sally")), User.class));
+    }
+
+    @Test
+    void batchOperationThrowsOnProtectedGroup() {
+        assertThrows(FreeIpaClientException.class, () ->
+                underTest.deleteGroupOperation(FreeIpaChecks.IPA_PROTECTED_GROUPS.get(0))
+        );
+    }
+
+    @Test
+    void clientIsUnusableAfterUnauthorizedResponse() throws Throwable {
+        when(jsonRpcHttpClient.invoke(eq("user_show"), any(), any(Type.class)))
+                .thenThrow(new IOException("Server returned HTTP response code: 500"))
+                .thenThrow(new IOException("Server returned HTTP response code: 401"));
+
+        assertThrows(FreeIpaClientException.class, () -> underTest.userShow("user"));
+        assertFalse(underTest.isUnusable());
+        assertThrows(FreeIpaClientException.class, () -> underTest.userShow("user"));
+        assertTrue(underTest.isUnusable());
+    }
+}
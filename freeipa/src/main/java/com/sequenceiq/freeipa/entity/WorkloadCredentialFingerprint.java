@@ -0,0 +1,65 @@
+package com.sequenceiq.freeipa.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+
+@Entity
+public class WorkloadCredentialFingerprint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "workloadcredentialfingerprint_generator")
+    @SequenceGenerator(name = "workloadcredentialfingerprint_generator", sequenceName = "workloadcredentialfingerprint_id_seq", allocationSize = 1)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Stack stack;
+
+    private String username;
+
+    private String fingerprint;
+
+    public WorkloadCredentialFingerprint() {
+    }
+
+    public WorkloadCredentialFingerprint(Stack stack, String username) {
+        this.stack = stack;
+        this.username = username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Stack getStack() {
+        return stack;
+    }
+
+    public void setStack(Stack stack) {
+        this.stack = stack;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+}
@@ -4,7 +4,9 @@ import com.sequenceiq.cloudbreak.common.metrics.type.Metric;
 
 public enum MetricType implements Metric {
     FREEIPA_CREATION_FINISHED("freeipa.creation.finished"),
-    FREEIPA_CREATION_FAILED("freeipa.creation.failed");
+    FREEIPA_CREATION_FAILED("freeipa.creation.failed"),
+    USERSYNC_WORKLOAD_CREDENTIALS_PUSHED("usersync.workload.credentials.pushed"),
+    USERSYNC_WORKLOAD_CREDENTIALS_SKIPPED("usersync.workload.credentials.skipped");
 
     private final String metricName;
 
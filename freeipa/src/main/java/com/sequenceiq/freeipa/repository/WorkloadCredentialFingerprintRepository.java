@@ -0,0 +1,27 @@
+package com.sequenceiq.freeipa.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import com.sequenceiq.freeipa.entity.WorkloadCredentialFingerprint;
+
+@Transactional(Transactional.TxType.REQUIRED)
+public interface WorkloadCredentialFingerprintRepository extends CrudRepository<WorkloadCredentialFingerprint, Long> {
+
+    List<WorkloadCredentialFingerprint> findByStackId(Long stackId);
+
+    @Modifying
+    @Query("DELETE FROM WorkloadCredentialFingerprint f WHERE f.stack.id = :stackId")
+    int deleteByStackId(@Param("stackId") Long stackId);
+
+    @Modifying
+    @Query("DELETE FROM WorkloadCredentialFingerprint f WHERE f.stack.id = :stackId AND f.username IN :usernames")
+    int deleteByStackIdAndUsernames(@Param("stackId") Long stackId, @Param("usernames") Collection<String> usernames);
+}
@@ -91,6 +91,6 @@ public class BootstrapService {
     }
 
     private byte[] getStateConfigZip() throws IOException {
-        return CompressUtil.generateCompressedOutputFromFolders("salt-common", "freeipa-salt");
+        return CompressUtil.getCachedCompressedOutputFromFolders("salt-common", "freeipa-salt").getContent();
     }
 }
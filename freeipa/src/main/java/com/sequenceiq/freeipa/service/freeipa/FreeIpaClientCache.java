@@ -0,0 +1,148 @@
+package com.sequenceiq.freeipa.service.freeipa;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.Striped;
+import com.sequenceiq.freeipa.client.FreeIpaClient;
+import com.sequenceiq.freeipa.client.FreeIpaClientException;
+
+/**
+ * Cache of the authenticated FreeIPA clients per stack, so the callers of a stack share the session of one login instead of logging in
+ * for every client. A cached client is replaced by a new login when
+ * <ul>
+ *     <li>it is older than {@code freeipa.client.cache.session-ttl-minutes}, which is shorter than the session lifetime of FreeIPA,
+ *     so the session is renewed before it expires</li>
+ *     <li>a call of the client failed with an error that made it unusable, like an unauthorized response</li>
+ *     <li>the state of the stack the client was built for, its status and its instances, has changed</li>
+ * </ul>
+ * Only one caller logs in for a stack at a time, the concurrent callers of the stack wait for its client. A client that is not usable
+ * anymore stays in the cache until the new login succeeds, so the new login can try the instance the old client logged in to first.
+ * The clients of the stacks that are not used for {@code freeipa.client.cache.expire-minutes} are dropped.
+ */
+@Component
+public class FreeIpaClientCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FreeIpaClientCache.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Value("${freeipa.client.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${freeipa.client.cache.session-ttl-minutes:15}")
+    private long sessionTtlMinutes;
+
+    @Value("${freeipa.client.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${freeipa.client.cache.expire-minutes:60}")
+    private long expireAfterAccessMinutes;
+
+    private final Striped<Lock> locks = Striped.lazyWeakLock(LOCK_STRIPES);
+
+    private Cache<Long, CachedClient> clients;
+
+    @PostConstruct
+    public void init() {
+        clients = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Returns the cached client of the stack if it is still usable for the given state of the stack, or builds a new one with the factory.
+     */
+    public FreeIpaClient getClient(Long stackId, String stackState, ClientFactory factory) throws FreeIpaClientException {
+        if (!enabled) {
+            return factory.create();
+        }
+        CachedClient cachedClient = clients.getIfPresent(stackId);
+        if (isUsable(cachedClient, stackState)) {
+            return cachedClient.getClient();
+        }
+        Lock lock = locks.get(stackId);
+        lock.lock();
+        try {
+            cachedClient = clients.getIfPresent(stackId);
+            if (isUsable(cachedClient, stackState)) {
+                return cachedClient.getClient();
+            }
+            if (cachedClient != null) {
+                LOGGER.debug("Cached FreeIPA client of stack {} is not usable anymore, logging in again", stackId);
+            }
+            FreeIpaClient client = factory.create();
+            clients.put(stackId, new CachedClient(client, stackState, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(sessionTtlMinutes)));
+            return client;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the FQDN of the instance the cached client of the stack logged in to, even if the client is not usable anymore.
+     */
+    public Optional<String> getLastLoginFqdn(Long stackId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(clients.getIfPresent(stackId)).map(cachedClient -> cachedClient.getClient().getHostname());
+    }
+
+    public void invalidate(Long stackId) {
+        if (enabled) {
+            clients.invalidate(stackId);
+            LOGGER.debug("Cached FreeIPA client of stack {} is invalidated", stackId);
+        }
+    }
+
+    private boolean isUsable(CachedClient cachedClient, String stackState) {
+        return cachedClient != null
+                && !cachedClient.getClient().isUnusable()
+                && cachedClient.getStackState().equals(stackState)
+                && System.currentTimeMillis() < cachedClient.getExpiresAt();
+    }
+
+    @FunctionalInterface
+    public interface ClientFactory {
+        FreeIpaClient create() throws FreeIpaClientException;
+    }
+
+    private static class CachedClient {
+
+        private final FreeIpaClient client;
+
+        private final String stackState;
+
+        private final long expiresAt;
+
+        CachedClient(FreeIpaClient client, String stackState, long expiresAt) {
+            this.client = client;
+            this.stackState = stackState;
+            this.expiresAt = expiresAt;
+        }
+
+        FreeIpaClient getClient() {
+            return client;
+        }
+
+        String getStackState() {
+            return stackState;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
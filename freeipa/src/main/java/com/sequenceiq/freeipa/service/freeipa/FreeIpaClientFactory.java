@@ -1,6 +1,7 @@
 package com.sequenceiq.freeipa.service.freeipa;
 
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -83,6 +84,9 @@ public class FreeIpaClientFactory {
     @Inject
     private Tracer tracer;
 
+    @Inject
+    private FreeIpaClientCache freeIpaClientCache;
+
     public FreeIpaClient getFreeIpaClientForStackId(Long stackId) throws FreeIpaClientException {
         LOGGER.debug("Retrieving stack for stack id {}", stackId);
 
@@ -111,38 +115,47 @@ public class FreeIpaClientFactory {
 
     private FreeIpaClient getFreeIpaClient(Stack stack, boolean withPing, boolean forceCheckUnreachable, Optional<String> freeIpaFqdn)
             throws FreeIpaClientException {
-        stack = stackService.getByIdWithListsInTransaction(stack.getId());
-        Status stackStatus = stack.getStackStatus().getStatus();
+        Stack stackWithLists = stackService.getByIdWithListsInTransaction(stack.getId());
+        Status stackStatus = stackWithLists.getStackStatus().getStatus();
         if (forceCheckUnreachable || !stackStatus.isFreeIpaUnreachableStatus()) {
-            try {
-                Optional<FreeIpaClient> client = Optional.empty();
-                if (clusterProxyService.isCreateConfigForClusterProxy(stack)) {
-                    try {
-                        return getFreeIpaClientBuilderForClusterProxy(stack, freeIpaFqdn).build(withPing);
-                    } catch (IOException e) {
-                        throw new RetryableFreeIpaClientException("Unable to connect to FreeIPA using cluster proxy", e);
-                    }
-                } else {
-                    List<InstanceMetaData> instanceMetaDatas = getPriorityOrderedFreeIpaInstances(stack, forceCheckUnreachable).stream()
-                            .filter(instanceMetaData -> freeIpaFqdn.isEmpty() || freeIpaFqdn.get().equals(instanceMetaData.getDiscoveryFQDN()))
-                            .collect(Collectors.toList());
-                    for (Iterator<InstanceMetaData> instanceIterator = instanceMetaDatas.iterator();
-                            instanceIterator.hasNext() && client.isEmpty();) {
-                        InstanceMetaData instanceMetaData = instanceIterator.next();
-                        client = getFreeIpaClientForDirectConnect(stack, instanceMetaData, withPing, !instanceIterator.hasNext());
-                    }
-                }
-                return client.orElseThrow(() -> new FreeIpaHostNotAvailableException("No FreeIPA client was available"));
-            } catch (RetryableFreeIpaClientException e) {
-                throw createFreeIpaUnableToBuildClient(e);
-            } catch (Exception e) {
-                throw createFreeIpaUnableToBuildClient(e);
+            if (withPing || forceCheckUnreachable || freeIpaFqdn.isPresent()) {
+                return buildFreeIpaClient(stackWithLists, withPing, forceCheckUnreachable, freeIpaFqdn);
             }
+            return freeIpaClientCache.getClient(stackWithLists.getId(), getClientState(stackWithLists),
+                    () -> buildFreeIpaClient(stackWithLists, false, false, Optional.empty()));
         } else {
             throw createFreeIpaStateIsInvalidException(stackStatus);
         }
     }
 
+    private FreeIpaClient buildFreeIpaClient(Stack stack, boolean withPing, boolean forceCheckUnreachable, Optional<String> freeIpaFqdn)
+            throws FreeIpaClientException {
+        try {
+            Optional<FreeIpaClient> client = Optional.empty();
+            if (clusterProxyService.isCreateConfigForClusterProxy(stack)) {
+                try {
+                    return getFreeIpaClientBuilderForClusterProxy(stack, freeIpaFqdn).build(withPing);
+                } catch (IOException e) {
+                    throw new RetryableFreeIpaClientException("Unable to connect to FreeIPA using cluster proxy", e);
+                }
+            } else {
+                List<InstanceMetaData> instanceMetaDatas = getPriorityOrderedFreeIpaInstances(stack, forceCheckUnreachable).stream()
+                        .filter(instanceMetaData -> freeIpaFqdn.isEmpty() || freeIpaFqdn.get().equals(instanceMetaData.getDiscoveryFQDN()))
+                        .collect(Collectors.toList());
+                for (Iterator<InstanceMetaData> instanceIterator = instanceMetaDatas.iterator();
+                        instanceIterator.hasNext() && client.isEmpty();) {
+                    InstanceMetaData instanceMetaData = instanceIterator.next();
+                    client = getFreeIpaClientForDirectConnect(stack, instanceMetaData, withPing, !instanceIterator.hasNext());
+                }
+            }
+            return client.orElseThrow(() -> new FreeIpaHostNotAvailableException("No FreeIPA client was available"));
+        } catch (RetryableFreeIpaClientException e) {
+            throw createFreeIpaUnableToBuildClient(e);
+        } catch (Exception e) {
+            throw createFreeIpaUnableToBuildClient(e);
+        }
+    }
+
     private Optional<FreeIpaClient> getFreeIpaClientForDirectConnect(Stack stack, InstanceMetaData instanceMetaData, boolean withPing, boolean lastInstance)
             throws Exception {
         Optional<FreeIpaClient> client = Optional.empty();
@@ -174,12 +187,25 @@ public class FreeIpaClientFactory {
     }
 
     private List<InstanceMetaData> getPriorityOrderedFreeIpaInstances(Stack stack, boolean forceCheckUnreachable) {
+        Optional<String> lastLoginFqdn = freeIpaClientCache.getLastLoginFqdn(stack.getId());
         return stack.getNotDeletedInstanceMetaDataList().stream()
                 .filter(im -> forceCheckUnreachable || im.isAvailable())
-                .sorted(new PrimaryGatewayFirstThenSortByFqdnComparator())
+                .sorted(Comparator.comparing((InstanceMetaData im) -> !isLastLoginInstance(im, lastLoginFqdn))
+                        .thenComparing(new PrimaryGatewayFirstThenSortByFqdnComparator()))
                 .collect(Collectors.toList());
     }
 
+    private boolean isLastLoginInstance(InstanceMetaData instanceMetaData, Optional<String> lastLoginFqdn) {
+        return lastLoginFqdn.isPresent() && lastLoginFqdn.get().equals(instanceMetaData.getDiscoveryFQDN());
+    }
+
+    private String getClientState(Stack stack) {
+        return stack.getStackStatus().getStatus() + ";" + stack.getNotDeletedInstanceMetaDataList().stream()
+                .map(im -> String.join(":", im.getDiscoveryFQDN(), String.valueOf(im.getInstanceStatus()), im.getPublicIpWrapper()))
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
     public FreeIpaClient getFreeIpaClientForStack(Stack stack) throws FreeIpaClientException {
         LOGGER.debug("Creating FreeIpaClient for stack {}", stack.getResourceCrn());
         return getFreeIpaClient(stack, false, false, Optional.empty());
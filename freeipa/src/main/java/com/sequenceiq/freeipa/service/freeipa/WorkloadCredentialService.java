@@ -1,18 +1,34 @@
 package com.sequenceiq.freeipa.service.freeipa;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.inject.Inject;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
 import com.sequenceiq.freeipa.client.FreeIpaClientExceptionUtil;
+import com.sequenceiq.freeipa.entity.Stack;
+import com.sequenceiq.freeipa.entity.WorkloadCredentialFingerprint;
+import com.sequenceiq.freeipa.metrics.FreeIpaMetricService;
+import com.sequenceiq.freeipa.metrics.MetricType;
+import com.sequenceiq.freeipa.repository.WorkloadCredentialFingerprintRepository;
 import com.sequenceiq.freeipa.service.freeipa.user.kerberos.KrbKeySetEncoder;
 import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
 
@@ -20,12 +36,96 @@ import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
 public class WorkloadCredentialService {
     private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadCredentialService.class);
 
+    private static final char FINGERPRINT_SEPARATOR = '\0';
+
+    @Value("${freeipa.usersync.workload-credentials.force-full-push:false}")
+    private boolean forceFullPush;
+
+    @Inject
+    private WorkloadCredentialFingerprintRepository fingerprintRepository;
+
+    @Inject
+    private FreeIpaMetricService freeIpaMetricService;
+
     public void setWorkloadCredential(FreeIpaClient freeIpaClient, String username, WorkloadCredential workloadCredential)
             throws IOException, FreeIpaClientException {
+        setWorkloadCredential(freeIpaClient, username, workloadCredential,
+                KrbKeySetEncoder.getASNEncodedKrbPrincipalKey(workloadCredential.getKeys()));
+    }
+
+    /**
+     * Sets the workload credentials of the users whose credentials changed since the last push to the FreeIPA of the stack. The
+     * fingerprint of the credentials pushed to FreeIPA is persisted per user, the users whose fingerprint is unchanged are skipped,
+     * except the users in {@code addedUsernames}, which have just been created in FreeIPA without credentials. All the credentials are
+     * pushed if {@code freeipa.usersync.workload-credentials.force-full-push} is set.
+     */
+    public void setWorkloadCredentials(Stack stack, FreeIpaClient freeIpaClient, Map<String, WorkloadCredential> workloadCredentials,
+            Set<String> addedUsernames, BiConsumer<String, String> warnings) throws FreeIpaClientException {
+        Map<String, WorkloadCredentialFingerprint> fingerprints = fingerprintRepository.findByStackId(stack.getId()).stream()
+                .collect(Collectors.toMap(WorkloadCredentialFingerprint::getUsername, Function.identity()));
+        List<WorkloadCredentialFingerprint> pushedFingerprints = new ArrayList<>();
+        int skipped = 0;
+        try {
+            for (Map.Entry<String, WorkloadCredential> entry : workloadCredentials.entrySet()) {
+                String username = entry.getKey();
+                try {
+                    String ansEncodedKrbPrincipalKey = KrbKeySetEncoder.getASNEncodedKrbPrincipalKey(entry.getValue().getKeys());
+                    String fingerprint = fingerprint(entry.getValue(), ansEncodedKrbPrincipalKey);
+                    WorkloadCredentialFingerprint storedFingerprint = fingerprints.get(username);
+                    if (!forceFullPush && storedFingerprint != null && fingerprint.equals(storedFingerprint.getFingerprint())
+                            && !addedUsernames.contains(username)) {
+                        skipped++;
+                    } else {
+                        setWorkloadCredential(freeIpaClient, username, entry.getValue(), ansEncodedKrbPrincipalKey);
+                        pushedFingerprints.add(updateFingerprint(stack, username, storedFingerprint, fingerprint));
+                    }
+                } catch (IOException e) {
+                    recordWarning(username, e, warnings);
+                } catch (FreeIpaClientException e) {
+                    recordWarning(username, e, warnings);
+                    if (e.isClientUnusable()) {
+                        LOGGER.warn("Client is not usable for further usage");
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            saveFingerprints(pushedFingerprints);
+            LOGGER.debug("Workload credentials pushed for {} users, skipped for {} users with unchanged credentials", pushedFingerprints.size(), skipped);
+            freeIpaMetricService.recordDistributionSummary(MetricType.USERSYNC_WORKLOAD_CREDENTIALS_PUSHED, pushedFingerprints.size());
+            freeIpaMetricService.recordDistributionSummary(MetricType.USERSYNC_WORKLOAD_CREDENTIALS_SKIPPED, skipped);
+        }
+    }
+
+    /**
+     * Drops the fingerprints of the credentials pushed to the FreeIPA of the stack, so the next sync pushes the credentials of every user.
+     * Used when the FreeIPA servers are installed or repaired, as their credentials may not match the fingerprints anymore.
+     */
+    public void invalidateFingerprints(Long stackId) {
+        int deleted = fingerprintRepository.deleteByStackId(stackId);
+        LOGGER.debug("Invalidated {} workload credential fingerprints of stack {}", deleted, stackId);
+    }
+
+    /**
+     * Deletes the fingerprints of the users removed from the FreeIPA of the stack. A failure is only logged, as a stale fingerprint is
+     * harmless: the credentials of a user that is added again are pushed anyway.
+     */
+    public void deleteFingerprints(Long stackId, Collection<String> usernames) {
+        if (!usernames.isEmpty()) {
+            try {
+                int deleted = fingerprintRepository.deleteByStackIdAndUsernames(stackId, usernames);
+                LOGGER.debug("Deleted {} workload credential fingerprints of the removed users of stack {}", deleted, stackId);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to delete the workload credential fingerprints of the removed users of stack {}", stackId, e);
+            }
+        }
+    }
+
+    private void setWorkloadCredential(FreeIpaClient freeIpaClient, String username, WorkloadCredential workloadCredential,
+            String ansEncodedKrbPrincipalKey) throws FreeIpaClientException {
         LOGGER.debug("Setting workload credentials for user '{}'", username);
 
         try {
-            String ansEncodedKrbPrincipalKey = KrbKeySetEncoder.getASNEncodedKrbPrincipalKey(workloadCredential.getKeys());
             freeIpaClient.userSetWorkloadCredentials(username,
                     workloadCredential.getHashedPassword(), ansEncodedKrbPrincipalKey, workloadCredential.getExpirationDate(),
                     workloadCredential.getSshPublicKeys().stream().map(UserManagementProto.SshPublicKey::getPublicKey).collect(Collectors.toList()));
@@ -38,23 +138,38 @@ public class WorkloadCredentialService {
         }
     }
 
-    public void setWorkloadCredentials(FreeIpaClient freeIpaClient, Map<String, WorkloadCredential> workloadCredentials,
-            BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (Map.Entry<String, WorkloadCredential> entry : workloadCredentials.entrySet()) {
-            try {
-                setWorkloadCredential(freeIpaClient, entry.getKey(), entry.getValue());
-            } catch (IOException e) {
-                recordWarning(entry.getKey(), e, warnings);
-            } catch (FreeIpaClientException e) {
-                recordWarning(entry.getKey(), e, warnings);
-                if (e.isClientUnusable()) {
-                    LOGGER.warn("Client is not usable for further usage");
-                    throw e;
-                }
-            }
+    /**
+     * Saves the fingerprints of the pushed credentials. It is called from a finally block, so a failure is logged instead of thrown to
+     * keep the original exception of the push. The credentials whose fingerprint is not saved are pushed again by the next sync.
+     */
+    private void saveFingerprints(List<WorkloadCredentialFingerprint> pushedFingerprints) {
+        try {
+            fingerprintRepository.saveAll(pushedFingerprints);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to save the fingerprints of {} pushed workload credentials", pushedFingerprints.size(), e);
         }
     }
 
+    private String fingerprint(WorkloadCredential workloadCredential, String ansEncodedKrbPrincipalKey) {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(String.valueOf(workloadCredential.getHashedPassword()), StandardCharsets.UTF_8)
+                .putChar(FINGERPRINT_SEPARATOR)
+                .putString(String.valueOf(ansEncodedKrbPrincipalKey), StandardCharsets.UTF_8)
+                .putChar(FINGERPRINT_SEPARATOR)
+                .putString(workloadCredential.getExpirationDate().map(String::valueOf).orElse(""), StandardCharsets.UTF_8);
+        for (UserManagementProto.SshPublicKey sshPublicKey : workloadCredential.getSshPublicKeys()) {
+            hasher.putChar(FINGERPRINT_SEPARATOR).putString(sshPublicKey.getPublicKey(), StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    private WorkloadCredentialFingerprint updateFingerprint(Stack stack, String username, WorkloadCredentialFingerprint storedFingerprint,
+            String fingerprint) {
+        WorkloadCredentialFingerprint updatedFingerprint = storedFingerprint == null ? new WorkloadCredentialFingerprint(stack, username) : storedFingerprint;
+        updatedFingerprint.setFingerprint(fingerprint);
+        return updatedFingerprint;
+    }
+
     private void recordWarning(String username, Exception e, BiConsumer<String, String> warnings) {
         LOGGER.warn("Failed to set workload credentials for user '{}'", username, e);
         warnings.accept(username, "Failed to set workload credentials:" + e.getMessage());
@@ -3,16 +3,25 @@ package com.sequenceiq.freeipa.service.freeipa.user;
 import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_PROTECTED_USERS;
 import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_UNMANAGED_GROUPS;
 
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.reflect.TypeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
+import com.sequenceiq.freeipa.client.FreeIpaClientExceptionUtil;
+import com.sequenceiq.freeipa.client.model.BatchOperation;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
@@ -21,6 +30,12 @@ import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
 public class FreeIpaUsersStateProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(FreeIpaUsersStateProvider.class);
 
+    @Value("${freeipa.usersync.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${freeipa.usersync.batch.max-operations:100}")
+    private int maxOperationsPerBatch;
+
     public UsersState getUsersState(FreeIpaClient freeIpaClient) throws FreeIpaClientException {
         LOGGER.debug("Retrieving all users from FreeIPA");
         UsersState.Builder builder = new UsersState.Builder();
@@ -55,25 +70,49 @@ public class FreeIpaUsersStateProvider {
                 .filter(group -> !IPA_UNMANAGED_GROUPS.contains(group.getCn()))
                 .forEach(group -> builder.addGroup(fromIpaGroup(group)));
 
-        for (String userName : userNames) {
-            if (IPA_PROTECTED_USERS.contains(userName)) {
-                continue;
+        List<String> requestedUserNames = userNames.stream()
+                .filter(userName -> !IPA_PROTECTED_USERS.contains(userName))
+                .collect(Collectors.toList());
+        if (batchEnabled) {
+            addUsersInBatches(freeIpaClient, requestedUserNames, builder);
+        } else {
+            for (String userName : requestedUserNames) {
+                freeIpaClient.userFind(userName).ifPresent(ipaUser -> addUser(builder, userName, ipaUser));
             }
-            Optional<com.sequenceiq.freeipa.client.model.User> ipaUserOptional = freeIpaClient.userFind(userName);
-            if (ipaUserOptional.isPresent()) {
-                com.sequenceiq.freeipa.client.model.User ipaUser = ipaUserOptional.get();
-                builder.addUser(fromIpaUser(ipaUser));
-                if (ipaUser.getMemberOfGroup() != null) {
-                    ipaUser.getMemberOfGroup().stream()
-                            .filter(group -> !IPA_UNMANAGED_GROUPS.contains(group))
-                            .forEach(groupname -> {
-                                builder.addMemberToGroup(groupname, userName);
-                            });
+        }
+
+        return builder.build();
+    }
+
+    private void addUsersInBatches(FreeIpaClient freeIpaClient, List<String> userNames, UsersState.Builder builder) throws FreeIpaClientException {
+        ParameterizedType type = TypeUtils.parameterize(List.class, com.sequenceiq.freeipa.client.model.User.class);
+        for (List<String> userNamesInBatch : Iterables.partition(userNames, maxOperationsPerBatch)) {
+            List<BatchOperation> operations = userNamesInBatch.stream()
+                    .map(freeIpaClient::userFindOperation)
+                    .collect(Collectors.toList());
+            List<BatchResult<List<com.sequenceiq.freeipa.client.model.User>>> results = freeIpaClient.callBatch(operations, type);
+            for (int i = 0; i < results.size(); i++) {
+                BatchResult<List<com.sequenceiq.freeipa.client.model.User>> result = results.get(i);
+                String userName = userNamesInBatch.get(i);
+                if (result.hasError()) {
+                    throw FreeIpaClientExceptionUtil.convertBatchResultError(result);
+                }
+                List<com.sequenceiq.freeipa.client.model.User> foundUsers = Optional.ofNullable(result.getResult()).orElse(List.of());
+                if (foundUsers.size() > 1) {
+                    LOGGER.error("Found more than 1 user with uid {}.", userName);
                 }
+                foundUsers.stream().findFirst().ifPresent(ipaUser -> addUser(builder, userName, ipaUser));
             }
         }
+    }
 
-        return builder.build();
+    private void addUser(UsersState.Builder builder, String userName, com.sequenceiq.freeipa.client.model.User ipaUser) {
+        builder.addUser(fromIpaUser(ipaUser));
+        if (ipaUser.getMemberOfGroup() != null) {
+            ipaUser.getMemberOfGroup().stream()
+                    .filter(group -> !IPA_UNMANAGED_GROUPS.contains(group))
+                    .forEach(groupname -> builder.addMemberToGroup(groupname, userName));
+        }
     }
 
     @VisibleForTesting
@@ -5,6 +5,7 @@ import static com.sequenceiq.cloudbreak.auth.ThreadBasedUserCrnProvider.INTERNAL
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -46,6 +47,8 @@ import com.sequenceiq.freeipa.client.FreeIpaCapabilities;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
 import com.sequenceiq.freeipa.client.FreeIpaClientExceptionUtil;
+import com.sequenceiq.freeipa.client.model.BatchOperation;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 import com.sequenceiq.freeipa.client.model.Group;
 import com.sequenceiq.freeipa.client.model.RPCResponse;
 import com.sequenceiq.freeipa.configuration.UsersyncConfig;
@@ -96,6 +99,14 @@ public class UserSyncService {
     @Value("${freeipa.usersync.max-subjects-per-request}")
     int maxSubjectsPerRequest;
 
+    @VisibleForTesting
+    @Value("${freeipa.usersync.batch.enabled}")
+    boolean batchEnabled;
+
+    @VisibleForTesting
+    @Value("${freeipa.usersync.batch.max-operations}")
+    int maxOperationsPerBatch;
+
     @Inject
     private StackService stackService;
 
@@ -339,15 +350,17 @@ public class UserSyncService {
             LOGGER.debug("Finished {}.", LogEvent.CALCULATE_UMS_IPA_DIFFERENCE);
 
             LOGGER.debug("Starting {} ...", LogEvent.APPLY_DIFFERENCE_TO_IPA);
-            applyStateDifferenceToIpa(stack.getEnvironmentCrn(), freeIpaClient, usersStateDifference, warnings::put);
+            applyStateDifferenceToIpa(stack, freeIpaClient, usersStateDifference, warnings::put);
             LOGGER.debug("Finished {}.", LogEvent.APPLY_DIFFERENCE_TO_IPA);
 
             if (!FreeIpaCapabilities.hasSetPasswordHashSupport(freeIpaClient.getConfig())) {
                 LOGGER.debug("IPA doesn't have password hash support, no credentials sync required for env:{}", environmentCrn);
             } else {
-                // Sync credentials for all users and not just diff. At present there is no way to identify that there is a change in password for a user
+                // Credentials of all the users are checked, only the ones that changed since the last push, and the ones of the new users are set
                 LOGGER.debug("Starting {} for {} users ...", LogEvent.SET_WORKLOAD_CREDENTIALS, umsUsersState.getUsersWorkloadCredentialMap().size());
-                workloadCredentialService.setWorkloadCredentials(freeIpaClient, umsUsersState.getUsersWorkloadCredentialMap(), warnings::put);
+                Set<String> addedUsernames = usersStateDifference.getUsersToAdd().stream().map(FmsUser::getName).collect(Collectors.toSet());
+                workloadCredentialService.setWorkloadCredentials(stack, freeIpaClient, umsUsersState.getUsersWorkloadCredentialMap(), addedUsernames,
+                        warnings::put);
                 LOGGER.debug("Finished {}.", LogEvent.SET_WORKLOAD_CREDENTIALS);
             }
 
@@ -383,7 +396,7 @@ public class UserSyncService {
                 ImmutableCollection<String> groupsToRemove = ipaUserState.getGroupMembership().get(deletedWorkloadUser);
                 UsersStateDifference usersStateDifference = UsersStateDifference.forDeletedUser(deletedWorkloadUser, groupsToRemove);
                 LOGGER.debug("Starting {} ...", LogEvent.APPLY_DIFFERENCE_TO_IPA);
-                applyStateDifferenceToIpa(stack.getEnvironmentCrn(), freeIpaClient, usersStateDifference, warnings::put);
+                applyStateDifferenceToIpa(stack, freeIpaClient, usersStateDifference, warnings::put);
                 LOGGER.debug("Finished {}.", LogEvent.APPLY_DIFFERENCE_TO_IPA);
             }
 
@@ -417,9 +430,9 @@ public class UserSyncService {
     }
 
     @VisibleForTesting
-    void applyStateDifferenceToIpa(String environmentCrn, FreeIpaClient freeIpaClient, UsersStateDifference stateDifference,
+    void applyStateDifferenceToIpa(Stack stack, FreeIpaClient freeIpaClient, UsersStateDifference stateDifference,
                     BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        LOGGER.info("Applying state difference to environment {}.", environmentCrn);
+        LOGGER.info("Applying state difference to environment {}.", stack.getEnvironmentCrn());
 
         LOGGER.debug("Starting {} for {} groups ...", LogEvent.ADD_GROUPS,
                 stateDifference.getGroupsToAdd().size());
@@ -443,7 +456,7 @@ public class UserSyncService {
 
         LOGGER.debug("Starting {} for {} users ...", LogEvent.REMOVE_USERS,
                 stateDifference.getUsersToRemove().size());
-        removeUsers(freeIpaClient, stateDifference.getUsersToRemove(), warnings);
+        removeUsers(stack.getId(), freeIpaClient, stateDifference.getUsersToRemove(), warnings);
         LOGGER.debug("Finished {}.", LogEvent.REMOVE_USERS);
 
         LOGGER.debug("Starting {} for {} groups ...", LogEvent.REMOVE_GROUPS,
@@ -453,131 +466,284 @@ public class UserSyncService {
     }
 
     private void addGroups(FreeIpaClient freeIpaClient, Set<FmsGroup> fmsGroups, BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (FmsGroup fmsGroup : fmsGroups) {
-            LOGGER.debug("adding group {}", fmsGroup.getName());
-            try {
-                com.sequenceiq.freeipa.client.model.Group groupAdd = freeIpaClient.groupAdd(fmsGroup.getName());
-                LOGGER.debug("Success: {}", groupAdd);
-            } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isDuplicateEntryException(e)) {
-                    LOGGER.debug("group '{}' already exists", fmsGroup.getName());
-                } else {
-                    LOGGER.warn("Failed to add group {}", fmsGroup.getName(), e);
-                    warnings.accept(fmsGroup.getName(), "Failed to add group:" + e.getMessage());
+        if (batchEnabled) {
+            callInBatches(freeIpaClient, fmsGroups, fmsGroup -> freeIpaClient.groupAddOperation(fmsGroup.getName()), Group.class,
+                    (fmsGroup, result) -> LOGGER.debug("Success: {}", result.getResult()),
+                    (fmsGroup, e) -> handleAddGroupFailure(fmsGroup.getName(), e, warnings));
+        } else {
+            for (FmsGroup fmsGroup : fmsGroups) {
+                LOGGER.debug("adding group {}", fmsGroup.getName());
+                try {
+                    Group groupAdd = freeIpaClient.groupAdd(fmsGroup.getName());
+                    LOGGER.debug("Success: {}", groupAdd);
+                } catch (FreeIpaClientException e) {
+                    handleAddGroupFailure(fmsGroup.getName(), e, warnings);
                     checkIfClientStillUsable(e);
                 }
             }
         }
     }
 
+    private void handleAddGroupFailure(String groupname, FreeIpaClientException e, BiConsumer<String, String> warnings) {
+        if (FreeIpaClientExceptionUtil.isDuplicateEntryException(e)) {
+            LOGGER.debug("group '{}' already exists", groupname);
+        } else {
+            LOGGER.warn("Failed to add group {}", groupname, e);
+            warnings.accept(groupname, "Failed to add group:" + e.getMessage());
+        }
+    }
+
     private void addUsers(FreeIpaClient freeIpaClient, Set<FmsUser> fmsUsers, BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (FmsUser fmsUser : fmsUsers) {
-            String username = fmsUser.getName();
-            LOGGER.debug("adding user {}", username);
-            try {
-                com.sequenceiq.freeipa.client.model.User userAdd = freeIpaClient.userAdd(
-                        username, fmsUser.getFirstName(), fmsUser.getLastName());
-                LOGGER.debug("Success: {}", userAdd);
-            } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isDuplicateEntryException(e)) {
-                    LOGGER.debug("user '{}' already exists", fmsUser.getName());
-                } else {
-                    LOGGER.error("Failed to add {}", username, e);
-                    warnings.accept(fmsUser.getName(), "Failed to add user:" + e.getMessage());
+        if (batchEnabled) {
+            callInBatches(freeIpaClient, fmsUsers, fmsUser -> freeIpaClient.userAddOperation(fmsUser.getName(), fmsUser.getFirstName(), fmsUser.getLastName()),
+                    com.sequenceiq.freeipa.client.model.User.class,
+                    (fmsUser, result) -> LOGGER.debug("Success: {}", result.getResult()),
+                    (fmsUser, e) -> handleAddUserFailure(fmsUser.getName(), e, warnings));
+        } else {
+            for (FmsUser fmsUser : fmsUsers) {
+                String username = fmsUser.getName();
+                LOGGER.debug("adding user {}", username);
+                try {
+                    com.sequenceiq.freeipa.client.model.User userAdd = freeIpaClient.userAdd(
+                            username, fmsUser.getFirstName(), fmsUser.getLastName());
+                    LOGGER.debug("Success: {}", userAdd);
+                } catch (FreeIpaClientException e) {
+                    handleAddUserFailure(username, e, warnings);
                     checkIfClientStillUsable(e);
                 }
             }
         }
     }
 
-    private void removeUsers(FreeIpaClient freeIpaClient, Set<String> fmsUsers, BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (String username : fmsUsers) {
-            LOGGER.debug("Removing user {}", username);
-            try {
-                com.sequenceiq.freeipa.client.model.User userRemove = freeIpaClient.deleteUser(username);
-                LOGGER.debug("Success: {}", userRemove);
-            } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isNotFoundException(e)) {
-                    LOGGER.debug("user '{}' already does not exists", username);
-                } else {
-                    LOGGER.error("Failed to delete {}", username, e);
-                    warnings.accept(username, "Failed to remove user:" + e.getMessage());
-                    checkIfClientStillUsable(e);
+    private void handleAddUserFailure(String username, FreeIpaClientException e, BiConsumer<String, String> warnings) {
+        if (FreeIpaClientExceptionUtil.isDuplicateEntryException(e)) {
+            LOGGER.debug("user '{}' already exists", username);
+        } else {
+            LOGGER.error("Failed to add {}", username, e);
+            warnings.accept(username, "Failed to add user:" + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the users from FreeIPA, then deletes the workload credential fingerprints of the users that do not exist in FreeIPA anymore.
+     */
+    private void removeUsers(Long stackId, FreeIpaClient freeIpaClient, Set<String> fmsUsers, BiConsumer<String, String> warnings)
+            throws FreeIpaClientException {
+        Set<String> removedUsers = new HashSet<>();
+        try {
+            if (batchEnabled) {
+                callInBatches(freeIpaClient, fmsUsers, freeIpaClient::deleteUserOperation, com.sequenceiq.freeipa.client.model.User.class,
+                        (username, result) -> {
+                            LOGGER.debug("Success: {}", result.getResult());
+                            removedUsers.add(username);
+                        },
+                        (username, e) -> handleRemoveUserFailure(username, e, warnings, removedUsers));
+            } else {
+                for (String username : fmsUsers) {
+                    LOGGER.debug("Removing user {}", username);
+                    try {
+                        com.sequenceiq.freeipa.client.model.User userRemove = freeIpaClient.deleteUser(username);
+                        LOGGER.debug("Success: {}", userRemove);
+                        removedUsers.add(username);
+                    } catch (FreeIpaClientException e) {
+                        handleRemoveUserFailure(username, e, warnings, removedUsers);
+                        checkIfClientStillUsable(e);
+                    }
                 }
             }
+        } finally {
+            workloadCredentialService.deleteFingerprints(stackId, removedUsers);
+        }
+    }
+
+    private void handleRemoveUserFailure(String username, FreeIpaClientException e, BiConsumer<String, String> warnings, Set<String> removedUsers) {
+        if (FreeIpaClientExceptionUtil.isNotFoundException(e)) {
+            LOGGER.debug("user '{}' already does not exists", username);
+            removedUsers.add(username);
+        } else {
+            LOGGER.error("Failed to delete {}", username, e);
+            warnings.accept(username, "Failed to remove user:" + e.getMessage());
         }
     }
 
     private void removeGroups(FreeIpaClient freeIpaClient, Set<FmsGroup> fmsGroups, BiConsumer<String, String> warnings) throws FreeIpaClientException {
-        for (FmsGroup fmsGroup : fmsGroups) {
-            String groupname = fmsGroup.getName();
+        if (batchEnabled) {
+            callInBatches(freeIpaClient, fmsGroups, fmsGroup -> freeIpaClient.deleteGroupOperation(fmsGroup.getName()), Object.class,
+                    (fmsGroup, result) -> LOGGER.debug("Success: {}", fmsGroup.getName()),
+                    (fmsGroup, e) -> handleRemoveGroupFailure(fmsGroup.getName(), e, warnings));
+        } else {
+            for (FmsGroup fmsGroup : fmsGroups) {
+                String groupname = fmsGroup.getName();
 
-            LOGGER.debug("Removing group {}", groupname);
+                LOGGER.debug("Removing group {}", groupname);
 
-            try {
-                freeIpaClient.deleteGroup(groupname);
-                LOGGER.debug("Success: {}", groupname);
-            } catch (FreeIpaClientException e) {
-                if (FreeIpaClientExceptionUtil.isNotFoundException(e)) {
-                    LOGGER.debug("group '{}' already does not exists", groupname);
-                } else {
-                    LOGGER.error("Failed to delete {}", groupname, e);
-                    warnings.accept(groupname, "Failed to remove group: " + e.getMessage());
+                try {
+                    freeIpaClient.deleteGroup(groupname);
+                    LOGGER.debug("Success: {}", groupname);
+                } catch (FreeIpaClientException e) {
+                    handleRemoveGroupFailure(groupname, e, warnings);
                     checkIfClientStillUsable(e);
                 }
             }
         }
     }
 
+    private void handleRemoveGroupFailure(String groupname, FreeIpaClientException e, BiConsumer<String, String> warnings) {
+        if (FreeIpaClientExceptionUtil.isNotFoundException(e)) {
+            LOGGER.debug("group '{}' already does not exists", groupname);
+        } else {
+            LOGGER.error("Failed to delete {}", groupname, e);
+            warnings.accept(groupname, "Failed to remove group: " + e.getMessage());
+        }
+    }
+
     @VisibleForTesting
     void addUsersToGroups(FreeIpaClient freeIpaClient, Multimap<String, String> groupMapping, BiConsumer<String, String> warnings)
             throws FreeIpaClientException {
         LOGGER.debug("adding users to groups: [{}]", groupMapping);
-        for (String group : groupMapping.keySet()) {
-            for (List<String> users : Iterables.partition(groupMapping.get(group), maxSubjectsPerRequest)) {
-                LOGGER.debug("adding users [{}] to group [{}]", users, group);
-                try {
-                    RPCResponse<Group> groupAddMemberResponse = freeIpaClient.groupAddMembers(group, users);
-                    List<String> members = Optional.ofNullable(groupAddMemberResponse.getResult().getMemberUser()).orElse(List.of());
-                    if (members.containsAll(users)) {
-                        LOGGER.debug("Successfully added users {} to {}", users, groupAddMemberResponse.getResult());
-                    } else {
-                        // TODO specialize RPCResponse completed/failed objects
-                        LOGGER.error("Failed to add {} to group '{}': {}", users, group, groupAddMemberResponse.getFailed());
-                        warnings.accept(group, String.format("Failed to add users to group: %s", groupAddMemberResponse.getFailed()));
+        if (batchEnabled) {
+            callInBatches(freeIpaClient, partitionGroupMembers(groupMapping),
+                    members -> freeIpaClient.groupAddMembersOperation(members.getKey(), members.getValue()), Group.class,
+                    (members, result) -> handleAddUsersToGroupResponse(members.getKey(), members.getValue(), result, warnings),
+                    (members, e) -> handleAddUsersToGroupFailure(members.getKey(), members.getValue(), e, warnings));
+        } else {
+            for (String group : groupMapping.keySet()) {
+                for (List<String> users : Iterables.partition(groupMapping.get(group), maxSubjectsPerRequest)) {
+                    LOGGER.debug("adding users [{}] to group [{}]", users, group);
+                    try {
+                        RPCResponse<Group> groupAddMemberResponse = freeIpaClient.groupAddMembers(group, users);
+                        handleAddUsersToGroupResponse(group, users, groupAddMemberResponse, warnings);
+                    } catch (FreeIpaClientException e) {
+                        handleAddUsersToGroupFailure(group, users, e, warnings);
+                        checkIfClientStillUsable(e);
                     }
-                } catch (FreeIpaClientException e) {
-                    LOGGER.error("Failed to add {} to group '{}'", users, group, e);
-                    warnings.accept(group, String.format("Failed to add users %s to group: %s", users, e.getMessage()));
-                    checkIfClientStillUsable(e);
                 }
             }
         }
     }
 
+    private void handleAddUsersToGroupResponse(String group, List<String> users, RPCResponse<Group> groupAddMemberResponse,
+            BiConsumer<String, String> warnings) {
+        List<String> members = Optional.ofNullable(groupAddMemberResponse.getResult().getMemberUser()).orElse(List.of());
+        if (members.containsAll(users)) {
+            LOGGER.debug("Successfully added users {} to {}", users, groupAddMemberResponse.getResult());
+        } else {
+            // TODO specialize RPCResponse completed/failed objects
+            LOGGER.error("Failed to add {} to group '{}': {}", users, group, groupAddMemberResponse.getFailed());
+            warnings.accept(group, String.format("Failed to add users to group: %s", groupAddMemberResponse.getFailed()));
+        }
+    }
+
+    private void handleAddUsersToGroupFailure(String group, List<String> users, FreeIpaClientException e, BiConsumer<String, String> warnings) {
+        LOGGER.error("Failed to add {} to group '{}'", users, group, e);
+        warnings.accept(group, String.format("Failed to add users %s to group: %s", users, e.getMessage()));
+    }
+
     @VisibleForTesting
     void removeUsersFromGroups(FreeIpaClient freeIpaClient, Multimap<String, String> groupMapping, BiConsumer<String, String> warnings)
             throws FreeIpaClientException {
+        if (batchEnabled) {
+            callInBatches(freeIpaClient, partitionGroupMembers(groupMapping),
+                    members -> freeIpaClient.groupRemoveMembersOperation(members.getKey(), members.getValue()), Group.class,
+                    (members, result) -> handleRemoveUsersFromGroupResponse(members.getKey(), members.getValue(), result, warnings),
+                    (members, e) -> handleRemoveUsersFromGroupFailure(members.getKey(), members.getValue(), e, warnings));
+        } else {
+            for (String group : groupMapping.keySet()) {
+                for (List<String> users : Iterables.partition(groupMapping.get(group), maxSubjectsPerRequest)) {
+                    LOGGER.debug("removing users {} from group {}", users, group);
+                    try {
+                        RPCResponse<Group> groupRemoveMembersResponse = freeIpaClient.groupRemoveMembers(group, users);
+                        handleRemoveUsersFromGroupResponse(group, users, groupRemoveMembersResponse, warnings);
+                    } catch (FreeIpaClientException e) {
+                        handleRemoveUsersFromGroupFailure(group, users, e, warnings);
+                        checkIfClientStillUsable(e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void handleRemoveUsersFromGroupResponse(String group, List<String> users, RPCResponse<Group> groupRemoveMembersResponse,
+            BiConsumer<String, String> warnings) {
+        List<String> members = Optional.ofNullable(groupRemoveMembersResponse.getResult().getMemberUser()).orElse(List.of());
+        if (Collections.disjoint(members, users)) {
+            LOGGER.debug("Successfully removed users {} from {}", users, groupRemoveMembersResponse.getResult());
+        } else {
+            // TODO specialize RPCResponse completed/failed objects
+            LOGGER.error("Failed to remove {} from group '{}': {}", users, group, groupRemoveMembersResponse.getFailed());
+            warnings.accept(group, String.format("Failed to remove users from group: %s", groupRemoveMembersResponse.getFailed()));
+        }
+    }
+
+    private void handleRemoveUsersFromGroupFailure(String group, List<String> users, FreeIpaClientException e, BiConsumer<String, String> warnings) {
+        LOGGER.error("Failed to remove {} from group '{}'", users, group, e);
+        warnings.accept(group, String.format("Failed to remove users %s from group: %s", users, e.getMessage()));
+    }
+
+    private List<Map.Entry<String, List<String>>> partitionGroupMembers(Multimap<String, String> groupMapping) {
+        List<Map.Entry<String, List<String>>> groupMembers = new ArrayList<>();
         for (String group : groupMapping.keySet()) {
             for (List<String> users : Iterables.partition(groupMapping.get(group), maxSubjectsPerRequest)) {
-                LOGGER.debug("removing users {} from group {}", users, group);
-                try {
-                    RPCResponse<Group> groupRemoveMembersResponse = freeIpaClient.groupRemoveMembers(group, users);
-                    List<String> members = Optional.ofNullable(groupRemoveMembersResponse.getResult().getMemberUser()).orElse(List.of());
-                    if (Collections.disjoint(members, users)) {
-                        LOGGER.debug("Successfully removed users {} from {}", users, groupRemoveMembersResponse.getResult());
-                    } else {
-                        // TODO specialize RPCResponse completed/failed objects
-                        LOGGER.error("Failed to remove {} from group '{}': {}", users, group, groupRemoveMembersResponse.getFailed());
-                        warnings.accept(group, String.format("Failed to remove users from group: %s", groupRemoveMembersResponse.getFailed()));
-                    }
-                } catch (FreeIpaClientException e) {
-                    LOGGER.error("Failed to remove {} from group '{}'", users, group, e);
-                    warnings.accept(group, String.format("Failed to remove users %s from group: %s", users, e.getMessage()));
-                    checkIfClientStillUsable(e);
+                groupMembers.add(Map.entry(group, users));
+            }
+        }
+        return groupMembers;
+    }
+
+    /**
+     * Sends the operations of the subjects to FreeIPA in batches of at most {@code maxOperationsPerBatch} operations. The failures are
+     * reported per subject, like the failures of the single calls, and the sync is stopped after the batch if the client became unusable.
+     */
+    private <S, R> void callInBatches(FreeIpaClient freeIpaClient, Collection<S> subjects, BatchOperationFactory<S> operationFactory, Class<R> resultType,
+            BiConsumer<S, BatchResult<R>> successHandler, BiConsumer<S, FreeIpaClientException> failureHandler) throws FreeIpaClientException {
+        List<S> batchSubjects = new ArrayList<>();
+        List<BatchOperation> operations = new ArrayList<>();
+        for (S subject : subjects) {
+            try {
+                operations.add(operationFactory.create(subject));
+                batchSubjects.add(subject);
+            } catch (FreeIpaClientException e) {
+                failureHandler.accept(subject, e);
+            }
+            if (operations.size() >= maxOperationsPerBatch) {
+                callBatch(freeIpaClient, batchSubjects, operations, resultType, successHandler, failureHandler);
+                batchSubjects = new ArrayList<>();
+                operations = new ArrayList<>();
+            }
+        }
+        if (!operations.isEmpty()) {
+            callBatch(freeIpaClient, batchSubjects, operations, resultType, successHandler, failureHandler);
+        }
+    }
+
+    private <S, R> void callBatch(FreeIpaClient freeIpaClient, List<S> subjects, List<BatchOperation> operations, Class<R> resultType,
+            BiConsumer<S, BatchResult<R>> successHandler, BiConsumer<S, FreeIpaClientException> failureHandler) throws FreeIpaClientException {
+        LOGGER.debug("Calling batch of {} {} operations", operations.size(), operations.get(0).getMethod());
+        List<BatchResult<R>> results;
+        try {
+            results = freeIpaClient.callBatch(operations, resultType);
+        } catch (FreeIpaClientException e) {
+            LOGGER.error("Failed to call batch of {} {} operations", operations.size(), operations.get(0).getMethod(), e);
+            subjects.forEach(subject -> failureHandler.accept(subject, e));
+            checkIfClientStillUsable(e);
+            return;
+        }
+        FreeIpaClientException clientUnusableException = null;
+        for (int i = 0; i < results.size(); i++) {
+            BatchResult<R> result = results.get(i);
+            if (result.hasError()) {
+                FreeIpaClientException e = FreeIpaClientExceptionUtil.convertBatchResultError(result);
+                failureHandler.accept(subjects.get(i), e);
+                if (e.isClientUnusable()) {
+                    clientUnusableException = e;
                 }
+            } else {
+                successHandler.accept(subjects.get(i), result);
             }
         }
+        if (clientUnusableException != null) {
+            checkIfClientStillUsable(clientUnusableException);
+        }
     }
 
     private void checkIfClientStillUsable(FreeIpaClientException e) throws FreeIpaClientException {
@@ -590,4 +756,9 @@ public class UserSyncService {
     private Set<String> union(Collection<String> collection1, Collection<String> collection2) {
         return Stream.concat(collection1.stream(), collection2.stream()).collect(Collectors.toSet());
     }
+
+    @FunctionalInterface
+    private interface BatchOperationFactory<S> {
+        BatchOperation create(S subject) throws FreeIpaClientException;
+    }
 }
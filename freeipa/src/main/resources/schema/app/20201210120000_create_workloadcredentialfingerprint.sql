@@ -0,0 +1,27 @@
+-- // Create workloadcredentialfingerprint table
+-- Migration SQL that makes the change goes here.
+
+CREATE SEQUENCE IF NOT EXISTS workloadcredentialfingerprint_id_seq START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+CREATE TABLE IF NOT EXISTS workloadcredentialfingerprint (
+  id                bigint DEFAULT nextval('workloadcredentialfingerprint_id_seq'::regclass) NOT NULL,
+  stack_id          bigint NOT NULL,
+  username          VARCHAR(255) NOT NULL,
+  fingerprint       VARCHAR(64) NOT NULL,
+
+  CONSTRAINT        pk_workloadcredentialfingerprint_id     PRIMARY KEY (id),
+  CONSTRAINT        fk_workloadcredentialfingerprint_stack  FOREIGN KEY (stack_id) REFERENCES stack(id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_workloadcredentialfingerprint_stack_id_username ON workloadcredentialfingerprint (stack_id, username);
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+DROP INDEX IF EXISTS idx_workloadcredentialfingerprint_stack_id_username;
+DROP TABLE IF EXISTS workloadcredentialfingerprint;
+DROP SEQUENCE IF EXISTS workloadcredentialfingerprint_id_seq;
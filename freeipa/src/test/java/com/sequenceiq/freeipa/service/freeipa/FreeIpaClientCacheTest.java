@@ -0,0 +1,194 @@
+package com.sequenceiq.freeipa.service.freeipa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.freeipa.client.FreeIpaClient;
+import com.sequenceiq.freeipa.client.FreeIpaClientException;
+
+class FreeIpaClientCacheTest {
+
+    private static final Long STACK_ID = 1L;
+
+    private static final String STACK_STATE = "AVAILABLE;ipa1.example.com:CREATED:10.0.0.1";
+
+    private static final String HOSTNAME = "ipa1.example.com";
+
+    private final FreeIpaClientCache underTest = new FreeIpaClientCache();
+
+    private final AtomicInteger logins = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "sessionTtlMinutes", 15L);
+        ReflectionTestUtils.setField(underTest, "maxSize", 100L);
+        ReflectionTestUtils.setField(underTest, "expireAfterAccessMinutes", 60L);
+        underTest.init();
+    }
+
+    @Test
+    void testClientOfTheStackIsReused() throws Exception {
+        FreeIpaClient first = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+        FreeIpaClient second = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+
+        assertSame(first, second);
+        assertEquals(1, logins.get());
+        assertEquals(Optional.of(HOSTNAME), underTest.getLastLoginFqdn(STACK_ID));
+    }
+
+    @Test
+    void testStacksHaveTheirOwnClients() throws Exception {
+        FreeIpaClient client = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+        FreeIpaClient otherClient = underTest.getClient(2L, STACK_STATE, this::login);
+
+        assertNotSame(client, otherClient);
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    void testUnusableClientIsReplaced() throws Exception {
+        FreeIpaClient client = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+        when(client.isUnusable()).thenReturn(true);
+
+        FreeIpaClient newClient = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+
+        assertNotSame(client, newClient);
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    void testInstanceOfTheUnusableClientIsKnownUntilTheNewLoginSucceeds() throws Exception {
+        FreeIpaClient client = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+        when(client.isUnusable()).thenReturn(true);
+        List<Optional<String>> fqdnsAtLogin = new ArrayList<>();
+
+        assertThrows(FreeIpaClientException.class, () -> underTest.getClient(STACK_ID, STACK_STATE, () -> {
+            fqdnsAtLogin.add(underTest.getLastLoginFqdn(STACK_ID));
+            throw new FreeIpaClientException("login failed");
+        }));
+        underTest.getClient(STACK_ID, STACK_STATE, () -> {
+            fqdnsAtLogin.add(underTest.getLastLoginFqdn(STACK_ID));
+            return login();
+        });
+
+        assertEquals(List.of(Optional.of(HOSTNAME), Optional.of(HOSTNAME)), fqdnsAtLogin);
+    }
+
+    @Test
+    void testClientIsReplacedWhenTheStateOfTheStackChanges() throws Exception {
+        FreeIpaClient client = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+
+        FreeIpaClient newClient = underTest.getClient(STACK_ID, "AVAILABLE;ipa1.example.com:CREATED:10.0.0.1,ipa2.example.com:CREATED:10.0.0.2",
+                this::login);
+
+        assertNotSame(client, newClient);
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    void testExpiredClientIsReplaced() throws Exception {
+        ReflectionTestUtils.setField(underTest, "sessionTtlMinutes", 0L);
+
+        FreeIpaClient client = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+        FreeIpaClient newClient = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+
+        assertNotSame(client, newClient);
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    void testInvalidatedClientIsReplaced() throws Exception {
+        FreeIpaClient client = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+
+        underTest.invalidate(STACK_ID);
+
+        assertTrue(underTest.getLastLoginFqdn(STACK_ID).isEmpty());
+        assertNotSame(client, underTest.getClient(STACK_ID, STACK_STATE, this::login));
+    }
+
+    @Test
+    void testFailedLoginIsNotCached() throws Exception {
+        assertThrows(FreeIpaClientException.class, () -> underTest.getClient(STACK_ID, STACK_STATE, () -> {
+            throw new FreeIpaClientException("login failed");
+        }));
+
+        underTest.getClient(STACK_ID, STACK_STATE, this::login);
+
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    void testNewClientIsCreatedOnEveryCallWhenTheCacheIsDisabled() throws Exception {
+        ReflectionTestUtils.setField(underTest, "enabled", false);
+
+        FreeIpaClient client = underTest.getClient(STACK_ID, STACK_STATE, this::login);
+
+        assertNotSame(client, underTest.getClient(STACK_ID, STACK_STATE, this::login));
+        assertEquals(2, logins.get());
+        assertTrue(underTest.getLastLoginFqdn(STACK_ID).isEmpty());
+    }
+
+    @Test
+    void testConcurrentCallersOfTheStackLogInOnce() throws Exception {
+        int callers = 8;
+        CountDownLatch loginStarted = new CountDownLatch(1);
+        CountDownLatch loginReleased = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<FreeIpaClient>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executorService.submit(() -> underTest.getClient(STACK_ID, STACK_STATE, () -> {
+                    loginStarted.countDown();
+                    awaitRelease(loginReleased);
+                    return login();
+                })));
+            }
+            assertTrue(loginStarted.await(10, TimeUnit.SECONDS));
+            loginReleased.countDown();
+
+            FreeIpaClient client = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<FreeIpaClient> future : futures) {
+                assertSame(client, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, logins.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void awaitRelease(CountDownLatch latch) throws FreeIpaClientException {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FreeIpaClientException("Interrupted", e);
+        }
+    }
+
+    private FreeIpaClient login() {
+        logins.incrementAndGet();
+        FreeIpaClient client = mock(FreeIpaClient.class);
+        when(client.getHostname()).thenReturn(HOSTNAME);
+        return client;
+    }
+}
@@ -1,6 +1,9 @@
 package com.sequenceiq.freeipa.service.freeipa;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -10,17 +13,21 @@ import java.util.Set;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.sequenceiq.cloudbreak.client.HttpClientConfig;
 import com.sequenceiq.cloudbreak.service.secret.domain.Secret;
 import com.sequenceiq.freeipa.api.v1.freeipa.stack.model.common.DetailedStackStatus;
 import com.sequenceiq.freeipa.api.v1.freeipa.stack.model.common.Status;
 import com.sequenceiq.freeipa.api.v1.freeipa.stack.model.common.instance.InstanceStatus;
+import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
 import com.sequenceiq.freeipa.client.FreeIpaHostNotAvailableException;
 import com.sequenceiq.freeipa.client.InvalidFreeIpaStateException;
@@ -41,6 +48,10 @@ class FreeIpaClientFactoryTest {
 
     private static final String FREEIPP_FQDN = "test.host";
 
+    private static final Long STACK_ID = 1L;
+
+    private static final String STACK_STATE = "AVAILABLE;test.host:CREATED:127.0.0.1";
+
     @Mock
     private ClusterProxyService clusterProxyService;
 
@@ -56,6 +67,9 @@ class FreeIpaClientFactoryTest {
     @Mock
     private GatewayConfigService gatewayConfigService;
 
+    @Spy
+    private FreeIpaClientCache freeIpaClientCache;
+
     @InjectMocks
     private FreeIpaClientFactory underTest;
 
@@ -68,6 +82,15 @@ class FreeIpaClientFactoryTest {
         metaData.setInstanceStatus(InstanceStatus.CREATED);
     }
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(freeIpaClientCache, "enabled", true);
+        ReflectionTestUtils.setField(freeIpaClientCache, "sessionTtlMinutes", 15L);
+        ReflectionTestUtils.setField(freeIpaClientCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(freeIpaClientCache, "expireAfterAccessMinutes", 60L);
+        freeIpaClientCache.init();
+    }
+
     @Test
     void getFreeIpaClientForStackShouldThrowExceptionWhenStackStatusIsUnreachable() {
         Stack stack = createStack();
@@ -142,8 +165,86 @@ class FreeIpaClientFactoryTest {
         Assertions.assertEquals(FreeIpaHostNotAvailableException.class, exception.getCause().getClass());
     }
 
+    @Test
+    void getFreeIpaClientForStackShouldReturnTheCachedClientOfTheStackState() throws FreeIpaClientException {
+        Stack stack = createAvailableStack();
+        when(stackService.getByIdWithListsInTransaction(STACK_ID)).thenReturn(stack);
+        FreeIpaClient cachedClient = mock(FreeIpaClient.class);
+        freeIpaClientCache.getClient(STACK_ID, STACK_STATE, () -> cachedClient);
+
+        Assertions.assertSame(cachedClient, underTest.getFreeIpaClientForStack(stack));
+
+        verify(tlsSecurityService, never()).buildTLSClientConfig(any(), any(), any());
+    }
+
+    @Test
+    void getFreeIpaClientForStackShouldLogInAgainWhenTheInstancesOfTheStackChanged() throws FreeIpaClientException {
+        Stack stack = createAvailableStack();
+        when(stackService.getByIdWithListsInTransaction(STACK_ID)).thenReturn(stack);
+        when(tlsSecurityService.buildTLSClientConfig(any(), any(), any())).thenThrow(new IllegalStateException("login failed"));
+        freeIpaClientCache.getClient(STACK_ID, "AVAILABLE;test.host:STOPPED:127.0.0.1", () -> mock(FreeIpaClient.class));
+
+        Assertions.assertThrows(FreeIpaClientException.class, () -> underTest.getFreeIpaClientForStack(stack));
+
+        verify(freeIpaClientCache).getClient(eq(STACK_ID), eq(STACK_STATE), any());
+        verify(tlsSecurityService).buildTLSClientConfig(any(), any(), any());
+    }
+
+    @Test
+    void getFreeIpaClientForStackShouldLogInToTheInstanceOfTheLastLoginFirst() throws FreeIpaClientException {
+        InstanceMetaData first = createInstanceMetaData("a.host", "10.0.0.1");
+        InstanceMetaData last = createInstanceMetaData("b.host", "10.0.0.2");
+        Stack stack = createAvailableStack(Set.of(first, last));
+        when(stackService.getByIdWithListsInTransaction(STACK_ID)).thenReturn(stack);
+        when(clusterProxyService.isCreateConfigForClusterProxy(stack)).thenReturn(false);
+        when(tlsSecurityService.buildTLSClientConfig(any(), any(), any())).thenThrow(new IllegalStateException("login failed"));
+        FreeIpaClient unusableClient = mock(FreeIpaClient.class);
+        when(unusableClient.isUnusable()).thenReturn(true);
+        when(unusableClient.getHostname()).thenReturn("b.host");
+        freeIpaClientCache.getClient(STACK_ID, "AVAILABLE;a.host:CREATED:10.0.0.1,b.host:CREATED:10.0.0.2", () -> unusableClient);
+
+        Assertions.assertThrows(FreeIpaClientException.class, () -> underTest.getFreeIpaClientForStack(stack));
+
+        verify(tlsSecurityService).buildTLSClientConfig(stack, "10.0.0.2", last);
+        verify(tlsSecurityService, never()).buildTLSClientConfig(stack, "10.0.0.1", first);
+    }
+
+    @Test
+    void getFreeIpaClientForStackForLegacyHealthCheckShouldNotUseTheCachedClient() throws FreeIpaClientException {
+        Stack stack = createAvailableStack();
+        when(stackService.getByIdWithListsInTransaction(STACK_ID)).thenReturn(stack);
+        when(tlsSecurityService.buildTLSClientConfig(any(), any(), any())).thenThrow(new IllegalStateException("login failed"));
+
+        Assertions.assertThrows(FreeIpaClientException.class, () -> underTest.getFreeIpaClientForStackForLegacyHealthCheck(stack, FREEIPP_FQDN));
+
+        verify(freeIpaClientCache, never()).getClient(any(), any(), any());
+    }
+
+    private Stack createAvailableStack() {
+        return createAvailableStack(METADATAS);
+    }
+
+    private Stack createAvailableStack(Set<InstanceMetaData> instanceMetaDatas) {
+        Stack stack = new Stack();
+        stack.setId(STACK_ID);
+        InstanceGroup group = new InstanceGroup();
+        group.setInstanceMetaData(instanceMetaDatas);
+        stack.setInstanceGroups(Set.of(group));
+        stack.setStackStatus(new StackStatus(stack, Status.AVAILABLE, "The FreeIPA instance is reachable.", DetailedStackStatus.AVAILABLE));
+        return stack;
+    }
+
+    private InstanceMetaData createInstanceMetaData(String fqdn, String privateIp) {
+        InstanceMetaData instanceMetaData = new InstanceMetaData();
+        instanceMetaData.setDiscoveryFQDN(fqdn);
+        instanceMetaData.setPrivateIp(privateIp);
+        instanceMetaData.setInstanceStatus(InstanceStatus.CREATED);
+        return instanceMetaData;
+    }
+
     private Stack createStack() {
         Stack stack = new Stack();
+        stack.setId(STACK_ID);
         Set<InstanceGroup> instanceGroups = new HashSet<>();
         stack.setInstanceGroups(instanceGroups);
         InstanceGroup group = new InstanceGroup();
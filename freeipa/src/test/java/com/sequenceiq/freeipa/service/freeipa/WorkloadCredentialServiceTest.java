@@ -1,36 +1,77 @@
 package com.sequenceiq.freeipa.service.freeipa;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.cloudera.thunderhead.service.usermanagement.UserManagementProto;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
+import com.sequenceiq.freeipa.client.FreeIpaClientException;
+import com.sequenceiq.freeipa.entity.Stack;
+import com.sequenceiq.freeipa.entity.WorkloadCredentialFingerprint;
+import com.sequenceiq.freeipa.metrics.FreeIpaMetricService;
+import com.sequenceiq.freeipa.metrics.MetricType;
+import com.sequenceiq.freeipa.repository.WorkloadCredentialFingerprintRepository;
 import com.sequenceiq.freeipa.service.freeipa.user.kerberos.KrbKeySetEncoder;
 import com.sequenceiq.freeipa.service.freeipa.user.model.WorkloadCredential;
 
+@ExtendWith(MockitoExtension.class)
 class WorkloadCredentialServiceTest {
 
-    private WorkloadCredentialService underTest = new WorkloadCredentialService();
+    private static final Long STACK_ID = 1L;
+
+    @Mock
+    private WorkloadCredentialFingerprintRepository fingerprintRepository;
+
+    @Mock
+    private FreeIpaMetricService freeIpaMetricService;
+
+    @Mock
+    private FreeIpaClient freeIpaClient;
+
+    @Mock
+    private BiConsumer<String, String> warnings;
+
+    @InjectMocks
+    private WorkloadCredentialService underTest;
+
+    private Stack stack;
+
+    @BeforeEach
+    void setUp() {
+        stack = new Stack();
+        stack.setId(STACK_ID);
+    }
 
     @Test
     void setWorkloadCredential() throws Exception {
-        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
         String username = "username";
         WorkloadCredential workloadCredential = new WorkloadCredential("hashedpassword",
                 List.of(),
@@ -52,24 +93,150 @@ class WorkloadCredentialServiceTest {
 
     @Test
     void setWorkloadCredentials() throws Exception {
-        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
         Map<String, WorkloadCredential> workloadCredentialMap = Map.of(
-                "user1", mock(WorkloadCredential.class),
-                "user2", mock(WorkloadCredential.class),
-                "user3", mock(WorkloadCredential.class),
-                "user4", mock(WorkloadCredential.class));
+                "user1", credential("password1", "key1"),
+                "user2", credential("password2", "key2"),
+                "user3", credential("password3", "key3"),
+                "user4", credential("password4", "key4"));
 
-        WorkloadCredentialService spyUnderTest = spy(underTest);
-        doNothing().when(spyUnderTest).setWorkloadCredential(any(FreeIpaClient.class), anyString(), any(WorkloadCredential.class));
-        BiConsumer<String, String> warnings = mock(BiConsumer.class);
+        underTest.setWorkloadCredentials(stack, freeIpaClient, workloadCredentialMap, Set.of(), warnings);
 
-        spyUnderTest.setWorkloadCredentials(freeIpaClient, workloadCredentialMap, warnings);
-
-
-        verify(spyUnderTest).setWorkloadCredentials(freeIpaClient, workloadCredentialMap, warnings);
         for (Map.Entry<String, WorkloadCredential> entry : workloadCredentialMap.entrySet()) {
-            verify(spyUnderTest).setWorkloadCredential(freeIpaClient, entry.getKey(), entry.getValue());
+            verify(freeIpaClient).userSetWorkloadCredentials(eq(entry.getKey()), eq(entry.getValue().getHashedPassword()), anyString(),
+                    eq(entry.getValue().getExpirationDate()), anyList());
         }
-        verifyNoMoreInteractions(spyUnderTest);
+        assertEquals(workloadCredentialMap.keySet(), savedFingerprints().keySet());
+        verify(freeIpaMetricService).recordDistributionSummary(MetricType.USERSYNC_WORKLOAD_CREDENTIALS_PUSHED, 4);
+        verify(freeIpaMetricService).recordDistributionSummary(MetricType.USERSYNC_WORKLOAD_CREDENTIALS_SKIPPED, 0);
+    }
+
+    @Test
+    void setWorkloadCredentialsSkipsUnchangedCredentials() throws Exception {
+        WorkloadCredential unchanged = credential("password1", "key1");
+        WorkloadCredential changed = credential("password2", "key2");
+        List<WorkloadCredentialFingerprint> fingerprints = pushAndCollectFingerprints(Map.of("user1", unchanged, "user2", credential("old", "key2")));
+        when(fingerprintRepository.findByStackId(STACK_ID)).thenReturn(fingerprints);
+
+        underTest.setWorkloadCredentials(stack, freeIpaClient, Map.of("user1", unchanged, "user2", changed, "user3", credential("password3", "key3")),
+                Set.of(), warnings);
+
+        verify(freeIpaClient, never()).userSetWorkloadCredentials(eq("user1"), any(), any(), any(), any());
+        verify(freeIpaClient).userSetWorkloadCredentials(eq("user2"), eq("password2"), anyString(), any(), anyList());
+        verify(freeIpaClient).userSetWorkloadCredentials(eq("user3"), eq("password3"), anyString(), any(), anyList());
+        Map<String, WorkloadCredentialFingerprint> saved = savedFingerprints();
+        assertEquals(Set.of("user2", "user3"), saved.keySet());
+        assertTrue(fingerprints.contains(saved.get("user2")));
+        verify(freeIpaMetricService).recordDistributionSummary(MetricType.USERSYNC_WORKLOAD_CREDENTIALS_PUSHED, 2);
+        verify(freeIpaMetricService).recordDistributionSummary(MetricType.USERSYNC_WORKLOAD_CREDENTIALS_SKIPPED, 1);
+    }
+
+    @Test
+    void setWorkloadCredentialsPushesUnchangedCredentialsOfAddedUsers() throws Exception {
+        WorkloadCredential credential = credential("password1", "key1");
+        when(fingerprintRepository.findByStackId(STACK_ID)).thenReturn(pushAndCollectFingerprints(Map.of("user1", credential)));
+
+        underTest.setWorkloadCredentials(stack, freeIpaClient, Map.of("user1", credential), Set.of("user1"), warnings);
+
+        verify(freeIpaClient).userSetWorkloadCredentials(eq("user1"), eq("password1"), anyString(), any(), anyList());
+    }
+
+    @Test
+    void setWorkloadCredentialsPushesUnchangedCredentialsWhenFullPushIsForced() throws Exception {
+        WorkloadCredential credential = credential("password1", "key1");
+        List<WorkloadCredentialFingerprint> fingerprints = pushAndCollectFingerprints(Map.of("user1", credential));
+        when(fingerprintRepository.findByStackId(STACK_ID)).thenReturn(fingerprints);
+        ReflectionTestUtils.setField(underTest, "forceFullPush", true);
+
+        underTest.setWorkloadCredentials(stack, freeIpaClient, Map.of("user1", credential), Set.of(), warnings);
+
+        verify(freeIpaClient).userSetWorkloadCredentials(eq("user1"), eq("password1"), anyString(), any(), anyList());
+        assertEquals(fingerprints.get(0), savedFingerprints().get("user1"));
+    }
+
+    @Test
+    void setWorkloadCredentialsDoesNotStoreTheFingerprintOfFailedUsers() throws Exception {
+        when(freeIpaClient.userSetWorkloadCredentials(eq("user1"), any(), any(), any(), any())).thenThrow(new FreeIpaClientException("error"));
+
+        underTest.setWorkloadCredentials(stack, freeIpaClient, Map.of("user1", credential("password1", "key1"), "user2", credential("password2", "key2")),
+                Set.of(), warnings);
+
+        verify(warnings).accept(eq("user1"), anyString());
+        assertEquals(Set.of("user2"), savedFingerprints().keySet());
+    }
+
+    @Test
+    void setWorkloadCredentialsChangesTheFingerprintWithEveryCredentialAttribute() throws Exception {
+        Instant expiration = Instant.now();
+        List<WorkloadCredentialFingerprint> fingerprints = pushAndCollectFingerprints(Map.of(
+                "base", new WorkloadCredential("password", List.of(), Optional.of(expiration), sshKeys("key")),
+                "password", new WorkloadCredential("changed", List.of(), Optional.of(expiration), sshKeys("key")),
+                "expiration", new WorkloadCredential("password", List.of(), Optional.empty(), sshKeys("key")),
+                "sshkey", new WorkloadCredential("password", List.of(), Optional.of(expiration), sshKeys("key", "other"))));
+
+        Set<String> distinctFingerprints = fingerprints.stream().map(WorkloadCredentialFingerprint::getFingerprint).collect(Collectors.toSet());
+        assertEquals(4, distinctFingerprints.size());
+    }
+
+    @Test
+    void setWorkloadCredentialsKeepsTheExceptionOfTheClientWhenTheFingerprintsCannotBeSaved() throws Exception {
+        FreeIpaClientException unusableClientException = new FreeIpaClientException("unauthorized", 401);
+        when(freeIpaClient.userSetWorkloadCredentials(eq("user1"), any(), any(), any(), any())).thenThrow(unusableClientException);
+        when(fingerprintRepository.saveAll(anyList())).thenThrow(new IllegalStateException("database error"));
+
+        FreeIpaClientException exception = assertThrows(FreeIpaClientException.class, () -> underTest.setWorkloadCredentials(stack, freeIpaClient,
+                Map.of("user1", credential("password1", "key1")), Set.of(), warnings));
+
+        assertSame(unusableClientException, exception);
+    }
+
+    @Test
+    void invalidateFingerprints() {
+        underTest.invalidateFingerprints(STACK_ID);
+
+        verify(fingerprintRepository).deleteByStackId(STACK_ID);
+    }
+
+    @Test
+    void deleteFingerprintsOfRemovedUsers() {
+        underTest.deleteFingerprints(STACK_ID, Set.of("user1"));
+
+        verify(fingerprintRepository).deleteByStackIdAndUsernames(STACK_ID, Set.of("user1"));
+    }
+
+    @Test
+    void deleteFingerprintsDoesNotCallTheRepositoryWithoutRemovedUsers() {
+        underTest.deleteFingerprints(STACK_ID, Set.of());
+
+        verify(fingerprintRepository, never()).deleteByStackIdAndUsernames(any(), any());
+    }
+
+    private List<WorkloadCredentialFingerprint> pushAndCollectFingerprints(Map<String, WorkloadCredential> workloadCredentials) throws Exception {
+        WorkloadCredentialService service = new WorkloadCredentialService();
+        WorkloadCredentialFingerprintRepository repository = mock(WorkloadCredentialFingerprintRepository.class);
+        ReflectionTestUtils.setField(service, "fingerprintRepository", repository);
+        ReflectionTestUtils.setField(service, "freeIpaMetricService", mock(FreeIpaMetricService.class));
+
+        service.setWorkloadCredentials(stack, mock(FreeIpaClient.class), workloadCredentials, Set.of(), warnings);
+
+        ArgumentCaptor<Iterable<WorkloadCredentialFingerprint>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository).saveAll(captor.capture());
+        return StreamSupport.stream(captor.getValue().spliterator(), false).collect(Collectors.toList());
+    }
+
+    private Map<String, WorkloadCredentialFingerprint> savedFingerprints() {
+        ArgumentCaptor<Iterable<WorkloadCredentialFingerprint>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(fingerprintRepository).saveAll(captor.capture());
+        return StreamSupport.stream(captor.getValue().spliterator(), false)
+                .collect(Collectors.toMap(WorkloadCredentialFingerprint::getUsername, fingerprint -> fingerprint));
+    }
+
+    private WorkloadCredential credential(String hashedPassword, String sshKey) {
+        return new WorkloadCredential(hashedPassword, List.of(), Optional.empty(), sshKeys(sshKey));
+    }
+
+    private List<UserManagementProto.SshPublicKey> sshKeys(String... keys) {
+        return List.of(keys).stream()
+                .map(key -> UserManagementProto.SshPublicKey.newBuilder().setPublicKey(key).build())
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,181 @@
+package com.sequenceiq.freeipa.service.freeipa.user;
+
+import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_PROTECTED_USERS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.HashMultimap;
+import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.sequenceiq.freeipa.client.FreeIpaClient;
+import com.sequenceiq.freeipa.client.ObjectMapperBuilder;
+import com.sequenceiq.freeipa.service.freeipa.user.model.UsersState;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.opentracing.Tracer;
+
+/**
+ * Retrieves the filtered state from a stub FreeIPA JSON-RPC endpoint, which answers the group, user and batch lookups from an in-memory
+ * directory and counts the requests it receives.
+ */
+class FreeIpaUsersStateProviderJsonRpcTest {
+
+    private static final int USER_COUNT = 250;
+
+    private static final int MAX_OPERATIONS_PER_BATCH = 100;
+
+    private static final List<String> GROUPS = List.of("group1", "group2", "ipausers");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, AtomicInteger> requestsByMethod = new ConcurrentHashMap<>();
+
+    private final Map<String, List<String>> directory = new HashMap<>();
+
+    private final FreeIpaUsersStateProvider underTest = new FreeIpaUsersStateProvider();
+
+    private HttpServer server;
+
+    private FreeIpaClient freeIpaClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        IntStream.range(0, USER_COUNT).forEach(i -> directory.put("user" + i, List.of(GROUPS.get(i % 2), "ipausers")));
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ipa/session/json", this::handleRpc);
+        server.start();
+        URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/ipa/session/json");
+        freeIpaClient = new FreeIpaClient(new JsonRpcHttpClient(ObjectMapperBuilder.getObjectMapper(), url, Map.of()), "localhost", "localhost",
+                mock(Tracer.class, RETURNS_DEEP_STUBS));
+        ReflectionTestUtils.setField(underTest, "maxOperationsPerBatch", MAX_OPERATIONS_PER_BATCH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testFilteredStateIsRetrievedInBatches() throws Exception {
+        Set<String> userNames = requestedUserNames();
+
+        ReflectionTestUtils.setField(underTest, "batchEnabled", false);
+        UsersState perUserState = underTest.getFilteredFreeIpaState(freeIpaClient, userNames);
+        Map<String, Integer> perUserRequests = drainRequestCounts();
+
+        ReflectionTestUtils.setField(underTest, "batchEnabled", true);
+        UsersState batchedState = underTest.getFilteredFreeIpaState(freeIpaClient, userNames);
+        Map<String, Integer> batchedRequests = drainRequestCounts();
+
+        int lookedUpUsers = userNames.size() - IPA_PROTECTED_USERS.size();
+        assertEquals(Map.of("group_find", 1, "user_find", lookedUpUsers), perUserRequests);
+        int expectedBatches = (lookedUpUsers + MAX_OPERATIONS_PER_BATCH - 1) / MAX_OPERATIONS_PER_BATCH;
+        assertEquals(Map.of("group_find", 1, "batch", expectedBatches), batchedRequests);
+        assertEquals(USER_COUNT, batchedState.getUsers().size());
+        assertEquals(perUserState.getUsers(), batchedState.getUsers());
+        assertEquals(perUserState.getGroups(), batchedState.getGroups());
+        assertEquals(HashMultimap.create(perUserState.getGroupMembership()), HashMultimap.create(batchedState.getGroupMembership()));
+    }
+
+    private Set<String> requestedUserNames() {
+        Set<String> userNames = new LinkedHashSet<>(directory.keySet());
+        userNames.add("missing");
+        userNames.addAll(IPA_PROTECTED_USERS);
+        return userNames;
+    }
+
+    private Map<String, Integer> drainRequestCounts() {
+        Map<String, Integer> counts = requestsByMethod.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+        requestsByMethod.clear();
+        return counts;
+    }
+
+    private void handleRpc(HttpExchange exchange) throws IOException {
+        JsonNode request;
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            request = objectMapper.readTree(requestBody);
+        }
+        String method = request.get("method").asText();
+        requestsByMethod.computeIfAbsent(method, key -> new AtomicInteger()).incrementAndGet();
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", request.get("id"));
+        response.set("result", result(method, request.get("params")));
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private ObjectNode result(String method, JsonNode params) {
+        switch (method) {
+            case "group_find":
+                ArrayNode groups = objectMapper.createArrayNode();
+                GROUPS.forEach(group -> groups.addObject().putArray("cn").add(group));
+                return findResult(groups);
+            case "user_find":
+                return userFindResult(params.get(1).get("uid").asText());
+            case "batch":
+                ArrayNode results = objectMapper.createArrayNode();
+                params.get(0).forEach(call -> results.add(userFindResult(call.get("params").get(1).get("uid").asText())));
+                ObjectNode batchResult = objectMapper.createObjectNode();
+                batchResult.put("count", results.size());
+                batchResult.set("results", results);
+                return batchResult;
+            default:
+                throw new IllegalArgumentException("Unexpected method " + method);
+        }
+    }
+
+    private ObjectNode userFindResult(String userName) {
+        ArrayNode users = objectMapper.createArrayNode();
+        List<String> groups = directory.get(userName);
+        if (groups != null) {
+            ObjectNode user = users.addObject();
+            user.putArray("uid").add(userName);
+            user.putArray("givenname").add("First " + userName);
+            user.putArray("sn").add("Last " + userName);
+            ArrayNode memberOfGroup = user.putArray("memberof_group");
+            groups.forEach(memberOfGroup::add);
+        }
+        ObjectNode result = findResult(users);
+        result.putNull("error");
+        return result;
+    }
+
+    private ObjectNode findResult(ArrayNode entries) {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.set("result", entries);
+        result.put("count", entries.size());
+        result.put("truncated", false);
+        return result;
+    }
+}
@@ -3,11 +3,22 @@ package com.sequenceiq.freeipa.service.freeipa.user;
 import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_PROTECTED_USERS;
 import static com.sequenceiq.freeipa.client.FreeIpaChecks.IPA_UNMANAGED_GROUPS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -18,8 +29,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.sequenceiq.freeipa.client.FreeIpaClient;
+import com.sequenceiq.freeipa.client.FreeIpaClientException;
+import com.sequenceiq.freeipa.client.model.BatchOperation;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 import com.sequenceiq.freeipa.entity.Stack;
 import com.sequenceiq.freeipa.service.freeipa.FreeIpaClientFactory;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
@@ -108,6 +123,55 @@ class FreeIpaUsersStateProviderTest {
         assertEquals(username, ipaUser.getName());
     }
 
+    @Test
+    void testGetFilteredFreeIpaState() throws Exception {
+        com.sequenceiq.freeipa.client.model.User user1 = createIpaUser("user1", List.of("group1", IPA_UNMANAGED_GROUPS.get(0)));
+        when(freeIpaClient.groupFindAll()).thenReturn(Set.of(createIpaGroup("group1"), createIpaGroup(IPA_UNMANAGED_GROUPS.get(0))));
+        when(freeIpaClient.userFind("user1")).thenReturn(Optional.of(user1));
+        when(freeIpaClient.userFind("missing")).thenReturn(Optional.empty());
+
+        UsersState ipaState = underTest.getFilteredFreeIpaState(freeIpaClient, Set.of("user1", "missing", IPA_PROTECTED_USERS.get(0)));
+
+        assertEquals(Set.of("user1"), ipaState.getUsers().stream().map(FmsUser::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of("group1"), ipaState.getGroups().stream().map(FmsGroup::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of("user1"), Set.copyOf(ipaState.getGroupMembership().get("group1")));
+        verify(freeIpaClient, never()).userFind(IPA_PROTECTED_USERS.get(0));
+    }
+
+    @Test
+    void testGetFilteredFreeIpaStateInBatches() throws Exception {
+        ReflectionTestUtils.setField(underTest, "batchEnabled", true);
+        ReflectionTestUtils.setField(underTest, "maxOperationsPerBatch", 2);
+        when(freeIpaClient.groupFindAll()).thenReturn(Set.of(createIpaGroup("group1"), createIpaGroup("group2")));
+        when(freeIpaClient.userFindOperation(anyString()))
+                .thenAnswer(invocation -> new BatchOperation("user_find", List.of(invocation.getArgument(0)), Map.of()));
+        when(freeIpaClient.callBatch(anyList(), any(Type.class)))
+                .thenAnswer(invocation -> List.of(batchResult(createIpaUser("user1", List.of("group1"))), batchResult()))
+                .thenAnswer(invocation -> List.of(batchResult(createIpaUser("user3", List.of("group1", "group2", IPA_UNMANAGED_GROUPS.get(0))))));
+
+        UsersState ipaState = underTest.getFilteredFreeIpaState(freeIpaClient, new LinkedHashSet<>(List.of("user1", "missing", "user3")));
+
+        verify(freeIpaClient, times(2)).callBatch(anyList(), any(Type.class));
+        verify(freeIpaClient, never()).userFind(anyString());
+        assertEquals(Set.of("user1", "user3"), ipaState.getUsers().stream().map(FmsUser::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of("user1", "user3"), Set.copyOf(ipaState.getGroupMembership().get("group1")));
+        assertEquals(Set.of("user3"), Set.copyOf(ipaState.getGroupMembership().get("group2")));
+        assertFalse(ipaState.getGroupMembership().containsKey(IPA_UNMANAGED_GROUPS.get(0)));
+    }
+
+    @Test
+    void testGetFilteredFreeIpaStateInBatchesThrowsOnFailedLookup() throws Exception {
+        ReflectionTestUtils.setField(underTest, "batchEnabled", true);
+        ReflectionTestUtils.setField(underTest, "maxOperationsPerBatch", 100);
+        BatchResult<List<com.sequenceiq.freeipa.client.model.User>> failedResult = new BatchResult<>();
+        failedResult.setError("lookup failed");
+        when(freeIpaClient.userFindOperation(anyString()))
+                .thenAnswer(invocation -> new BatchOperation("user_find", List.of(invocation.getArgument(0)), Map.of()));
+        when(freeIpaClient.callBatch(anyList(), any(Type.class))).thenAnswer(invocation -> List.of(failedResult));
+
+        assertThrows(FreeIpaClientException.class, () -> underTest.getFilteredFreeIpaState(freeIpaClient, Set.of("user1")));
+    }
+
     @Test
     void testFromIpaUser() {
         com.sequenceiq.freeipa.client.model.User ipaUser = createIpaUser("uid", List.of("group1", "group2"));
@@ -138,6 +202,12 @@ class FreeIpaUsersStateProviderTest {
         return ipaUser;
     }
 
+    private BatchResult<List<com.sequenceiq.freeipa.client.model.User>> batchResult(com.sequenceiq.freeipa.client.model.User... users) {
+        BatchResult<List<com.sequenceiq.freeipa.client.model.User>> result = new BatchResult<>();
+        result.setResult(List.of(users));
+        return result;
+    }
+
     private com.sequenceiq.freeipa.client.model.Group createIpaGroup(String cn) {
         com.sequenceiq.freeipa.client.model.Group ipaGroup = new com.sequenceiq.freeipa.client.model.Group();
         ipaGroup.setCn(cn);
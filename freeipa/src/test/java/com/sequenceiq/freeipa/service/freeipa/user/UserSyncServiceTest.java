@@ -13,19 +13,24 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -40,11 +45,14 @@ import com.sequenceiq.freeipa.api.v1.operation.model.OperationState;
 import com.sequenceiq.freeipa.api.v1.operation.model.OperationType;
 import com.sequenceiq.freeipa.client.FreeIpaClient;
 import com.sequenceiq.freeipa.client.FreeIpaClientException;
+import com.sequenceiq.freeipa.client.model.BatchOperation;
+import com.sequenceiq.freeipa.client.model.BatchResult;
 import com.sequenceiq.freeipa.client.model.Group;
 import com.sequenceiq.freeipa.client.model.RPCResponse;
 import com.sequenceiq.freeipa.entity.Operation;
 import com.sequenceiq.freeipa.entity.Stack;
 import com.sequenceiq.freeipa.entity.UserSyncStatus;
+import com.sequenceiq.freeipa.service.freeipa.WorkloadCredentialService;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsGroup;
 import com.sequenceiq.freeipa.service.freeipa.user.model.FmsUser;
 import com.sequenceiq.freeipa.service.freeipa.user.model.UmsUsersState;
@@ -61,6 +69,14 @@ class UserSyncServiceTest {
 
     private static final int MAX_SUBJECTS_PER_REQUEST = 10;
 
+    private static final int DUPLICATE_ENTRY = 4002;
+
+    private static final int DATABASE_ERROR = 4203;
+
+    private static final int NOT_FOUND = 4001;
+
+    private static final Long STACK_ID = 1L;
+
     @Mock
     StackService stackService;
 
@@ -76,6 +92,9 @@ class UserSyncServiceTest {
     @Mock
     UserSyncRequestValidator userSyncRequestValidator;
 
+    @Mock
+    WorkloadCredentialService workloadCredentialService;
+
     @InjectMocks
     UserSyncService underTest;
 
@@ -235,7 +254,7 @@ class UserSyncServiceTest {
                         .build()
         );
 
-        underTest.applyStateDifferenceToIpa(ENV_CRN, freeIpaClient, usersStateDifference, warnings::put);
+        underTest.applyStateDifferenceToIpa(stack(), freeIpaClient, usersStateDifference, warnings::put);
 
         verify(freeIpaClient).groupAdd(groupToAdd1.getName());
         verify(freeIpaClient).groupAdd(groupToAdd2.getName());
@@ -251,6 +270,7 @@ class UserSyncServiceTest {
 
         verify(freeIpaClient).deleteUser(userToRemove1);
         verify(freeIpaClient).deleteUser(userToRemove2);
+        verify(workloadCredentialService).deleteFingerprints(STACK_ID, Set.of(userToRemove1, userToRemove2));
 
         verify(freeIpaClient).deleteGroup(groupToRemove1.getName());
         verify(freeIpaClient).deleteGroup(groupToRemove2.getName());
@@ -258,6 +278,126 @@ class UserSyncServiceTest {
         verifyNoMoreInteractions(freeIpaClient);
     }
 
+    @Test
+    void testAddUsersInBatchesReportsFailuresPerUser() throws Exception {
+        underTest.batchEnabled = true;
+        underTest.maxOperationsPerBatch = 2;
+        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
+        when(freeIpaClient.userAddOperation(anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> new BatchOperation("user_add", List.of(invocation.getArgument(0)), Map.of()));
+        when(freeIpaClient.callBatch(anyList(), any()))
+                .thenReturn(List.of(successResult(), errorResult(DUPLICATE_ENTRY, "user already exists")))
+                .thenReturn(List.of(errorResult(DATABASE_ERROR, "database error")));
+        Multimap<String, String> warnings = ArrayListMultimap.create();
+        UsersStateDifference usersStateDifference = new UsersStateDifference(ImmutableSet.of(), ImmutableSet.of(),
+                ImmutableSet.of(user("user1"), user("user2"), user("user3")), ImmutableSet.of(), ImmutableMultimap.of(), ImmutableMultimap.of());
+
+        underTest.applyStateDifferenceToIpa(stack(), freeIpaClient, usersStateDifference, warnings::put);
+
+        ArgumentCaptor<List<BatchOperation>> operationsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(freeIpaClient, times(2)).callBatch(operationsCaptor.capture(), eq(com.sequenceiq.freeipa.client.model.User.class));
+        assertEquals(List.of(2, 1), operationsCaptor.getAllValues().stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(Set.of("user3"), warnings.keySet());
+        assertTrue(warnings.get("user3").iterator().next().contains("database error"));
+        verify(freeIpaClient, never()).userAdd(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void testRemoveUsersInBatchesDeletesTheFingerprintsOfTheUsersNotInFreeIpaAnymore() throws Exception {
+        underTest.batchEnabled = true;
+        underTest.maxOperationsPerBatch = 10;
+        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
+        when(freeIpaClient.deleteUserOperation(anyString()))
+                .thenAnswer(invocation -> new BatchOperation("user_del", List.of(invocation.getArgument(0)), Map.of()));
+        when(freeIpaClient.callBatch(anyList(), any()))
+                .thenReturn(List.of(successResult(), errorResult(NOT_FOUND, "user not found"), errorResult(DATABASE_ERROR, "database error")));
+        Multimap<String, String> warnings = ArrayListMultimap.create();
+        UsersStateDifference usersStateDifference = new UsersStateDifference(ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(),
+                ImmutableSet.of("user1", "user2", "user3"), ImmutableMultimap.of(), ImmutableMultimap.of());
+
+        underTest.applyStateDifferenceToIpa(stack(), freeIpaClient, usersStateDifference, warnings::put);
+
+        assertEquals(Set.of("user3"), warnings.keySet());
+        verify(workloadCredentialService).deleteFingerprints(STACK_ID, Set.of("user1", "user2"));
+    }
+
+    @Test
+    void testRemoveGroupsInBatchesReportsRejectedAndFailedBatchPerGroup() throws Exception {
+        underTest.batchEnabled = true;
+        underTest.maxOperationsPerBatch = 10;
+        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
+        when(freeIpaClient.deleteGroupOperation("admins")).thenThrow(new FreeIpaClientException("Group 'admins' is protected"));
+        when(freeIpaClient.deleteGroupOperation("group1")).thenReturn(new BatchOperation("group_del", List.of("group1"), Map.of()));
+        when(freeIpaClient.deleteGroupOperation("group2")).thenReturn(new BatchOperation("group_del", List.of("group2"), Map.of()));
+        when(freeIpaClient.callBatch(anyList(), any())).thenThrow(new FreeIpaClientException("Invoke FreeIPA failed: timeout"));
+        Multimap<String, String> warnings = ArrayListMultimap.create();
+        UsersStateDifference usersStateDifference = new UsersStateDifference(ImmutableSet.of(),
+                ImmutableSet.of(new FmsGroup().withName("admins"), new FmsGroup().withName("group1"), new FmsGroup().withName("group2")),
+                ImmutableSet.of(), ImmutableSet.of(), ImmutableMultimap.of(), ImmutableMultimap.of());
+
+        underTest.applyStateDifferenceToIpa(stack(), freeIpaClient, usersStateDifference, warnings::put);
+
+        assertEquals(Set.of("admins", "group1", "group2"), warnings.keySet());
+        assertTrue(warnings.get("admins").iterator().next().contains("protected"));
+        assertTrue(warnings.get("group1").iterator().next().contains("timeout"));
+        verify(freeIpaClient).callBatch(anyList(), eq(Object.class));
+    }
+
+    @Test
+    void testAddUsersToGroupsInBatchesChecksMembersOfEveryResult() throws Exception {
+        underTest.batchEnabled = true;
+        underTest.maxOperationsPerBatch = 100;
+        Multimap<String, String> groupMapping = setupGroupMapping(2, underTest.maxSubjectsPerRequest * 2);
+        FreeIpaClient freeIpaClient = mock(FreeIpaClient.class);
+        when(freeIpaClient.groupAddMembersOperation(anyString(), anyCollection()))
+                .thenAnswer(invocation -> new BatchOperation("group_add_member", List.of(invocation.getArgument(0)),
+                        Map.of("user", invocation.getArgument(1))));
+        when(freeIpaClient.callBatch(anyList(), eq(Group.class))).thenAnswer(invocation -> {
+            List<BatchOperation> operations = invocation.getArgument(0);
+            return operations.stream()
+                    .map(operation -> {
+                        Group group = new Group();
+                        group.setCn((String) operation.getFlags().get(0));
+                        group.setMemberUser(List.copyOf((Collection<String>) operation.getParams().get("user")));
+                        BatchResult<Group> result = new BatchResult<>();
+                        result.setResult(group);
+                        return result;
+                    })
+                    .collect(Collectors.toList());
+        });
+        Multimap<String, String> warnings = ArrayListMultimap.create();
+
+        underTest.addUsersToGroups(freeIpaClient, groupMapping, warnings::put);
+
+        ArgumentCaptor<List<BatchOperation>> operationsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(freeIpaClient).callBatch(operationsCaptor.capture(), eq(Group.class));
+        assertEquals(4, operationsCaptor.getValue().size());
+        assertTrue(warnings.isEmpty());
+        verify(freeIpaClient, never()).groupAddMembers(anyString(), anyCollection());
+    }
+
+    private Stack stack() {
+        Stack stack = new Stack();
+        stack.setId(STACK_ID);
+        stack.setEnvironmentCrn(ENV_CRN);
+        return stack;
+    }
+
+    private FmsUser user(String name) {
+        return new FmsUser().withName(name).withFirstName("first").withLastName("last");
+    }
+
+    private <T> BatchResult<T> successResult() {
+        return new BatchResult<>();
+    }
+
+    private <T> BatchResult<T> errorResult(int errorCode, String error) {
+        BatchResult<T> result = new BatchResult<>();
+        result.setError(error);
+        result.setErrorCode(errorCode);
+        return result;
+    }
+
     private Multimap<String, String> setupGroupMapping(int numGroups, int numPerGroup) {
         Multimap<String, String> groupMapping = HashMultimap.create();
         for (int i = 0; i < numGroups; ++i) {
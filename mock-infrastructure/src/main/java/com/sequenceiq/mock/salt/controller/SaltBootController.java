@@ -22,6 +22,7 @@ import com.sequenceiq.cloudbreak.orchestrator.model.GenericResponse;
 import com.sequenceiq.cloudbreak.orchestrator.model.GenericResponses;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.FingerprintRequest;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Pillar;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Pillars;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.SaltAction;
 import com.sequenceiq.mock.HostNameUtil;
 import com.sequenceiq.mock.salt.SaltStoreService;
@@ -30,6 +31,8 @@ import com.sequenceiq.mock.salt.SaltStoreService;
 @RequestMapping("/{mock_uuid}/saltboot/")
 public class SaltBootController {
 
+    private static final String SALT_BOOTSTRAP_VERSION = "0.14.0";
+
     @Inject
     private SaltStoreService saltStoreService;
 
@@ -60,11 +63,27 @@ public class SaltBootController {
         return genericResponses;
     }
 
+    @PostMapping(value = "salt/server/pillars/distribute")
+    public GenericResponses saltServerPillarsDistribute(@PathVariable("mock_uuid") String mockUuid, @RequestBody Pillars pillars) {
+        pillars.getPillars().forEach(pillar -> saltStoreService.addPillar(mockUuid, pillar));
+        GenericResponses genericResponses = new GenericResponses();
+        List<GenericResponse> responses = new ArrayList<>();
+        for (String target : pillars.getTargets()) {
+            GenericResponse genericResponse = new GenericResponse();
+            genericResponse.setAddress(target);
+            genericResponse.setStatusCode(HttpStatus.OK.value());
+            responses.add(genericResponse);
+        }
+        genericResponses.setResponses(responses);
+        return genericResponses;
+    }
+
     @GetMapping(value = "health")
     public GenericResponse health(@PathVariable("mock_uuid") String mockUuid) {
         saltStoreService.read(mockUuid);
         GenericResponse genericResponse = new GenericResponse();
         genericResponse.setStatusCode(HttpStatus.OK.value());
+        genericResponse.setVersion(SALT_BOOTSTRAP_VERSION);
         return genericResponse;
     }
 
@@ -44,7 +44,7 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
 
     private final int maxRetryCount;
 
-    private final int sleepTime;
+    private final PollingBackoff pollingBackoff;
 
     private final int maxRetryOnError;
 
@@ -56,13 +56,23 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
     public OrchestratorBootstrapRunner(OrchestratorBootstrap orchestratorBootstrap, ExitCriteria exitCriteria,
             ExitCriteriaModel exitCriteriaModel, Map<String, String> mdcReplica,
             int maxRetryCount, int sleepTime, int maxRetryOnError) {
+        this(orchestratorBootstrap, exitCriteria, exitCriteriaModel, mdcReplica, maxRetryCount, PollingBackoff.fixed(sleepTime), maxRetryOnError);
+    }
+
+    /**
+     * The retry counts are meant with the maximum sleep time of the backoff between the attempts, they are raised to keep the same
+     * total waiting time when the backoff starts with shorter sleeps.
+     */
+    public OrchestratorBootstrapRunner(OrchestratorBootstrap orchestratorBootstrap, ExitCriteria exitCriteria,
+            ExitCriteriaModel exitCriteriaModel, Map<String, String> mdcReplica,
+            int maxRetryCount, PollingBackoff pollingBackoff, int maxRetryOnError) {
         this.orchestratorBootstrap = orchestratorBootstrap;
         mdcMap = mdcReplica;
         this.exitCriteria = exitCriteria;
         this.exitCriteriaModel = exitCriteriaModel;
-        this.maxRetryCount = maxRetryCount;
-        this.sleepTime = sleepTime;
-        this.maxRetryOnError = maxRetryOnError;
+        this.maxRetryCount = pollingBackoff.getAttemptsForSameWaitingTime(maxRetryCount);
+        this.pollingBackoff = pollingBackoff;
+        this.maxRetryOnError = pollingBackoff.getAttemptsForSameWaitingTime(maxRetryOnError);
     }
 
     @Override
@@ -107,7 +117,7 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
                         type, retryCount, maxRetryCount, elapsedTimeLog, actualException, orchestratorBootstrap);
                 retryCount++;
                 if (retryCount <= maxRetryCount) {
-                    trySleeping();
+                    trySleeping(retryCount - 1);
                 } else {
                     success = Boolean.FALSE;
                 }
@@ -119,7 +129,7 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
                 retryCount++;
                 errorCount++;
                 if (belowAttemptThreshold(retryCount, errorCount)) {
-                    trySleeping();
+                    trySleeping(retryCount - 1);
                 } else {
                     success = Boolean.FALSE;
                 }
@@ -144,7 +154,8 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
 
         String cause = null;
         String messageTemplate;
-        long elapsedTimeRounded = Math.max(Math.round((double) retryCount * sleepTime / MS_IN_SEC / SEC_IN_MIN), MINIMUM_DISPLAYED_TIME_IN_MIN);
+        long elapsedTimeRounded = Math.max(Math.round((double) pollingBackoff.getTotalSleepTime(retryCount) / MS_IN_SEC / SEC_IN_MIN),
+                MINIMUM_DISPLAYED_TIME_IN_MIN);
         if (actualException != null) {
             cause = actualException.getMessage();
             messageTemplate = success == null
@@ -172,10 +183,10 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
         return retryCount <= maxRetryCount && errorCount <= maxRetryOnError;
     }
 
-    private void trySleeping() {
+    private void trySleeping(int attempt) {
         if (!Thread.interrupted()) {
             try {
-                Thread.sleep(sleepTime);
+                Thread.sleep(pollingBackoff.getSleepTime(attempt));
             } catch (InterruptedException ie) {
                 LOGGER.debug("The thread was interrupted during sleeping. Sleeping halted, continuing execution.", ie);
             }
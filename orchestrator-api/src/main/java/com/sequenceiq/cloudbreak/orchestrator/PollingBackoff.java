@@ -0,0 +1,86 @@
+package com.sequenceiq.cloudbreak.orchestrator;
+
+/**
+ * Sleep times between the attempts of an {@link OrchestratorBootstrapRunner}. The exponential backoff starts with a short sleep,
+ * so quick jobs are noticed soon after they finish, and doubles it until the maximum sleep time is reached.
+ */
+public class PollingBackoff {
+
+    private static final int MULTIPLIER = 2;
+
+    private final int initialSleepTime;
+
+    private final int maxSleepTime;
+
+    private PollingBackoff(int initialSleepTime, int maxSleepTime) {
+        this.initialSleepTime = Math.max(1, Math.min(initialSleepTime, maxSleepTime));
+        this.maxSleepTime = Math.max(1, maxSleepTime);
+    }
+
+    public static PollingBackoff fixed(int sleepTime) {
+        return new PollingBackoff(sleepTime, sleepTime);
+    }
+
+    public static PollingBackoff exponential(int initialSleepTime, int maxSleepTime) {
+        return new PollingBackoff(initialSleepTime, maxSleepTime);
+    }
+
+    /**
+     * Returns the sleep time after the given failed attempt.
+     *
+     * @param attempt the number of the failed attempt, starting from 1
+     * @return the sleep time in milliseconds
+     */
+    public int getSleepTime(int attempt) {
+        long sleepTime = initialSleepTime;
+        for (int i = 1; i < attempt && sleepTime < maxSleepTime; i++) {
+            sleepTime *= MULTIPLIER;
+        }
+        return (int) Math.min(sleepTime, maxSleepTime);
+    }
+
+    /**
+     * Returns the sum of the sleep times after the given number of failed attempts.
+     *
+     * @param attempts the number of the failed attempts
+     * @return the total sleep time in milliseconds
+     */
+    public long getTotalSleepTime(int attempts) {
+        long totalSleepTime = 0;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            totalSleepTime += getSleepTime(attempt);
+        }
+        return totalSleepTime;
+    }
+
+    /**
+     * Converts an attempt count that was sized for sleeping the maximum sleep time between the attempts into the attempt count that
+     * gives the same total waiting time with this backoff, so the shorter sleeps do not make the polling time out earlier.
+     *
+     * @param maxAttempts the attempt count with the maximum sleep time between the attempts
+     * @return the attempt count with this backoff
+     */
+    public int getAttemptsForSameWaitingTime(int maxAttempts) {
+        if (maxAttempts <= 1) {
+            return maxAttempts;
+        }
+        long waitingTime = (long) (maxAttempts - 1) * maxSleepTime;
+        int attempts = 1;
+        while (getTotalSleepTime(attempts - 1) < waitingTime) {
+            attempts++;
+        }
+        return Math.max(attempts, maxAttempts);
+    }
+
+    public int getMaxSleepTime() {
+        return maxSleepTime;
+    }
+
+    @Override
+    public String toString() {
+        return "PollingBackoff{"
+                + "initialSleepTime=" + initialSleepTime
+                + ", maxSleepTime=" + maxSleepTime
+                + '}';
+    }
+}
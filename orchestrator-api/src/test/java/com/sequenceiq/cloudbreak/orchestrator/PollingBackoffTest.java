@@ -0,0 +1,64 @@
+package com.sequenceiq.cloudbreak.orchestrator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorInProgressException;
+import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorTimeoutException;
+
+public class PollingBackoffTest {
+
+    @Test
+    public void testExponentialSleepTimeIsCappedByTheMaximum() {
+        PollingBackoff underTest = PollingBackoff.exponential(1000, 10000);
+
+        assertEquals(1000, underTest.getSleepTime(1));
+        assertEquals(2000, underTest.getSleepTime(2));
+        assertEquals(4000, underTest.getSleepTime(3));
+        assertEquals(8000, underTest.getSleepTime(4));
+        assertEquals(10000, underTest.getSleepTime(5));
+        assertEquals(10000, underTest.getSleepTime(100));
+    }
+
+    @Test
+    public void testFixedSleepTimeKeepsTheAttempts() {
+        PollingBackoff underTest = PollingBackoff.fixed(10000);
+
+        assertEquals(10000, underTest.getSleepTime(1));
+        assertEquals(180, underTest.getAttemptsForSameWaitingTime(180));
+        assertEquals(1800000L, underTest.getTotalSleepTime(180));
+    }
+
+    @Test
+    public void testExponentialBackoffKeepsTheTotalWaitingTime() {
+        PollingBackoff underTest = PollingBackoff.exponential(1000, 10000);
+
+        int attempts = underTest.getAttemptsForSameWaitingTime(180);
+
+        assertEquals(183, attempts);
+        assertTrue(underTest.getTotalSleepTime(attempts - 1) >= 179 * 10000L);
+        assertEquals(1, underTest.getAttemptsForSameWaitingTime(1));
+        assertEquals(0, underTest.getAttemptsForSameWaitingTime(0));
+    }
+
+    @Test
+    public void testRunnerPollsWithTheBackoffUntilTimeout() throws Exception {
+        int[] calls = {0};
+        OrchestratorBootstrap inProgress = () -> {
+            calls[0]++;
+            throw new CloudbreakOrchestratorInProgressException("running");
+        };
+        OrchestratorBootstrapRunner underTest = new OrchestratorBootstrapRunner(inProgress, null, null, null, 3,
+                PollingBackoff.exponential(1, 4), 3);
+
+        try {
+            underTest.call();
+            fail("Expected CloudbreakOrchestratorTimeoutException");
+        } catch (CloudbreakOrchestratorTimeoutException e) {
+            assertEquals(5, calls[0]);
+        }
+    }
+}
@@ -55,17 +55,20 @@ import com.sequenceiq.cloudbreak.orchestrator.model.SaltPillarProperties;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.Glob;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.HostList;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.IpCidrTarget;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.RoleTarget;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.Target;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.MinionIpAddressesResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.MinionStatusSaltResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.grain.GrainUploader;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.BaseSaltJobRunner;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.MultiPillarSave;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.PillarSave;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltJobIdTracker;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltUpload;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltUploadWithPermission;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.BatchGrainModifyRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.ConcurrentParameterizedStateRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.GrainAddRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.GrainRemoveRunner;
@@ -84,6 +87,7 @@ import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteria;
 import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteriaModel;
 import com.sequenceiq.cloudbreak.service.Retry;
 import com.sequenceiq.cloudbreak.util.CompressUtil;
+import com.sequenceiq.cloudbreak.util.CompressedBundle;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -321,32 +325,26 @@ SaltOrchestrator implements HostOrchestrator {
         Set<String> serverHostname = Sets.newHashSet(primaryGateway.getHostname());
         Set<String> allNodeHostname = allNodes.stream().map(Node::getHostname).collect(Collectors.toSet());
         try (SaltConnector sc = saltService.createSaltConnector(primaryGateway)) {
-            OrchestratorBootstrap hostSave = new PillarSave(sc, gatewayTargetIpAddresses, allNodes);
-            Callable<Boolean> saltPillarRunner = saltRunner.runner(hostSave, exitCriteria, exitModel);
-            saltPillarRunner.call();
+            savePillars(sc, gatewayTargetIpAddresses, allNodes, saltConfig, exitModel);
 
-            for (Entry<String, SaltPillarProperties> propertiesEntry : saltConfig.getServicePillarConfig().entrySet()) {
-                OrchestratorBootstrap pillarSave = new PillarSave(sc, gatewayTargetIpAddresses, propertiesEntry.getValue());
-                saltPillarRunner = saltRunner.runner(pillarSave, exitCriteria, exitModel);
-                saltPillarRunner.call();
-            }
-
-            setAdMemberRoleIfNeeded(allNodes, saltConfig, exitModel, sc, allNodeHostname);
-            setIpaMemberRoleIfNeeded(allNodes, saltConfig, exitModel, sc, allNodeHostname);
+            BatchGrainModifyRunner roles = new BatchGrainModifyRunner(allNodes);
+            setAdMemberRoleIfNeeded(saltConfig, roles, allNodeHostname);
+            setIpaMemberRoleIfNeeded(saltConfig, roles, allNodeHostname);
 
             // knox
             if (primaryGateway.getKnoxGatewayEnabled()) {
-                saltCommandRunner.runModifyGrainCommand(sc, new GrainAddRunner(gatewayTargetHostnames, allNodes, "gateway"), exitModel, exitCriteria);
+                roles.addRole(gatewayTargetHostnames, "gateway");
             }
 
-            setPostgreRoleIfNeeded(allNodes, saltConfig, exitModel, sc, serverHostname);
+            setPostgreRoleIfNeeded(saltConfig, roles, serverHostname);
 
-            addClusterManagerRoles(allNodes, exitModel, sc, serverHostname, allNodeHostname);
+            addClusterManagerRoles(roles, serverHostname, allNodeHostname);
 
             // kerberos
             if (saltConfig.getServicePillarConfig().containsKey("kerberos")) {
-                saltCommandRunner.runModifyGrainCommand(sc, new GrainAddRunner(allNodeHostname, allNodes, "kerberized"), exitModel, exitCriteria);
+                roles.addRole(allNodeHostname, "kerberized");
             }
+            saltCommandRunner.runModifyGrainCommand(sc, roles, exitModel, exitCriteria);
             grainUploader.uploadGrains(allNodes, saltConfig.getGrainsProperties(), exitModel, sc, exitCriteria);
 
             saltCommandRunner.runSaltCommand(sc, new SyncAllRunner(allNodeHostname, allNodes), exitModel, exitCriteria);
@@ -370,15 +368,7 @@ SaltOrchestrator implements HostOrchestrator {
         GatewayConfig primaryGateway = saltService.getPrimaryGatewayConfig(allGateway);
         Set<String> gatewayTargets = getGatewayPrivateIps(allGateway);
         try (SaltConnector sc = saltService.createSaltConnector(primaryGateway)) {
-            OrchestratorBootstrap hostSave = new PillarSave(sc, gatewayTargets, allNodes);
-            Callable<Boolean> saltPillarRunner = saltRunner.runner(hostSave, exitCriteria, exitModel);
-            saltPillarRunner.call();
-
-            for (Entry<String, SaltPillarProperties> propertiesEntry : saltConfig.getServicePillarConfig().entrySet()) {
-                OrchestratorBootstrap pillarSave = new PillarSave(sc, gatewayTargets, propertiesEntry.getValue());
-                saltPillarRunner = saltRunner.runner(pillarSave, exitCriteria, exitModel);
-                saltPillarRunner.call();
-            }
+            savePillars(sc, gatewayTargets, allNodes, saltConfig, exitModel);
         } catch (ExecutionException e) {
             LOGGER.warn("Error occurred during bootstrap", e);
             if (e.getCause() instanceof CloudbreakOrchestratorFailedException) {
@@ -392,23 +382,37 @@ SaltOrchestrator implements HostOrchestrator {
         }
     }
 
-    private void addClusterManagerRoles(Set<Node> allNodes, ExitCriteriaModel exitModel,
-            SaltConnector sc, Set<String> serverHostnames, Set<String> allNodeHostname) throws Exception {
-        saltCommandRunner.runModifyGrainCommand(sc, new GrainAddRunner(allNodeHostname, allNodes, "manager_agent"), exitModel, exitCriteria);
-        saltCommandRunner.runModifyGrainCommand(sc, new GrainAddRunner(serverHostnames, allNodes, "manager_server"), exitModel, exitCriteria);
+    private void savePillars(SaltConnector sc, Set<String> targets, Set<Node> allNodes, SaltConfig saltConfig, ExitCriteriaModel exitModel)
+            throws Exception {
+        List<PillarSave> pillarSaves = new ArrayList<>();
+        pillarSaves.add(new PillarSave(sc, targets, allNodes));
+        for (SaltPillarProperties pillarProperties : saltConfig.getServicePillarConfig().values()) {
+            pillarSaves.add(new PillarSave(sc, targets, pillarProperties));
+        }
+        MultiPillarSave multiPillarSave = new MultiPillarSave(sc, targets, pillarSaves.stream().map(PillarSave::getPillar).collect(Collectors.toList()));
+        saltRunner.runner(multiPillarSave, exitCriteria, exitModel).call();
+        if (!multiPillarSave.isDistributed()) {
+            LOGGER.debug("Saving the {} pillars one by one", pillarSaves.size());
+            for (PillarSave pillarSave : pillarSaves) {
+                saltRunner.runner(pillarSave, exitCriteria, exitModel).call();
+            }
+        }
+    }
+
+    private void addClusterManagerRoles(BatchGrainModifyRunner roles, Set<String> serverHostnames, Set<String> allNodeHostname) {
+        roles.addRole(allNodeHostname, "manager_agent");
+        roles.addRole(serverHostnames, "manager_server");
     }
 
-    private void setAdMemberRoleIfNeeded(Set<Node> allNodes, SaltConfig saltConfig, ExitCriteriaModel exitModel, SaltConnector sc, Set<String> allHostnames)
-            throws Exception {
+    private void setAdMemberRoleIfNeeded(SaltConfig saltConfig, BatchGrainModifyRunner roles, Set<String> allHostnames) {
         if (saltConfig.getServicePillarConfig().containsKey("sssd-ad")) {
-            saltCommandRunner.runModifyGrainCommand(sc, new GrainAddRunner(allHostnames, allNodes, "ad_member"), exitModel, exitCriteria);
+            roles.addRole(allHostnames, "ad_member");
         }
     }
 
-    private void setIpaMemberRoleIfNeeded(Set<Node> allNodes, SaltConfig saltConfig, ExitCriteriaModel exitModel, SaltConnector sc, Set<String> allHostnames)
-            throws Exception {
+    private void setIpaMemberRoleIfNeeded(SaltConfig saltConfig, BatchGrainModifyRunner roles, Set<String> allHostnames) {
         if (saltConfig.getServicePillarConfig().containsKey("sssd-ipa")) {
-            saltCommandRunner.runModifyGrainCommand(sc, new GrainAddRunner(allHostnames, allNodes, "ipa_member"), exitModel, exitCriteria);
+            roles.addRole(allHostnames, "ipa_member");
         }
     }
 
@@ -447,10 +451,9 @@ SaltOrchestrator implements HostOrchestrator {
         }
     }
 
-    private void setPostgreRoleIfNeeded(Set<Node> allNodes, SaltConfig saltConfig, ExitCriteriaModel exitModel, SaltConnector sc, Set<String> serverHostname)
-            throws Exception {
+    private void setPostgreRoleIfNeeded(SaltConfig saltConfig, BatchGrainModifyRunner roles, Set<String> serverHostname) {
         if (saltConfig.getServicePillarConfig().containsKey("postgresql-server")) {
-            saltCommandRunner.runModifyGrainCommand(sc, new GrainAddRunner(serverHostname, allNodes, "postgresql_server"), exitModel, exitCriteria);
+            roles.addRole(serverHostname, "postgresql_server");
         }
     }
 
@@ -787,7 +790,7 @@ SaltOrchestrator implements HostOrchestrator {
 
     @Override
     public byte[] getStateConfigZip() throws IOException {
-        return CompressUtil.generateCompressedOutputFromFolders("salt-common", "salt");
+        return getStateConfigBundle().getContent();
     }
 
     @Override
@@ -1074,10 +1077,35 @@ SaltOrchestrator implements HostOrchestrator {
 
     private void uploadSaltConfig(SaltConnector saltConnector, Set<String> targets, byte[] stateConfigZip, ExitCriteriaModel exitCriteriaModel)
             throws CloudbreakOrchestratorFailedException, IOException {
-        byte[] byteArray;
-        byteArray = stateConfigZip == null || stateConfigZip.length == 0 ? getStateConfigZip() : stateConfigZip;
-        LOGGER.debug("Upload salt.zip to gateways");
-        uploadFileToTargets(saltConnector, targets, exitCriteriaModel, "/srv", "salt.zip", byteArray);
+        CompressedBundle stateBundle = stateConfigZip == null || stateConfigZip.length == 0 ? getStateConfigBundle() : CompressedBundle.of(stateConfigZip);
+        Set<String> outdatedTargets = getTargetsWithoutStateBundle(saltConnector, targets, stateBundle.getDigest());
+        if (outdatedTargets.isEmpty()) {
+            LOGGER.debug("The salt.zip with digest {} is already on the gateways, skipping the upload", stateBundle.getDigest());
+        } else {
+            LOGGER.debug("Upload salt.zip with digest {} to gateways: {}", stateBundle.getDigest(), outdatedTargets);
+            uploadFileToTargets(saltConnector, outdatedTargets, exitCriteriaModel, "/srv", "salt.zip", stateBundle.getContent());
+        }
+    }
+
+    private CompressedBundle getStateConfigBundle() throws IOException {
+        return CompressUtil.getCachedCompressedOutputFromFolders("salt-common", "salt");
+    }
+
+    private Set<String> getTargetsWithoutStateBundle(SaltConnector saltConnector, Set<String> targets, String digest) {
+        Set<String> outdatedTargets = new HashSet<>();
+        for (String target : targets) {
+            try {
+                Optional<String> remoteDigest = SaltStates.getFileHash(saltConnector, new IpCidrTarget(target), "/srv/salt.zip");
+                if (!digest.equals(remoteDigest.orElse(null))) {
+                    outdatedTargets.add(target);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.debug("Unable to get the digest of the salt.zip from {}, probably salt is not running yet, uploading to every gateway: {}",
+                        target, e.getMessage());
+                return targets;
+            }
+        }
+        return outdatedTargets;
     }
 
     private void uploadSignKey(SaltConnector saltConnector, GatewayConfig gateway, Set<String> gatewayTargets,
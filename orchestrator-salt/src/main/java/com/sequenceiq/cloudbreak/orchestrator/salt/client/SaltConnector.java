@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.ws.rs.client.Client;
@@ -49,6 +50,7 @@ import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.Target;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.FingerprintRequest;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.FingerprintsResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Pillar;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Pillars;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.SaltAction;
 import com.sequenceiq.cloudbreak.util.JaxRSUtil;
 
@@ -75,6 +77,11 @@ public class SaltConnector implements Closeable {
 
     private static final int PROXY_TIMEOUT = 90000;
 
+    /**
+     * The first salt-bootstrap version that serves {@link SaltEndpoint#BOOT_PILLARS_DISTRIBUTE}.
+     */
+    private static final String PILLARS_DISTRIBUTE_MIN_VERSION = "0.14.0";
+
     private final Client restClient;
 
     private final WebTarget saltTarget;
@@ -85,6 +92,8 @@ public class SaltConnector implements Closeable {
 
     private final SaltErrorResolver saltErrorResolver;
 
+    private volatile Boolean pillarsDistributeSupported;
+
     public SaltConnector(GatewayConfig gatewayConfig, SaltErrorResolver saltErrorResolver, boolean debug, Tracer tracer) {
         ClientTracingFeature tracingFeature = new ClientTracingFeature.Builder(tracer)
                 .withTraceSerialization(false)
@@ -136,6 +145,52 @@ public class SaltConnector implements Closeable {
         return JaxRSUtil.response(distributeResponse, GenericResponses.class);
     }
 
+    /**
+     * Distributes every pillar to the targets in one request. Returns empty if the salt-bootstrap on the gateway does not
+     * support it yet, the pillars have to be saved one by one in that case. An old salt-bootstrap on a target answers 404 in the
+     * response entry of that target.
+     */
+    @Measure(SaltConnector.class)
+    public Optional<GenericResponses> pillars(Set<String> targets, List<Pillar> pillars) {
+        if (!isPillarsDistributeSupported()) {
+            return Optional.empty();
+        }
+        Pillars request = new Pillars(pillars, targets);
+        Response distributeResponse = saltTarget.path(SaltEndpoint.BOOT_PILLARS_DISTRIBUTE.getContextPath()).request()
+                .header(SIGN_HEADER, PkiUtil.generateSignature(signatureKey, toJson(request).getBytes()))
+                .post(Entity.json(request));
+        if (distributeResponse.getStatus() == HttpStatus.SC_NOT_FOUND) {
+            distributeResponse.close();
+            return Optional.empty();
+        }
+        return Optional.of(JaxRSUtil.response(distributeResponse, GenericResponses.class));
+    }
+
+    /**
+     * Decides by the version in the health response of the salt-bootstrap on the gateway, the answer is kept for the lifetime of the connector.
+     */
+    public boolean isPillarsDistributeSupported() {
+        if (pillarsDistributeSupported == null) {
+            String version = health().getVersion();
+            pillarsDistributeSupported = version != null && isVersionAtLeast(version, PILLARS_DISTRIBUTE_MIN_VERSION);
+            LOGGER.debug("Salt bootstrap version on the gateway is {}, multi pillar distribute is supported: {}", version, pillarsDistributeSupported);
+        }
+        return pillarsDistributeSupported;
+    }
+
+    static boolean isVersionAtLeast(String version, String minVersion) {
+        String[] parts = version.split("-")[0].split("\\.");
+        String[] minParts = minVersion.split("\\.");
+        for (int i = 0; i < minParts.length; i++) {
+            int part = i < parts.length && parts[i].matches("\\d+") ? Integer.parseInt(parts[i]) : 0;
+            int minPart = Integer.parseInt(minParts[i]);
+            if (part != minPart) {
+                return part > minPart;
+            }
+        }
+        return true;
+    }
+
     @Measure(SaltConnector.class)
     public GenericResponses action(SaltAction saltAction) {
         Response response = saltTarget.path(SaltEndpoint.BOOT_ACTION_DISTRIBUTE.getContextPath()).request()
@@ -5,6 +5,7 @@ public enum SaltEndpoint {
     BOOT_HEALTH("saltboot/health"),
     BOOT_PILLAR_SAVE("saltboot/salt/server/pillar"),
     BOOT_PILLAR_DISTRIBUTE("saltboot/salt/server/pillar/distribute"),
+    BOOT_PILLARS_DISTRIBUTE("saltboot/salt/server/pillars/distribute"),
     BOOT_FILE_UPLOAD("saltboot/file"),
     BOOT_FILE_DISTRIBUTE("saltboot/file/distribute"),
     BOOT_ACTION_DISTRIBUTE("saltboot/salt/action/distribute"),
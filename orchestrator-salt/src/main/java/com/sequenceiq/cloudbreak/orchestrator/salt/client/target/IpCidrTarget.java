@@ -0,0 +1,20 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.client.target;
+
+public class IpCidrTarget implements Target<String> {
+
+    private final String target;
+
+    public IpCidrTarget(String target) {
+        this.target = target;
+    }
+
+    @Override
+    public String getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getType() {
+        return "ipcidr";
+    }
+}
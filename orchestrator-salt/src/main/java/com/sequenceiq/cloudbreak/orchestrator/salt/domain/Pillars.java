@@ -0,0 +1,35 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.domain;
+
+import java.util.List;
+import java.util.Set;
+
+public class Pillars {
+
+    private List<Pillar> pillars;
+
+    private Set<String> targets;
+
+    public Pillars() {
+    }
+
+    public Pillars(List<Pillar> pillars, Set<String> targets) {
+        this.pillars = pillars;
+        this.targets = targets;
+    }
+
+    public List<Pillar> getPillars() {
+        return pillars;
+    }
+
+    public void setPillars(List<Pillar> pillars) {
+        this.pillars = pillars;
+    }
+
+    public Set<String> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(Set<String> targets) {
+        this.targets = targets;
+    }
+}
@@ -0,0 +1,84 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.poller;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrap;
+import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorFailedException;
+import com.sequenceiq.cloudbreak.orchestrator.model.GenericResponse;
+import com.sequenceiq.cloudbreak.orchestrator.model.GenericResponses;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Pillar;
+
+public class MultiPillarSave implements OrchestratorBootstrap {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiPillarSave.class);
+
+    private final SaltConnector sc;
+
+    private final List<Pillar> pillars;
+
+    private Set<String> targets;
+
+    private final Set<String> originalTargets;
+
+    private boolean distributed;
+
+    public MultiPillarSave(SaltConnector sc, Set<String> targets, List<Pillar> pillars) {
+        this.sc = sc;
+        this.pillars = pillars;
+        this.targets = targets;
+        originalTargets = targets;
+    }
+
+    @Override
+    public Boolean call() throws Exception {
+        LOGGER.debug("Distribute {} pillar configs in one request to: {}", pillars.size(), targets);
+        if (!targets.isEmpty()) {
+            Optional<GenericResponses> responses = sc.pillars(targets, pillars);
+            if (responses.isEmpty() || isUnsupportedOnAnyTarget(responses.get())) {
+                LOGGER.info("Salt bootstrap does not support distributing multiple pillars in one request");
+                return true;
+            }
+
+            Set<String> failedTargets = new HashSet<>();
+            LOGGER.debug("Salt multi pillar save responses: {}", responses.get());
+            for (GenericResponse genericResponse : responses.get().getResponses()) {
+                if (genericResponse.getStatusCode() != HttpStatus.OK.value()) {
+                    LOGGER.info("Failed multi pillar save attempt to: {}, error: {}", genericResponse.getAddress(), genericResponse.getErrorText());
+                    String address = genericResponse.getAddress().split(":")[0];
+                    failedTargets.addAll(originalTargets.stream().filter(a -> a.equals(address)).collect(Collectors.toList()));
+                }
+            }
+            targets = failedTargets;
+
+            if (!targets.isEmpty()) {
+                LOGGER.info("Missing nodes for multi pillar save: {}", targets);
+                throw new CloudbreakOrchestratorFailedException("There are missing nodes for multi pillar save: " + targets);
+            }
+        }
+
+        distributed = true;
+        LOGGER.debug("Multi pillar save has been completed on nodes: {}", originalTargets);
+        return true;
+    }
+
+    /**
+     * A gateway with a new salt-bootstrap forwards the request to targets that may still run an old one, these answer 404 in their
+     * own response entry.
+     */
+    private boolean isUnsupportedOnAnyTarget(GenericResponses responses) {
+        return responses.getResponses().stream().anyMatch(response -> response.getStatusCode() == HttpStatus.NOT_FOUND.value());
+    }
+
+    public boolean isDistributed() {
+        return distributed;
+    }
+}
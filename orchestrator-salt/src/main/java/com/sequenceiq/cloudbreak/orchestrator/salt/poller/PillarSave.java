@@ -85,6 +85,10 @@ public class PillarSave implements OrchestratorBootstrap {
         originalTargets = targets;
     }
 
+    public Pillar getPillar() {
+        return pillar;
+    }
+
     private Map<String, Object> discovery(String hostname, String publicAddress,
             String instanceId, String instanceType) {
         Map<String, Object> map = new HashMap<>();
@@ -24,6 +24,10 @@ public class SaltCommandTracker implements OrchestratorBootstrap {
         return true;
     }
 
+    public SaltJobRunner getSaltJobRunner() {
+        return saltJobRunner;
+    }
+
     @Override
     public String toString() {
         return "SaltCommandTracker{"
@@ -0,0 +1,232 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.sequenceiq.cloudbreak.orchestrator.model.Node;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.HostList;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.Target;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.ApplyResponse;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.BaseSaltJobRunner;
+import com.sequenceiq.cloudbreak.orchestrator.salt.states.SaltStates;
+
+/**
+ * Applies grain value additions and removals, which may differ from node to node, in one salt call and verifies all of them with one
+ * grains query, instead of running a separate salt job for every grain value.
+ */
+public class BatchGrainModifyRunner extends BaseSaltJobRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchGrainModifyRunner.class);
+
+    private static final int RETRY_LIMIT = 5;
+
+    private static final int RETRY_BACKOFF_MILLIS = 5_000;
+
+    private static final String TEMPLATE = "{%%- set grain_modifications = %s %%}\n"
+            + "{%%- for modification in grain_modifications.get(grains['id'], []) %%}\n"
+            + "grain_modification_{{ loop.index }}:\n"
+            + "  grains.{{ 'list_present' if modification.add else 'list_absent' }}:\n"
+            + "    - name: {{ modification.key | yaml_dquote }}\n"
+            + "    - value: {{ modification.value | yaml_dquote }}\n"
+            + "{%%- endfor %%}\n";
+
+    private final SetMultimap<String, GrainModification> modifications = LinkedHashMultimap.create();
+
+    public BatchGrainModifyRunner(Set<Node> allNode) {
+        super(new HashSet<>(), allNode);
+    }
+
+    public BatchGrainModifyRunner addGrain(Set<String> targetHostnames, String key, String value) {
+        return modify(targetHostnames, new GrainModification(key, value, true));
+    }
+
+    public BatchGrainModifyRunner addRole(Set<String> targetHostnames, String role) {
+        return addGrain(targetHostnames, "roles", role);
+    }
+
+    public BatchGrainModifyRunner removeGrain(Set<String> targetHostnames, String key, String value) {
+        return modify(targetHostnames, new GrainModification(key, value, false));
+    }
+
+    public boolean isEmpty() {
+        return modifications.isEmpty();
+    }
+
+    @Override
+    public String submit(SaltConnector saltConnector) throws SaltJobFailedException {
+        Target<String> target = new HostList(getTargetHostnames());
+        LOGGER.info("Starting salt batch grain modification process. {}", this);
+        String template = createTemplate();
+        ApplyResponse response = SaltStates.applyTemplate(saltConnector, target, template);
+        Map<String, JsonNode> grains = SaltStates.getGrainItems(saltConnector, target, getKeys());
+        if (isModificationFailed(grains)) {
+            LOGGER.info("Batch grain modification process failed. Starting to retry. {}", this);
+            response = retryModification(saltConnector, target, template, response);
+        }
+        Set<String> missingHostnames = collectMissingHostnames(collectSucceededNodes(response));
+        setTargetHostnames(missingHostnames);
+        return missingHostnames.toString();
+    }
+
+    private BatchGrainModifyRunner modify(Set<String> targetHostnames, GrainModification modification) {
+        for (String targetHostname : targetHostnames) {
+            modifications.put(targetHostname, modification);
+        }
+        getTargetHostnames().addAll(targetHostnames);
+        return this;
+    }
+
+    private ApplyResponse retryModification(SaltConnector saltConnector, Target<String> target, String template, ApplyResponse response)
+            throws SaltJobFailedException {
+        boolean modificationFailed = true;
+        Map<String, JsonNode> grains = new HashMap<>();
+        int retryCounter;
+        for (retryCounter = 0; retryCounter < RETRY_LIMIT && modificationFailed; retryCounter++) {
+            backoff();
+            LOGGER.info("Retry #{} for salt batch grain modification process. {}", retryCounter, this);
+            SaltStates.syncAll(saltConnector);
+            response = SaltStates.applyTemplate(saltConnector, target, template);
+            grains = SaltStates.getGrainItems(saltConnector, target, getKeys());
+            modificationFailed = isModificationFailed(grains);
+        }
+        if (modificationFailed) {
+            LOGGER.info("Salt batch grain modification process failed after {} retries. {}", RETRY_LIMIT, this);
+            throw new SaltJobFailedException("Grain modification was unsuccessful on nodes: " + collectFailedHostnames(grains));
+        }
+        LOGGER.info("Salt batch grain modification process succeeded for retry #{}. {}", retryCounter, this);
+        return response;
+    }
+
+    private String createTemplate() throws SaltJobFailedException {
+        Map<String, List<GrainModification>> modificationsByHost = new LinkedHashMap<>();
+        for (String targetHostname : getTargetHostnames()) {
+            modificationsByHost.put(targetHostname, new ArrayList<>(modifications.get(targetHostname)));
+        }
+        try {
+            return String.format(TEMPLATE, new ObjectMapper().writeValueAsString(modificationsByHost));
+        } catch (JsonProcessingException e) {
+            throw new SaltJobFailedException("Can not create the grain modification template", e);
+        }
+    }
+
+    private Set<String> getKeys() {
+        return getTargetHostnames().stream()
+                .flatMap(hostname -> modifications.get(hostname).stream())
+                .map(GrainModification::getKey)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private boolean isModificationFailed(Map<String, JsonNode> grains) throws SaltJobFailedException {
+        return !collectFailedHostnames(grains).isEmpty();
+    }
+
+    private Set<String> collectFailedHostnames(Map<String, JsonNode> grains) throws SaltJobFailedException {
+        Set<String> failedHostnames = new TreeSet<>();
+        for (Node node : getAllNode()) {
+            String hostname = node.getHostname();
+            if (getTargetHostnames().contains(hostname)) {
+                if (!grains.containsKey(hostname)) {
+                    throw new SaltJobFailedException("Can not find node in grains result. target=" + hostname
+                            + ", modifications=" + modifications.get(hostname));
+                }
+                if (modifications.get(hostname).stream().anyMatch(modification -> !modification.isApplied(grains.get(hostname)))) {
+                    failedHostnames.add(hostname);
+                }
+            }
+        }
+        return failedHostnames;
+    }
+
+    private void backoff() {
+        try {
+            LOGGER.info("Backing off in the batch grain modification process for {}ms. {}", RETRY_BACKOFF_MILLIS, this);
+            Thread.sleep(RETRY_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException("Sleeping was interrupted.", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("BatchGrainModifyRunner{");
+        sb.append(super.toString());
+        sb.append("modifications=").append(modifications);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    static class GrainModification {
+
+        private final String key;
+
+        private final String value;
+
+        private final boolean add;
+
+        GrainModification(String key, String value, boolean add) {
+            this.key = key;
+            this.value = value;
+            this.add = add;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isAdd() {
+            return add;
+        }
+
+        boolean isApplied(JsonNode grains) {
+            JsonNode values = grains == null ? null : grains.get(key);
+            boolean found = values != null && (values.isArray()
+                    ? StreamSupport.stream(values.spliterator(), false).anyMatch(element -> value.equals(element.asText()))
+                    : value.equals(values.asText()));
+            return add == found;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            GrainModification that = (GrainModification) o;
+            return add == that.add && key.equals(that.key) && value.equals(that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, value, add);
+        }
+
+        @Override
+        public String toString() {
+            return (add ? "+" : "-") + key + '=' + value;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.BaseSaltJobRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltCommandTracker;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.BatchGrainModifyRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.ModifyGrainBase;
 import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteria;
 import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteriaModel;
@@ -43,6 +44,18 @@ public class SaltCommandRunner {
 
     public void runModifyGrainCommand(SaltConnector sc, ModifyGrainBase modifyGrainRunner, ExitCriteriaModel exitCriteriaModel,
             ExitCriteria exitCriteria) throws Exception {
+        runModifyGrainTracker(sc, modifyGrainRunner, exitCriteriaModel, exitCriteria);
+    }
+
+    public void runModifyGrainCommand(SaltConnector sc, BatchGrainModifyRunner batchGrainModifyRunner, ExitCriteriaModel exitCriteriaModel,
+            ExitCriteria exitCriteria) throws Exception {
+        if (!batchGrainModifyRunner.isEmpty()) {
+            runModifyGrainTracker(sc, batchGrainModifyRunner, exitCriteriaModel, exitCriteria);
+        }
+    }
+
+    private void runModifyGrainTracker(SaltConnector sc, BaseSaltJobRunner modifyGrainRunner, ExitCriteriaModel exitCriteriaModel,
+            ExitCriteria exitCriteria) throws Exception {
         OrchestratorBootstrap saltCommandTracker = new SaltCommandTracker(sc, modifyGrainRunner);
         Callable<Boolean> saltCommandRunBootstrapRunner = saltRunner.runner(saltCommandTracker, exitCriteria,
                 exitCriteriaModel, modifyGrainMaxRetry, modifyGrainMaxErrorRetry);
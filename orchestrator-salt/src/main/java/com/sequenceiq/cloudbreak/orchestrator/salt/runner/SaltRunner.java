@@ -1,21 +1,31 @@
 package com.sequenceiq.cloudbreak.orchestrator.salt.runner;
 
+import java.time.Duration;
 import java.util.concurrent.Callable;
 
+import javax.inject.Inject;
+
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
 import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrapRunner;
+import com.sequenceiq.cloudbreak.orchestrator.PollingBackoff;
 import com.sequenceiq.cloudbreak.orchestrator.host.OrchestratorStateRetryParams;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltCommandTracker;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltJobIdTracker;
 import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteria;
 import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteriaModel;
 
 @Component
 public class SaltRunner {
 
-    private static final int SLEEP_TIME = 10000;
+    private static final String JOB_TYPE_TAG = "jobtype";
+
+    private static final String RESULT_TAG = "result";
 
     @Value("${cb.max.salt.new.service.retry.onerror}")
     private int maxRetryOnError;
@@ -23,10 +33,18 @@ public class SaltRunner {
     @Value("${cb.max.salt.new.service.retry}")
     private int maxRetry;
 
+    @Value("${cb.salt.polling.initial.sleep.ms:1000}")
+    private int initialSleepTime;
+
+    @Value("${cb.salt.polling.max.sleep.ms:10000}")
+    private int maxSleepTime;
+
+    @Inject
+    private MetricService metricService;
+
     public Callable<Boolean> runner(OrchestratorBootstrap bootstrap, ExitCriteria exitCriteria, ExitCriteriaModel exitCriteriaModel, int maxRetry,
             boolean usingErrorCount) {
-        return new OrchestratorBootstrapRunner(bootstrap, exitCriteria, exitCriteriaModel, MDC.getCopyOfContextMap(), maxRetry, SLEEP_TIME,
-                usingErrorCount ? maxRetryOnError : maxRetry);
+        return runner(bootstrap, exitCriteria, exitCriteriaModel, maxRetry, usingErrorCount ? maxRetryOnError : maxRetry);
     }
 
     public Callable<Boolean> runner(OrchestratorBootstrap bootstrap, ExitCriteria exitCriteria, ExitCriteriaModel exitCriteriaModel) {
@@ -35,8 +53,21 @@ public class SaltRunner {
 
     public Callable<Boolean> runner(OrchestratorBootstrap bootstrap, ExitCriteria exitCriteria, ExitCriteriaModel exitCriteriaModel, int maxRetry,
             int maxRetryOnError) {
-        return new OrchestratorBootstrapRunner(bootstrap, exitCriteria, exitCriteriaModel, MDC.getCopyOfContextMap(), maxRetry, SLEEP_TIME,
-                maxRetryOnError);
+        Callable<Boolean> runner = new OrchestratorBootstrapRunner(bootstrap, exitCriteria, exitCriteriaModel, MDC.getCopyOfContextMap(), maxRetry,
+                PollingBackoff.exponential(initialSleepTime, maxSleepTime), maxRetryOnError);
+        String jobType = getJobType(bootstrap);
+        return () -> {
+            long start = System.currentTimeMillis();
+            boolean success = false;
+            try {
+                Boolean result = runner.call();
+                success = true;
+                return result;
+            } finally {
+                metricService.recordTimerMetric(MetricType.SALT_JOB_WAIT, Duration.ofMillis(System.currentTimeMillis() - start),
+                        JOB_TYPE_TAG, jobType, RESULT_TAG, success ? "success" : "failure");
+            }
+        };
     }
 
     public Callable<Boolean> runnerWithUsingErrorCount(OrchestratorBootstrap bootstrap, ExitCriteria exitCriteria, ExitCriteriaModel exitCriteriaModel) {
@@ -48,4 +79,14 @@ public class SaltRunner {
         return runner(bootstrap, exitCriteria, exitCriteriaModel, orchestratorStateRetryParams.getMaxRetry(),
                 orchestratorStateRetryParams.getMaxRetryOnError());
     }
+
+    private String getJobType(OrchestratorBootstrap bootstrap) {
+        Object job = bootstrap;
+        if (bootstrap instanceof SaltJobIdTracker) {
+            job = ((SaltJobIdTracker) bootstrap).getSaltJobRunner();
+        } else if (bootstrap instanceof SaltCommandTracker) {
+            job = ((SaltCommandTracker) bootstrap).getSaltJobRunner();
+        }
+        return job.getClass().getSimpleName();
+    }
 }
@@ -4,6 +4,7 @@ import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.
 import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.LOCAL_ASYNC;
 import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.RUNNER;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -79,6 +80,10 @@ public class SaltStates {
         return sc.run(target, "grains.remove", LOCAL, ApplyResponse.class, key, value);
     }
 
+    public static ApplyResponse applyTemplate(SaltConnector sc, Target<String> target, String template) {
+        return sc.run(target, "state.template_str", LOCAL, ApplyResponse.class, template);
+    }
+
     public static ApplyResponse syncAll(SaltConnector sc) {
         return sc.run(Glob.ALL, "saltutil.sync_all", LOCAL, ApplyResponse.class);
     }
@@ -269,6 +274,12 @@ public class SaltStates {
         });
     }
 
+    public static Optional<String> getFileHash(SaltConnector sc, Target<String> target, String path) {
+        CommandExecutionResponse resp = sc.run(target, "file.get_hash", LOCAL, CommandExecutionResponse.class, path, "sha256");
+        List<Map<String, String>> result = resp.getResult();
+        return CollectionUtils.isEmpty(result) ? Optional.empty() : result.get(0).values().stream().findFirst();
+    }
+
     public static Map<String, JsonNode> getGrains(SaltConnector sc, String grain) {
         return getGrains(sc, Glob.ALL, grain);
     }
@@ -279,6 +290,12 @@ public class SaltStates {
         return result.iterator().hasNext() ? result.iterator().next() : new HashMap<>();
     }
 
+    public static Map<String, JsonNode> getGrainItems(SaltConnector sc, Target<String> target, Collection<String> grains) {
+        ApplyResponse resp = sc.run(target, "grains.item", LOCAL, ApplyResponse.class, grains.toArray(new String[0]));
+        Iterable<Map<String, JsonNode>> result = resp.getResult();
+        return result.iterator().hasNext() ? result.iterator().next() : new HashMap<>();
+    }
+
     public static ApplyResponse applyState(SaltConnector sc, String service, Target<String> target) {
         return sc.run(target, "state.apply", LOCAL_ASYNC, ApplyResponse.class, service);
     }
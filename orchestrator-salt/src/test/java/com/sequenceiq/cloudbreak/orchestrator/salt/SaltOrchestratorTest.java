@@ -15,6 +15,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +31,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
@@ -58,6 +60,7 @@ import com.sequenceiq.cloudbreak.orchestrator.model.Node;
 import com.sequenceiq.cloudbreak.orchestrator.model.SaltConfig;
 import com.sequenceiq.cloudbreak.orchestrator.model.SaltPillarProperties;
 import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.target.IpCidrTarget;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.MinionStatus;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.MinionStatusSaltResponse;
 import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Pillar;
@@ -67,10 +70,10 @@ import com.sequenceiq.cloudbreak.orchestrator.salt.poller.PillarSave;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltCommandTracker;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltJobIdTracker;
-import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.GrainAddRunner;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltUpload;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.BatchGrainModifyRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.HighStateAllRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.MineUpdateRunner;
-import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.ModifyGrainBase;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.SyncAllRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.runner.SaltCommandRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.runner.SaltRunner;
@@ -78,6 +81,7 @@ import com.sequenceiq.cloudbreak.orchestrator.salt.states.SaltStates;
 import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteria;
 import com.sequenceiq.cloudbreak.orchestrator.state.ExitCriteriaModel;
 import com.sequenceiq.cloudbreak.service.Retry;
+import com.sequenceiq.cloudbreak.util.CompressUtil;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({SaltOrchestrator.class, SaltStates.class})
@@ -153,6 +157,21 @@ public class SaltOrchestratorTest {
                 eq(bootstrapParams));
     }
 
+    @Test
+    public void bootstrapSkipsSaltZipUploadWhenGatewayHasTheSameDigest() throws Exception {
+        whenNew(SaltBootstrap.class).withAnyArguments().thenReturn(mock(SaltBootstrap.class));
+        whenNew(SaltUpload.class).withAnyArguments().thenReturn(mock(SaltUpload.class));
+        mockStatic(SaltStates.class);
+        String digest = CompressUtil.getCachedCompressedOutputFromFolders("salt-common", "salt").getDigest();
+        when(SaltStates.getFileHash(eq(saltConnector), any(IpCidrTarget.class), eq("/srv/salt.zip"))).thenReturn(Optional.of(digest));
+
+        saltOrchestrator.bootstrap(Collections.singletonList(gatewayConfig), targets, mock(BootstrapParams.class), exitCriteriaModel);
+
+        verifyNew(SaltUpload.class, never()).withArguments(eq(saltConnector), anySet(), eq("/srv"), eq("salt.zip"), any(byte[].class));
+        verifyNew(SaltUpload.class).withArguments(eq(saltConnector), anySet(), eq("/etc/salt/pki/master"), eq("master_sign.pem"), any(byte[].class));
+        verifyNew(SaltUpload.class).withArguments(eq(saltConnector), anySet(), eq("/etc/salt/pki/minion"), eq("master_sign.pub"), any(byte[].class));
+    }
+
     @Test
     public void bootstrapNewNodesTest() throws Exception {
         whenNew(SaltBootstrap.class).withAnyArguments().thenReturn(mock(SaltBootstrap.class));
@@ -177,12 +196,6 @@ public class SaltOrchestratorTest {
         PillarSave pillarSave = mock(PillarSave.class);
         whenNew(PillarSave.class).withAnyArguments().thenReturn(pillarSave);
 
-        GrainAddRunner addRemoveGrainRunner = mock(GrainAddRunner.class);
-        whenNew(GrainAddRunner.class).withAnyArguments().thenReturn(addRemoveGrainRunner);
-
-        SaltCommandTracker roleCheckerSaltCommandTracker = mock(SaltCommandTracker.class);
-        whenNew(SaltCommandTracker.class).withArguments(eq(saltConnector), eq(addRemoveGrainRunner)).thenReturn(roleCheckerSaltCommandTracker);
-
         SyncAllRunner syncAllRunner = mock(SyncAllRunner.class);
         whenNew(SyncAllRunner.class).withAnyArguments().thenReturn(syncAllRunner);
 
@@ -219,8 +232,10 @@ public class SaltOrchestratorTest {
         verifyNew(SaltJobIdTracker.class, atLeastOnce()).withArguments(eq(saltConnector), eq(highStateAllRunner), eq(true));
         verify(saltCommandRunner, times(2)).runSaltCommand(any(SaltConnector.class), any(BaseSaltJobRunner.class),
                 any(ExitCriteriaModel.class), any(ExitCriteria.class));
-        verify(saltCommandRunner, times(2)).runModifyGrainCommand(any(SaltConnector.class), any(ModifyGrainBase.class),
+        ArgumentCaptor<BatchGrainModifyRunner> rolesCaptor = ArgumentCaptor.forClass(BatchGrainModifyRunner.class);
+        verify(saltCommandRunner, times(1)).runModifyGrainCommand(any(SaltConnector.class), rolesCaptor.capture(),
                 any(ExitCriteriaModel.class), any(ExitCriteria.class));
+        assertTrue(rolesCaptor.getValue().getTargetHostnames().containsAll(allNodes));
         verify(grainUploader, times(1)).uploadGrains(anySet(), anyList(), any(ExitCriteriaModel.class), any(SaltConnector.class),
                 any(ExitCriteria.class));
     }
@@ -0,0 +1,19 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.client;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SaltConnectorTest {
+
+    @Test
+    void testVersionAtLeast() {
+        assertTrue(SaltConnector.isVersionAtLeast("0.14.0", "0.14.0"));
+        assertTrue(SaltConnector.isVersionAtLeast("0.14.1-2020-09-01T10:00:00", "0.14.0"));
+        assertTrue(SaltConnector.isVersionAtLeast("1.0", "0.14.0"));
+        assertFalse(SaltConnector.isVersionAtLeast("0.13.2", "0.14.0"));
+        assertFalse(SaltConnector.isVersionAtLeast("0.9.20", "0.14.0"));
+        assertFalse(SaltConnector.isVersionAtLeast("snapshot", "0.14.0"));
+    }
+}
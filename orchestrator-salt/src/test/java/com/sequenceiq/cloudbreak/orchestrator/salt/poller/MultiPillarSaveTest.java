@@ -0,0 +1,102 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.poller;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+import com.google.common.collect.Sets;
+import com.sequenceiq.cloudbreak.orchestrator.exception.CloudbreakOrchestratorFailedException;
+import com.sequenceiq.cloudbreak.orchestrator.model.GenericResponse;
+import com.sequenceiq.cloudbreak.orchestrator.model.GenericResponses;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.Pillar;
+
+public class MultiPillarSaveTest {
+
+    private final SaltConnector saltConnector = mock(SaltConnector.class);
+
+    private final Set<String> targets = Sets.newHashSet("10.0.0.1", "10.0.0.2");
+
+    private List<Pillar> pillars;
+
+    @Before
+    public void setUp() {
+        pillars = List.of(new Pillar("/nodes/hosts.sls", Map.of(), targets), new Pillar("/kerberos/init.sls", Map.of(), targets));
+    }
+
+    @Test
+    public void testEveryPillarIsDistributedInOneRequest() throws Exception {
+        when(saltConnector.pillars(any(), any())).thenReturn(Optional.of(responses(HttpStatus.OK, HttpStatus.OK)));
+        MultiPillarSave multiPillarSave = new MultiPillarSave(saltConnector, targets, pillars);
+
+        multiPillarSave.call();
+
+        verify(saltConnector).pillars(targets, pillars);
+        Assert.assertTrue(multiPillarSave.isDistributed());
+    }
+
+    @Test
+    public void testNotDistributedWhenSaltBootstrapDoesNotSupportIt() throws Exception {
+        when(saltConnector.pillars(any(), any())).thenReturn(Optional.empty());
+        MultiPillarSave multiPillarSave = new MultiPillarSave(saltConnector, targets, pillars);
+
+        Assert.assertTrue(multiPillarSave.call());
+
+        Assert.assertFalse(multiPillarSave.isDistributed());
+    }
+
+    @Test
+    public void testNotDistributedWhenSaltBootstrapOfATargetDoesNotSupportIt() throws Exception {
+        when(saltConnector.pillars(any(), any())).thenReturn(Optional.of(responses(HttpStatus.OK, HttpStatus.NOT_FOUND)));
+        MultiPillarSave multiPillarSave = new MultiPillarSave(saltConnector, targets, pillars);
+
+        Assert.assertTrue(multiPillarSave.call());
+
+        verify(saltConnector).pillars(targets, pillars);
+        Assert.assertFalse(multiPillarSave.isDistributed());
+    }
+
+    @Test
+    public void testFailedTargetsAreRetried() throws Exception {
+        when(saltConnector.pillars(any(), any()))
+                .thenReturn(Optional.of(responses(HttpStatus.OK, HttpStatus.INTERNAL_SERVER_ERROR)))
+                .thenReturn(Optional.of(responses(HttpStatus.OK)));
+        MultiPillarSave multiPillarSave = new MultiPillarSave(saltConnector, targets, pillars);
+
+        try {
+            multiPillarSave.call();
+            Assert.fail("Expected CloudbreakOrchestratorFailedException");
+        } catch (CloudbreakOrchestratorFailedException e) {
+            Assert.assertFalse(multiPillarSave.isDistributed());
+        }
+        multiPillarSave.call();
+
+        verify(saltConnector).pillars(Set.of("10.0.0.2"), pillars);
+        Assert.assertTrue(multiPillarSave.isDistributed());
+    }
+
+    private GenericResponses responses(HttpStatus... statuses) {
+        GenericResponses responses = new GenericResponses();
+        List<GenericResponse> responseList = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            GenericResponse response = new GenericResponse();
+            response.setStatusCode(statuses[i].value());
+            response.setAddress("10.0.0." + (i + 1) + ":7070");
+            responseList.add(response);
+        }
+        responses.setResponses(responseList);
+        return responses;
+    }
+}
@@ -0,0 +1,105 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker;
+
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sequenceiq.cloudbreak.orchestrator.model.Node;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.domain.ApplyResponse;
+import com.sequenceiq.cloudbreak.orchestrator.salt.states.SaltStates;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(SaltStates.class)
+public class BatchGrainModifyRunnerTest {
+
+    private static final String SERVER = "10-0-0-1.example.com";
+
+    private static final String AGENT = "10-0-0-2.example.com";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SaltConnector saltConnector = Mockito.mock(SaltConnector.class);
+
+    private Set<Node> allNode;
+
+    @Before
+    public void setUp() {
+        allNode = new HashSet<>();
+        allNode.add(new Node("10.0.0.1", "5.5.5.1", "i-1234", "m5.xlarge", SERVER, "hg"));
+        allNode.add(new Node("10.0.0.2", "5.5.5.2", "i-1234", "m5.xlarge", AGENT, "hg"));
+        PowerMockito.mockStatic(SaltStates.class);
+    }
+
+    @Test
+    public void testEveryModificationIsAppliedAndVerifiedInOneCall() throws SaltJobFailedException {
+        Map<String, JsonNode> grains = new HashMap<>();
+        grains.put(SERVER, objectMapper.valueToTree(Map.of("roles", List.of("manager_agent", "manager_server"))));
+        grains.put(AGENT, objectMapper.valueToTree(Map.of("roles", List.of("manager_agent"))));
+        PowerMockito.when(SaltStates.applyTemplate(any(), any(), anyString())).thenReturn(applyResponse(grains));
+        PowerMockito.when(SaltStates.getGrainItems(any(), any(), any())).thenReturn(grains);
+
+        BatchGrainModifyRunner underTest = new BatchGrainModifyRunner(allNode)
+                .addRole(Set.of(SERVER, AGENT), "manager_agent")
+                .addRole(Set.of(SERVER), "manager_server")
+                .removeGrain(Set.of(AGENT), "roles", "manager_upgrade");
+        String missingHostnames = underTest.submit(saltConnector);
+
+        assertEquals("[]", missingHostnames);
+        assertThat(underTest.getTargetHostnames(), empty());
+        ArgumentCaptor<String> templateCaptor = ArgumentCaptor.forClass(String.class);
+        PowerMockito.verifyStatic(SaltStates.class);
+        SaltStates.applyTemplate(any(), any(), templateCaptor.capture());
+        String template = templateCaptor.getValue();
+        assertTrue(template.contains("\"" + SERVER + "\":[{\"key\":\"roles\",\"value\":\"manager_agent\",\"add\":true},"
+                + "{\"key\":\"roles\",\"value\":\"manager_server\",\"add\":true}]"));
+        assertTrue(template.contains("{\"key\":\"roles\",\"value\":\"manager_upgrade\",\"add\":false}"));
+    }
+
+    @Test
+    public void testMissingNodeInGrainsResult() throws SaltJobFailedException {
+        Map<String, JsonNode> grains = new HashMap<>();
+        grains.put(SERVER, objectMapper.valueToTree(Map.of("roles", List.of("manager_server"))));
+        PowerMockito.when(SaltStates.applyTemplate(any(), any(), anyString())).thenReturn(applyResponse(grains));
+        PowerMockito.when(SaltStates.getGrainItems(any(), any(), any())).thenReturn(grains);
+
+        BatchGrainModifyRunner underTest = new BatchGrainModifyRunner(allNode)
+                .addRole(Set.of(SERVER), "manager_server")
+                .addRole(Set.of(AGENT), "manager_agent");
+
+        expectedException.expect(SaltJobFailedException.class);
+        expectedException.expectMessage("Can not find node in grains result. target=" + AGENT + ", modifications=[+roles=manager_agent]");
+        underTest.submit(saltConnector);
+    }
+
+    private ApplyResponse applyResponse(Map<String, JsonNode> nodes) {
+        ApplyResponse applyResponse = new ApplyResponse();
+        applyResponse.setResult(List.of(nodes));
+        return applyResponse;
+    }
+}
@@ -0,0 +1,91 @@
+package com.sequenceiq.cloudbreak.service.secret.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * Caffeine cache that keeps the cached string values encrypted with a key that only lives in this cache instance, so the secret
+ * values read from Vault are not kept in plain text for the lifetime of the cache entries.
+ */
+public class EncryptedCaffeineCache extends CaffeineCache {
+
+    private static final String ALGORITHM = "AES";
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final int KEY_SIZE = 256;
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_LENGTH = 128;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final SecretKey key;
+
+    public EncryptedCaffeineCache(String name, Cache<Object, Object> cache) {
+        super(name, cache);
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance(ALGORITHM);
+            keyGenerator.init(KEY_SIZE, secureRandom);
+            key = keyGenerator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create the key of the encrypted cache " + name, e);
+        }
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        Object storeValue = super.toStoreValue(userValue);
+        return storeValue instanceof String ? encrypt((String) storeValue) : storeValue;
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return super.fromStoreValue(storeValue instanceof EncryptedValue ? decrypt((EncryptedValue) storeValue) : storeValue);
+    }
+
+    private EncryptedValue encrypt(String value) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            return new EncryptedValue(iv, cipher.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot encrypt the value of the cache " + getName(), e);
+        }
+    }
+
+    private String decrypt(EncryptedValue value) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, value.iv));
+            return new String(cipher.doFinal(value.cipherText), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot decrypt the value of the cache " + getName(), e);
+        }
+    }
+
+    private static class EncryptedValue {
+
+        private final byte[] iv;
+
+        private final byte[] cipherText;
+
+        EncryptedValue(byte[] iv, byte[] cipherText) {
+            this.iv = iv;
+            this.cipherText = cipherText;
+        }
+    }
+}
@@ -1,28 +1,41 @@
 package com.sequenceiq.cloudbreak.service.secret.cache;
 
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.stereotype.Service;
 
-import com.sequenceiq.cloudbreak.cache.common.AbstractCacheDefinition;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sequenceiq.cloudbreak.cache.CacheDefinition;
 
+/**
+ * Cache of the secret values read from Vault, keyed by the engine path and the path of the secret. The engines evict the key of a
+ * secret when it is written or deleted, but only in this JVM. The other replicas of the service can serve the old value until
+ * their entry expires, so the entries live only a few seconds. Hit, miss and eviction statistics are recorded and published
+ * through the cache metrics of the application.
+ */
 @Service
-public class VaultCache extends AbstractCacheDefinition {
+public class VaultCache implements CacheDefinition {
 
-    private static final long MAX_ENTRIES = 1000L;
+    public static final String NAME = "vaultCache";
 
-    private static final long TTL_IN_SECONDS = 5L;
+    @Value("${vault.cache.max.entries:1000}")
+    private long maxEntries;
 
-    @Override
-    protected String getName() {
-        return "vaultCache";
-    }
+    @Value("${vault.cache.ttl.seconds:5}")
+    private long timeToLiveSeconds;
 
-    @Override
-    protected long getMaxEntries() {
-        return MAX_ENTRIES;
-    }
+    @Value("${vault.cache.encrypted:false}")
+    private boolean encrypted;
 
     @Override
-    protected long getTimeToLiveSeconds() {
-        return TTL_IN_SECONDS;
+    public Cache cacheConfiguration() {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .recordStats()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS);
+        return encrypted ? new EncryptedCaffeineCache(NAME, builder.build()) : new CaffeineCache(NAME, builder.build());
     }
 }
@@ -1,18 +1,41 @@
 package com.sequenceiq.cloudbreak.service.secret.service;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+import com.sequenceiq.cloudbreak.logger.concurrent.MDCCleanerThreadPoolExecutor;
 import com.sequenceiq.cloudbreak.service.secret.SecretOperationException;
 import com.sequenceiq.cloudbreak.service.secret.SecretValue;
 import com.sequenceiq.cloudbreak.service.secret.domain.AccountIdAwareResource;
@@ -24,41 +47,51 @@ public class SecretAspectService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SecretAspectService.class);
 
-    private SecretService secretService;
+    private static final long WRITER_KEEP_ALIVE_SECONDS = 60L;
+
+    private static final String ENTITY_TAG = "entity";
+
+    @Value("${secret.write.parallelism:8}")
+    private int writeParallelism;
+
+    private final SecretService secretService;
+
+    private final MetricService metricService;
+
+    private final Map<Class<?>, List<SecretField>> secretFieldsByClass = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor secretWriters;
 
     @Inject
-    public SecretAspectService(SecretService secretService) {
+    public SecretAspectService(SecretService secretService, MetricService metricService) {
         this.secretService = secretService;
+        this.metricService = metricService;
+    }
+
+    @PostConstruct
+    public void init() {
+        int parallelism = Math.max(1, writeParallelism);
+        secretWriters = new MDCCleanerThreadPoolExecutor(parallelism, parallelism, WRITER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat("secret-writer-%d").build(), new ThreadPoolExecutor.AbortPolicy());
+        secretWriters.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        secretWriters.shutdownNow();
     }
 
     public Object proceedSave(ProceedingJoinPoint proceedingJoinPoint) {
         Collection<Object> entities = convertFirstArgToCollection(proceedingJoinPoint);
-        for (Object entity : entities) {
-            try {
-                for (Field field : entity.getClass().getDeclaredFields()) {
-                    if (field.isAnnotationPresent(SecretValue.class)) {
-                        LOGGER.debug("Found SecretValue annotation on {}", field);
-                        field.setAccessible(true);
-                        Secret value = (Secret) field.get(entity);
-                        if (value != null && value.getRaw() != null && value.getSecret() == null) {
-                            String accountId = findAccountId(entity);
-                            String path = String.format("%s/%s/%s/%s-%s", accountId,
-                                    entity.getClass().getSimpleName().toLowerCase(), field.getName().toLowerCase(),
-                                    UUID.randomUUID().toString(), Long.toHexString(System.currentTimeMillis()));
-                            String secret = secretService.put(path, value.getRaw());
-                            LOGGER.debug("Field: '{}' is saved at path: {}", field.getName(), path);
-                            field.set(entity, new SecretProxy(secretService, secret));
-                        }
-                    }
-                }
-            } catch (IllegalArgumentException e) {
-                LOGGER.error("Given entity isn't instance of {}. Secret is not updated!",
-                        AccountIdAwareResource.class.getSimpleName(), e);
-                throw new SecretOperationException(e.getMessage());
-            } catch (Exception e) {
-                LOGGER.warn("Looks like something went wrong with Secret store. Secret is not updated!", e);
-                throw new SecretOperationException(e.getMessage());
-            }
+        try {
+            putSecrets(entities, this::findAccountId);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Given entity isn't instance of {}. Secret is not updated!",
+                    AccountIdAwareResource.class.getSimpleName(), e);
+            throw new SecretOperationException(e.getMessage());
+        } catch (Exception e) {
+            LOGGER.warn("Looks like something went wrong with Secret store. Secret is not updated!", e);
+            throw new SecretOperationException(e.getMessage());
         }
 
         Object proceed;
@@ -75,21 +108,55 @@ public class SecretAspectService {
         return proceed;
     }
 
+    /**
+     * Stores the raw values of the {@link SecretValue} fields of the entities in the secret store and replaces them with proxies of
+     * the stored secrets. The secrets of one save are written in parallel, at most {@code secret.write.parallelism} at a time.
+     *
+     * @param entities           the entities to be saved
+     * @param pathPrefixResolver resolves the first part of the secret paths of an entity, it may throw {@link IllegalArgumentException}
+     * @throws Exception if the prefix cannot be resolved or a secret cannot be written
+     */
+    public void putSecrets(Collection<Object> entities, Function<Object, String> pathPrefixResolver) throws Exception {
+        List<SecretWrite> secretWrites = new ArrayList<>();
+        for (Object entity : entities) {
+            String pathPrefix = null;
+            for (SecretField field : getSecretFields(entity.getClass())) {
+                Secret value = field.get(entity);
+                if (value != null && value.getRaw() != null && value.getSecret() == null) {
+                    pathPrefix = pathPrefix == null ? pathPrefixResolver.apply(entity) : pathPrefix;
+                    String path = String.format("%s/%s/%s/%s-%s", pathPrefix,
+                            entity.getClass().getSimpleName().toLowerCase(), field.getName().toLowerCase(),
+                            UUID.randomUUID().toString(), Long.toHexString(System.currentTimeMillis()));
+                    secretWrites.add(new SecretWrite(entity, field, path, value.getRaw()));
+                }
+            }
+        }
+        if (!secretWrites.isEmpty()) {
+            long start = System.currentTimeMillis();
+            List<String> secrets = writeSecrets(secretWrites);
+            for (int i = 0; i < secretWrites.size(); i++) {
+                SecretWrite secretWrite = secretWrites.get(i);
+                secretWrite.field.set(secretWrite.entity, new SecretProxy(secretService, secrets.get(i)));
+                LOGGER.debug("Field: '{}' is saved at path: {}", secretWrite.field.getName(), secretWrite.path);
+            }
+            String entityType = secretWrites.get(0).entity.getClass().getSimpleName();
+            metricService.recordTimerMetric(MetricType.SECRET_SAVE_WRITE, Duration.ofMillis(System.currentTimeMillis() - start),
+                    ENTITY_TAG, entityType);
+            metricService.recordDistributionSummary(MetricType.SECRET_SAVE_WRITE_COUNT, secretWrites.size(), ENTITY_TAG, entityType);
+        }
+    }
+
     public Object proceedDelete(ProceedingJoinPoint proceedingJoinPoint) {
         Collection<Object> entities = convertFirstArgToCollection(proceedingJoinPoint);
         for (Object entity : entities) {
             try {
-                for (Field field : entity.getClass().getDeclaredFields()) {
-                    if (field.isAnnotationPresent(SecretValue.class)) {
-                        LOGGER.debug("Found SecretValue annotation on {}", field);
-                        field.setAccessible(true);
-                        Secret path = (Secret) field.get(entity);
-                        if (path != null && path.getSecret() != null) {
-                            secretService.delete(path.getSecret());
-                            LOGGER.debug("Secret deleted at path: {}", path);
-                        } else {
-                            LOGGER.debug("Secret is null for field: {}.{}", field.getDeclaringClass(), field.getName());
-                        }
+                for (SecretField field : getSecretFields(entity.getClass())) {
+                    Secret path = field.get(entity);
+                    if (path != null && path.getSecret() != null) {
+                        secretService.delete(path.getSecret());
+                        LOGGER.debug("Secret deleted at path: {}", path);
+                    } else {
+                        LOGGER.debug("Secret is null for field: {}.{}", entity.getClass(), field.getName());
                     }
                 }
             } catch (IllegalArgumentException e) {
@@ -124,6 +191,49 @@ public class SecretAspectService {
         return arg instanceof Collection ? (Collection<Object>) arg : Collections.singleton(arg);
     }
 
+    private List<SecretField> getSecretFields(Class<?> entityClass) {
+        return secretFieldsByClass.computeIfAbsent(entityClass, this::collectSecretFields);
+    }
+
+    private List<SecretField> collectSecretFields(Class<?> entityClass) {
+        List<SecretField> fields = new ArrayList<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            if (field.isAnnotationPresent(SecretValue.class)) {
+                LOGGER.debug("Found SecretValue annotation on {}", field);
+                fields.add(new SecretField(field));
+            }
+        }
+        return fields;
+    }
+
+    private List<String> writeSecrets(List<SecretWrite> secretWrites) throws Exception {
+        if (secretWrites.size() == 1) {
+            return List.of(put(secretWrites.get(0)));
+        }
+        Map<String, String> mdcContextMap = MDCBuilder.getMdcContextMap();
+        List<Future<String>> futures = new ArrayList<>();
+        for (SecretWrite secretWrite : secretWrites) {
+            futures.add(secretWriters.submit(() -> {
+                MDCBuilder.buildMdcContextFromMap(mdcContextMap);
+                return put(secretWrite);
+            }));
+        }
+        List<String> secrets = new ArrayList<>();
+        try {
+            for (Future<String> future : futures) {
+                secrets.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        return secrets;
+    }
+
+    private String put(SecretWrite secretWrite) throws Exception {
+        return secretService.put(secretWrite.path, secretWrite.raw);
+    }
+
     private String findAccountId(Object entity) throws IllegalArgumentException {
         if (entity != null) {
             if (entity instanceof AccountIdAwareResource) {
@@ -140,4 +250,76 @@ public class SecretAspectService {
             throw new IllegalArgumentException("The entity is null");
         }
     }
+
+    /**
+     * Accessors of a {@link SecretValue} field, resolved once per entity class. Final fields cannot be written through a setter
+     * handle, so those are written through {@link Field#set(Object, Object)}.
+     */
+    private static class SecretField {
+
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+        private final String name;
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        SecretField(Field field) {
+            field.setAccessible(true);
+            name = field.getName();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                setter = !Modifier.isFinal(field.getModifiers())
+                        ? lookup.unreflectSetter(field).asType(SETTER_TYPE)
+                        : MethodHandles.publicLookup().findVirtual(Field.class, "set", SETTER_TYPE).bindTo(field);
+            } catch (ReflectiveOperationException e) {
+                throw new SecretOperationException("Cannot access the secret field " + field, e);
+            }
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Secret get(Object entity) {
+            try {
+                Object value = getter.invokeExact(entity);
+                return (Secret) value;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new SecretOperationException(t);
+            }
+        }
+
+        void set(Object entity, Secret value) {
+            try {
+                setter.invokeExact(entity, (Object) value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new SecretOperationException(t);
+            }
+        }
+    }
+
+    private static class SecretWrite {
+
+        private final Object entity;
+
+        private final SecretField field;
+
+        private final String path;
+
+        private final String raw;
+
+        SecretWrite(Object entity, SecretField field, String path, String raw) {
+            this.entity = entity;
+            this.field = field;
+            this.path = path;
+            this.raw = raw;
+        }
+    }
 }
@@ -44,6 +44,18 @@ abstract class AbstractVaultEngine<E> implements SecretEngine {
                 .orElse(null);
     }
 
+    /**
+     * Returns the key of the secret in the vault cache. The key is built from the engine and the path of the secret, so a change of a
+     * secret evicts only its own cache entry.
+     *
+     * @param secret the secret in the format returned by {@link #put(String, String)}
+     * @return the key of the secret in the vault cache
+     */
+    public String cacheKey(String secret) {
+        VaultSecret vaultSecret = convertToVaultSecret(secret);
+        return vaultSecret == null ? String.valueOf(secret) : cacheKey(vaultSecret.getEnginePath(), vaultSecret.getPath());
+    }
+
     VaultSecret convertToVaultSecret(String enginePath, String fullPath) {
         LOGGER.info("Converting secret enginePath: {}, fullPath: {}", enginePath, fullPath);
 
@@ -75,6 +87,10 @@ abstract class AbstractVaultEngine<E> implements SecretEngine {
         return null;
     }
 
+    protected String cacheKey(String enginePath, String path) {
+        return clazz().getSimpleName() + ':' + enginePath + '/' + path;
+    }
+
     protected Gson gson() {
         return gson;
     }
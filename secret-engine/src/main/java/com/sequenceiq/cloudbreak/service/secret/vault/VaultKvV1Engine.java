@@ -17,6 +17,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.support.VaultResponse;
 
+import com.sequenceiq.cloudbreak.service.secret.cache.VaultCache;
 import com.sequenceiq.cloudbreak.service.secret.conf.VaultConfig;
 import com.sequenceiq.cloudbreak.service.secret.model.SecretResponse;
 
@@ -40,6 +41,7 @@ public class VaultKvV1Engine extends AbstractVaultEngine<VaultKvV1Engine> {
     }
 
     @Override
+    @CacheEvict(cacheNames = VaultCache.NAME, key = "#root.target.pathCacheKey(#path)")
     public String put(String path, String value) {
         LOGGER.info("Storing secret to {}", path);
         VaultSecret secret = convertToVaultSecret(enginePath, appPath + path);
@@ -56,7 +58,7 @@ public class VaultKvV1Engine extends AbstractVaultEngine<VaultKvV1Engine> {
     }
 
     @Override
-    @Cacheable(cacheNames = "vaultCache")
+    @Cacheable(cacheNames = VaultCache.NAME, key = "#root.target.cacheKey(#secret)")
     public String get(@NotNull String secret) {
         return Optional.ofNullable(convertToVaultSecret(secret)).map(s -> {
             VaultResponse response = template.read(s.getPath());
@@ -65,7 +67,7 @@ public class VaultKvV1Engine extends AbstractVaultEngine<VaultKvV1Engine> {
     }
 
     @Override
-    @CacheEvict(cacheNames = "vaultCache", allEntries = true)
+    @CacheEvict(cacheNames = VaultCache.NAME, key = "#root.target.cacheKey(#secret)")
     public void delete(String secret) {
         Optional.ofNullable(convertToVaultSecret(secret)).ifPresent(s -> template.delete(s.getPath()));
     }
@@ -82,6 +84,10 @@ public class VaultKvV1Engine extends AbstractVaultEngine<VaultKvV1Engine> {
         return VaultKvV1Engine.class;
     }
 
+    public String pathCacheKey(String path) {
+        return cacheKey(enginePath, appPath + path);
+    }
+
     public List<String> listEntries(String path) {
         return Collections.EMPTY_LIST;
     }
@@ -17,6 +17,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.support.Versioned;
 
+import com.sequenceiq.cloudbreak.service.secret.cache.VaultCache;
 import com.sequenceiq.cloudbreak.service.secret.conf.VaultConfig;
 import com.sequenceiq.cloudbreak.service.secret.model.SecretResponse;
 
@@ -39,6 +40,7 @@ public class VaultKvV2Engine extends AbstractVaultEngine<VaultKvV2Engine> {
     }
 
     @Override
+    @CacheEvict(cacheNames = VaultCache.NAME, key = "#root.target.pathCacheKey(#path)")
     public String put(String path, String value) {
         LOGGER.info("Storing secret to {}", path);
         VaultSecret secret = convertToVaultSecret(enginePath, appPath + path);
@@ -55,7 +57,7 @@ public class VaultKvV2Engine extends AbstractVaultEngine<VaultKvV2Engine> {
     }
 
     @Override
-    @Cacheable(cacheNames = "vaultCache")
+    @Cacheable(cacheNames = VaultCache.NAME, key = "#root.target.cacheKey(#secret)")
     public String get(@NotNull String secret) {
         return Optional.ofNullable(convertToVaultSecret(secret)).map(s -> {
             Versioned<Map<String, Object>> response = template.opsForVersionedKeyValue(s.getEnginePath()).get(s.getPath());
@@ -64,7 +66,7 @@ public class VaultKvV2Engine extends AbstractVaultEngine<VaultKvV2Engine> {
     }
 
     @Override
-    @CacheEvict(cacheNames = "vaultCache", allEntries = true)
+    @CacheEvict(cacheNames = VaultCache.NAME, key = "#root.target.cacheKey(#secret)")
     public void delete(String secret) {
         Optional.ofNullable(convertToVaultSecret(secret)).ifPresent(s -> deleteAllVersionsOfSecret(s.getEnginePath(), s.getPath()));
     }
@@ -81,12 +83,16 @@ public class VaultKvV2Engine extends AbstractVaultEngine<VaultKvV2Engine> {
         return VaultKvV2Engine.class;
     }
 
+    public String pathCacheKey(String path) {
+        return cacheKey(enginePath, appPath + path);
+    }
+
     public List<String> listEntries(String path) {
         return template.opsForVersionedKeyValue(enginePath).list(appPath + path);
     }
 
     @Override
-    @CacheEvict(cacheNames = "vaultCache", allEntries = true)
+    @CacheEvict(cacheNames = VaultCache.NAME, key = "#root.target.pathCacheKey(#path)")
     public void cleanup(String path) {
         deleteAllVersionsOfSecret(enginePath, appPath + path);
     }
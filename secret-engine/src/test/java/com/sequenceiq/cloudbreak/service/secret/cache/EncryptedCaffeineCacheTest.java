@@ -0,0 +1,47 @@
+package com.sequenceiq.cloudbreak.service.secret.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.springframework.cache.Cache.ValueWrapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+public class EncryptedCaffeineCacheTest {
+
+    private final Cache<Object, Object> nativeCache = Caffeine.newBuilder().recordStats().build();
+
+    private final EncryptedCaffeineCache underTest = new EncryptedCaffeineCache("vaultCache", nativeCache);
+
+    @Test
+    public void testValueIsStoredEncrypted() {
+        underTest.put("key", "secretValue");
+
+        Object storedValue = nativeCache.getIfPresent("key");
+        assertFalse(storedValue instanceof String);
+        assertEquals("secretValue", underTest.get("key").get());
+    }
+
+    @Test
+    public void testNullValueIsCached() {
+        underTest.put("key", null);
+
+        ValueWrapper valueWrapper = underTest.get("key");
+        assertNull(valueWrapper.get());
+    }
+
+    @Test
+    public void testEvictRemovesOnlyTheKey() {
+        underTest.put("key", "secretValue");
+        underTest.put("otherKey", "otherValue");
+
+        underTest.evict("key");
+
+        assertNull(underTest.get("key"));
+        assertEquals("otherValue", underTest.get("otherKey").get());
+        assertEquals(1L, nativeCache.stats().missCount());
+    }
+}
@@ -1,9 +1,14 @@
 package com.sequenceiq.cloudbreak.service.secret.service;
 
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.reflect.SourceLocation;
@@ -17,11 +22,15 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.sequenceiq.cloudbreak.common.metrics.MetricService;
+import com.sequenceiq.cloudbreak.common.metrics.type.MetricType;
 import com.sequenceiq.cloudbreak.service.secret.SecretOperationException;
 import com.sequenceiq.cloudbreak.service.secret.SecretValue;
 import com.sequenceiq.cloudbreak.service.secret.domain.AccountIdAwareResource;
 import com.sequenceiq.cloudbreak.service.secret.domain.Secret;
+import com.sequenceiq.cloudbreak.service.secret.domain.SecretProxy;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SecretAspectServiceTest {
@@ -32,6 +41,9 @@ public class SecretAspectServiceTest {
     @Mock
     private SecretService secretService;
 
+    @Mock
+    private MetricService metricService;
+
     @InjectMocks
     private SecretAspectService underTest;
 
@@ -51,6 +63,29 @@ public class SecretAspectServiceTest {
         Assert.assertEquals(valueCaptor.getValue(), "super");
     }
 
+    @Test
+    public void testVaultPutWhenEntityHasMoreSecretsThenTheyAreWrittenInParallel() throws Exception {
+        ReflectionTestUtils.setField(underTest, "writeParallelism", 2);
+        underTest.init();
+        VaultMultiSecretTest vaultTest = new VaultMultiSecretTest("justice-league", "super", "strength");
+        VaultTestProceedingJoinPoint proceedingJoinPoint = new VaultTestProceedingJoinPoint(List.of(vaultTest));
+
+        when(secretService.put(anyString(), anyString())).thenAnswer(invocation -> "vault:" + invocation.getArgument(1));
+
+        try {
+            underTest.proceedSave(proceedingJoinPoint);
+        } finally {
+            underTest.shutdown();
+        }
+
+        verify(secretService).put(startsWith("justice-league/vaultmultisecrettest/power/"), eq("super"));
+        verify(secretService).put(startsWith("justice-league/vaultmultisecrettest/ability/"), eq("strength"));
+        Assert.assertTrue(vaultTest.getPower() instanceof SecretProxy);
+        Assert.assertEquals("vault:super", vaultTest.getPower().getSecret());
+        Assert.assertEquals("vault:strength", vaultTest.getAbility().getSecret());
+        verify(metricService).recordDistributionSummary(MetricType.SECRET_SAVE_WRITE_COUNT, 2, "entity", "VaultMultiSecretTest");
+    }
+
     @Test
     public void testVaultPutWhenAccountIdNotImplementedThenShouldThrowIllegalArgumentException() throws Exception {
         VaultWrongTest vaultTest = new VaultWrongTest("super");
@@ -186,6 +221,36 @@ public class SecretAspectServiceTest {
         }
     }
 
+    private static class VaultMultiSecretTest implements AccountIdAwareResource {
+
+        private final String accountId;
+
+        @SecretValue
+        private Secret power;
+
+        @SecretValue
+        private final Secret ability;
+
+        VaultMultiSecretTest(String accountId, String power, String ability) {
+            this.accountId = accountId;
+            this.power = new Secret(power);
+            this.ability = new Secret(ability);
+        }
+
+        public Secret getPower() {
+            return power;
+        }
+
+        public Secret getAbility() {
+            return ability;
+        }
+
+        @Override
+        public String getAccountId() {
+            return accountId;
+        }
+    }
+
     private static class VaultWrongTest {
 
         @SecretValue
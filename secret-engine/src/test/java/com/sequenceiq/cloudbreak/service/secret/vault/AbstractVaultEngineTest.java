@@ -82,4 +82,14 @@ public class AbstractVaultEngineTest {
 
         Assert.assertEquals("cb.foo.bar", result);
     }
+
+    @Test
+    public void testCacheKeyContainsEngineAndPath() {
+        Assert.assertEquals("VaultKvV1Engine:cb/cb/foo/bar/6f18609d-8d24-4a39-a283-154c1e8ab46a-f186", underTest.cacheKey(gson.toJson(secret)));
+    }
+
+    @Test
+    public void testCacheKeyOfNotSecret() {
+        Assert.assertEquals("secret", underTest.cacheKey("secret"));
+    }
 }
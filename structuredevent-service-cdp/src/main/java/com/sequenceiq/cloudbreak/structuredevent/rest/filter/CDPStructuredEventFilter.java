@@ -17,7 +17,6 @@ import javax.ws.rs.ext.WriterInterceptorContext;
 import org.apache.commons.lang3.BooleanUtils;
 import org.glassfish.jersey.message.MessageUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.Maps;
@@ -40,9 +39,6 @@ public class CDPStructuredEventFilter implements WriterInterceptor, ContainerReq
 
     private static final String RESPONSE_DETAILS = "RESPONSE_DETAIS";
 
-    @Value("${cdp.structuredevent.rest.contentlogging}")
-    private Boolean contentLogging;
-
     //Do not remove the @Autowired annotation Jersey is able to inject dependencies that are instantiated by Spring this way only!
     @Autowired
     private RestEventFilterRelatedObjectFactory restEventFilterRelatedObjectFactory;
@@ -74,7 +70,7 @@ public class CDPStructuredEventFilter implements WriterInterceptor, ContainerReq
         if (BooleanUtils.isTrue((Boolean) requestContext.getProperty(LOGGING_ENABLED_PROPERTY))) {
             RestResponseDetails restResponse = restEventFilterRelatedObjectFactory.createResponseDetails(responseContext);
             if (responseContext.hasEntity()) {
-                OutputStream stream = new LoggingStream(responseContext.getEntityStream(), contentLogging);
+                OutputStream stream = structuredEventFilterUtil.createLoggingStream(responseContext.getEntityStream());
                 responseContext.setEntityStream(stream);
                 requestContext.setProperty(LOGGINGSTREAM_PROPERTY, stream);
                 requestContext.setProperty(RESPONSE_DETAILS, restResponse);
@@ -82,7 +78,7 @@ public class CDPStructuredEventFilter implements WriterInterceptor, ContainerReq
                 Long requestTime = (Long) requestContext.getProperty(REQUEST_TIME);
                 RestRequestDetails restRequest = (RestRequestDetails) requestContext.getProperty(REQUEST_DETAILS);
                 Map<String, String> restParams = (Map<String, String>) requestContext.getProperty(REST_PARAMS);
-                structuredEventFilterUtil.sendStructuredEvent(restRequest, restResponse, restParams, requestTime, "");
+                structuredEventFilterUtil.sendStructuredEventAsync(restRequest, restResponse, restParams, requestTime, "");
             }
         }
     }
@@ -100,7 +96,7 @@ public class CDPStructuredEventFilter implements WriterInterceptor, ContainerReq
             if (restParams == null) {
                 restParams = new HashMap<>();
             }
-            structuredEventFilterUtil.sendStructuredEvent(restRequest, restResponse, restParams, requestTime, responseBody);
+            structuredEventFilterUtil.sendStructuredEventAsync(restRequest, restResponse, restParams, requestTime, responseBody);
         }
     }
 
@@ -6,26 +6,36 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 
+/**
+ * Passes the response entity through to the client and keeps at most the configured number of bytes of it for the structured event,
+ * so the size of the captured content does not depend on the size of the response.
+ */
 class LoggingStream extends FilterOutputStream {
 
     public static final int MAX_CONTENT_LENGTH = 65535;
 
+    public static final String TRUNCATION_MARKER = "...more...";
+
     private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
     private final Boolean contentLogging;
 
-    LoggingStream(OutputStream inner, Boolean contentLogging) {
+    private final int maxContentLength;
+
+    private boolean truncated;
+
+    LoggingStream(OutputStream inner, Boolean contentLogging, int maxContentLength) {
         super(inner);
         this.contentLogging = contentLogging;
+        this.maxContentLength = maxContentLength;
     }
 
     StringBuffer getStringBuilder(Charset charset) {
         StringBuffer b = new StringBuffer();
         if (contentLogging) {
-            byte[] entity = baos.toByteArray();
-            b.append(new String(entity, 0, Math.min(entity.length, MAX_CONTENT_LENGTH), charset));
-            if (entity.length > MAX_CONTENT_LENGTH) {
-                b.append("...more...");
+            b.append(baos.toString(charset));
+            if (truncated) {
+                b.append(TRUNCATION_MARKER);
             }
             b.append('\n');
         }
@@ -34,9 +44,27 @@ class LoggingStream extends FilterOutputStream {
 
     @Override
     public void write(int i) throws IOException {
-        if (contentLogging && baos.size() <= MAX_CONTENT_LENGTH) {
-            baos.write(i);
+        if (contentLogging && !truncated) {
+            if (baos.size() < maxContentLength) {
+                baos.write(i);
+            } else {
+                truncated = true;
+            }
         }
         out.write(i);
     }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        capture(b, off, len);
+        out.write(b, off, len);
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if (contentLogging && !truncated) {
+            int capturedLength = Math.min(len, maxContentLength - baos.size());
+            baos.write(b, off, capturedLength);
+            truncated = capturedLength < len;
+        }
+    }
 }
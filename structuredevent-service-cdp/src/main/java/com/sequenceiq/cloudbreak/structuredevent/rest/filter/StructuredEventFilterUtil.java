@@ -1,24 +1,28 @@
 package com.sequenceiq.cloudbreak.structuredevent.rest.filter;
 
-import static com.sequenceiq.cloudbreak.structuredevent.rest.filter.LoggingStream.MAX_CONTENT_LENGTH;
+import static com.sequenceiq.cloudbreak.structuredevent.rest.filter.LoggingStream.TRUNCATION_MARKER;
 import static com.sequenceiq.cloudbreak.structuredevent.rest.urlparser.CDPRestUrlParser.RESOURCE_CRN;
 import static com.sequenceiq.cloudbreak.structuredevent.rest.urlparser.CDPRestUrlParser.RESOURCE_NAME;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.Objects;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import com.sequenceiq.cloudbreak.concurrent.BoundedTaskExecutorFactory;
 import com.sequenceiq.cloudbreak.structuredevent.event.cdp.CDPOperationDetails;
 import com.sequenceiq.cloudbreak.structuredevent.event.cdp.CDPStructuredRestCallEvent;
 import com.sequenceiq.cloudbreak.structuredevent.event.rest.RestCallDetails;
@@ -35,6 +39,21 @@ public class StructuredEventFilterUtil {
     @Value("${cdp.structuredevent.rest.contentlogging}")
     private Boolean contentLogging;
 
+    @Value("${cdp.structuredevent.rest.maxcontentlength:65535}")
+    private int maxContentLength;
+
+    @Value("${cdp.structuredevent.rest.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${cdp.structuredevent.rest.async.poolsize:4}")
+    private int asyncPoolSize;
+
+    @Value("${cdp.structuredevent.rest.async.queuecapacity:1000}")
+    private int asyncQueueCapacity;
+
+    @Value("${cdp.structuredevent.rest.async.awaitterminationseconds:30}")
+    private int asyncAwaitTerminationSeconds;
+
     @Inject
     private CDPDefaultStructuredEventClient structuredEventClient;
 
@@ -47,19 +66,37 @@ public class StructuredEventFilterUtil {
     @Inject
     private RestEventFilterRelatedObjectFactory restEventFilterRelatedObjectFactory;
 
+    private ThreadPoolTaskExecutor eventExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (asyncEnabled) {
+            eventExecutor = BoundedTaskExecutorFactory.create("restStructuredEventExecutor-", asyncPoolSize, asyncQueueCapacity,
+                    asyncAwaitTerminationSeconds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (eventExecutor != null) {
+            eventExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Captures at most the configured number of bytes of the request entity. The stream is buffered only up to the captured size and
+     * is reset, so the resource still reads the whole entity.
+     */
     public InputStream logInboundEntity(StringBuilder content, InputStream stream, Charset charset) throws IOException {
         if (contentLogging) {
             if (!stream.markSupported()) {
-                stream = new BufferedInputStream(stream, MAX_CONTENT_LENGTH + 1);
+                stream = new BufferedInputStream(stream);
             }
-            stream.mark(MAX_CONTENT_LENGTH + 1);
-            byte[] entity = new byte[MAX_CONTENT_LENGTH + 1];
-            int entitySize = IOUtils.read(stream, entity);
-            if (entitySize != -1) {
-                content.append(new String(entity, 0, Math.min(entitySize, MAX_CONTENT_LENGTH), charset));
-                if (entitySize > MAX_CONTENT_LENGTH) {
-                    content.append("...more...");
-                }
+            stream.mark(maxContentLength + 1);
+            byte[] entity = stream.readNBytes(maxContentLength + 1);
+            content.append(new String(entity, 0, Math.min(entity.length, maxContentLength), charset));
+            if (entity.length > maxContentLength) {
+                content.append(TRUNCATION_MARKER);
             }
             content.append('\n');
             stream.reset();
@@ -67,8 +104,31 @@ public class StructuredEventFilterUtil {
         return stream;
     }
 
+    public OutputStream createLoggingStream(OutputStream entityStream) {
+        return new LoggingStream(entityStream, contentLogging, maxContentLength);
+    }
+
+    /**
+     * Builds and sends the structured event on the event executor, so the request thread is released as soon as the response is
+     * written. The duration is measured and the user of the request is captured on the calling thread.
+     */
+    public void sendStructuredEventAsync(RestRequestDetails restRequest, RestResponseDetails restResponse, Map<String, String> restParams,
+            Long requestTime, String responseBody) {
+        long duration = System.currentTimeMillis() - requestTime;
+        if (eventExecutor == null) {
+            sendStructuredEvent(restRequest, restResponse, restParams, requestTime, responseBody, duration);
+        } else {
+            eventExecutor.execute(() -> sendStructuredEvent(restRequest, restResponse, restParams, requestTime, responseBody, duration));
+        }
+    }
+
     public void sendStructuredEvent(RestRequestDetails restRequest, RestResponseDetails restResponse, Map<String, String> restParams, Long requestTime,
             String responseBody) {
+        sendStructuredEvent(restRequest, restResponse, restParams, requestTime, responseBody, System.currentTimeMillis() - requestTime);
+    }
+
+    private void sendStructuredEvent(RestRequestDetails restRequest, RestResponseDetails restResponse, Map<String, String> restParams, Long requestTime,
+            String responseBody, long duration) {
         boolean valid = checkRestParams(restParams);
         try {
             if (!valid) {
@@ -79,7 +139,7 @@ public class StructuredEventFilterUtil {
             RestCallDetails restCall = new RestCallDetails();
             restCall.setRestRequest(restRequest);
             restCall.setRestResponse(restResponse);
-            restCall.setDuration(System.currentTimeMillis() - requestTime);
+            restCall.setDuration(duration);
             Map<String, String> params = restCommonService.collectCrnAndNameIfPresent(restCall, null, restParams, RESOURCE_NAME, RESOURCE_CRN);
             dataCollector.fetchDataFromDbIfNeed(params);
             restParams.putAll(params);
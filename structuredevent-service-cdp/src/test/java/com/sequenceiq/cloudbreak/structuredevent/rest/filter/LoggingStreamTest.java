@@ -0,0 +1,49 @@
+package com.sequenceiq.cloudbreak.structuredevent.rest.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Test;
+
+class LoggingStreamTest {
+
+    @Test
+    void testWholeEntityIsWrittenButOnlyTheLimitIsCaptured() throws IOException {
+        String entity = RandomStringUtils.random(1000, true, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LoggingStream underTest = new LoggingStream(out, true, 100);
+
+        byte[] bytes = entity.getBytes(StandardCharsets.UTF_8);
+        underTest.write(bytes, 0, 400);
+        underTest.write(bytes, 400, 600);
+
+        assertEquals(entity, out.toString(StandardCharsets.UTF_8));
+        assertEquals(entity.substring(0, 100) + LoggingStream.TRUNCATION_MARKER + '\n', underTest.getStringBuilder(StandardCharsets.UTF_8).toString());
+    }
+
+    @Test
+    void testEntityOfTheLimitIsNotMarkedAsTruncated() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LoggingStream underTest = new LoggingStream(out, true, 3);
+
+        underTest.write('a');
+        underTest.write("bc".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("abc\n", underTest.getStringBuilder(StandardCharsets.UTF_8).toString());
+    }
+
+    @Test
+    void testNothingIsCapturedWithoutContentLogging() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LoggingStream underTest = new LoggingStream(out, false, 3);
+
+        underTest.write("abcdef".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("abcdef", out.toString(StandardCharsets.UTF_8));
+        assertEquals("", underTest.getStringBuilder(StandardCharsets.UTF_8).toString());
+    }
+}
@@ -2,6 +2,7 @@ package com.sequenceiq.cloudbreak.structuredevent.rest.filter;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 import java.io.ByteArrayInputStream;
@@ -49,6 +50,7 @@ public class StructuredEventFilterUtilTest {
     @BeforeEach
     public void setup() {
         ReflectionTestUtils.setField(underTest, "contentLogging", true);
+        ReflectionTestUtils.setField(underTest, "maxContentLength", LoggingStream.MAX_CONTENT_LENGTH);
     }
 
     @Test
@@ -130,4 +132,40 @@ public class StructuredEventFilterUtilTest {
 
         verify(structuredEventClient).sendStructuredEvent(any());
     }
+
+    @Test
+    public void testLogInboundEntityKeepsTheWholeEntityReadableWhenContentIsTruncated() throws IOException {
+        ReflectionTestUtils.setField(underTest, "maxContentLength", 10);
+        String entity = RandomStringUtils.random(100, true, true);
+        DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(entity.getBytes())) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+
+        StringBuilder sb = new StringBuilder();
+        InputStream actual = underTest.logInboundEntity(sb, inputStream, Charset.defaultCharset());
+
+        Assertions.assertEquals(entity.substring(0, 10) + "...more...\n", sb.toString());
+        Assertions.assertEquals(entity, new String(actual.readAllBytes()));
+    }
+
+    @Test
+    public void testSendStructuredEventAsyncSendsTheEventOnTheExecutor() {
+        ReflectionTestUtils.setField(underTest, "asyncEnabled", true);
+        ReflectionTestUtils.setField(underTest, "asyncPoolSize", 1);
+        ReflectionTestUtils.setField(underTest, "asyncQueueCapacity", 1);
+        underTest.init();
+        Map<String, String> restParams = new HashMap<>();
+        restParams.put("key", "val");
+
+        try {
+            underTest.sendStructuredEventAsync(new RestRequestDetails(), new RestResponseDetails(), restParams, 0L, null);
+
+            verify(structuredEventClient, timeout(1000L)).sendStructuredEvent(any());
+        } finally {
+            underTest.shutdown();
+        }
+    }
 }
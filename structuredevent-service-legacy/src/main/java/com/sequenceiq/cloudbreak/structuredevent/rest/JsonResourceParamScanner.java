@@ -0,0 +1,60 @@
+package com.sequenceiq.cloudbreak.structuredevent.rest;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Collects the values of the given fields from a JSON body with a single pass over its tokens, without building a tree of the body.
+ * A field of the root object wins over the first nested field of the same name, like the id of a resource over the ids of its
+ * components, or the id of the first element of a list response. The body may be truncated by the content logging, the values found
+ * before the end of the truncated body are returned.
+ */
+final class JsonResourceParamScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonResourceParamScanner.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final int ROOT_OBJECT_DEPTH = 1;
+
+    private JsonResourceParamScanner() {
+    }
+
+    static Map<String, String> scan(String body, Set<String> fields) {
+        Map<String, String> rootValues = new HashMap<>(fields.size());
+        Map<String, String> nestedValues = new HashMap<>(fields.size());
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            int depth = 0;
+            JsonToken token = parser.nextToken();
+            while (token != null && rootValues.size() < fields.size()) {
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                } else if (token == JsonToken.FIELD_NAME && fields.contains(parser.getCurrentName())) {
+                    String field = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if (token != null && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                        Map<String, String> values = depth == ROOT_OBJECT_DEPTH ? rootValues : nestedValues;
+                        values.putIfAbsent(field, parser.getText());
+                    }
+                    continue;
+                }
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("The body is not a complete JSON, using the values found before the error: {}", e.getMessage());
+        }
+        nestedValues.putAll(rootValues);
+        return nestedValues;
+    }
+}
@@ -15,11 +15,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.ws.rs.Path;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.ContainerRequestContext;
@@ -30,7 +29,6 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.ext.WriterInterceptor;
 import javax.ws.rs.ext.WriterInterceptorContext;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
@@ -42,14 +40,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.sequenceiq.cloudbreak.auth.security.authentication.AuthenticatedUserService;
-import com.sequenceiq.cloudbreak.common.json.JsonUtil;
 import com.sequenceiq.cloudbreak.common.user.CloudbreakUser;
+import com.sequenceiq.cloudbreak.concurrent.BoundedTaskExecutorFactory;
 import com.sequenceiq.cloudbreak.structuredevent.CloudbreakRestRequestThreadLocalService;
 import com.sequenceiq.cloudbreak.structuredevent.LegacyDefaultStructuredEventClient;
 import com.sequenceiq.cloudbreak.structuredevent.event.StructuredRestCallEvent;
@@ -80,7 +78,7 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
 
     private static final String RESPONSE_DETAILS = "RESPONSE_DETAIS";
 
-    private static final int MAX_CONTENT_LENGTH = 65535;
+    private static final String TRUNCATION_MARKER = "...more...";
 
     private static final String ID = "id";
 
@@ -90,16 +88,27 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
 
     private final Map<String, WorkspaceResourceRepository<?, ?>> pathRepositoryMap = new HashMap<>();
 
-    private final Pattern extractIdRestParamFromResponsePattern = Pattern.compile("\"" + ID + "\":([0-9]*)");
-
-    private final Pattern extractCrnRestParamFromResponsePattern = Pattern.compile("\"" + CRN + "\":\"([0-9a-zA-Z:-]*)\"");
-
     @Value("${info.app.version:}")
     private String cbVersion;
 
     @Value("${cb.structuredevent.rest.contentlogging}")
     private Boolean contentLogging;
 
+    @Value("${cb.structuredevent.rest.maxcontentlength:65535}")
+    private int maxContentLength;
+
+    @Value("${cb.structuredevent.rest.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${cb.structuredevent.rest.async.poolsize:4}")
+    private int asyncPoolSize;
+
+    @Value("${cb.structuredevent.rest.async.queuecapacity:1000}")
+    private int asyncQueueCapacity;
+
+    @Value("${cb.structuredevent.rest.async.awaitterminationseconds:30}")
+    private int asyncAwaitTerminationSeconds;
+
     //Do not remove the @Autowired annotation Jersey is able to inject dependencies that are instantiated by Spring this way only!
     @Autowired
     private NodeConfig nodeConfig;
@@ -132,7 +141,24 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
     @Autowired
     private WorkspaceAwareRepositoryLookupService repositoryLookupService;
 
+    private ThreadPoolTaskExecutor eventExecutor;
+
     @PostConstruct
+    public void init() {
+        initializePathRepositoryMap();
+        if (asyncEnabled) {
+            eventExecutor = BoundedTaskExecutorFactory.create("restStructuredEventExecutor-", asyncPoolSize, asyncQueueCapacity,
+                    asyncAwaitTerminationSeconds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (eventExecutor != null) {
+            eventExecutor.shutdown();
+        }
+    }
+
     public void initializePathRepositoryMap() {
         Map<String, Object> workspaceEntityTypes = listableBeanFactory.getBeansWithAnnotation(WorkspaceEntityType.class);
         for (Object workspaceEntityType : workspaceEntityTypes.values()) {
@@ -165,7 +191,7 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
         if (BooleanUtils.isTrue((Boolean) requestContext.getProperty(LOGGING_ENABLED_PROPERTY))) {
             RestResponseDetails restResponse = createResponseDetails(responseContext);
             if (responseContext.hasEntity()) {
-                OutputStream stream = new LoggingStream(responseContext.getEntityStream());
+                OutputStream stream = new LoggingStream(responseContext.getEntityStream(), maxContentLength);
                 responseContext.setEntityStream(stream);
                 requestContext.setProperty(LOGGINGSTREAM_PROPERTY, stream);
                 requestContext.setProperty(RESPONSE_DETAILS, restResponse);
@@ -191,11 +217,13 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
             if (restParams == null) {
                 restParams = new HashMap<>();
             }
-            extendRestParamsFromResponse(restParams, responseBody);
             sendStructuredEvent(restRequest, restResponse, restParams, requestTime, responseBody);
         }
     }
 
+    /**
+     * Collects the details that are bound to the request thread, then builds and sends the event on the event executor.
+     */
     private void sendStructuredEvent(RestRequestDetails restRequest, RestResponseDetails restResponse, Map<String, String> restParams, Long requestTime,
             String responseBody) {
         restResponse.setBody(responseBody);
@@ -203,14 +231,35 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
         restCall.setRestRequest(restRequest);
         restCall.setRestResponse(restResponse);
         restCall.setDuration(System.currentTimeMillis() - requestTime);
+        CloudbreakUser cloudbreakUser = getCloudbreakUser();
+        Long workspaceId = cloudbreakRestRequestThreadLocalService.getRequestedWorkspaceId();
+        if (eventExecutor == null) {
+            createAndSendStructuredEvent(restCall, restParams, requestTime, workspaceId, cloudbreakUser);
+        } else {
+            eventExecutor.execute(() -> createAndSendStructuredEvent(restCall, restParams, requestTime, workspaceId, cloudbreakUser));
+        }
+    }
+
+    private CloudbreakUser getCloudbreakUser() {
         CloudbreakUser cloudbreakUser = cloudbreakRestRequestThreadLocalService.getCloudbreakUser();
         if (cloudbreakUser == null) {
             String serviceId = authenticatedUserService.getServiceAccountId();
             cloudbreakUser = new CloudbreakUser(serviceId, serviceId, serviceId, serviceId, serviceId);
         }
-        Long workspaceId = cloudbreakRestRequestThreadLocalService.getRequestedWorkspaceId();
-        legacyStructuredEventClient.sendStructuredEvent(new StructuredRestCallEvent(createOperationDetails(restParams, requestTime, workspaceId, cloudbreakUser),
-                restCall));
+        return cloudbreakUser;
+    }
+
+    private void createAndSendStructuredEvent(RestCallDetails restCall, Map<String, String> restParams, Long requestTime, Long workspaceId,
+            CloudbreakUser cloudbreakUser) {
+        try {
+            if (StringUtils.isNotEmpty(restCall.getRestResponse().getBody())) {
+                extendRestParamsFromResponse(restParams, restCall.getRestResponse().getBody());
+            }
+            legacyStructuredEventClient.sendStructuredEvent(new StructuredRestCallEvent(createOperationDetails(restParams, requestTime, workspaceId,
+                    cloudbreakUser), restCall));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to send structured event: " + e.getMessage(), e);
+        }
     }
 
     private Map<String, String> getRequestUrlParameters(ContainerRequestContext requestContext) {
@@ -251,9 +300,8 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
             Set<String> resourcesParamsToCollect = new HashSet<>();
             decorateSetWithValueIfNecessary(resourceIdIsAbsentOrNull, ID, resourcesParamsToCollect);
             decorateSetWithValueIfNecessary(resourceCrnIsAbsentOrNull, CRN, resourcesParamsToCollect);
-            Map<String, String> resourceParams = extractResourceValueFromJson(responseBody, resourcesParamsToCollect);
-            extractResourceParamWithPattern(responseBody, resourceIdIsAbsentOrNull, resourceParams, ID, extractIdRestParamFromResponsePattern);
-            extractResourceParamWithPattern(responseBody, resourceCrnIsAbsentOrNull, resourceParams, CRN, extractCrnRestParamFromResponsePattern);
+            Map<String, String> resourceParams = JsonResourceParamScanner.scan(responseBody.toString(), resourcesParamsToCollect);
+            resourceParams.computeIfPresent(ID, (key, id) -> NumberUtils.isDigits(id) ? id : null);
             addExtractedValuesToParameters(params, resourceParams, ID, LegacyRestUrlParser.RESOURCE_ID);
             addExtractedValuesToParameters(params, resourceParams, CRN, LegacyRestUrlParser.RESOURCE_CRN);
         }
@@ -265,42 +313,12 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
         }
     }
 
-    private void extractResourceParamWithPattern(CharSequence responseBody, boolean resourceIdIsAbsentOrNull, Map<String, String> resourceParams, String key,
-            Pattern pattern) {
-        if (resourceIdIsAbsentOrNull && !resourceParams.containsKey(key)) {
-            Matcher matcher = pattern.matcher(responseBody);
-            if (matcher.find() && matcher.groupCount() >= 1) {
-                resourceParams.put(key, matcher.group(1));
-            }
-        }
-    }
-
     private void decorateSetWithValueIfNecessary(boolean decorate, String value, Set<String> set) {
         if (decorate) {
             set.add(value);
         }
     }
 
-    private Map<String, String> extractResourceValueFromJson(CharSequence responseBody, Set<String> pathes) {
-        Map<String, String> resourceMap = new HashMap<>(pathes.size());
-        try {
-            if (JsonUtil.isValid(responseBody.toString())) {
-                JsonNode jsonNode = JsonUtil.readTree(responseBody.toString());
-                for (String path : pathes) {
-                    JsonNode idNode = jsonNode.path(path);
-                    if (idNode.isMissingNode()) {
-                        LOGGER.debug("Response was a JSON but no " + path + " available");
-                    } else {
-                        resourceMap.put(path, idNode.asText());
-                    }
-                }
-            }
-        } catch (IOException e) {
-            LOGGER.error("Json parsing failed for ", e);
-        }
-        return resourceMap;
-    }
-
     private boolean isResourceIdIsAbsentOrNull(Map<String, String> params) {
         return isParameterAbsentOrNull(params, LegacyRestUrlParser.RESOURCE_ID);
     }
@@ -366,16 +384,13 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
     private InputStream logInboundEntity(StringBuilder content, InputStream stream, Charset charset) throws IOException {
         if (contentLogging) {
             if (!stream.markSupported()) {
-                stream = new BufferedInputStream(stream, MAX_CONTENT_LENGTH + 1);
+                stream = new BufferedInputStream(stream);
             }
-            stream.mark(MAX_CONTENT_LENGTH + 1);
-            byte[] entity = new byte[MAX_CONTENT_LENGTH + 1];
-            int entitySize = IOUtils.read(stream, entity);
-            if (entitySize != -1) {
-                content.append(new String(entity, 0, Math.min(entitySize, MAX_CONTENT_LENGTH), charset));
-                if (entitySize > MAX_CONTENT_LENGTH) {
-                    content.append("...more...");
-                }
+            stream.mark(maxContentLength + 1);
+            byte[] entity = stream.readNBytes(maxContentLength + 1);
+            content.append(new String(entity, 0, Math.min(entity.length, maxContentLength), charset));
+            if (entity.length > maxContentLength) {
+                content.append(TRUNCATION_MARKER);
             }
             content.append('\n');
             stream.reset();
@@ -386,17 +401,21 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
     private class LoggingStream extends FilterOutputStream {
         private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
-        LoggingStream(OutputStream inner) {
+        private final int maxLength;
+
+        private boolean truncated;
+
+        LoggingStream(OutputStream inner, int maxLength) {
             super(inner);
+            this.maxLength = maxLength;
         }
 
         StringBuffer getStringBuilder(Charset charset) {
             StringBuffer b = new StringBuffer();
             if (contentLogging) {
-                byte[] entity = baos.toByteArray();
-                b.append(new String(entity, 0, Math.min(entity.length, MAX_CONTENT_LENGTH), charset));
-                if (entity.length > MAX_CONTENT_LENGTH) {
-                    b.append("...more...");
+                b.append(baos.toString(charset));
+                if (truncated) {
+                    b.append(TRUNCATION_MARKER);
                 }
                 b.append('\n');
             }
@@ -405,10 +424,24 @@ public class LegacyStructuredEventFilter implements WriterInterceptor, Container
 
         @Override
         public void write(int i) throws IOException {
-            if (contentLogging && baos.size() <= MAX_CONTENT_LENGTH) {
-                baos.write(i);
+            if (contentLogging && !truncated) {
+                if (baos.size() < maxLength) {
+                    baos.write(i);
+                } else {
+                    truncated = true;
+                }
             }
             out.write(i);
         }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (contentLogging && !truncated) {
+                int capturedLength = Math.min(len, maxLength - baos.size());
+                baos.write(b, off, capturedLength);
+                truncated = capturedLength < len;
+            }
+            out.write(b, off, len);
+        }
     }
 }
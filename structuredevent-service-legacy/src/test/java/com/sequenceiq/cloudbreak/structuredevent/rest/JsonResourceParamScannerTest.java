@@ -0,0 +1,55 @@
+package com.sequenceiq.cloudbreak.structuredevent.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class JsonResourceParamScannerTest {
+
+    private static final Set<String> FIELDS = Set.of("id", "crn");
+
+    @Test
+    void testFieldsOfTheRootObjectWinOverNestedFields() {
+        String body = "{\"cluster\":{\"id\":2,\"crn\":\"crn:cluster\"},\"id\":1,\"name\":\"stack\",\"crn\":\"crn:stack\"}";
+
+        Map<String, String> result = JsonResourceParamScanner.scan(body, FIELDS);
+
+        assertEquals(Map.of("id", "1", "crn", "crn:stack"), result);
+    }
+
+    @Test
+    void testFirstNestedFieldIsUsedWhenTheRootObjectDoesNotContainIt() {
+        String body = "[{\"id\":5,\"crn\":\"crn:first\"},{\"id\":6,\"crn\":\"crn:second\"}]";
+
+        Map<String, String> result = JsonResourceParamScanner.scan(body, FIELDS);
+
+        assertEquals(Map.of("id", "5", "crn", "crn:first"), result);
+    }
+
+    @Test
+    void testValuesBeforeTheEndOfATruncatedBodyAreReturned() {
+        String body = "{\"id\":1,\"crn\":\"crn:stack\",\"instances\":[{\"name\":\"in...more...\n";
+
+        Map<String, String> result = JsonResourceParamScanner.scan(body, FIELDS);
+
+        assertEquals(Map.of("id", "1", "crn", "crn:stack"), result);
+    }
+
+    @Test
+    void testNullAndStructuredValuesAreSkipped() {
+        String body = "{\"id\":null,\"crn\":{\"value\":\"crn:stack\"},\"cluster\":{\"id\":3}}";
+
+        Map<String, String> result = JsonResourceParamScanner.scan(body, FIELDS);
+
+        assertEquals(Map.of("id", "3"), result);
+    }
+
+    @Test
+    void testNonJsonBodyReturnsNoValues() {
+        assertTrue(JsonResourceParamScanner.scan("Internal server error", FIELDS).isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package com.sequenceiq.cloudbreak.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of the values derived from a template text, like a compiled template, keyed by the SHA-256 hash of the text
+ * so the templates themselves are not kept as keys. The hit, miss and eviction statistics are published under the name of the cache.
+ *
+ * @param <V> the type of the cached values, which must not be modified by the callers
+ */
+public class TemplateContentCache<V> {
+
+    private static final long EXPIRE_AFTER_ACCESS_MINUTES = 60L;
+
+    private final Cache<String, V> cache;
+
+    public TemplateContentCache(String name, long maxEntries) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, name);
+    }
+
+    public V get(String content, ContentLoader<V> loader) throws IOException {
+        try {
+            return cache.get(hash(content), key -> {
+                try {
+                    return loader.load(content);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private String hash(String content) {
+        return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    @FunctionalInterface
+    public interface ContentLoader<V> {
+        V load(String content) throws IOException;
+    }
+}
@@ -20,8 +20,12 @@ public class TemplateProcessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TemplateProcessor.class);
 
+    private static final long MAX_COMPILED_TEMPLATES = 200L;
+
     private final Handlebars handlebars = HandlebarUtils.handlebars();
 
+    private final TemplateContentCache<Template> compiledTemplates = new TemplateContentCache<>("handlebarsCompiledTemplateCache", MAX_COMPILED_TEMPLATES);
+
     public String process(String sourceTemplate, TemplatePreparationObject source, Map<String, Object> customProperties) throws IOException {
         long started = System.currentTimeMillis();
         String generateBlueprint = generateTemplateWithParameters(sourceTemplate, source, customProperties);
@@ -42,16 +46,21 @@ public class TemplateProcessor {
 
     private String generateTemplateWithParameters(String sourceTemplate, TemplatePreparationObject source, Map<String, Object> customProperties)
             throws IOException {
-        Template template = handlebars.compileInline(sourceTemplate, HandlebarTemplate.DEFAULT_PREFIX.key(), HandlebarTemplate.DEFAULT_POSTFIX.key());
+        Template template = compile(sourceTemplate);
         return template.apply(prepareTemplateObject(source, customProperties));
     }
 
     private List<String> queryTemplateParameters(String sourceTemplate)
             throws IOException {
-        Template template = handlebars.compileInline(sourceTemplate, HandlebarTemplate.DEFAULT_PREFIX.key(), HandlebarTemplate.DEFAULT_POSTFIX.key());
+        Template template = compile(sourceTemplate);
         return template.collect(TagType.VAR);
     }
 
+    private Template compile(String sourceTemplate) throws IOException {
+        return compiledTemplates.get(sourceTemplate,
+                content -> handlebars.compileInline(content, HandlebarTemplate.DEFAULT_PREFIX.key(), HandlebarTemplate.DEFAULT_POSTFIX.key()));
+    }
+
     private Map<String, Object> prepareTemplateObject(TemplatePreparationObject source, Map<String, Object> customProperties) {
         source.getFixInputs().putAll(customProperties);
         return new TemplateModelContextBuilder()
@@ -0,0 +1,33 @@
+package com.sequenceiq.cloudbreak.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TemplateContentCacheTest {
+
+    private final TemplateContentCache<Object> underTest = new TemplateContentCache<>("testTemplateCache", 10L);
+
+    @Test
+    public void testValueIsLoadedOncePerContent() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+
+        Object first = underTest.get("template", content -> new Object[]{content, loads.incrementAndGet()});
+        Object second = underTest.get("template", content -> new Object[]{content, loads.incrementAndGet()});
+        underTest.get("other template", content -> new Object[]{content, loads.incrementAndGet()});
+
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoaderExceptionIsThrownAndNotCached() throws IOException {
+        underTest.get("invalid", content -> {
+            throw new IOException("invalid template");
+        });
+    }
+}